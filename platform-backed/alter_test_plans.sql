@@ -1,2 +0,0 @@
-ALTER TABLE test_plans
-ADD COLUMN created_by INT NULL;
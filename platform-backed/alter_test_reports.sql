@@ -1,2 +0,0 @@
-ALTER TABLE test_reports
-  ADD COLUMN case_id INT NULL AFTER plan_run_no;
@@ -0,0 +1,77 @@
+package com.automatedtest.platform.cluster;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The failure clusters of one plan run, bucketed by LSH band key. A new failure joins the
+ * most similar cluster among those it shares a band with, if the signatures agree at least
+ * minSimilarity; otherwise it starts a cluster of its own. Each cluster is matched through
+ * the signature of its first failure, its representative.
+ *
+ * @param <K> cluster key, the row id once stored
+ */
+public class FailureClusterIndex<K> {
+
+    /** Match of a signature against the index. */
+    public static final class Match<K> {
+        private final K key;
+        private final double similarity;
+
+        Match(K key, double similarity) {
+            this.key = key;
+            this.similarity = similarity;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    private final double minSimilarity;
+    private final Map<K, int[]> signatures = new HashMap<>();
+    private final Map<Long, List<K>> buckets = new HashMap<>();
+
+    public FailureClusterIndex(double minSimilarity) {
+        this.minSimilarity = minSimilarity;
+    }
+
+    public void add(K key, int[] signature) {
+        signatures.put(key, signature);
+        for (long bandKey : LogFingerprint.bandKeys(signature)) {
+            buckets.computeIfAbsent(bandKey, k -> new ArrayList<>(1)).add(key);
+        }
+    }
+
+    /**
+     * Best cluster for the signature, or null if none is similar enough.
+     */
+    public Match<K> match(int[] signature) {
+        K best = null;
+        double bestSimilarity = -1;
+        for (long bandKey : LogFingerprint.bandKeys(signature)) {
+            List<K> candidates = buckets.get(bandKey);
+            if (candidates == null) {
+                continue;
+            }
+            for (K candidate : candidates) {
+                double similarity = LogFingerprint.similarity(signature, signatures.get(candidate));
+                if (similarity > bestSimilarity) {
+                    best = candidate;
+                    bestSimilarity = similarity;
+                }
+            }
+        }
+        return best != null && bestSimilarity >= minSimilarity ? new Match<>(best, bestSimilarity) : null;
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+}
@@ -0,0 +1,199 @@
+package com.automatedtest.platform.cluster;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * MinHash signature of a failure log. The log is normalised first so that what differs
+ * between two occurrences of the same failure (ids, timestamps, durations, addresses) does
+ * not count, then cut into overlapping token triples; two signatures agree in about the
+ * share of positions that equals the Jaccard similarity of their triples.
+ */
+public final class LogFingerprint {
+
+    public static final int HASHES = 64;
+    /** LSH banding: 16 bands of 4 rows puts the candidate threshold near 50% similarity. */
+    public static final int BANDS = 16;
+    public static final int ROWS = HASHES / BANDS;
+
+    private static final int SHINGLE = 3;
+    /** Head and tail kept of long logs; the cause is usually at the start of the failure or at the end. */
+    private static final int KEEP_CHARS = 8192;
+
+    private static final Pattern UUID = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    private static final Pattern TIMESTAMP = Pattern.compile("\\d{4}-\\d{2}-\\d{2}[t ]\\d{2}:\\d{2}:\\d{2}(\\.\\d+)?(z|[+-]\\d{2}:?\\d{2})?");
+    private static final Pattern IP = Pattern.compile("\\b\\d{1,3}(\\.\\d{1,3}){3}(:\\d+)?\\b");
+    private static final Pattern HEX = Pattern.compile("\\b(0x)?[0-9a-f]{12,}\\b");
+    private static final Pattern NUMBER = Pattern.compile("\\d+(\\.\\d+)?");
+    private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{N}_<>]+");
+
+    private static final long[] SEEDS = new long[HASHES];
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < HASHES; i++) {
+            seed = mix(seed + i);
+            SEEDS[i] = seed;
+        }
+    }
+
+    private LogFingerprint() {
+    }
+
+    /**
+     * Tokens of the log with variable parts replaced by placeholders.
+     */
+    static List<String> tokens(String log) {
+        if (log == null || log.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String text = log.length() > 2 * KEEP_CHARS
+                ? log.substring(0, KEEP_CHARS) + "\n" + log.substring(log.length() - KEEP_CHARS)
+                : log;
+        text = text.toLowerCase(Locale.ROOT);
+        text = UUID.matcher(text).replaceAll(" <uuid> ");
+        text = TIMESTAMP.matcher(text).replaceAll(" <ts> ");
+        text = IP.matcher(text).replaceAll(" <ip> ");
+        text = HEX.matcher(text).replaceAll(" <hex> ");
+        text = NUMBER.matcher(text).replaceAll("<n>");
+        List<String> tokens = new ArrayList<>();
+        for (String token : SPLIT.split(text)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static Set<String> shingles(List<String> tokens) {
+        Set<String> shingles = new LinkedHashSet<>();
+        if (tokens.size() < SHINGLE) {
+            if (!tokens.isEmpty()) {
+                shingles.add(String.join(" ", tokens));
+            }
+            return shingles;
+        }
+        for (int i = 0; i + SHINGLE <= tokens.size(); i++) {
+            shingles.add(String.join(" ", tokens.subList(i, i + SHINGLE)));
+        }
+        return shingles;
+    }
+
+    /**
+     * MinHash signature of the log; all positions are Integer.MAX_VALUE for an empty log, so
+     * failures without logs end up together.
+     */
+    public static int[] signature(String log) {
+        int[] signature = new int[HASHES];
+        java.util.Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String shingle : shingles(tokens(log))) {
+            long base = fnv(shingle);
+            for (int i = 0; i < HASHES; i++) {
+                int h = (int) (mix(base ^ SEEDS[i]) >>> 33);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Share of positions where the signatures agree: an estimate of the Jaccard similarity.
+     */
+    public static double similarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (a[i] == b[i]) {
+                same++;
+            }
+        }
+        return (double) same / HASHES;
+    }
+
+    /**
+     * One key per band, each mixed with its band number; signatures sharing any key are
+     * candidates for the same cluster.
+     */
+    public static long[] bandKeys(int[] signature) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long h = band;
+            for (int row = 0; row < ROWS; row++) {
+                h = mix(h * 31 + signature[band * ROWS + row]);
+            }
+            keys[band] = h;
+        }
+        return keys;
+    }
+
+    public static byte[] toBytes(int[] signature) {
+        ByteBuffer buf = ByteBuffer.allocate(HASHES * 4);
+        for (int v : signature) {
+            buf.putInt(v);
+        }
+        return buf.array();
+    }
+
+    public static int[] fromBytes(byte[] bytes) {
+        int[] signature = new int[HASHES];
+        if (bytes == null || bytes.length != HASHES * 4) {
+            java.util.Arrays.fill(signature, Integer.MAX_VALUE);
+            return signature;
+        }
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        for (int i = 0; i < HASHES; i++) {
+            signature[i] = buf.getInt();
+        }
+        return signature;
+    }
+
+    /**
+     * First line that names an error, else the first non-blank line; at most maxChars.
+     */
+    public static String sample(String log, int maxChars) {
+        if (log == null) {
+            return null;
+        }
+        String first = null;
+        for (String line : log.split("\\R", 200)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (first == null) {
+                first = trimmed;
+            }
+            String lower = trimmed.toLowerCase(Locale.ROOT);
+            if (lower.contains("error") || lower.contains("exception") || lower.contains("fail") || lower.contains("失败")) {
+                first = trimmed;
+                break;
+            }
+        }
+        if (first == null) {
+            return null;
+        }
+        return first.length() > maxChars ? first.substring(0, maxChars) : first;
+    }
+
+    private static long fnv(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /** splitmix64 finaliser. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,138 @@
+package com.automatedtest.platform.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.service.IService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page read by keyset instead of by offset: rows are ordered by (time, id) descending and
+ * the next page starts strictly after the last row returned, so deep pages cost the same as
+ * the first one. The position is handed to clients as an opaque cursor.
+ *
+ * Extends {@link Page} so list endpoints keep returning the same shape in both modes; total
+ * is only filled in when the caller asked for a count.
+ */
+public class CursorPage<T> extends Page<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String SEPARATOR = "|";
+
+    /** Position after the last row of a page. */
+    public static final class Cursor {
+        private final LocalDateTime time;
+        private final long id;
+
+        public Cursor(LocalDateTime time, long id) {
+            this.time = time;
+            this.id = id;
+        }
+
+        public LocalDateTime getTime() {
+            return time;
+        }
+
+        public long getId() {
+            return id;
+        }
+    }
+
+    private String nextCursor;
+    private boolean hasMore;
+
+    public CursorPage(long size) {
+        super(1, size, false);
+    }
+
+    /**
+     * Cursor to pass back for the following page, null on the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public static String encode(LocalDateTime time, Number id) {
+        String raw = time + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a cursor produced by {@link #encode}; a blank cursor means the first page and
+     * gives null. Throws IllegalArgumentException for anything else that does not parse.
+     */
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf(SEPARATOR);
+            if (sep <= 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new Cursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    /**
+     * Orders the query by (timeColumn, id) descending, restricts it to rows after the cursor
+     * and fetches one row beyond the page so {@link #of} can tell whether more follow.
+     */
+    public static <E> QueryWrapper<E> seek(QueryWrapper<E> wrapper, String timeColumn, Cursor after, long size) {
+        if (after != null) {
+            wrapper.and(w -> w.lt(timeColumn, after.getTime())
+                    .or(o -> o.eq(timeColumn, after.getTime()).lt("id", after.getId())));
+        }
+        wrapper.orderByDesc(timeColumn).orderByDesc("id");
+        wrapper.last("LIMIT " + (size + 1));
+        return wrapper;
+    }
+
+    /**
+     * Reads one page of the service's rows matching the filter. The total is counted only
+     * when withTotal is set, since that is the one query a keyset page cannot make cheap.
+     */
+    public static <E> CursorPage<E> fetch(IService<E> service, QueryWrapper<E> filter, String timeColumn, String cursor,
+                                          long size, boolean withTotal,
+                                          Function<E, LocalDateTime> time, Function<E, ? extends Number> id) {
+        size = Math.max(1, size);
+        Cursor after = decode(cursor);
+        long total = withTotal ? service.count(filter) : 0L;
+        CursorPage<E> page = of(service.list(seek(filter, timeColumn, after, size)), size, time, id);
+        if (withTotal) {
+            page.setSearchCount(true);
+            page.setTotal(total);
+        }
+        return page;
+    }
+
+    /**
+     * Builds the page from rows fetched with a limit of size + 1.
+     */
+    public static <E> CursorPage<E> of(List<E> rows, long size, Function<E, LocalDateTime> time, Function<E, ? extends Number> id) {
+        CursorPage<E> page = new CursorPage<>(size);
+        List<E> records = rows != null ? rows : new ArrayList<>();
+        if (records.size() > size) {
+            records = new ArrayList<>(records.subList(0, (int) size));
+            page.hasMore = true;
+            E last = records.get(records.size() - 1);
+            page.nextCursor = encode(time.apply(last), id.apply(last));
+        }
+        page.setRecords(records);
+        return page;
+    }
+}
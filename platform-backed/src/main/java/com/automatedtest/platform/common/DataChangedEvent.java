@@ -0,0 +1,31 @@
+package com.automatedtest.platform.common;
+
+/**
+ * Published after reports, cases or plans of a project were written, so read-side caches
+ * can drop what they hold for it. A null project id means any project may be affected.
+ */
+public class DataChangedEvent {
+
+    public static final String REPORTS = "reports";
+    public static final String CASES = "cases";
+    public static final String PLANS = "plans";
+
+    private final String target;
+    private final Integer projectId;
+
+    public DataChangedEvent(String target, Integer projectId) {
+        this.target = target;
+        this.projectId = projectId;
+    }
+
+    /**
+     * reports, cases or plans, as in {@link com.automatedtest.platform.dto.BulkOperationRequest#getTarget()}.
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    public Integer getProjectId() {
+        return projectId;
+    }
+}
@@ -0,0 +1,71 @@
+package com.automatedtest.platform.common;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Background batches on a single-thread executor, remembered by the plan runs whose reports
+ * they carry. A finished run waits only for its own last batch, and batches run in order,
+ * so that covers all of its earlier ones too. A run with nothing queued does not wait at
+ * all, and no run waits for batches queued after its own.
+ */
+public class RunBatches {
+
+    private final Executor executor;
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> lastBatch = new ConcurrentHashMap<>();
+
+    public RunBatches(Executor executor) {
+        this.executor = executor;
+    }
+
+    public static String runKey(Integer planId, Integer runNo) {
+        return planId + "#" + runNo;
+    }
+
+    /**
+     * Queues a batch holding reports of the given runs (keys from {@link #runKey}); throws
+     * RejectedExecutionException when the executor no longer accepts work.
+     */
+    public void submit(Collection<String> runs, Runnable batch) {
+        CompletableFuture<Void> done = CompletableFuture.runAsync(batch, executor);
+        Set<String> keys = new LinkedHashSet<>(runs);
+        for (String key : keys) {
+            lastBatch.put(key, done);
+        }
+        done.whenComplete((v, e) -> {
+            for (String key : keys) {
+                lastBatch.remove(key, done);
+            }
+        });
+    }
+
+    /**
+     * Waits until the batches queued so far for the run have been processed, at most
+     * timeoutMs. Returns false if they were still running when the time was up.
+     */
+    public boolean await(Integer planId, Integer runNo, long timeoutMs) {
+        CompletableFuture<Void> done = lastBatch.get(runKey(planId, runNo));
+        if (done == null) {
+            return true;
+        }
+        try {
+            done.get(Math.max(0L, timeoutMs), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            // the batch failed and logged it; nothing more will come for this run
+            return true;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.automatedtest.platform.common;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Values computed on an executor and kept for a fixed time from the start of their
+ * computation. Concurrent misses of one key share a single computation, so a burst of
+ * identical requests costs one load; a failed computation is not kept.
+ *
+ * {@link #invalidate} drops entries early. A computation still running for a dropped key
+ * completes for the callers already waiting on it but is not handed to later ones.
+ */
+public class TtlCache<K, V> {
+
+    private static final class Entry<V> {
+        final CompletableFuture<V> value;
+        final long expiresAt;
+
+        Entry(CompletableFuture<V> value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long ttlMs;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    public TtlCache(long ttlMs) {
+        this(ttlMs, System::currentTimeMillis);
+    }
+
+    public TtlCache(long ttlMs, LongSupplier clock) {
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+    }
+
+    /**
+     * The cached value of the key, or one computed by loader on executor if there is none
+     * or it expired.
+     */
+    public CompletableFuture<V> get(K key, Supplier<V> loader, Executor executor) {
+        long now = clock.getAsLong();
+        Entry<V> cached = entries.get(key);
+        if (cached != null && now < cached.expiresAt) {
+            return cached.value;
+        }
+        Entry<V> mine = new Entry<>(new CompletableFuture<>(), now + ttlMs);
+        Entry<V> current = entries.compute(key, (k, old) -> old != null && now < old.expiresAt ? old : mine);
+        if (current != mine) {
+            return current.value;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    mine.value.complete(loader.get());
+                } catch (Throwable t) {
+                    entries.remove(key, mine);
+                    mine.value.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entries.remove(key, mine);
+            mine.value.completeExceptionally(e);
+        }
+        return mine.value;
+    }
+
+    public void invalidate(Predicate<? super K> filter) {
+        entries.keySet().removeIf(filter);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Drops expired entries; keys that are never asked for again would otherwise stay.
+     */
+    public void purgeExpired() {
+        long now = clock.getAsLong();
+        entries.values().removeIf(e -> now >= e.expiresAt);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,82 @@
+package com.automatedtest.platform.config;
+
+import com.automatedtest.platform.engine.AdmissionController;
+import com.automatedtest.platform.engine.CaseScheduler;
+import com.automatedtest.platform.storage.LocalLogBlobStore;
+import com.automatedtest.platform.storage.LocalReportArchiveStore;
+import com.automatedtest.platform.storage.LogBlobStore;
+import com.automatedtest.platform.storage.ReportArchiveStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class EngineConfig {
+
+    @Value("${engine.project_max_running:3}")
+    private Integer projectMaxRunning;
+
+    @Value("${engine.team_max_running:10}")
+    private Integer teamMaxRunning;
+
+    @Value("${engine.global_max_running:30}")
+    private Integer globalMaxRunning;
+
+    @Value("${engine.max_queue:200}")
+    private Integer maxQueue;
+
+    @Value("${engine.case_workers:16}")
+    private Integer caseWorkers;
+
+    @Value("${engine.case_aging_ms:30000}")
+    private Long caseAgingMs;
+
+    @Value("${engine.log_store_dir:./data/log-blobs}")
+    private String logStoreDir;
+
+    @Value("${engine.report_archive_dir:./data/report-archives}")
+    private String reportArchiveDir;
+
+    /**
+     * Plan runs execute on their own threads; the admission controller bounds how many are busy.
+     * The pool is deliberately not a bean so it does not replace Boot's @Async executor.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public AdmissionController admissionController() {
+        CustomizableThreadFactory factory = new CustomizableThreadFactory("plan-run-");
+        factory.setDaemon(true);
+        ExecutorService planRunExecutor = Executors.newCachedThreadPool(factory);
+        return new AdmissionController(projectMaxRunning, teamMaxRunning, globalMaxRunning, maxQueue, planRunExecutor);
+    }
+
+    /**
+     * Workers shared by the cases of all running plans, ordered by case priority.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public CaseScheduler caseScheduler() {
+        return new CaseScheduler(caseWorkers, caseAgingMs);
+    }
+
+    /**
+     * Report logs on the local filesystem; declare another LogBlobStore bean to store them elsewhere.
+     */
+    @Bean
+    @ConditionalOnMissingBean(LogBlobStore.class)
+    public LogBlobStore logBlobStore() {
+        return new LocalLogBlobStore(logStoreDir);
+    }
+
+    /**
+     * Archived reports on the local filesystem; declare another ReportArchiveStore bean to move them elsewhere.
+     */
+    @Bean
+    @ConditionalOnMissingBean(ReportArchiveStore.class)
+    public ReportArchiveStore reportArchiveStore() {
+        return new LocalReportArchiveStore(reportArchiveDir);
+    }
+}
@@ -0,0 +1,124 @@
+package com.automatedtest.platform.controller;
+
+import com.automatedtest.platform.common.Result;
+import com.automatedtest.platform.common.UserContext;
+import com.automatedtest.platform.entity.CaseFlakyStat;
+import com.automatedtest.platform.entity.Project;
+import com.automatedtest.platform.entity.TeamMember;
+import com.automatedtest.platform.entity.TestCase;
+import com.automatedtest.platform.entity.User;
+import com.automatedtest.platform.service.FlakyAnalyticsService;
+import com.automatedtest.platform.service.ProjectService;
+import com.automatedtest.platform.service.TeamMemberService;
+import com.automatedtest.platform.service.TestCaseService;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Report history analytics: flaky cases.
+ */
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    @Autowired
+    private FlakyAnalyticsService flakyAnalyticsService;
+
+    @Autowired
+    private TestCaseService testCaseService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private TeamMemberService teamMemberService;
+
+    @Value("${engine.flaky_min_runs:5}")
+    private Integer defaultMinRuns;
+
+    /**
+     * Null if the current user may read the project's analytics, else the error message.
+     */
+    private String denied(Integer projectId) {
+        User user = UserContext.getCurrentUser();
+        if (user == null) {
+            return "未登录";
+        }
+        Integer contextProjectId = UserContext.getCurrentProjectId();
+        if (contextProjectId != null && !contextProjectId.equals(projectId)) {
+            return "当前项目上下文不匹配";
+        }
+        if ("admin".equalsIgnoreCase(user.getRole())) {
+            return null;
+        }
+        Project project = projectService.getById(projectId);
+        if (project == null) {
+            return "项目不存在";
+        }
+        long count = teamMemberService.count(new QueryWrapper<TeamMember>()
+                .eq("team_id", project.getTeamId())
+                .eq("user_id", user.getId().intValue()));
+        return count > 0 ? null : "您没有该项目的访问权限";
+    }
+
+    /**
+     * The current project's flakiest cases, flakiest first.
+     */
+    @GetMapping("/flaky-cases")
+    public Result<List<CaseFlakyStat>> flakyCases(@RequestParam(required = false) Integer minRuns,
+                                                  @RequestParam(defaultValue = "50") Integer limit) {
+        Integer projectId = UserContext.getCurrentProjectId();
+        if (projectId == null) {
+            return Result.error("项目上下文无效");
+        }
+        String denied = denied(projectId);
+        if (denied != null) {
+            return Result.error(denied);
+        }
+        return Result.success(flakyAnalyticsService.listFlaky(projectId, minRuns != null ? minRuns : defaultMinRuns, limit));
+    }
+
+    @GetMapping("/flaky-cases/{caseId}")
+    public Result<CaseFlakyStat> flakyCase(@PathVariable Integer caseId) {
+        TestCase testCase = testCaseService.getById(caseId);
+        if (testCase == null) {
+            return Result.error("测试用例不存在");
+        }
+        String denied = denied(testCase.getProjectId());
+        if (denied != null) {
+            return Result.error(denied);
+        }
+        CaseFlakyStat stat = flakyAnalyticsService.get(caseId);
+        if (stat == null) {
+            return Result.error("该用例暂无统计数据");
+        }
+        stat.setCaseName(testCase.getName());
+        return Result.success(stat);
+    }
+
+    @PostMapping("/flaky-scan")
+    public Result<Map<String, Object>> startScan() {
+        User user = UserContext.getCurrentUser();
+        if (user == null || !"admin".equalsIgnoreCase(user.getRole())) {
+            return Result.error("仅管理员可执行统计扫描");
+        }
+        if (!flakyAnalyticsService.startScan()) {
+            return Result.error("统计扫描正在进行中");
+        }
+        return Result.success(flakyAnalyticsService.scanStatus());
+    }
+
+    @GetMapping("/flaky-scan")
+    public Result<Map<String, Object>> scanStatus() {
+        User user = UserContext.getCurrentUser();
+        if (user == null || !"admin".equalsIgnoreCase(user.getRole())) {
+            return Result.error("仅管理员可查看统计扫描");
+        }
+        return Result.success(flakyAnalyticsService.scanStatus());
+    }
+}
@@ -0,0 +1,62 @@
+package com.automatedtest.platform.controller;
+
+import com.automatedtest.platform.common.Result;
+import com.automatedtest.platform.common.UserContext;
+import com.automatedtest.platform.dto.BulkOperationRequest;
+import com.automatedtest.platform.entity.User;
+import com.automatedtest.platform.service.BulkOperationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk operations run as background jobs; the client polls the job for progress.
+ */
+@RestController
+@RequestMapping("/api/bulk-jobs")
+public class BulkOperationController {
+
+    @Autowired
+    private BulkOperationService bulkOperationService;
+
+    @PostMapping
+    public Result<Map<String, Object>> submit(@RequestBody BulkOperationRequest request) {
+        User user = UserContext.getCurrentUser();
+        if (user == null) {
+            return Result.error("未登录");
+        }
+        Integer projectId = UserContext.getCurrentProjectId();
+        if (projectId == null) {
+            return Result.error("项目上下文无效");
+        }
+        try {
+            return Result.success(bulkOperationService.submit(request, user, projectId));
+        } catch (IllegalArgumentException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    public Result<Map<String, Object>> status(@PathVariable String id) {
+        User user = UserContext.getCurrentUser();
+        if (user == null) {
+            return Result.error("未登录");
+        }
+        Map<String, Object> status = bulkOperationService.status(id, user);
+        if (status == null) {
+            return Result.error("批量任务不存在");
+        }
+        return Result.success(status);
+    }
+
+    @GetMapping
+    public Result<List<Map<String, Object>>> list() {
+        User user = UserContext.getCurrentUser();
+        if (user == null) {
+            return Result.error("未登录");
+        }
+        return Result.success(bulkOperationService.list(user));
+    }
+}
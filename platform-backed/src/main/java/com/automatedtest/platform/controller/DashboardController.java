@@ -3,15 +3,21 @@ package com.automatedtest.platform.controller;
 import com.automatedtest.platform.common.Result;
 import com.automatedtest.platform.common.UserContext;
 import com.automatedtest.platform.dto.DashboardStatsDTO;
+import com.automatedtest.platform.dto.RunningTaskDTO;
 import com.automatedtest.platform.entity.User;
 import com.automatedtest.platform.service.DashboardService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import org.springframework.web.bind.annotation.RequestHeader;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/dashboard")
 public class DashboardController {
@@ -23,6 +29,43 @@ public class DashboardController {
     public Result<DashboardStatsDTO> getStats(@RequestHeader(value = "X-Project-Id", required = false) String headerProjectId) {
         User user = UserContext.getCurrentUser();
         String username = user != null ? user.getUsername() : null;
+        Integer projectId = resolveProjectId(headerProjectId);
+        return Result.success(dashboardService.getDashboardStats(username, projectId));
+    }
+
+    /**
+     * Per-section load times and cache hit rates of the stats above.
+     */
+    @GetMapping("/metrics")
+    public Result<Map<String, Object>> getMetrics() {
+        User user = UserContext.getCurrentUser();
+        if (user == null || !"admin".equalsIgnoreCase(user.getRole())) {
+            return Result.error("无权限");
+        }
+        return Result.success(dashboardService.getMetrics());
+    }
+
+    /**
+     * Work currently executing, straight from memory; cheap enough to poll.
+     */
+    @GetMapping("/running")
+    public Result<List<RunningTaskDTO>> getRunning(@RequestHeader(value = "X-Project-Id", required = false) String headerProjectId) {
+        User user = UserContext.getCurrentUser();
+        String username = user != null ? user.getUsername() : null;
+        return Result.success(dashboardService.getRunningTasks(username, resolveProjectId(headerProjectId)));
+    }
+
+    /**
+     * Same list pushed as a "running" event whenever it changes.
+     */
+    @GetMapping(value = "/running/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRunning(@RequestHeader(value = "X-Project-Id", required = false) String headerProjectId) {
+        User user = UserContext.getCurrentUser();
+        String username = user != null ? user.getUsername() : null;
+        return dashboardService.streamRunningTasks(username, resolveProjectId(headerProjectId));
+    }
+
+    private Integer resolveProjectId(String headerProjectId) {
         Integer projectId = UserContext.getCurrentProjectId();
         
         // Fallback to header if context is empty
@@ -33,9 +76,6 @@ public class DashboardController {
                 // ignore
             }
         }
-        
-        System.out.println("Dashboard Stats Request - User: " + username + ", ProjectId: " + projectId + " (Header: " + headerProjectId + ")");
-        
-        return Result.success(dashboardService.getDashboardStats(username, projectId));
+        return projectId;
     }
 }
@@ -1,5 +1,6 @@
 package com.automatedtest.platform.controller;
 
+import com.automatedtest.platform.common.CursorPage;
 import com.automatedtest.platform.common.Result;
 import com.automatedtest.platform.entity.OperationLog;
 import com.automatedtest.platform.entity.User;
@@ -29,6 +30,8 @@ public class OperationLogController {
                                             @RequestParam(required = false) String username,
                                             @RequestParam(required = false) String module,
                                             @RequestParam(required = false) String operation,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Boolean count,
                                             HttpServletRequest request) {
         String currentUsername = request.getHeader("X-User-Name");
         if (currentUsername == null || currentUsername.trim().isEmpty()) {
@@ -63,9 +66,19 @@ public class OperationLogController {
             queryWrapper.like("operation", operation.trim());
         }
         
+        if (cursor != null) {
+            // Keyset mode: scrolling far back costs the same as the first page
+            try {
+                return Result.success(CursorPage.fetch(operationLogService, queryWrapper, "created_at", cursor, size,
+                        Boolean.TRUE.equals(count), OperationLog::getCreatedAt, OperationLog::getId));
+            } catch (IllegalArgumentException e) {
+                return Result.error("Invalid cursor");
+            }
+        }
+
         queryWrapper.orderByDesc("created_at");
         
-        Page<OperationLog> pageParam = new Page<>(page, size);
+        Page<OperationLog> pageParam = new Page<>(page, size, count == null || count);
         return Result.success(operationLogService.page(pageParam, queryWrapper));
     }
 }
@@ -6,8 +6,10 @@ import com.automatedtest.platform.common.UserContext;
 import com.automatedtest.platform.entity.Project;
 import com.automatedtest.platform.entity.TeamMember;
 import com.automatedtest.platform.entity.User;
+import com.automatedtest.platform.service.ProjectPurgeService;
 import com.automatedtest.platform.service.ProjectService;
 import com.automatedtest.platform.service.TeamMemberService;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -20,12 +22,17 @@ import java.util.ArrayList;
 import java.util.Map;
 import java.util.List;
 import java.util.Collections;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/projects")
 public class ProjectController {
 
+    /** Archived projects being purged are no longer listed. */
+    private static final Consumer<LambdaQueryWrapper<Project>> NOT_PURGING =
+            w -> w.isNull(Project::getStatus).or().ne(Project::getStatus, ProjectPurgeService.PURGING);
+
     @Autowired
     private ProjectService projectService;
 
@@ -56,6 +63,9 @@ public class ProjectController {
     @Autowired
     private com.automatedtest.platform.service.ProjectApiKeyService projectApiKeyService;
 
+    @Autowired
+    private ProjectPurgeService projectPurgeService;
+
     @GetMapping
     public Result<List<Project>> list() {
         User user = UserContext.getCurrentUser();
@@ -177,7 +187,7 @@ public class ProjectController {
             return Result.error("未登录");
         }
         if ("admin".equalsIgnoreCase(user.getRole())) {
-            List<Project> projects = projectService.lambdaQuery().eq(Project::getIsDeleted, true).list();
+            List<Project> projects = projectService.lambdaQuery().eq(Project::getIsDeleted, true).and(NOT_PURGING).list();
             projects.forEach(p -> p.setRole("admin"));
             return Result.success(projects);
         }
@@ -189,6 +199,7 @@ public class ProjectController {
         List<Project> projects = projectService.lambdaQuery()
                 .in(Project::getTeamId, teamIds)
                 .eq(Project::getIsDeleted, true)
+                .and(NOT_PURGING)
                 .list();
         for (Project project : projects) {
             memberships.stream()
@@ -207,6 +218,7 @@ public class ProjectController {
         
         Project project = projectService.getById(id);
         if (project == null) return Result.error("项目不存在");
+        if (ProjectPurgeService.PURGING.equals(project.getStatus())) return Result.error("项目正在彻底删除，无法恢复");
         
         // Only system admin or team admin can restore
         boolean isSystemAdmin = "admin".equalsIgnoreCase(user.getRole());
@@ -337,7 +349,7 @@ public class ProjectController {
     
     @DeleteMapping("/{id}/purge")
     @OperationAudit(module = "Project", operation = "Purge Project")
-    public Result<Boolean> purge(@PathVariable Integer id) {
+    public Result<Map<String, Object>> purge(@PathVariable Integer id) {
         Project existing = projectService.getById(id);
         if (existing == null) return Result.error("项目不存在");
         
@@ -348,16 +360,44 @@ public class ProjectController {
             return Result.error("只有系统管理员可以彻底删除项目");
         }
         
-        // Physically delete associated resources
-        testCaseService.remove(new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<com.automatedtest.platform.entity.TestCase>().eq("project_id", id));
-        testPlanService.remove(new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<com.automatedtest.platform.entity.TestPlan>().eq("project_id", id));
-        testReportService.remove(new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<com.automatedtest.platform.entity.TestReport>().eq("project_id", id));
-        projectVariableService.remove(new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<com.automatedtest.platform.entity.ProjectVariable>().eq("project_id", id));
-        environmentService.remove(new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<com.automatedtest.platform.entity.Environment>().eq("project_id", id));
-        projectApiKeyService.remove(new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<com.automatedtest.platform.entity.ProjectApiKey>().eq("project_id", id));
-        
-        // Finally, delete project itself
-        boolean ok = projectService.removeById(id);
-        return Result.success(ok);
+        // The project is hidden right away; its data is removed by a background job
+        return Result.success(projectPurgeService.start(id, user.getUsername()));
+    }
+
+    @GetMapping("/{id}/purge")
+    public Result<Map<String, Object>> purgeStatus(@PathVariable Integer id) {
+        User user = UserContext.getCurrentUser();
+        if (user == null || !"admin".equalsIgnoreCase(user.getRole())) {
+            return Result.error("只有系统管理员可以查看删除进度");
+        }
+        Map<String, Object> status = projectPurgeService.status(id);
+        if (status == null) return Result.error("该项目没有删除任务");
+        return Result.success(status);
+    }
+
+    @PostMapping("/{id}/purge/pause")
+    @OperationAudit(module = "Project", operation = "Pause Project Purge")
+    public Result<Map<String, Object>> pausePurge(@PathVariable Integer id) {
+        User user = UserContext.getCurrentUser();
+        if (user == null || !"admin".equalsIgnoreCase(user.getRole())) {
+            return Result.error("只有系统管理员可以暂停删除");
+        }
+        if (!projectPurgeService.pause(id)) {
+            return Result.error("删除任务未在进行中");
+        }
+        return Result.success(projectPurgeService.status(id));
+    }
+
+    @PostMapping("/{id}/purge/resume")
+    @OperationAudit(module = "Project", operation = "Resume Project Purge")
+    public Result<Map<String, Object>> resumePurge(@PathVariable Integer id) {
+        User user = UserContext.getCurrentUser();
+        if (user == null || !"admin".equalsIgnoreCase(user.getRole())) {
+            return Result.error("只有系统管理员可以继续删除");
+        }
+        if (!projectPurgeService.resume(id)) {
+            return Result.error("没有可继续的删除任务");
+        }
+        return Result.success(projectPurgeService.status(id));
     }
 }
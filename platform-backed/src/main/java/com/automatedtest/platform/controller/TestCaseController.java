@@ -2,14 +2,18 @@ package com.automatedtest.platform.controller;
 
 import com.automatedtest.platform.common.UserContext;
 import com.automatedtest.platform.annotation.OperationAudit;
+import com.automatedtest.platform.common.CursorPage;
 import com.automatedtest.platform.common.Result;
+import com.automatedtest.platform.common.DataChangedEvent;
 import com.automatedtest.platform.dto.ApiTestRequestDTO;
 import com.automatedtest.platform.dto.ApiTestResponseDTO;
+import com.automatedtest.platform.dto.BulkOperationRequest;
 import com.automatedtest.platform.dto.CaseExecuteResultDTO;
 import com.automatedtest.platform.entity.Project;
 import com.automatedtest.platform.entity.TeamMember;
 import com.automatedtest.platform.entity.TestCase;
 import com.automatedtest.platform.entity.User;
+import com.automatedtest.platform.service.BulkOperationService;
 import com.automatedtest.platform.service.ProjectService;
 import com.automatedtest.platform.service.TeamMemberService;
 import com.automatedtest.platform.service.TestCaseService;
@@ -18,6 +22,7 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -39,6 +44,24 @@ public class TestCaseController {
     @Autowired
     private com.automatedtest.platform.service.UserApiKeyService userApiKeyService;
 
+    @Autowired
+    private BulkOperationService bulkOperationService;
+
+    @Autowired
+    private com.automatedtest.platform.service.DurationRegressionService durationRegressionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private com.automatedtest.platform.dto.CaseRunContext batchContext(String executedBy, Long userId, java.util.Map<String, String> vars) {
+        com.automatedtest.platform.dto.CaseRunContext context = new com.automatedtest.platform.dto.CaseRunContext();
+        context.setExecutedBy(executedBy);
+        context.setUserId(userId);
+        context.setTriggerType("manual");
+        context.setExtraVars(vars);
+        return context;
+    }
+
     private boolean hasProjectAccess(Integer projectId, Long userId) {
         if (projectId == null || userId == null) return false;
         Project project = projectService.getById(projectId);
@@ -84,8 +107,10 @@ public class TestCaseController {
              return Result.error("Unauthorized execution");
         }
 
-        String executedBy = user != null ? user.getUsername() : "Project API Key";
-        return Result.success(testCaseService.executeCaseById(id, executedBy));
+        com.automatedtest.platform.dto.CaseRunContext context = new com.automatedtest.platform.dto.CaseRunContext();
+        context.setExecutedBy(user != null ? user.getUsername() : "Project API Key");
+        context.setUserId(user != null ? user.getId() : null);
+        return Result.success(testCaseService.executeCase(id, context));
     }
 
     @PostMapping("/{id}/stop")
@@ -114,6 +139,7 @@ public class TestCaseController {
         }
         User user = UserContext.getCurrentUser();
         String executedBy = user != null ? user.getUsername() : "Project API Key";
+        Long userId = user != null ? user.getId() : null;
         java.util.List<java.util.Map<String, String>> rows = new java.util.ArrayList<>();
         if (req != null && req.getRows() != null && !req.getRows().isEmpty()) {
             rows.addAll(req.getRows());
@@ -143,7 +169,7 @@ public class TestCaseController {
             int idx = 0;
             for (java.util.Map<String, String> vars : rows) {
                 idx++;
-                com.automatedtest.platform.dto.CaseExecuteResultDTO r = testCaseService.executeCaseByIdWithVariables(id, executedBy, vars);
+                com.automatedtest.platform.dto.CaseExecuteResultDTO r = testCaseService.executeCase(id, batchContext(executedBy, userId, vars));
                 boolean ok = r != null && "success".equalsIgnoreCase(r.getStatus());
                 if (ok) successCount++; else failedCount++;
                 if (r != null && r.getDurationMs() != null) totalDuration += r.getDurationMs();
@@ -161,7 +187,7 @@ public class TestCaseController {
                 final int idx = i + 1;
                 final java.util.Map<String, String> vars = rows.get(i);
                 futures.add(pool.submit(() -> {
-                    com.automatedtest.platform.dto.CaseExecuteResultDTO r = testCaseService.executeCaseByIdWithVariables(id, executedBy, vars);
+                    com.automatedtest.platform.dto.CaseExecuteResultDTO r = testCaseService.executeCase(id, batchContext(executedBy, userId, vars));
                     java.util.Map<String, Object> item = new java.util.HashMap<>();
                     item.put("index", idx);
                     item.put("status", r != null ? r.getStatus() : "failed");
@@ -196,7 +222,9 @@ public class TestCaseController {
                                         @RequestParam(defaultValue = "10") Integer size,
                                         @RequestParam(required = false) String keyword,
                                         @RequestParam(required = false) String type,
-                                        @RequestParam(required = false, defaultValue = "updated") String sort) {
+                                        @RequestParam(required = false, defaultValue = "updated") String sort,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Boolean count) {
         Integer projectId = UserContext.getCurrentProjectId();
         
         if (projectId == null) {
@@ -205,7 +233,6 @@ public class TestCaseController {
 
         // Access is already verified by Interceptor if projectId is set via header
         
-        Page<TestCase> pageParam = new Page<>(page, size);
         com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<TestCase> qw = new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<>();
         
         qw.eq("project_id", projectId);
@@ -216,11 +243,21 @@ public class TestCaseController {
         if (type != null && !type.trim().isEmpty()) {
             qw.eq("type", type.trim());
         }
-        if ("created".equalsIgnoreCase(sort)) {
+        boolean byCreated = "created".equalsIgnoreCase(sort);
+        if (cursor != null) {
+            try {
+                return Result.success(CursorPage.fetch(testCaseService, qw, byCreated ? "created_at" : "updated_at", cursor, size,
+                        Boolean.TRUE.equals(count), byCreated ? TestCase::getCreatedAt : TestCase::getUpdatedAt, TestCase::getId));
+            } catch (IllegalArgumentException e) {
+                return Result.error("无效的分页游标");
+            }
+        }
+        if (byCreated) {
             qw.orderByDesc("created_at");
         } else {
             qw.orderByDesc("updated_at");
         }
+        Page<TestCase> pageParam = new Page<>(page, size, count == null || count);
         return Result.success(testCaseService.page(pageParam, qw));
     }
 
@@ -245,6 +282,22 @@ public class TestCaseController {
         return Result.success(testCase);
     }
 
+    /**
+     * Rolling execution time baseline of the case and its latest duration regressions.
+     */
+    @GetMapping("/{id}/duration-stats")
+    public Result<java.util.Map<String, Object>> durationStats(@PathVariable Integer id) {
+        Result<TestCase> found = getById(id);
+        if (found.getData() == null) {
+            return Result.error(found.getMessage());
+        }
+        java.util.Map<String, Object> stats = durationRegressionService.caseStats(id);
+        java.util.Map<String, Object> data = new java.util.HashMap<>();
+        data.put("stats", stats);
+        data.put("regressions", durationRegressionService.list(found.getData().getProjectId(), id, 20));
+        return Result.success(data);
+    }
+
     @PostMapping
     @OperationAudit(module = "TestCase", operation = "Create Test Case")
     public Result<Integer> save(@RequestBody TestCase testCase) {
@@ -269,6 +322,7 @@ public class TestCaseController {
         
         boolean success = testCaseService.save(testCase);
         if (success) {
+            eventPublisher.publishEvent(new DataChangedEvent(DataChangedEvent.CASES, projectId));
             return Result.success(testCase.getId());
         }
         return Result.error("Save failed");
@@ -296,7 +350,9 @@ public class TestCaseController {
         testCase.setProjectId(existing.getProjectId()); 
         testCase.setCreatedBy(existing.getCreatedBy());
         
-        return Result.success(testCaseService.updateById(testCase));
+        boolean updated = testCaseService.updateById(testCase);
+        eventPublisher.publishEvent(new DataChangedEvent(DataChangedEvent.CASES, existing.getProjectId()));
+        return Result.success(updated);
     }
 
     @DeleteMapping("/{id}")
@@ -318,15 +374,14 @@ public class TestCaseController {
                  return Result.error("您没有该项目的访问权限");
              }
         }
-        return Result.success(testCaseService.removeById(id));
+        boolean removed = testCaseService.removeById(id);
+        eventPublisher.publishEvent(new DataChangedEvent(DataChangedEvent.CASES, existing.getProjectId()));
+        return Result.success(removed);
     }
 
     @DeleteMapping
     @OperationAudit(module = "TestCase", operation = "Delete All Test Cases")
     public Result<Boolean> deleteAll() {
-        com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<TestCase> qw =
-                new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<>();
-        
         User user = UserContext.getCurrentUser();
         if (user == null || user.getId() == null) {
              return Result.error("未登录");
@@ -337,9 +392,11 @@ public class TestCaseController {
              return Result.error("Project ID is required");
         }
         
-        qw.eq("created_by", user.getId());
-        qw.eq("project_id", contextProjectId);
-        
-        return Result.success(testCaseService.remove(qw));
+        // The caller's own cases of the project, removed in bounded chunks
+        BulkOperationRequest request = new BulkOperationRequest();
+        request.setTarget("cases");
+        request.setAction("delete");
+        request.setMine(true);
+        return Result.success(bulkOperationService.execute(request, user, contextProjectId) > 0);
     }
 }
@@ -1,26 +1,37 @@
 package com.automatedtest.platform.controller;
 
 import com.automatedtest.platform.annotation.OperationAudit;
+import com.automatedtest.platform.common.DataChangedEvent;
 import com.automatedtest.platform.common.Result;
-import com.automatedtest.platform.dto.CaseExecuteResultDTO;
+import com.automatedtest.platform.dto.BulkOperationRequest;
+import com.automatedtest.platform.dto.PlanRunCommand;
+import com.automatedtest.platform.dto.PlanRunHandle;
+import com.automatedtest.platform.engine.RunEventBus;
+import com.automatedtest.platform.entity.PlanRun;
 import com.automatedtest.platform.entity.TestPlan;
 import com.automatedtest.platform.entity.TestReport;
 import com.automatedtest.platform.entity.TestCase;
 import com.automatedtest.platform.entity.User;
 import com.automatedtest.platform.entity.Project;
 import com.automatedtest.platform.entity.TeamMember;
+import com.automatedtest.platform.service.BulkOperationService;
+import com.automatedtest.platform.service.PlanExecutionService;
+import com.automatedtest.platform.service.PlanRunService;
 import com.automatedtest.platform.service.ProjectService;
+import com.automatedtest.platform.service.ReportRollupService;
 import com.automatedtest.platform.service.TeamMemberService;
 import com.automatedtest.platform.service.TestCaseService;
 import com.automatedtest.platform.service.TestPlanService;
 import com.automatedtest.platform.service.TestReportService;
-import com.automatedtest.platform.service.UserService;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
-import java.time.LocalDateTime;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import javax.servlet.http.HttpServletRequest;
@@ -28,8 +39,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
-import com.automatedtest.platform.util.WebhookClient;
-
 @RestController
 @RequestMapping("/api/plans")
 public class TestPlanController {
@@ -45,9 +54,6 @@ public class TestPlanController {
 
     @Autowired
     private com.automatedtest.platform.service.ProjectApiKeyService projectApiKeyService;
-
-    @Autowired
-    private UserService userService;
     
     @Autowired
     private ProjectService projectService;
@@ -56,16 +62,26 @@ public class TestPlanController {
     private TeamMemberService teamMemberService;
 
     @Autowired
-    private WebhookClient webhookClient;
-    
+    private PlanRunService planRunService;
+
     @Autowired
-    private com.automatedtest.platform.service.ProjectVariableService projectVariableService;
-    
-    @org.springframework.beans.factory.annotation.Value("${engine.max_concurrency:8}")
-    private Integer maxConcurrency;
-    
-    @org.springframework.beans.factory.annotation.Value("${engine.project_max_running:3}")
-    private Integer projectMaxRunning;
+    private ReportRollupService reportRollupService;
+
+    @Autowired
+    private PlanExecutionService planExecutionService;
+
+    @Autowired
+    private BulkOperationService bulkOperationService;
+
+    @Autowired
+    private RunEventBus runEventBus;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /** How long a synchronous execute waits for the run before answering with its handle instead. */
+    @Value("${engine.sync_execute_wait_ms:600000}")
+    private Long syncExecuteWaitMs;
     
     private boolean hasProjectAccess(Integer projectId, Long userId) {
         if (projectId == null || userId == null) return false;
@@ -137,7 +153,9 @@ public class TestPlanController {
                 testPlan.setCreatedBy(user.getId().intValue());
             }
         }
-        return Result.success(testPlanService.save(testPlan));
+        boolean saved = testPlanService.save(testPlan);
+        eventPublisher.publishEvent(new DataChangedEvent(DataChangedEvent.PLANS, testPlan.getProjectId()));
+        return Result.success(saved);
     }
 
     @PutMapping
@@ -159,28 +177,27 @@ public class TestPlanController {
             testPlan.setCreatedBy(existing.getCreatedBy());
         }
         testPlan.setProjectId(existing.getProjectId());
-        return Result.success(testPlanService.updateById(testPlan));
+        boolean updated = testPlanService.updateById(testPlan);
+        eventPublisher.publishEvent(new DataChangedEvent(DataChangedEvent.PLANS, existing.getProjectId()));
+        return Result.success(updated);
     }
 
+    /**
+     * Runs the plan. With async=true, answers at once with the run handle (runId, status,
+     * queuePosition...). Otherwise waits for the run and answers with its summary; a run still
+     * going after engine.sync_execute_wait_ms is answered with its handle and pending=true
+     * instead, to be followed through /runs/{runId} or /runs/{runId}/events.
+     */
     @PostMapping("/{id}/execute")
     @OperationAudit(module = "TestPlan", operation = "Execute Test Plan")
     public Result<Map<String, Object>> execute(@PathVariable Integer id,
-                                               @RequestParam(name = "concurrency", defaultValue = "1") Integer concurrency) {
-        com.fasterxml.jackson.databind.ObjectMapper objectMapper = new com.fasterxml.jackson.databind.ObjectMapper();
+                                               @RequestParam(name = "concurrency", defaultValue = "1") Integer concurrency,
+                                               @RequestParam(name = "async", defaultValue = "false") Boolean async) {
         TestPlan plan = testPlanService.getById(id);
         if (plan == null) {
             return Result.error("测试计划不存在");
         }
         
-        // Project running limit
-        long running = testPlanService.lambdaQuery()
-                .eq(com.automatedtest.platform.entity.TestPlan::getProjectId, plan.getProjectId())
-                .eq(com.automatedtest.platform.entity.TestPlan::getLastRunStatus, "Running")
-                .count();
-        if (projectMaxRunning != null && projectMaxRunning > 0 && running >= projectMaxRunning) {
-            return Result.error("同项目运行中的计划过多，请稍后重试");
-        }
-        
         Integer contextProjectId = com.automatedtest.platform.common.UserContext.getCurrentProjectId();
         if (contextProjectId != null && !plan.getProjectId().equals(contextProjectId)) {
              return Result.error("当前项目上下文不匹配");
@@ -262,375 +279,128 @@ public class TestPlanController {
             }
         }
 
-        Integer maxRunNo = testReportService.lambdaQuery()
-                .eq(TestReport::getPlanId, id)
-                .select(TestReport::getPlanRunNo)
-                .list()
-                .stream()
-                .map(TestReport::getPlanRunNo)
-                .filter(n -> n != null && n > 0)
-                .max(Integer::compareTo)
-                .orElse(0);
-        int currentRunNo = maxRunNo + 1;
-        
-        // Update status to Running
-        plan.setLastRunStatus("Running");
-        plan.setLastRunTime(LocalDateTime.now());
-        testPlanService.updateById(plan);
+        PlanRunCommand command = new PlanRunCommand();
+        command.setPlan(plan);
+        command.setCaseIds(caseIds);
+        command.setCaseMap(caseMap);
+        command.setContainsUiCase(containsUiCase);
+        command.setConcurrency(concurrency);
+        command.setExecutedBy(executedBy);
+        command.setUserId(userId);
+        command.setTriggerType(triggerType);
 
-        int total = 0;
-        int successCount = 0;
-        int failedCount = 0;
-        long totalDuration = 0L;
-        List<Map<String, Object>> items = new ArrayList<>();
-        Integer planSummaryReportId = null;
-        if (concurrency == null || concurrency < 1) concurrency = 1;
-        if (maxConcurrency != null && maxConcurrency > 0 && concurrency > maxConcurrency) {
-            concurrency = maxConcurrency;
-        }
-        java.util.Map<String, String> planVars = new java.util.HashMap<>();
-        final String executedByFinal = executedBy;
-        
-        boolean hasFlow = plan.getFlowJson() != null && !plan.getFlowJson().trim().isEmpty();
-        if (hasFlow) concurrency = 1;
-        if (!hasFlow && containsUiCase) {
-            if (concurrency > 2) concurrency = 2;
+        // Runs wait in the admission queue when the project or team is at its limit
+        PlanRunHandle handle = planExecutionService.submit(command);
+        if (handle == null) {
+            return Result.error("排队中的计划过多，请稍后重试");
+        }
+        if (Boolean.TRUE.equals(async)) {
+            return Result.success(toHandleMap(handle));
+        }
+        try {
+            return Result.success(handle.getCompletion().get(Math.max(1L, syncExecuteWaitMs), java.util.concurrent.TimeUnit.MILLISECONDS));
+        } catch (java.util.concurrent.TimeoutException e) {
+            // still running: hand back the run so the caller can poll it or follow its events
+            Map<String, Object> pending = toHandleMap(handle);
+            pending.put("pending", true);
+            return Result.success(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.error("计划执行被中断");
+        } catch (java.util.concurrent.ExecutionException e) {
+            return Result.error("计划执行失败: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
         }
-        if (hasFlow) {
-            try {
-                java.util.List<?> steps = objectMapper.readValue(plan.getFlowJson(), java.util.List.class);
-                if (steps != null) {
-                    for (Object st : steps) {
-                        if (!(st instanceof java.util.Map)) continue;
-                        @SuppressWarnings("unchecked")
-                        java.util.Map<String, Object> step = (java.util.Map<String, Object>) st;
-                        String type = step.get("type") != null ? step.get("type").toString() : "RUN";
-                        if ("RUN".equalsIgnoreCase(type)) {
-                            Object cidObj = step.get("caseId");
-                            if (cidObj == null) continue;
-                            Integer cid;
-                            try { cid = Integer.parseInt(cidObj.toString()); } catch (Exception e) { continue; }
-                            total++;
-                            java.util.Map<String, String> extra = new java.util.HashMap<>(planVars);
-                            Object varsObj = step.get("vars");
-                            if (varsObj instanceof java.util.Map) {
-                                @SuppressWarnings("unchecked")
-                                java.util.Map<String, Object> vmap = (java.util.Map<String, Object>) varsObj;
-                                for (java.util.Map.Entry<String, Object> en : vmap.entrySet()) {
-                                    String vv = en.getValue() != null ? en.getValue().toString() : "";
-                                    for (java.util.Map.Entry<String, String> pv : planVars.entrySet()) {
-                                        String k = pv.getKey();
-                                        String val = pv.getValue();
-                                        vv = vv.replace("{{" + k + "}}", val != null ? val : "");
-                                    }
-                                    extra.put(en.getKey(), vv);
-                                }
-                            }
-                            CaseExecuteResultDTO result = testCaseService.executeCaseById(cid, executedByFinal, id, currentRunNo, triggerType);
-                            boolean success = result != null && "success".equalsIgnoreCase(result.getStatus());
-                            if (success) successCount++; else failedCount++;
-                            if (result != null && result.getDurationMs() != null) totalDuration += result.getDurationMs();
-                            java.util.Map<String, Object> item = new java.util.HashMap<>();
-                            item.put("caseId", cid);
-                            item.put("status", result != null ? result.getStatus() : "failed");
-                            item.put("durationMs", result != null ? result.getDurationMs() : null);
-                            item.put("reportId", result != null ? result.getReportId() : null);
-                            TestCase tc = caseMap.get(cid);
-                            if (tc != null) {
-                                item.put("caseName", tc.getName());
-                                item.put("caseType", tc.getType());
-                            }
-                            items.add(item);
-                            if (planSummaryReportId == null && result != null && result.getReportId() != null) {
-                                planSummaryReportId = result.getReportId();
-                            }
-                            if (result != null && result.getExtractedVars() != null && !result.getExtractedVars().isEmpty()) {
-                                planVars.putAll(result.getExtractedVars());
-                            }
-                        } else if ("IF".equalsIgnoreCase(type)) {
-                            Object condObj = step.get("condition");
-                            boolean ok = false;
-                            if (condObj instanceof java.util.Map) {
-                                @SuppressWarnings("unchecked")
-                                java.util.Map<String, Object> cm = (java.util.Map<String, Object>) condObj;
-                                Object vne = cm.get("varNotEmpty");
-                                if (vne != null) {
-                                    String key = vne.toString();
-                                    String val = planVars.get(key);
-                                    ok = val != null && !val.trim().isEmpty();
-                                }
-                            }
-                            java.util.List<?> branch = null;
-                            if (ok) {
-                                Object thenObj = step.get("then");
-                                if (thenObj instanceof java.util.List) branch = (java.util.List<?>) thenObj;
-                            } else {
-                                Object elseObj = step.get("else");
-                                if (elseObj instanceof java.util.List) branch = (java.util.List<?>) elseObj;
-                            }
-                            if (branch != null) {
-                                for (Object sub : branch) {
-                                    if (!(sub instanceof java.util.Map)) continue;
-                                    @SuppressWarnings("unchecked")
-                                    java.util.Map<String, Object> subStep = (java.util.Map<String, Object>) sub;
-                                    java.util.List<Object> only = new java.util.ArrayList<>();
-                                    only.add(subStep);
-                                    String one = objectMapper.writeValueAsString(only);
-                                    plan.setFlowJson(one);
-                                    return execute(id, 1);
-                                }
-                            }
-                        } else if ("FOREACH".equalsIgnoreCase(type)) {
-                            String listVar = step.get("listVar") != null ? step.get("listVar").toString() : null;
-                            String itemVar = step.get("itemVar") != null ? step.get("itemVar").toString() : "item";
-                            Object stepObj = step.get("step");
-                            if (listVar != null && stepObj instanceof java.util.Map) {
-                                String raw = planVars.get(listVar);
-                                java.util.List<?> arr = null;
-                                try { arr = objectMapper.readValue(raw, java.util.List.class); } catch (Exception ignored) {}
-                                if (arr == null) {
-                                    if (raw != null && !raw.isEmpty()) arr = java.util.Arrays.asList(raw.split(","));
-                                }
-                                if (arr != null) {
-                                    for (Object elem : arr) {
-                                        java.util.Map<String, Object> subStep = (java.util.Map<String, Object>) stepObj;
-                                        Object cidObj = subStep.get("caseId");
-                                        if (cidObj == null) continue;
-                                        Integer cid;
-                                        try { cid = Integer.parseInt(cidObj.toString()); } catch (Exception e) { continue; }
-                                        total++;
-                                        java.util.Map<String, String> extra = new java.util.HashMap<>(planVars);
-                                        String v = elem != null ? elem.toString() : "";
-                                        extra.put(itemVar, v);
-                                        Object varsObj = subStep.get("vars");
-                                        if (varsObj instanceof java.util.Map) {
-                                            @SuppressWarnings("unchecked")
-                                            java.util.Map<String, Object> vmap = (java.util.Map<String, Object>) varsObj;
-                                            for (java.util.Map.Entry<String, Object> en : vmap.entrySet()) {
-                                                String vv = en.getValue() != null ? en.getValue().toString() : "";
-                                                for (java.util.Map.Entry<String, String> pv : extra.entrySet()) {
-                                                    String k = pv.getKey();
-                                                    String val = pv.getValue();
-                                                    vv = vv.replace("{{" + k + "}}", val != null ? val : "");
-                                                }
-                                                extra.put(en.getKey(), vv);
-                                            }
-                                        }
-                                        CaseExecuteResultDTO result = testCaseService.executeCaseById(cid, executedByFinal, id, currentRunNo, triggerType);
-                                        boolean success = result != null && "success".equalsIgnoreCase(result.getStatus());
-                                        if (success) successCount++; else failedCount++;
-                                        if (result != null && result.getDurationMs() != null) totalDuration += result.getDurationMs();
-                                        java.util.Map<String, Object> item = new java.util.HashMap<>();
-                                        item.put("caseId", cid);
-                                        item.put("status", result != null ? result.getStatus() : "failed");
-                                        item.put("durationMs", result != null ? result.getDurationMs() : null);
-                                        item.put("reportId", result != null ? result.getReportId() : null);
-                                        TestCase tc = caseMap.get(cid);
-                                        if (tc != null) {
-                                            item.put("caseName", tc.getName());
-                                            item.put("caseType", tc.getType());
-                                        }
-                                        items.add(item);
-                                        if (planSummaryReportId == null && result != null && result.getReportId() != null) {
-                                            planSummaryReportId = result.getReportId();
-                                        }
-                                        if (result != null && result.getExtractedVars() != null && !result.getExtractedVars().isEmpty()) {
-                                            planVars.putAll(result.getExtractedVars());
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            } catch (Exception ignored) {}
+    }
+
+    @GetMapping("/runs/{runId}")
+    public Result<Map<String, Object>> getRun(@PathVariable Long runId) {
+        PlanRunHandle handle = planExecutionService.getHandle(runId);
+        if (handle == null) {
+            return Result.error("执行记录不存在");
         }
-        if (!hasFlow && concurrency == 1) {
-            for (Integer caseId : caseIds) {
-                if (caseId == null || caseId <= 0) {
-                    continue;
-                }
-                total++;
-                CaseExecuteResultDTO result = testCaseService.executeCaseById(caseId, executedByFinal, id, currentRunNo, triggerType);
-                boolean success = result != null && "success".equalsIgnoreCase(result.getStatus());
-                if (success) {
-                    successCount++;
-                } else {
-                    failedCount++;
-                }
-                if (result != null && result.getDurationMs() != null) {
-                    totalDuration += result.getDurationMs();
-                }
-                Map<String, Object> item = new HashMap<>();
-                item.put("caseId", caseId);
-                item.put("status", result != null ? result.getStatus() : "failed");
-                item.put("durationMs", result != null ? result.getDurationMs() : null);
-                item.put("reportId", result != null ? result.getReportId() : null);
-                if (planSummaryReportId == null && result != null && result.getReportId() != null) {
-                    planSummaryReportId = result.getReportId();
-                }
-                TestCase tc = caseMap.get(caseId);
-                if (tc != null) {
-                    item.put("caseName", tc.getName());
-                    item.put("caseType", tc.getType());
-                }
-                items.add(item);
-                if (result != null && result.getExtractedVars() != null && !result.getExtractedVars().isEmpty()) {
-                    planVars.putAll(result.getExtractedVars());
-                }
-            }
-        } else if (!hasFlow) {
-            java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(Math.max(1, concurrency));
-            java.util.List<java.util.concurrent.Future<Map<String, Object>>> futures = new java.util.ArrayList<>();
-            for (Integer caseId : caseIds) {
-                if (caseId == null || caseId <= 0) continue;
-                total++;
-                final Integer cid = caseId;
-                final String tt = triggerType;
-                futures.add(pool.submit(() -> {
-                    CaseExecuteResultDTO result = testCaseService.executeCaseById(cid, executedByFinal, id, currentRunNo, tt);
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("caseId", cid);
-                    item.put("status", result != null ? result.getStatus() : "failed");
-                    item.put("durationMs", result != null ? result.getDurationMs() : null);
-                    item.put("reportId", result != null ? result.getReportId() : null);
-                    TestCase tc = caseMap.get(cid);
-                    if (tc != null) {
-                        item.put("caseName", tc.getName());
-                        item.put("caseType", tc.getType());
-                    }
-                    synchronized (planVars) {
-                        if (result != null && result.getExtractedVars() != null && !result.getExtractedVars().isEmpty()) {
-                            planVars.putAll(result.getExtractedVars());
-                        }
-                    }
-                    return item;
-                }));
-            }
-            pool.shutdown();
-            for (java.util.concurrent.Future<Map<String, Object>> f : futures) {
-                try {
-                    Map<String, Object> item = f.get();
-                    items.add(item);
-                    Object status = item.get("status");
-                    if ("success".equals(String.valueOf(status))) {
-                        successCount++;
-                    } else {
-                        failedCount++;
-                    }
-                    Object dur = item.get("durationMs");
-                    if (dur instanceof Number) {
-                        totalDuration += ((Number) dur).longValue();
-                    }
-                    Object rid = item.get("reportId");
-                    if (planSummaryReportId == null && rid instanceof Number) {
-                        planSummaryReportId = ((Number) rid).intValue();
-                    }
-                } catch (Exception ignored) {}
+        TestPlan plan = testPlanService.getById(handle.getPlanId());
+        if (plan == null) {
+            return Result.error("测试计划不存在");
+        }
+        Integer contextProjectId = com.automatedtest.platform.common.UserContext.getCurrentProjectId();
+        if (contextProjectId != null && !plan.getProjectId().equals(contextProjectId)) {
+            return Result.error("当前项目上下文不匹配");
+        }
+        User user = com.automatedtest.platform.common.UserContext.getCurrentUser();
+        if (user != null && !"admin".equalsIgnoreCase(user.getRole())) {
+            if (!hasProjectAccess(plan.getProjectId(), user.getId())) {
+                return Result.error("您没有该项目的访问权限");
             }
         }
+        return Result.success(toHandleMap(handle));
+    }
 
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("planId", plan.getId());
-        summary.put("planName", plan.getName());
-        summary.put("environment", plan.getEnvironment());
-        if (executedBy != null && !executedBy.trim().isEmpty()) {
-            summary.put("executedBy", executedBy.trim());
-        } else {
-            summary.put("executedBy", "System");
-        }
-        summary.put("concurrencyApplied", concurrency);
-        summary.put("uiCasePresent", containsUiCase);
-        summary.put("total", total);
-        summary.put("success", successCount);
-        summary.put("failed", failedCount);
-        summary.put("durationMs", totalDuration);
-        summary.put("avgDurationMs", total > 0 ? totalDuration / total : 0L);
-        summary.put("items", items);
-        if (planSummaryReportId != null) {
-            summary.put("planSummaryReportId", planSummaryReportId);
+    /**
+     * Live progress of a run as Server-Sent Events. Reconnecting clients send Last-Event-ID
+     * (or lastEventId) and receive the events they missed.
+     */
+    @GetMapping(value = "/runs/{runId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter runEvents(@PathVariable Long runId,
+                                @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                @RequestParam(required = false) Long lastEventId) {
+        PlanRunHandle handle = planExecutionService.getHandle(runId);
+        if (handle == null) {
+            return singleEvent("error", Result.error("执行记录不存在"));
+        }
+        TestPlan plan = testPlanService.getById(handle.getPlanId());
+        if (plan == null) {
+            return singleEvent("error", Result.error("测试计划不存在"));
         }
-
-        double passRate = total > 0 ? (successCount * 100.0) / total : 0.0;
-        double coverage = 0.0;
-        long totalProjectCases = testCaseService.count(new QueryWrapper<TestCase>().eq("project_id", plan.getProjectId()));
-        if (totalProjectCases > 0) {
-            java.util.Set<Integer> uniq = new java.util.HashSet<>(caseIds);
-            coverage = (uniq.size() * 100.0) / totalProjectCases;
-        }
-        double stability = 0.0;
-        java.util.List<TestReport> recent = testReportService.list(new QueryWrapper<TestReport>()
-                .eq("project_id", plan.getProjectId())
-                .orderByDesc("executed_at")
-                .last("LIMIT 50"));
-        if (recent != null && !recent.isEmpty()) {
-            long ok = recent.stream().filter(r -> "success".equalsIgnoreCase(String.valueOf(r.getStatus()))).count();
-            stability = (ok * 100.0) / recent.size();
-        }
-        double healthScore = passRate * 0.6 + coverage * 0.2 + stability * 0.2;
-        summary.put("passRate", passRate);
-        summary.put("coverage", coverage);
-        summary.put("stability", stability);
-        summary.put("healthScore", healthScore);
-        projectService.updateHealthScoreAsync(plan.getProjectId(), healthScore);
-        com.automatedtest.platform.entity.ProjectVariable hs = projectVariableService.getOne(new QueryWrapper<com.automatedtest.platform.entity.ProjectVariable>()
-                .eq("project_id", plan.getProjectId())
-                .eq("key_name", "health_score"));
-        if (hs == null) {
-            hs = new com.automatedtest.platform.entity.ProjectVariable();
-            hs.setProjectId(plan.getProjectId());
-            hs.setKeyName("health_score");
-            hs.setValue(String.format(java.util.Locale.ROOT, "%.2f", healthScore));
-            projectVariableService.save(hs);
-        } else {
-            hs.setValue(String.format(java.util.Locale.ROOT, "%.2f", healthScore));
-            projectVariableService.updateById(hs);
+        Integer contextProjectId = com.automatedtest.platform.common.UserContext.getCurrentProjectId();
+        if (contextProjectId != null && !plan.getProjectId().equals(contextProjectId)) {
+            return singleEvent("error", Result.error("当前项目上下文不匹配"));
         }
-
-        Long ownerId = null;
-        if (plan.getCreatedBy() != null) {
-            ownerId = Long.valueOf(plan.getCreatedBy());
-        } else if (userId != null) {
-            ownerId = userId;
+        User user = com.automatedtest.platform.common.UserContext.getCurrentUser();
+        if (user != null && !"admin".equalsIgnoreCase(user.getRole())) {
+            if (!hasProjectAccess(plan.getProjectId(), user.getId())) {
+                return singleEvent("error", Result.error("您没有该项目的访问权限"));
+            }
         }
-
-        if (ownerId != null) {
-            User owner = userService.getById(ownerId);
-            if (owner != null && Boolean.TRUE.equals(owner.getEnableNotification()) && owner.getNotificationWebhook() != null) {
-                String rule = owner.getNotificationRule() != null ? owner.getNotificationRule().trim() : "on_fail";
-                Integer threshold = owner.getNotificationThreshold() != null ? owner.getNotificationThreshold() : 80;
-                boolean shouldNotify = false;
-                if ("all".equalsIgnoreCase(rule)) {
-                    shouldNotify = true;
-                } else if ("low_pass_rate".equalsIgnoreCase(rule)) {
-                    shouldNotify = passRate < threshold;
-                } else {
-                    shouldNotify = failedCount > 0;
-                }
-
-                if (shouldNotify) {
-                    String title = "测试计划通知: " + plan.getName();
-                    String content = String.format(
-                        "**执行人**: %s\n\n**环境**: %s\n\n**总用例数**: %d\n\n**通过**: %d\n\n**失败**: %d\n\n**通过率**: %.2f%%\n\n**耗时**: %dms",
-                        executedBy != null ? executedBy : "System",
-                        plan.getEnvironment(),
-                        total,
-                        successCount,
-                        failedCount,
-                        passRate,
-                        totalDuration
-                    );
-                    webhookClient.sendNotification(owner.getNotificationWebhook(), title, content);
-                }
+        Long since = lastEventId;
+        if (lastEventIdHeader != null && !lastEventIdHeader.trim().isEmpty()) {
+            try {
+                since = Long.valueOf(lastEventIdHeader.trim());
+            } catch (NumberFormatException ignored) {
+                // malformed id: replay everything still buffered
             }
         }
+        SseEmitter emitter = runEventBus.subscribe(runId, since);
+        if (emitter != null) {
+            return emitter;
+        }
+        // run finished before this instance kept its events (restart / expired): report the outcome once
+        return singleEvent(RunEventBus.RUN_FINISHED, toHandleMap(handle));
+    }
 
-        // Update status to Success/Failed
-        plan.setLastRunStatus(failedCount > 0 ? "Failed" : "Success");
-        plan.setLastRunTime(LocalDateTime.now());
-        testPlanService.updateById(plan);
+    private SseEmitter singleEvent(String name, Object data) {
+        SseEmitter emitter = new SseEmitter();
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (java.io.IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
 
-        return Result.success(summary);
+    private Map<String, Object> toHandleMap(PlanRunHandle handle) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("runId", handle.getRunId());
+        map.put("planId", handle.getPlanId());
+        map.put("runNo", handle.getRunNo());
+        map.put("status", handle.getStatus());
+        map.put("queuePosition", handle.getQueuePosition());
+        map.put("startedAt", handle.getStartedAt());
+        map.put("finishedAt", handle.getFinishedAt());
+        if (handle.getSummary() != null) {
+            map.put("summary", handle.getSummary());
+        }
+        return map;
     }
 
     @DeleteMapping("/{id}")
@@ -652,10 +422,17 @@ public class TestPlanController {
                 return Result.error("无权限删除该测试计划");
             }
         }
-        QueryWrapper<TestReport> reportWrapper = new QueryWrapper<>();
-        reportWrapper.eq("plan_id", id);
-        testReportService.remove(reportWrapper);
-        return Result.success(testPlanService.removeById(id));
+        // in chunks, each taken out of the daily rollups with its delete
+        List<Integer> reportIds;
+        while (!(reportIds = testReportService.listObjs(new QueryWrapper<TestReport>().select("id").eq("plan_id", id)
+                .last("LIMIT 1000"), o -> ((Number) o).intValue())).isEmpty()) {
+            reportRollupService.deleteReports(reportIds);
+        }
+        planRunService.remove(new QueryWrapper<PlanRun>().eq("plan_id", id));
+        boolean removed = testPlanService.removeById(id);
+        eventPublisher.publishEvent(new DataChangedEvent(DataChangedEvent.PLANS, plan.getProjectId()));
+        eventPublisher.publishEvent(new DataChangedEvent(DataChangedEvent.REPORTS, plan.getProjectId()));
+        return Result.success(removed);
     }
 
     @DeleteMapping
@@ -671,23 +448,11 @@ public class TestPlanController {
              return Result.error("Project ID is required");
         }
         
-        List<TestPlan> plans = testPlanService.list(new QueryWrapper<TestPlan>()
-                .eq("created_by", user.getId())
-                .eq("project_id", contextProjectId));
-                
-        if (plans != null && !plans.isEmpty()) {
-            List<Integer> planIds = new ArrayList<>();
-            for (TestPlan p : plans) {
-                if (p != null && p.getId() != null) {
-                    planIds.add(p.getId());
-                }
-            }
-            if (!planIds.isEmpty()) {
-                testReportService.remove(new QueryWrapper<TestReport>().in("plan_id", planIds));
-            }
-        }
-        return Result.success(testPlanService.remove(new QueryWrapper<TestPlan>()
-                .eq("created_by", user.getId())
-                .eq("project_id", contextProjectId)));
+        // The caller's own plans with their runs and reports, removed in bounded chunks
+        BulkOperationRequest request = new BulkOperationRequest();
+        request.setTarget("plans");
+        request.setAction("delete");
+        request.setMine(true);
+        return Result.success(bulkOperationService.execute(request, user, contextProjectId) > 0);
     }
 }
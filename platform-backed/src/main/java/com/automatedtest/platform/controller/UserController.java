@@ -1,6 +1,7 @@
 package com.automatedtest.platform.controller;
 
 import com.automatedtest.platform.annotation.OperationAudit;
+import com.automatedtest.platform.common.CursorPage;
 import com.automatedtest.platform.common.Result;
 import com.automatedtest.platform.dto.ChangePasswordDTO;
 import com.automatedtest.platform.dto.UpdateProfileDTO;
@@ -85,14 +86,24 @@ public class UserController {
     @GetMapping("/logs")
     public Result<IPage<LoginLog>> getLoginLogs(@RequestParam(defaultValue = "1") Integer page,
                                                 @RequestParam(defaultValue = "10") Integer size,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Boolean count,
                                                 HttpServletRequest request) {
         User user = getCurrentUser(request);
         if (user == null) {
             return Result.error("未登录或用户不存在");
         }
-        Page<LoginLog> pageParam = new Page<>(page, size);
         QueryWrapper<LoginLog> queryWrapper = new QueryWrapper<>();
         queryWrapper.eq("user_id", user.getId());
+        if (cursor != null) {
+            try {
+                return Result.success(CursorPage.fetch(loginLogService, queryWrapper, "login_time", cursor, size,
+                        Boolean.TRUE.equals(count), LoginLog::getLoginTime, LoginLog::getId));
+            } catch (IllegalArgumentException e) {
+                return Result.error("无效的分页游标");
+            }
+        }
+        Page<LoginLog> pageParam = new Page<>(page, size, count == null || count);
         queryWrapper.orderByDesc("login_time");
         return Result.success(loginLogService.page(pageParam, queryWrapper));
     }
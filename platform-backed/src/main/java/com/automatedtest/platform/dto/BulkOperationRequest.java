@@ -0,0 +1,43 @@
+package com.automatedtest.platform.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One bulk operation over reports, cases or plans of the current project.
+ *
+ * Without ids the operation covers every row of the target the user may change, narrowed by
+ * the optional filters (status and before apply to reports only).
+ */
+@Data
+public class BulkOperationRequest {
+
+    /** reports, cases, plans */
+    private String target;
+
+    /** archive, restore, delete (reports); delete, retag, move (cases); delete, retag (plans) */
+    private String action;
+
+    private List<Integer> ids;
+
+    /** Only reports with this status. */
+    private String status;
+
+    /** Only reports executed before this date (yyyy-MM-dd). */
+    private String before;
+
+    /** retag: status or priority for cases, status for plans. */
+    private String field;
+
+    private String value;
+
+    /** move: plan the cases are added to. */
+    private Integer planId;
+
+    /** move: plan the cases are taken out of, if any. */
+    private Integer fromPlanId;
+
+    /** Restrict to the user's own rows even for admins. */
+    private Boolean mine;
+}
@@ -0,0 +1,15 @@
+package com.automatedtest.platform.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Failures of one case over a date window, read from report_daily_cases.
+ */
+@Data
+public class CaseFailureCountDTO {
+    private Integer caseId;
+    private Long failed;
+    private LocalDateTime lastFailedAt;
+}
@@ -0,0 +1,35 @@
+package com.automatedtest.platform.dto;
+
+import com.automatedtest.platform.engine.PlanVariableStore;
+import lombok.Data;
+import java.util.Map;
+
+/**
+ * Who/what a single case execution runs on behalf of. Resolved once by the caller
+ * (controller, plan run, schedule) so the execution path does not look anything up again.
+ */
+@Data
+public class CaseRunContext {
+    private String executedBy;
+    private Long userId;
+    private Integer planId;
+    private Integer planRunNo;
+    private String triggerType;
+    private Map<String, String> extraVars;
+    private PlanVariableStore variableStore;
+
+    public String getExecutedBy() { return executedBy; }
+    public void setExecutedBy(String executedBy) { this.executedBy = executedBy; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public Integer getPlanId() { return planId; }
+    public void setPlanId(Integer planId) { this.planId = planId; }
+    public Integer getPlanRunNo() { return planRunNo; }
+    public void setPlanRunNo(Integer planRunNo) { this.planRunNo = planRunNo; }
+    public String getTriggerType() { return triggerType; }
+    public void setTriggerType(String triggerType) { this.triggerType = triggerType; }
+    public Map<String, String> getExtraVars() { return extraVars; }
+    public void setExtraVars(Map<String, String> extraVars) { this.extraVars = extraVars; }
+    public PlanVariableStore getVariableStore() { return variableStore; }
+    public void setVariableStore(PlanVariableStore variableStore) { this.variableStore = variableStore; }
+}
@@ -0,0 +1,27 @@
+package com.automatedtest.platform.dto;
+
+import com.automatedtest.platform.entity.TestCase;
+import com.automatedtest.platform.entity.TestPlan;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A validated request to run a plan: the cases to run and on whose behalf.
+ */
+@Data
+public class PlanRunCommand {
+    private TestPlan plan;
+    private List<Integer> caseIds;
+    private Map<Integer, TestCase> caseMap;
+    private boolean containsUiCase;
+    private Integer concurrency;
+    private String executedBy;
+    private Long userId;
+    private String triggerType;
+    /**
+     * Set once the run has been registered
+     */
+    private Long runId;
+}
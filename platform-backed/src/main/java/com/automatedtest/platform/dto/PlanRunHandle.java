@@ -0,0 +1,30 @@
+package com.automatedtest.platform.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * What a caller gets back for a triggered plan run, both immediately (queued) and
+ * when polling later.
+ */
+@Data
+public class PlanRunHandle {
+    private Long runId;
+    private Integer planId;
+    private Integer runNo;
+    /**
+     * queued, running, success, failed
+     */
+    private String status;
+    private Integer queuePosition;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Map<String, Object> summary;
+
+    @JsonIgnore
+    private CompletableFuture<Map<String, Object>> completion;
+}
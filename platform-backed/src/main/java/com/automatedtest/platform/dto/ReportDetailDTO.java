@@ -15,6 +15,9 @@ public class ReportDetailDTO {
     private String status;
     private Integer executionTime;
     private String logs;
+    private Integer logsSize;
+    /** True when logs only holds the beginning; the rest comes from /api/reports/{id}/logs. */
+    private Boolean logsTruncated;
     private LocalDateTime executedAt;
     private String executedBy;
     private String triggerType;
@@ -22,6 +25,8 @@ public class ReportDetailDTO {
     private Integer assertsTotal;
     private Integer assertsPassed;
     private Integer assertsFailed;
+    /** True when the report was read from the cold archive. */
+    private Boolean archived;
     
     public void setCaseId(Integer caseId) { this.caseId = caseId; }
     public void setStatus(String status) { this.status = status; }
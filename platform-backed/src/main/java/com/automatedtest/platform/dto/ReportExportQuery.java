@@ -0,0 +1,23 @@
+package com.automatedtest.platform.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Which reports of a project an export covers: a plan (optionally one of its runs), an
+ * executed_at range [from, to), or both.
+ */
+@Data
+public class ReportExportQuery {
+    private Integer projectId;
+    private Integer planId;
+    private Integer runNo;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String status;
+    /** Write complete logs instead of their preview. */
+    private boolean fullLogs;
+    /** Suite name in the exported document. */
+    private String name;
+}
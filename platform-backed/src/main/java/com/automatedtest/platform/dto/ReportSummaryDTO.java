@@ -0,0 +1,33 @@
+package com.automatedtest.platform.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A test_reports row without its logs. List, aggregate and permission-check paths read
+ * this instead of TestReport so the LONGTEXT column is only fetched by the detail view.
+ */
+@Data
+public class ReportSummaryDTO {
+
+    /**
+     * Column list that maps onto this type; never includes logs.
+     */
+    public static final String COLUMNS = "id, project_id, plan_id, plan_run_no, case_id, status, execution_time, " +
+            "executed_at, executed_by, trigger_type, asserts_total, asserts_passed, asserts_failed";
+
+    private Integer id;
+    private Integer projectId;
+    private Integer planId;
+    private Integer planRunNo;
+    private Integer caseId;
+    private String status;
+    private Integer executionTime;
+    private LocalDateTime executedAt;
+    private String executedBy;
+    private String triggerType;
+    private Integer assertsTotal;
+    private Integer assertsPassed;
+    private Integer assertsFailed;
+}
@@ -0,0 +1,65 @@
+package com.automatedtest.platform.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Case-by-case comparison of a base run with a target run, matched by case id. Only cases
+ * whose outcome changed or that still fail are listed; passing-in-both cases are counted.
+ */
+@Data
+public class RunDiffDTO {
+
+    private RunInfo base;
+    private RunInfo target;
+
+    /** Failed in the target, not failed in the base. */
+    private List<CaseDelta> newlyFailing = new ArrayList<>();
+    /** Failed in the base, passed in the target. */
+    private List<CaseDelta> newlyPassing = new ArrayList<>();
+    private List<CaseDelta> stillFailing = new ArrayList<>();
+    /** Only in the target run. */
+    private List<CaseDelta> added = new ArrayList<>();
+    /** Only in the base run. */
+    private List<CaseDelta> removed = new ArrayList<>();
+    /** Cases in both runs with the largest duration increase, largest first. */
+    private List<CaseDelta> slowest = new ArrayList<>();
+    /** Cases in both runs with the largest duration decrease, largest first. */
+    private List<CaseDelta> fastest = new ArrayList<>();
+
+    /** Cases in both runs whose outcome did not change and that did not fail. */
+    private int unchanged;
+    /** Sum of the duration deltas of cases in both runs. */
+    private long durationDeltaMs;
+
+    @Data
+    public static class RunInfo {
+        private Integer planId;
+        private Integer runNo;
+        private String status;
+        private LocalDateTime executedAt;
+        private int total;
+        private int passed;
+        private int failed;
+        private long durationMs;
+        /** Read from the report archive because the run has left test_reports. */
+        private boolean archived;
+    }
+
+    @Data
+    public static class CaseDelta {
+        private Integer caseId;
+        private String caseName;
+        private String baseStatus;
+        private String targetStatus;
+        private Integer baseReportId;
+        private Integer targetReportId;
+        private Integer baseMs;
+        private Integer targetMs;
+        /** targetMs - baseMs, null unless the case is in both runs. */
+        private Integer deltaMs;
+    }
+}
@@ -0,0 +1,252 @@
+package com.automatedtest.platform.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides when a plan run may start.
+ *
+ * Each run needs one permit from its project, one from its team and one global permit.
+ * Runs that cannot start yet wait in a single FIFO queue. Dispatch walks the queue in
+ * arrival order and starts every run whose permits are free, so a saturated project never
+ * holds up the runs of other projects queued behind it, while runs of the same project
+ * still start in the order they were triggered. Urgent (smoke) runs are queued ahead of
+ * every regular run but behind urgent runs that arrived earlier.
+ */
+public class AdmissionController {
+
+    public enum State { QUEUED, RUNNING, DONE, CANCELLED }
+
+    public final class Ticket {
+        private final long seq;
+        private final Integer projectId;
+        private final Integer teamId;
+        private final boolean urgent;
+        private final Runnable task;
+        private volatile State state = State.QUEUED;
+
+        private Ticket(long seq, Integer projectId, Integer teamId, boolean urgent, Runnable task) {
+            this.seq = seq;
+            this.projectId = projectId;
+            this.teamId = teamId;
+            this.urgent = urgent;
+            this.task = task;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * 1-based position among all waiting runs, 0 once the run has left the queue.
+         */
+        public int position() {
+            return positionOf(this);
+        }
+
+        /**
+         * Removes the run from the queue if it has not started yet.
+         */
+        public boolean cancel() {
+            return cancelTicket(this);
+        }
+    }
+
+    private final int projectLimit;
+    private final int teamLimit;
+    private final int globalLimit;
+    private final int maxQueue;
+    private final Executor executor;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final LinkedList<Ticket> waiting = new LinkedList<>();
+    private final Map<Integer, Integer> runningByProject = new HashMap<>();
+    private final Map<Integer, Integer> runningByTeam = new HashMap<>();
+    private int runningTotal;
+
+    /**
+     * Limits of 0 or less mean unlimited.
+     */
+    public AdmissionController(int projectLimit, int teamLimit, int globalLimit, int maxQueue, Executor executor) {
+        this.projectLimit = projectLimit;
+        this.teamLimit = teamLimit;
+        this.globalLimit = globalLimit;
+        this.maxQueue = maxQueue;
+        this.executor = executor;
+    }
+
+    /**
+     * Queues a run and starts it as soon as its permits are free. Returns null if the
+     * wait queue is full.
+     */
+    public Ticket submit(Integer projectId, Integer teamId, Runnable task) {
+        return submit(projectId, teamId, false, task);
+    }
+
+    public Ticket submit(Integer projectId, Integer teamId, boolean urgent, Runnable task) {
+        List<Ticket> ready;
+        Ticket ticket;
+        synchronized (this) {
+            if (maxQueue > 0 && waiting.size() >= maxQueue && !hasCapacity(projectId, teamId)) {
+                return null;
+            }
+            ticket = new Ticket(sequence.incrementAndGet(), projectId, teamId, urgent, task);
+            enqueue(ticket);
+            ready = admitReady();
+        }
+        start(ready);
+        return ticket;
+    }
+
+    public void shutdown() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    public synchronized int queued() {
+        return waiting.size();
+    }
+
+    public synchronized int running() {
+        return runningTotal;
+    }
+
+    public synchronized int running(Integer projectId) {
+        return count(runningByProject, projectId);
+    }
+
+    private synchronized int positionOf(Ticket ticket) {
+        if (ticket.state != State.QUEUED) {
+            return 0;
+        }
+        int pos = 0;
+        for (Ticket t : waiting) {
+            pos++;
+            if (t == ticket) {
+                return pos;
+            }
+        }
+        return 0;
+    }
+
+    private synchronized boolean cancelTicket(Ticket ticket) {
+        if (ticket.state != State.QUEUED) {
+            return false;
+        }
+        waiting.remove(ticket);
+        ticket.state = State.CANCELLED;
+        return true;
+    }
+
+    /** Must hold the monitor. */
+    private void enqueue(Ticket ticket) {
+        if (!ticket.urgent) {
+            waiting.addLast(ticket);
+            return;
+        }
+        int idx = 0;
+        for (Ticket t : waiting) {
+            if (!t.urgent) {
+                break;
+            }
+            idx++;
+        }
+        waiting.add(idx, ticket);
+    }
+
+    private boolean hasCapacity(Integer projectId, Integer teamId) {
+        if (globalLimit > 0 && runningTotal >= globalLimit) {
+            return false;
+        }
+        if (projectId != null && projectLimit > 0 && count(runningByProject, projectId) >= projectLimit) {
+            return false;
+        }
+        return teamId == null || teamLimit <= 0 || count(runningByTeam, teamId) < teamLimit;
+    }
+
+    /** Must hold the monitor. Moves every startable ticket out of the queue, oldest first. */
+    private List<Ticket> admitReady() {
+        List<Ticket> ready = new ArrayList<>();
+        Iterator<Ticket> it = waiting.iterator();
+        while (it.hasNext()) {
+            if (globalLimit > 0 && runningTotal >= globalLimit) {
+                break;
+            }
+            Ticket t = it.next();
+            if (!hasCapacity(t.projectId, t.teamId)) {
+                continue;
+            }
+            it.remove();
+            acquire(t);
+            t.state = State.RUNNING;
+            ready.add(t);
+        }
+        return ready;
+    }
+
+    private void start(List<Ticket> ready) {
+        for (Ticket t : ready) {
+            try {
+                executor.execute(() -> runTicket(t));
+            } catch (RuntimeException e) {
+                finished(t);
+                throw e;
+            }
+        }
+    }
+
+    private void runTicket(Ticket t) {
+        try {
+            t.task.run();
+        } finally {
+            finished(t);
+        }
+    }
+
+    private void finished(Ticket t) {
+        List<Ticket> ready;
+        synchronized (this) {
+            t.state = State.DONE;
+            release(t);
+            ready = admitReady();
+        }
+        start(ready);
+    }
+
+    private void acquire(Ticket t) {
+        runningTotal++;
+        if (t.projectId != null) {
+            runningByProject.merge(t.projectId, 1, Integer::sum);
+        }
+        if (t.teamId != null) {
+            runningByTeam.merge(t.teamId, 1, Integer::sum);
+        }
+    }
+
+    private void release(Ticket t) {
+        runningTotal--;
+        if (t.projectId != null) {
+            runningByProject.computeIfPresent(t.projectId, (k, v) -> v > 1 ? v - 1 : null);
+        }
+        if (t.teamId != null) {
+            runningByTeam.computeIfPresent(t.teamId, (k, v) -> v > 1 ? v - 1 : null);
+        }
+    }
+
+    private static int count(Map<Integer, Integer> m, Integer key) {
+        Integer v = m.get(key);
+        return v != null ? v : 0;
+    }
+}
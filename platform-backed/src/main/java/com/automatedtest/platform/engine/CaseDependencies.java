@@ -0,0 +1,149 @@
+package com.automatedtest.platform.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Dispatch order of the cases of one plan run when they go to the shared workers.
+ *
+ * Cases go out by queue level, then plan position, except that a case which "requires"
+ * plan-scope variables goes after every case of the run that extracts them. That way a
+ * consumer never holds a lane or a worker while its producer is still waiting for one.
+ * Cases that depend on each other in a cycle fall back to level order.
+ */
+public class CaseDependencies {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final List<Integer> order;
+    private final List<Set<Integer>> producers;
+
+    /**
+     * levels, requires and produces are indexed by plan position.
+     */
+    public CaseDependencies(List<Integer> levels, List<Set<String>> requires, List<Set<String>> produces) {
+        int n = levels.size();
+        Map<String, List<Integer>> producedBy = new HashMap<>();
+        for (int j = 0; j < n; j++) {
+            for (String key : produces.get(j)) {
+                producedBy.computeIfAbsent(key, k -> new ArrayList<>()).add(j);
+            }
+        }
+        producers = new ArrayList<>(n);
+        List<List<Integer>> consumers = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            consumers.add(new ArrayList<>());
+        }
+        for (int i = 0; i < n; i++) {
+            Set<Integer> from = new LinkedHashSet<>();
+            for (String key : requires.get(i)) {
+                for (Integer j : producedBy.getOrDefault(key, Collections.emptyList())) {
+                    if (j != i) {
+                        from.add(j);
+                    }
+                }
+            }
+            producers.add(from);
+            for (Integer j : from) {
+                consumers.get(j).add(i);
+            }
+        }
+
+        int[] pending = new int[n];
+        PriorityQueue<Integer> ready = new PriorityQueue<>((a, b) -> levels.get(a).equals(levels.get(b))
+                ? Integer.compare(a, b) : Integer.compare(levels.get(a), levels.get(b)));
+        PriorityQueue<Integer> blocked = new PriorityQueue<>(ready.comparator());
+        for (int i = 0; i < n; i++) {
+            pending[i] = producers.get(i).size();
+            (pending[i] == 0 ? ready : blocked).add(i);
+        }
+        boolean[] done = new boolean[n];
+        order = new ArrayList<>(n);
+        while (order.size() < n) {
+            Integer next = ready.poll();
+            if (next == null) {
+                // only cycles are left: release the best of them as if it had no producers
+                next = blocked.poll();
+            }
+            if (done[next]) {
+                continue;
+            }
+            done[next] = true;
+            order.add(next);
+            for (Integer c : consumers.get(next)) {
+                if (!done[c] && --pending[c] == 0) {
+                    ready.add(c);
+                }
+            }
+        }
+    }
+
+    /** Plan positions in dispatch order. */
+    public List<Integer> order() {
+        return order;
+    }
+
+    /** Plan positions of the cases that extract a variable the case at position i requires. */
+    public Set<Integer> producersOf(int i) {
+        return Collections.unmodifiableSet(producers.get(i));
+    }
+
+    /**
+     * Keys listed under "requires" in a case's content.
+     */
+    public static Set<String> requires(String content) {
+        Set<String> keys = new LinkedHashSet<>();
+        JsonNode req = parse(content).get("requires");
+        if (req != null && req.isArray()) {
+            for (JsonNode k : req) {
+                if (k.isTextual() && !k.asText().trim().isEmpty()) {
+                    keys.add(k.asText().trim());
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Targets of the active plan-scope "extract" rules in a case's content.
+     */
+    public static Set<String> produces(String content) {
+        Set<String> keys = new LinkedHashSet<>();
+        JsonNode extract = parse(content).get("extract");
+        if (extract != null && extract.isArray()) {
+            for (JsonNode rule : extract) {
+                JsonNode active = rule.get("active");
+                if (active != null && active.isBoolean() && !active.asBoolean()) {
+                    continue;
+                }
+                JsonNode scope = rule.get("scope");
+                JsonNode target = rule.get("target");
+                if (scope != null && "plan".equalsIgnoreCase(scope.asText())
+                        && target != null && !target.asText().trim().isEmpty()) {
+                    keys.add(target.asText());
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static JsonNode parse(String content) {
+        if (content != null && content.trim().startsWith("{")) {
+            try {
+                return MAPPER.readTree(content);
+            } catch (Exception ignored) {
+                // unparsable content declares nothing; the case fails on its own when it runs
+            }
+        }
+        return MAPPER.createObjectNode();
+    }
+}
@@ -0,0 +1,170 @@
+package com.automatedtest.platform.engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Shared worker pool that executes the cases of all running plans.
+ *
+ * Waiting cases sit in one queue per level (smoke, high, medium, low). A free worker takes
+ * the head with the best effective level, where every agingMs spent waiting lifts a case by
+ * one level, so low-priority cases of a long regression still progress while smoke and
+ * high-priority cases overtake them. Ties go to the case that was queued first.
+ */
+public class CaseScheduler {
+
+    public static final int SMOKE = 0;
+    public static final int HIGH = 1;
+    public static final int MEDIUM = 2;
+    public static final int LOW = 3;
+    private static final int LEVELS = 4;
+
+    private static final class Entry {
+        final int level;
+        final long seq;
+        final long enqueuedAt;
+        final Runnable task;
+
+        Entry(int level, long seq, long enqueuedAt, Runnable task) {
+            this.level = level;
+            this.seq = seq;
+            this.enqueuedAt = enqueuedAt;
+            this.task = task;
+        }
+    }
+
+    private final long agingNanos;
+    private final List<ArrayDeque<Entry>> queues = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public CaseScheduler(int workerCount, long agingMs) {
+        this.agingNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, agingMs));
+        for (int i = 0; i < LEVELS; i++) {
+            queues.add(new ArrayDeque<>());
+        }
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            Thread t = new Thread(this::workLoop, "case-worker-" + (i + 1));
+            t.setDaemon(true);
+            t.start();
+            workers.add(t);
+        }
+    }
+
+    /**
+     * Maps TestCase.priority (high / medium / low) to a queue level; cases of smoke plans
+     * go ahead of everything else.
+     */
+    public static int levelOf(String priority, boolean smoke) {
+        if (smoke) {
+            return SMOKE;
+        }
+        if (priority == null) {
+            return MEDIUM;
+        }
+        switch (priority.trim().toLowerCase()) {
+            case "high":
+            case "p0":
+                return HIGH;
+            case "low":
+            case "p2":
+                return LOW;
+            default:
+                return MEDIUM;
+        }
+    }
+
+    public <T> CompletableFuture<T> submit(int level, Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable r = () -> {
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        int l = Math.max(0, Math.min(LEVELS - 1, level));
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("case scheduler is shut down");
+            }
+            queues.get(l).addLast(new Entry(l, sequence.incrementAndGet(), System.nanoTime(), r));
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        return future;
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            int n = 0;
+            for (ArrayDeque<Entry> q : queues) {
+                n += q.size();
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        for (Thread t : workers) {
+            t.interrupt();
+        }
+    }
+
+    private void workLoop() {
+        while (running) {
+            Entry next;
+            try {
+                next = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            next.task.run();
+        }
+    }
+
+    private Entry take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                Entry best = null;
+                long bestRank = Long.MAX_VALUE;
+                long now = System.nanoTime();
+                for (ArrayDeque<Entry> q : queues) {
+                    Entry head = q.peekFirst();
+                    if (head == null) {
+                        continue;
+                    }
+                    long rank = head.level - (now - head.enqueuedAt) / agingNanos;
+                    if (best == null || rank < bestRank || (rank == bestRank && head.seq < best.seq)) {
+                        best = head;
+                        bestRank = rank;
+                    }
+                }
+                if (best != null) {
+                    queues.get(best.level).pollFirst();
+                    return best;
+                }
+                notEmpty.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
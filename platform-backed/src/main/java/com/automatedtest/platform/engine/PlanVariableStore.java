@@ -0,0 +1,131 @@
+package com.automatedtest.platform.engine;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Plan-scope variables shared by the cases of one plan run.
+ *
+ * Readers always see an immutable snapshot and never lock. A case publishes everything
+ * it extracted in one step, so other cases see either none or all of that set. Every key
+ * remembers the store version it was last written at, which lets a case declare the
+ * variables it depends on and wait until they have been produced.
+ */
+public class PlanVariableStore {
+
+    private static final class Snapshot {
+        final long version;
+        final Map<String, String> values;
+        final Map<String, Long> versions;
+
+        Snapshot(long version, Map<String, String> values, Map<String, Long> versions) {
+            this.version = version;
+            this.values = values;
+            this.versions = versions;
+        }
+    }
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(
+            new Snapshot(0L, Collections.<String, String>emptyMap(), Collections.<String, Long>emptyMap()));
+
+    /** Only used to park waiters; reads and publishes never take it. */
+    private final Object signal = new Object();
+
+    public PlanVariableStore() {
+    }
+
+    public PlanVariableStore(Map<String, String> initial) {
+        if (initial != null && !initial.isEmpty()) {
+            publish(initial);
+        }
+    }
+
+    /**
+     * Atomically publishes one case's extracted variables. Returns the new store version.
+     */
+    public long publish(Map<String, String> vars) {
+        if (vars == null || vars.isEmpty()) {
+            return version();
+        }
+        Snapshot prev;
+        Snapshot next;
+        do {
+            prev = current.get();
+            long v = prev.version + 1;
+            Map<String, String> values = new HashMap<>(prev.values);
+            Map<String, Long> versions = new HashMap<>(prev.versions);
+            for (Map.Entry<String, String> e : vars.entrySet()) {
+                if (e.getKey() == null) continue;
+                values.put(e.getKey(), e.getValue());
+                versions.put(e.getKey(), v);
+            }
+            next = new Snapshot(v, Collections.unmodifiableMap(values), Collections.unmodifiableMap(versions));
+        } while (!current.compareAndSet(prev, next));
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        return next.version;
+    }
+
+    public String get(String key) {
+        return current.get().values.get(key);
+    }
+
+    /** Immutable view of all variables at the moment of the call. */
+    public Map<String, String> snapshot() {
+        return current.get().values;
+    }
+
+    public long version() {
+        return current.get().version;
+    }
+
+    /** Version at which the key was last written, 0 if it has never been published. */
+    public long version(String key) {
+        Long v = current.get().versions.get(key);
+        return v != null ? v : 0L;
+    }
+
+    /**
+     * Blocks until every key has been published at least once, or the timeout passes.
+     * Returns true if all keys are available.
+     */
+    public boolean await(Collection<String> keys, long timeoutMs) throws InterruptedException {
+        return awaitNewerThan(keys, 0L, timeoutMs);
+    }
+
+    /**
+     * Blocks until every key has been written at a version greater than sinceVersion.
+     */
+    public boolean awaitNewerThan(Collection<String> keys, long sinceVersion, long timeoutMs) throws InterruptedException {
+        if (keys == null || keys.isEmpty()) {
+            return true;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0L, timeoutMs));
+        synchronized (signal) {
+            while (!satisfied(keys, sinceVersion)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(signal, remaining);
+            }
+        }
+        return true;
+    }
+
+    private boolean satisfied(Collection<String> keys, long sinceVersion) {
+        Map<String, Long> versions = current.get().versions;
+        for (String k : keys) {
+            Long v = versions.get(k);
+            if (v == null || v <= sinceVersion) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,252 @@
+package com.automatedtest.platform.engine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Progress events of plan runs, pushed to Server-Sent Events subscribers.
+ *
+ * Every run keeps its most recent events in a ring buffer with increasing ids, so a client
+ * that reconnects with Last-Event-ID gets what it missed. Each connection has a small
+ * bounded buffer drained through {@link SseWriter}, so one slow client never delays the
+ * others; a client that cannot keep up is disconnected rather than allowed to pile up
+ * memory, and can resume from its last id.
+ */
+@Slf4j
+@Component
+public class RunEventBus {
+
+    public static final String RUN_QUEUED = "run-queued";
+    public static final String RUN_STARTED = "run-started";
+    public static final String CASE_STARTED = "case-started";
+    public static final String CASE_FINISHED = "case-finished";
+    public static final String RUN_FINISHED = "run-finished";
+
+    @Autowired
+    private SseWriter sseWriter;
+
+    @Value("${engine.sse_ring_size:500}")
+    private Integer ringSize;
+
+    @Value("${engine.sse_client_buffer:256}")
+    private Integer clientBuffer;
+
+    @Value("${engine.sse_timeout_ms:1800000}")
+    private Long emitterTimeoutMs;
+
+    @Value("${engine.sse_retain_minutes:30}")
+    private Long retainMinutes;
+
+    public static final class RunEvent {
+        final long id;
+        final String type;
+        final Map<String, Object> data;
+
+        RunEvent(long id, String type, Map<String, Object> data) {
+            this.id = id;
+            this.type = type;
+            this.data = data;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public Map<String, Object> getData() {
+            return data;
+        }
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final BlockingQueue<RunEvent> buffer;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        }
+    }
+
+    private final class Channel {
+        final ArrayDeque<RunEvent> ring = new ArrayDeque<>();
+        final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        long lastId;
+        boolean finished;
+    }
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    /** Drops finished runs once their retention has passed. */
+    private ScheduledExecutorService cleaner;
+
+    @PostConstruct
+    public void start() {
+        CustomizableThreadFactory factory = new CustomizableThreadFactory("sse-cleanup-");
+        factory.setDaemon(true);
+        cleaner = Executors.newSingleThreadScheduledExecutor(factory);
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (Channel channel : channels.values()) {
+            for (Subscriber s : channel.subscribers) {
+                s.emitter.complete();
+            }
+        }
+        cleaner.shutdownNow();
+    }
+
+    public void publish(Long runId, String type, Map<String, Object> data) {
+        if (runId == null) {
+            return;
+        }
+        Channel channel = channels.computeIfAbsent(runId, k -> new Channel());
+        RunEvent event;
+        synchronized (channel) {
+            if (channel.finished) {
+                return;
+            }
+            event = new RunEvent(++channel.lastId, type, data != null ? data : new LinkedHashMap<>());
+            channel.ring.addLast(event);
+            while (channel.ring.size() > ringSize) {
+                channel.ring.pollFirst();
+            }
+            if (RUN_FINISHED.equals(type)) {
+                channel.finished = true;
+                cleaner.schedule(() -> channels.remove(runId, channel), retainMinutes, TimeUnit.MINUTES);
+            }
+            for (Subscriber s : channel.subscribers) {
+                if (!s.buffer.offer(event)) {
+                    // slow consumer: drop the connection, the client resumes via Last-Event-ID
+                    s.closed = true;
+                    channel.subscribers.remove(s);
+                    sseWriter.execute(s.emitter::complete);
+                }
+            }
+        }
+        for (Subscriber s : channel.subscribers) {
+            scheduleDrain(runId, channel, s);
+        }
+    }
+
+    /**
+     * Opens a stream for the run, first replaying buffered events newer than lastEventId.
+     * Returns null if nothing is known about the run in this instance.
+     */
+    public SseEmitter subscribe(Long runId, Long lastEventId) {
+        Channel channel = channels.get(runId);
+        if (channel == null) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, clientBuffer);
+        // hold off live delivery until the replay below has gone out, to keep ids in order
+        subscriber.draining.set(true);
+        List<RunEvent> replay = new ArrayList<>();
+        long since = lastEventId != null ? lastEventId : 0L;
+        synchronized (channel) {
+            for (RunEvent e : channel.ring) {
+                if (e.id > since) {
+                    replay.add(e);
+                }
+            }
+            if (!channel.finished) {
+                channel.subscribers.add(subscriber);
+            }
+        }
+        Runnable detach = () -> {
+            subscriber.closed = true;
+            channel.subscribers.remove(subscriber);
+        };
+        emitter.onCompletion(detach);
+        emitter.onTimeout(detach);
+        emitter.onError(e -> detach.run());
+        sseWriter.execute(() -> {
+            for (RunEvent e : replay) {
+                if (!send(subscriber, e)) {
+                    return;
+                }
+            }
+            if (!channel.subscribers.contains(subscriber)) {
+                // run already over: everything has been replayed
+                emitter.complete();
+            } else {
+                drain(runId, channel, subscriber);
+            }
+        });
+        return emitter;
+    }
+
+    public boolean isKnown(Long runId) {
+        return channels.containsKey(runId);
+    }
+
+    private void scheduleDrain(Long runId, Channel channel, Subscriber s) {
+        if (s.draining.compareAndSet(false, true)) {
+            sseWriter.execute(() -> drain(runId, channel, s));
+        }
+    }
+
+    /**
+     * Sends what the subscriber has buffered. Called with draining held, which keeps one
+     * drain per subscriber; it is released only once the buffer is seen empty.
+     */
+    private void drain(Long runId, Channel channel, Subscriber s) {
+        do {
+            RunEvent e;
+            while (!s.closed && (e = s.buffer.poll()) != null) {
+                if (!send(s, e)) {
+                    return;
+                }
+                if (RUN_FINISHED.equals(e.type)) {
+                    channel.subscribers.remove(s);
+                    s.emitter.complete();
+                    return;
+                }
+            }
+            s.draining.set(false);
+            // an event offered after the last poll but before the release has no drain scheduled
+        } while (!s.closed && !s.buffer.isEmpty() && s.draining.compareAndSet(false, true));
+    }
+
+    private boolean send(Subscriber s, RunEvent e) {
+        try {
+            sseWriter.send(s.emitter, SseEmitter.event()
+                    .id(String.valueOf(e.id))
+                    .name(e.type)
+                    .data(e.data, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (Exception ex) {
+            log.debug("SSE client went away: {}", ex.getMessage());
+            s.closed = true;
+            s.emitter.completeWithError(ex);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.automatedtest.platform.engine;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plan runs and manually triggered cases currently executing on this instance.
+ *
+ * The executors register work when it starts and remove it when it ends, so "what is
+ * running" is answered from memory instead of scanning test_plans / test_cases for a
+ * running status. Listeners are told about every change and are expected to coalesce.
+ */
+@Component
+public class RunningTaskRegistry {
+
+    public static final String TYPE_PLAN = "Plan";
+    public static final String TYPE_CASE = "Case";
+
+    public static final class RunningTask {
+        private final String key;
+        private final String type;
+        private final Integer targetId;
+        private final String name;
+        private final Integer projectId;
+        private final Long ownerId;
+        private final LocalDateTime startedAt;
+        private final int total;
+        private final AtomicInteger done = new AtomicInteger();
+        private volatile Integer reportId;
+
+        RunningTask(String key, String type, Integer targetId, String name, Integer projectId, Long ownerId, int total) {
+            this.key = key;
+            this.type = type;
+            this.targetId = targetId;
+            this.name = name;
+            this.projectId = projectId;
+            this.ownerId = ownerId;
+            this.startedAt = LocalDateTime.now();
+            this.total = total;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * Plan id for plan runs, case id for single cases.
+         */
+        public Integer getTargetId() {
+            return targetId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getProjectId() {
+            return projectId;
+        }
+
+        public Long getOwnerId() {
+            return ownerId;
+        }
+
+        public LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getDone() {
+            return done.get();
+        }
+
+        /**
+         * Latest report written by this task, null until the first one exists.
+         */
+        public Integer getReportId() {
+            return reportId;
+        }
+    }
+
+    private final Map<String, RunningTask> tasks = new ConcurrentHashMap<>();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong caseSeq = new AtomicLong();
+    private final AtomicLong version = new AtomicLong();
+
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void planStarted(Long runId, Integer planId, String planName, Integer projectId, Integer ownerId, int totalCases) {
+        tasks.put(planKey(runId), new RunningTask(planKey(runId), TYPE_PLAN, planId, planName, projectId, toLong(ownerId), totalCases));
+        changed();
+    }
+
+    public void planCaseFinished(Long runId, Integer reportId) {
+        RunningTask task = tasks.get(planKey(runId));
+        if (task == null) {
+            return;
+        }
+        task.done.incrementAndGet();
+        if (reportId != null) {
+            task.reportId = reportId;
+        }
+        changed();
+    }
+
+    public void planFinished(Long runId) {
+        if (tasks.remove(planKey(runId)) != null) {
+            changed();
+        }
+    }
+
+    /**
+     * Registers a single case execution and returns the key to pass to {@link #caseFinished}.
+     */
+    public String caseStarted(Integer caseId, String caseName, Integer projectId, Integer ownerId) {
+        String key = "case-" + caseId + "-" + caseSeq.incrementAndGet();
+        tasks.put(key, new RunningTask(key, TYPE_CASE, caseId, caseName, projectId, toLong(ownerId), 1));
+        changed();
+        return key;
+    }
+
+    public void caseFinished(String key) {
+        if (key != null && tasks.remove(key) != null) {
+            changed();
+        }
+    }
+
+    /**
+     * Running tasks of a project (all projects if null), optionally only those owned by
+     * ownerId, most recently started first.
+     */
+    public List<RunningTask> list(Integer projectId, Long ownerId, int limit) {
+        List<RunningTask> result = new ArrayList<>();
+        for (RunningTask t : tasks.values()) {
+            if (projectId != null && !projectId.equals(t.projectId)) {
+                continue;
+            }
+            if (ownerId != null && !ownerId.equals(t.ownerId)) {
+                continue;
+            }
+            result.add(t);
+        }
+        result.sort(Comparator.comparing(RunningTask::getStartedAt).reversed());
+        if (limit > 0 && result.size() > limit) {
+            return new ArrayList<>(result.subList(0, limit));
+        }
+        return result;
+    }
+
+    public int size() {
+        return tasks.size();
+    }
+
+    /**
+     * Increases on every change; lets pollers skip unchanged snapshots.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    private void changed() {
+        version.incrementAndGet();
+        for (Runnable l : listeners) {
+            try {
+                l.run();
+            } catch (RuntimeException ignored) {
+                // a broken listener must not fail the execution that reported the change
+            }
+        }
+    }
+
+    private static String planKey(Long runId) {
+        return "plan-run-" + runId;
+    }
+
+    private static Long toLong(Integer id) {
+        return id != null ? id.longValue() : null;
+    }
+}
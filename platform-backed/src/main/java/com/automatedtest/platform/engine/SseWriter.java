@@ -0,0 +1,120 @@
+package com.automatedtest.platform.engine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Blocking writes to Server-Sent Events clients, kept away from the threads that produce the
+ * events. Streams drain on a shared elastic pool, one task per stream at a time, so a slow or
+ * half-open client only holds up its own stream. A write still running after
+ * sse_write_timeout_ms fails the emitter and interrupts its writer; the client reconnects.
+ */
+@Slf4j
+@Component
+public class SseWriter {
+
+    @Value("${engine.sse_write_timeout_ms:10000}")
+    private Long writeTimeoutMs;
+
+    private static final class Write {
+        final Thread thread;
+        final long startedAt;
+        /** Both guarded by the Write itself. */
+        boolean finished;
+        boolean expired;
+
+        Write(Thread thread, long startedAt) {
+            this.thread = thread;
+            this.startedAt = startedAt;
+        }
+    }
+
+    private final Map<SseEmitter, Write> inFlight = new ConcurrentHashMap<>();
+    private ExecutorService writers;
+    private ScheduledExecutorService watchdog;
+
+    @PostConstruct
+    public void start() {
+        CustomizableThreadFactory factory = new CustomizableThreadFactory("sse-writer-");
+        factory.setDaemon(true);
+        writers = Executors.newCachedThreadPool(factory);
+        CustomizableThreadFactory watchdogFactory = new CustomizableThreadFactory("sse-watchdog-");
+        watchdogFactory.setDaemon(true);
+        watchdog = Executors.newSingleThreadScheduledExecutor(watchdogFactory);
+        long period = Math.max(100L, Math.min(1000L, writeTimeoutMs / 2));
+        watchdog.scheduleWithFixedDelay(this::expireStuckWrites, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        watchdog.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    /**
+     * Runs a stream's drain task on the writer pool; callers keep at most one per stream.
+     */
+    public void execute(Runnable drain) {
+        writers.execute(drain);
+    }
+
+    /**
+     * Sends one event from a writer thread, under the write timeout.
+     */
+    public void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) throws IOException {
+        Write write = new Write(Thread.currentThread(), System.nanoTime());
+        inFlight.put(emitter, write);
+        try {
+            emitter.send(event);
+        } finally {
+            inFlight.remove(emitter, write);
+            synchronized (write) {
+                write.finished = true;
+                if (write.expired) {
+                    // do not leave the watchdog's interrupt to the next task on this thread
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    private void expireStuckWrites() {
+        long limit = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, writeTimeoutMs));
+        long now = System.nanoTime();
+        for (Map.Entry<SseEmitter, Write> e : inFlight.entrySet()) {
+            Write w = e.getValue();
+            if (now - w.startedAt > limit && inFlight.remove(e.getKey(), w)) {
+                log.debug("SSE write stuck for over {} ms, dropping the client", writeTimeoutMs);
+                synchronized (w) {
+                    if (!w.finished) {
+                        w.expired = true;
+                        w.thread.interrupt();
+                    }
+                }
+                // the emitter is locked while the write is stuck, so complete it off this thread
+                SseEmitter emitter = e.getKey();
+                writers.execute(() -> {
+                    try {
+                        emitter.completeWithError(new TimeoutException("SSE write timed out"));
+                    } catch (Exception ignored) {
+                        // already completed
+                    }
+                });
+            }
+        }
+    }
+}
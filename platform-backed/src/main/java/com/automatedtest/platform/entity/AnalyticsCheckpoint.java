@@ -0,0 +1,29 @@
+package com.automatedtest.platform.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * How far an incremental scan over test_reports has got, by report id.
+ */
+@Data
+@TableName("analytics_checkpoints")
+public class AnalyticsCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(type = IdType.INPUT)
+    private String name;
+
+    @TableField("last_id")
+    private Long lastId;
+
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,52 @@
+package com.automatedtest.platform.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Rolling execution time statistics of a case, see
+ * {@link com.automatedtest.platform.stats.DurationBaseline}.
+ */
+@Data
+@TableName("case_duration_stats")
+public class CaseDurationStat implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "case_id", type = IdType.INPUT)
+    private Integer caseId;
+
+    @TableField("project_id")
+    private Integer projectId;
+
+    private Long samples;
+
+    @TableField("baseline_mean")
+    private Double baselineMean;
+
+    @TableField("baseline_var")
+    private Double baselineVar;
+
+    @TableField("recent_mean")
+    private Double recentMean;
+
+    @TableField("slow_streak")
+    private Integer slowStreak;
+
+    private Boolean regressed;
+
+    /** Serialized t-digest. */
+    private byte[] digest;
+
+    @TableField("last_ms")
+    private Integer lastMs;
+
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+}
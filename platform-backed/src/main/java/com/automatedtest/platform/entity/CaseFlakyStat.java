@@ -0,0 +1,69 @@
+package com.automatedtest.platform.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Flakiness statistics of a case, see {@link com.automatedtest.platform.stats.FlakinessTracker}.
+ */
+@Data
+@TableName("case_flaky_stats")
+public class CaseFlakyStat implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "case_id", type = IdType.INPUT)
+    private Integer caseId;
+
+    @TableField("project_id")
+    private Integer projectId;
+
+    private Long runs;
+
+    private Long failures;
+
+    @TableField("comparable_pairs")
+    private Long comparablePairs;
+
+    private Long transitions;
+
+    private Long bounces;
+
+    @TableField("fail_streak")
+    private Integer failStreak;
+
+    @TableField("max_fail_streak")
+    private Integer maxFailStreak;
+
+    @TableField("last_status")
+    private String lastStatus;
+
+    @TableField("prev_status")
+    private String prevStatus;
+
+    @TableField("chain_in_window")
+    private Boolean chainInWindow;
+
+    @TableField("last_executed_at")
+    private LocalDateTime lastExecutedAt;
+
+    @TableField("last_report_id")
+    private Integer lastReportId;
+
+    @TableField("flip_rate")
+    private Double flipRate;
+
+    private Double flakiness;
+
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+
+    @TableField(exist = false)
+    private String caseName;
+}
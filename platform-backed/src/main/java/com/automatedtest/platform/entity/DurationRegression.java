@@ -0,0 +1,60 @@
+package com.automatedtest.platform.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * A case found significantly slower than its baseline, recorded once per onset.
+ */
+@Data
+@TableName("duration_regressions")
+public class DurationRegression implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    @TableField("project_id")
+    private Integer projectId;
+
+    @TableField("case_id")
+    private Integer caseId;
+
+    @TableField("report_id")
+    private Integer reportId;
+
+    @TableField("plan_id")
+    private Integer planId;
+
+    @TableField("plan_run_no")
+    private Integer planRunNo;
+
+    @TableField("duration_ms")
+    private Integer durationMs;
+
+    @TableField("recent_mean")
+    private Double recentMean;
+
+    @TableField("baseline_mean")
+    private Double baselineMean;
+
+    @TableField("baseline_p95")
+    private Double baselineP95;
+
+    /** Standard errors the recent mean lay above the baseline mean. */
+    @TableField("z_score")
+    private Double standardScore;
+
+    @TableField("detected_at")
+    private LocalDateTime detectedAt;
+
+    @TableField(exist = false)
+    private String caseName;
+}
@@ -0,0 +1,56 @@
+package com.automatedtest.platform.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Failures of one plan run that share a cause, judged by log similarity.
+ */
+@Data
+@TableName("failure_clusters")
+public class FailureCluster implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    @TableField("project_id")
+    private Integer projectId;
+
+    @TableField("plan_id")
+    private Integer planId;
+
+    @TableField("plan_run_no")
+    private Integer planRunNo;
+
+    @TableField("representative_report_id")
+    private Integer representativeReportId;
+
+    @TableField("representative_case_id")
+    private Integer representativeCaseId;
+
+    private Integer size;
+
+    /** MinHash signature of the representative log. */
+    @JsonIgnore
+    private byte[] signature;
+
+    private String sample;
+
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+
+    @TableField(exist = false)
+    private String caseName;
+}
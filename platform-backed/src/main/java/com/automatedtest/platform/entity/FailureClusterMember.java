@@ -0,0 +1,31 @@
+package com.automatedtest.platform.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+
+@Data
+@TableName("failure_cluster_members")
+public class FailureClusterMember implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "report_id", type = IdType.INPUT)
+    private Integer reportId;
+
+    @TableField("cluster_id")
+    private Long clusterId;
+
+    @TableField("project_id")
+    private Integer projectId;
+
+    @TableField("case_id")
+    private Integer caseId;
+
+    /** Estimated similarity to the cluster's representative. */
+    private Double similarity;
+}
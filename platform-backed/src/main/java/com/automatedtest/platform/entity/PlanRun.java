@@ -0,0 +1,91 @@
+package com.automatedtest.platform.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@TableName("plan_runs")
+public class PlanRun implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    @TableField("plan_id")
+    private Integer planId;
+
+    @TableField("project_id")
+    private Integer projectId;
+
+    @TableField("run_no")
+    private Integer runNo;
+
+    /**
+     * queued, running, success, failed
+     */
+    private String status;
+
+    @TableField("trigger_type")
+    private String triggerType;
+
+    @TableField("executed_by")
+    private String executedBy;
+
+    @TableField("total_cases")
+    private Integer totalCases;
+
+    @TableField("passed_cases")
+    private Integer passedCases;
+
+    @TableField("failed_cases")
+    private Integer failedCases;
+
+    @TableField("asserts_total")
+    private Integer assertsTotal;
+
+    @TableField("asserts_passed")
+    private Integer assertsPassed;
+
+    @TableField("asserts_failed")
+    private Integer assertsFailed;
+
+    /**
+     * Sum of the case durations, as shown in the report listing.
+     */
+    @TableField("duration_ms")
+    private Long durationMs;
+
+    /**
+     * Lowest report id of the run; the listing links plan runs through it.
+     */
+    @TableField("first_report_id")
+    private Integer firstReportId;
+
+    /**
+     * Time the run last wrote a result, used to order the report listing.
+     */
+    @TableField("executed_at")
+    private LocalDateTime executedAt;
+
+    @TableField("is_deleted")
+    private Integer isDeleted;
+
+    @TableField("started_at")
+    private LocalDateTime startedAt;
+
+    @TableField("finished_at")
+    private LocalDateTime finishedAt;
+
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+
+    @TableField(exist = false)
+    private String planName;
+}
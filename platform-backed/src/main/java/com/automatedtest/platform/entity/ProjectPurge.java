@@ -0,0 +1,51 @@
+package com.automatedtest.platform.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a project purge. The child tables are purged one after another; step is the
+ * one in progress and lastKey the last key deleted from it.
+ */
+@Data
+@TableName("project_purges")
+public class ProjectPurge implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "project_id", type = IdType.INPUT)
+    private Integer projectId;
+
+    /**
+     * queued, running, paused, finished, failed
+     */
+    private String status;
+
+    private Integer step;
+
+    @TableField("last_key")
+    private Long lastKey;
+
+    @TableField("deleted_rows")
+    private Long deletedRows;
+
+    @TableField("requested_by")
+    private String requestedBy;
+
+    private String error;
+
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+
+    @TableField("finished_at")
+    private LocalDateTime finishedAt;
+}
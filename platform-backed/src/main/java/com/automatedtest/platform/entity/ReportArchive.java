@@ -0,0 +1,50 @@
+package com.automatedtest.platform.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One exported archive file: the reports of a project executed in [periodStart, periodEnd).
+ */
+@Data
+@TableName("report_archives")
+public class ReportArchive implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 0 for reports without a project.
+     */
+    @TableField("project_id")
+    private Integer projectId;
+
+    @TableField("period_start")
+    private LocalDateTime periodStart;
+
+    @TableField("period_end")
+    private LocalDateTime periodEnd;
+
+    @TableField("archive_ref")
+    private String archiveRef;
+
+    @TableField("row_count")
+    private Integer rowCount;
+
+    @TableField("min_report_id")
+    private Integer minReportId;
+
+    @TableField("max_report_id")
+    private Integer maxReportId;
+
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,59 @@
+package com.automatedtest.platform.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Execution counts of one project, day and case type, kept in step with test_reports.
+ * Duration columns only cover reports that recorded an execution time.
+ */
+@Data
+@TableName("report_daily_rollup")
+public class ReportDailyRollup implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 0 for reports without a project.
+     */
+    @TableField("project_id")
+    private Integer projectId;
+
+    @TableField("stat_date")
+    private LocalDate statDate;
+
+    /**
+     * Upper-cased case type (API / WEB / APP), empty if unknown.
+     */
+    @TableField("case_type")
+    private String caseType;
+
+    private Long total;
+
+    private Long passed;
+
+    private Long failed;
+
+    @TableField("dur_count")
+    private Long durCount;
+
+    @TableField("dur_sum")
+    private Long durSum;
+
+    @TableField("dur_sumsq")
+    private Double durSumsq;
+
+    @TableField("dur_min")
+    private Integer durMin;
+
+    @TableField("dur_max")
+    private Integer durMax;
+
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,36 @@
+package com.automatedtest.platform.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * How long reports of a project are kept before they are archived and removed from
+ * test_reports. Projects without a row use engine.report_retention_days.
+ */
+@Data
+@TableName("report_retention_policies")
+public class ReportRetentionPolicy implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "project_id", type = IdType.INPUT)
+    private Integer projectId;
+
+    /**
+     * 0 keeps reports forever.
+     */
+    @TableField("retain_days")
+    private Integer retainDays;
+
+    @TableField("updated_by")
+    private String updatedBy;
+
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+}
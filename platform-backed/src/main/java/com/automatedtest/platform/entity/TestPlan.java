@@ -59,6 +59,12 @@ public class TestPlan implements Serializable {
     @TableField("flow_json")
     private String flowJson;
 
+    /**
+     * Smoke plans are admitted and scheduled ahead of regular plans
+     */
+    @TableField("smoke")
+    private Boolean smoke;
+
     public String getEnvironment() { return environment; }
     public Integer getId() { return id; }
     public String getName() { return name; }
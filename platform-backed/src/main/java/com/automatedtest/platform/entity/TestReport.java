@@ -34,6 +34,24 @@ public class TestReport implements Serializable {
 
     private String logs;
 
+    /**
+     * Blob store reference of the logs; when set, logs is null and logsPreview holds the start.
+     */
+    @TableField("logs_ref")
+    private String logsRef;
+
+    @TableField("logs_size")
+    private Integer logsSize;
+
+    @TableField("logs_preview")
+    private String logsPreview;
+
+    /**
+     * Full log text kept in memory after it moved to the blob store, for the search index.
+     */
+    @TableField(exist = false)
+    private String indexText;
+
     @TableField(value = "executed_at", fill = FieldFill.INSERT)
     private LocalDateTime executedAt;
 
@@ -75,6 +93,9 @@ public class TestReport implements Serializable {
     @TableField("is_deleted")
     private Boolean isDeleted;
 
+    @TableField("deleted_at")
+    private LocalDateTime deletedAt;
+
     public Integer getCaseId() { return caseId; }
     public String getStatus() { return status; }
     public String getExecutedBy() { return executedBy; }
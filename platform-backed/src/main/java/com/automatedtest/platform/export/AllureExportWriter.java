@@ -0,0 +1,129 @@
+package com.automatedtest.platform.export;
+
+import com.automatedtest.platform.entity.TestReport;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A zip of Allure result files: one {uuid}-result.json per report, plus the report's logs as
+ * a text attachment. Unzipped into allure-results it is read by "allure generate" as is.
+ */
+public class AllureExportWriter implements ReportExportWriter {
+
+    private final ZipOutputStream zip;
+    private final ObjectMapper objectMapper;
+
+    public AllureExportWriter(OutputStream out, ObjectMapper objectMapper) {
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        this.objectMapper = objectMapper.copy().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public String contentType() {
+        return "application/zip";
+    }
+
+    @Override
+    public String extension() {
+        return "zip";
+    }
+
+    @Override
+    public void begin(ExportSummary summary) {
+    }
+
+    @Override
+    public void write(TestReport report, String details) throws IOException {
+        String uuid = UUID.nameUUIDFromBytes(("report-" + report.getId()).getBytes(StandardCharsets.UTF_8)).toString();
+        String attachment = null;
+        if (details != null && !details.isEmpty()) {
+            attachment = uuid + "-attachment.txt";
+            zip.putNextEntry(new ZipEntry(attachment));
+            zip.write(details.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.putNextEntry(new ZipEntry(uuid + "-result.json"));
+        objectMapper.writeValue(zip, result(report, uuid, attachment));
+        zip.closeEntry();
+    }
+
+    @Override
+    public void end() throws IOException {
+        zip.finish();
+        zip.flush();
+    }
+
+    static Map<String, Object> result(TestReport report, String uuid, String attachment) {
+        String name = JUnitXmlExportWriter.caseName(report);
+        String suite = report.getPlanName() != null && !report.getPlanName().isEmpty() ? report.getPlanName() : "single";
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("uuid", uuid);
+        String testCaseId = report.getCaseId() != null ? "case-" + report.getCaseId() : uuid;
+        result.put("historyId", testCaseId);
+        result.put("testCaseId", testCaseId);
+        result.put("name", name);
+        result.put("fullName", JUnitXmlExportWriter.className(report) + "." + name);
+        result.put("status", status(report.getStatus()));
+        result.put("stage", "finished");
+        if ("failed".equals(report.getStatus())) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("message", JUnitXmlExportWriter.failureMessage(report));
+            result.put("statusDetails", details);
+        }
+        if (report.getExecutedAt() != null) {
+            long start = report.getExecutedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            result.put("start", start);
+            result.put("stop", start + (report.getExecutionTime() != null ? report.getExecutionTime() : 0));
+        }
+        List<Map<String, Object>> labels = new ArrayList<>();
+        labels.add(label("suite", suite));
+        if (report.getCaseType() != null) {
+            labels.add(label("feature", report.getCaseType()));
+        }
+        if (report.getExecutedBy() != null) {
+            labels.add(label("owner", report.getExecutedBy()));
+        }
+        result.put("labels", labels);
+        List<Map<String, Object>> parameters = new ArrayList<>();
+        if (report.getPlanRunNo() != null) {
+            parameters.add(label("runNo", String.valueOf(report.getPlanRunNo())));
+        }
+        result.put("parameters", parameters);
+        List<Map<String, Object>> attachments = new ArrayList<>();
+        if (attachment != null) {
+            Map<String, Object> a = new LinkedHashMap<>();
+            a.put("name", "logs");
+            a.put("source", attachment);
+            a.put("type", "text/plain");
+            attachments.add(a);
+        }
+        result.put("attachments", attachments);
+        return result;
+    }
+
+    private static String status(String status) {
+        if ("success".equals(status)) {
+            return "passed";
+        }
+        return "failed".equals(status) ? "failed" : "skipped";
+    }
+
+    private static Map<String, Object> label(String name, String value) {
+        Map<String, Object> label = new LinkedHashMap<>();
+        label.put("name", name);
+        label.put("value", value);
+        return label;
+    }
+}
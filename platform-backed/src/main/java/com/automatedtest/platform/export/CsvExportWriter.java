@@ -0,0 +1,79 @@
+package com.automatedtest.platform.export;
+
+import com.automatedtest.platform.entity.TestReport;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * RFC 4180 CSV, one row per report. Starts with a UTF-8 byte order mark so spreadsheet
+ * programs read case names in Chinese correctly.
+ */
+public class CsvExportWriter implements ReportExportWriter {
+
+    private static final String[] HEADER = {
+            "report_id", "plan_id", "plan_name", "run_no", "case_id", "case_name", "case_type", "status",
+            "execution_time_ms", "executed_at", "executed_by", "trigger_type",
+            "asserts_total", "asserts_passed", "asserts_failed", "details"};
+
+    private final Writer writer;
+
+    public CsvExportWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 65536);
+    }
+
+    @Override
+    public String contentType() {
+        return "text/csv";
+    }
+
+    @Override
+    public String extension() {
+        return "csv";
+    }
+
+    @Override
+    public void begin(ExportSummary summary) throws IOException {
+        writer.write('\uFEFF');
+        writeRow((Object[]) HEADER);
+    }
+
+    @Override
+    public void write(TestReport r, String details) throws IOException {
+        writeRow(r.getId(), r.getPlanId(), r.getPlanName(), r.getPlanRunNo(), r.getCaseId(), r.getCaseName(), r.getCaseType(),
+                r.getStatus(), r.getExecutionTime(),
+                r.getExecutedAt() != null ? r.getExecutedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null,
+                r.getExecutedBy(), r.getTriggerType(), r.getAssertsTotal(), r.getAssertsPassed(), r.getAssertsFailed(), details);
+    }
+
+    @Override
+    public void end() throws IOException {
+        writer.flush();
+    }
+
+    private void writeRow(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escape(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String s = value.toString();
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+            return s;
+        }
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,50 @@
+package com.automatedtest.platform.export;
+
+import java.time.LocalDateTime;
+
+/**
+ * Totals of an export, known before the first report is written; JUnit XML puts them on
+ * the suite element.
+ */
+public class ExportSummary {
+
+    private final String name;
+    private final long total;
+    private final long failures;
+    private final long skipped;
+    private final long durationMs;
+    private final LocalDateTime timestamp;
+
+    public ExportSummary(String name, long total, long failures, long skipped, long durationMs, LocalDateTime timestamp) {
+        this.name = name;
+        this.total = total;
+        this.failures = failures;
+        this.skipped = skipped;
+        this.durationMs = durationMs;
+        this.timestamp = timestamp;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+}
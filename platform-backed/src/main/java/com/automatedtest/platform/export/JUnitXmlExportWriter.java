@@ -0,0 +1,166 @@
+package com.automatedtest.platform.export;
+
+import com.automatedtest.platform.entity.TestReport;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * One testsuite with a testcase per report, in the layout CI servers read (Jenkins, GitLab,
+ * Surefire style). Failed reports get a failure element; reports neither passed nor failed
+ * are written as skipped.
+ */
+public class JUnitXmlExportWriter implements ReportExportWriter {
+
+    private final XMLStreamWriter xml;
+
+    public JUnitXmlExportWriter(OutputStream out) throws IOException {
+        try {
+            this.xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public String contentType() {
+        return "application/xml";
+    }
+
+    @Override
+    public String extension() {
+        return "xml";
+    }
+
+    @Override
+    public void begin(ExportSummary summary) throws IOException {
+        try {
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeCharacters("\n");
+            xml.writeStartElement("testsuites");
+            xml.writeAttribute("name", clean(summary.getName()));
+            xml.writeAttribute("tests", String.valueOf(summary.getTotal()));
+            xml.writeAttribute("failures", String.valueOf(summary.getFailures()));
+            xml.writeAttribute("skipped", String.valueOf(summary.getSkipped()));
+            xml.writeAttribute("time", seconds(summary.getDurationMs()));
+            xml.writeCharacters("\n  ");
+            xml.writeStartElement("testsuite");
+            xml.writeAttribute("name", clean(summary.getName()));
+            xml.writeAttribute("tests", String.valueOf(summary.getTotal()));
+            xml.writeAttribute("failures", String.valueOf(summary.getFailures()));
+            xml.writeAttribute("errors", "0");
+            xml.writeAttribute("skipped", String.valueOf(summary.getSkipped()));
+            xml.writeAttribute("time", seconds(summary.getDurationMs()));
+            if (summary.getTimestamp() != null) {
+                xml.writeAttribute("timestamp", summary.getTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void write(TestReport report, String details) throws IOException {
+        try {
+            xml.writeCharacters("\n    ");
+            xml.writeStartElement("testcase");
+            xml.writeAttribute("name", clean(caseName(report)));
+            xml.writeAttribute("classname", clean(className(report)));
+            xml.writeAttribute("time", seconds(report.getExecutionTime() != null ? report.getExecutionTime() : 0));
+            if ("failed".equals(report.getStatus())) {
+                xml.writeCharacters("\n      ");
+                xml.writeStartElement("failure");
+                xml.writeAttribute("message", clean(failureMessage(report)));
+                xml.writeAttribute("type", "AssertionError");
+                if (details != null) {
+                    xml.writeCharacters(clean(details));
+                }
+                xml.writeEndElement();
+            } else if (!"success".equals(report.getStatus())) {
+                xml.writeCharacters("\n      ");
+                xml.writeEmptyElement("skipped");
+                if (report.getStatus() != null) {
+                    xml.writeAttribute("message", clean(report.getStatus()));
+                }
+            }
+            if (details != null && !"failed".equals(report.getStatus())) {
+                xml.writeCharacters("\n      ");
+                xml.writeStartElement("system-out");
+                xml.writeCharacters(clean(details));
+                xml.writeEndElement();
+            }
+            xml.writeCharacters("\n    ");
+            xml.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        try {
+            xml.writeCharacters("\n  ");
+            xml.writeEndElement();
+            xml.writeCharacters("\n");
+            xml.writeEndElement();
+            xml.writeCharacters("\n");
+            xml.writeEndDocument();
+            xml.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    static String caseName(TestReport report) {
+        if (report.getCaseName() != null && !report.getCaseName().isEmpty()) {
+            return report.getCaseName();
+        }
+        return "case-" + (report.getCaseId() != null ? report.getCaseId() : report.getId());
+    }
+
+    static String className(TestReport report) {
+        String suite = report.getPlanName() != null && !report.getPlanName().isEmpty() ? report.getPlanName() : "single";
+        return report.getCaseType() != null ? suite + "." + report.getCaseType() : suite;
+    }
+
+    static String failureMessage(TestReport report) {
+        if (report.getAssertsFailed() != null && report.getAssertsFailed() > 0) {
+            return report.getAssertsFailed() + " of " + (report.getAssertsTotal() != null ? report.getAssertsTotal() : report.getAssertsFailed())
+                    + " assertions failed";
+        }
+        return "case failed";
+    }
+
+    private static String seconds(long ms) {
+        return String.format(Locale.ROOT, "%.3f", ms / 1000.0);
+    }
+
+    /**
+     * Drops characters XML 1.0 cannot carry at all, such as the control characters that
+     * turn up in response bodies captured in logs.
+     */
+    static String clean(String s) {
+        if (s == null) {
+            return "";
+        }
+        StringBuilder sb = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            boolean valid = c == '\t' || c == '\n' || c == '\r' || (c >= 0x20 && c <= 0xD7FF) || (c >= 0xE000 && c <= 0xFFFD)
+                    || Character.isSurrogate(c);
+            if (!valid) {
+                if (sb == null) {
+                    sb = new StringBuilder(s.length()).append(s, 0, i);
+                }
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb != null ? sb.toString() : s;
+    }
+}
@@ -0,0 +1,34 @@
+package com.automatedtest.platform.export;
+
+import com.automatedtest.platform.entity.TestReport;
+
+import java.io.IOException;
+
+/**
+ * Writes reports in one export format straight to an output stream, one report at a time,
+ * so an export never holds more than the report being written.
+ */
+public interface ReportExportWriter {
+
+    /**
+     * Content type of the written document.
+     */
+    String contentType();
+
+    /**
+     * File extension, without the dot.
+     */
+    String extension();
+
+    void begin(ExportSummary summary) throws IOException;
+
+    /**
+     * @param details logs or their preview, written as the failure text and output; may be null
+     */
+    void write(TestReport report, String details) throws IOException;
+
+    /**
+     * Finishes the document and flushes it; does not close the underlying stream.
+     */
+    void end() throws IOException;
+}
@@ -0,0 +1,15 @@
+package com.automatedtest.platform.mapper;
+
+import com.automatedtest.platform.entity.AnalyticsCheckpoint;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface AnalyticsCheckpointMapper extends BaseMapper<AnalyticsCheckpoint> {
+
+    @Insert("INSERT INTO analytics_checkpoints (name, last_id, updated_at) VALUES (#{name}, #{lastId}, NOW()) " +
+            "ON DUPLICATE KEY UPDATE last_id = VALUES(last_id), updated_at = VALUES(updated_at)")
+    int save(@Param("name") String name, @Param("lastId") long lastId);
+}
@@ -0,0 +1,27 @@
+package com.automatedtest.platform.mapper;
+
+import com.automatedtest.platform.entity.CaseDurationStat;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface CaseDurationStatMapper extends BaseMapper<CaseDurationStat> {
+
+    /**
+     * Writes the given rows whole, inserting or replacing by case_id.
+     */
+    @Insert("<script>" +
+            "INSERT INTO case_duration_stats (case_id, project_id, samples, baseline_mean, baseline_var, recent_mean, slow_streak, regressed, digest, last_ms, updated_at) VALUES " +
+            "<foreach collection='rows' item='r' separator=','>" +
+            "(#{r.caseId}, #{r.projectId}, #{r.samples}, #{r.baselineMean}, #{r.baselineVar}, #{r.recentMean}, #{r.slowStreak}, #{r.regressed}, #{r.digest}, #{r.lastMs}, #{r.updatedAt})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE project_id = VALUES(project_id), samples = VALUES(samples), baseline_mean = VALUES(baseline_mean), " +
+            "baseline_var = VALUES(baseline_var), recent_mean = VALUES(recent_mean), slow_streak = VALUES(slow_streak), regressed = VALUES(regressed), digest = VALUES(digest), " +
+            "last_ms = VALUES(last_ms), updated_at = VALUES(updated_at)" +
+            "</script>")
+    int upsertAll(@Param("rows") List<CaseDurationStat> rows);
+}
@@ -0,0 +1,40 @@
+package com.automatedtest.platform.mapper;
+
+import com.automatedtest.platform.entity.CaseFlakyStat;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+@Mapper
+public interface CaseFlakyStatMapper extends BaseMapper<CaseFlakyStat> {
+
+    /**
+     * Writes the given rows whole, inserting or replacing by case_id.
+     */
+    @Insert("<script>" +
+            "INSERT INTO case_flaky_stats (case_id, project_id, runs, failures, comparable_pairs, transitions, bounces, fail_streak, " +
+            "max_fail_streak, last_status, prev_status, chain_in_window, last_executed_at, last_report_id, flip_rate, flakiness, updated_at) VALUES " +
+            "<foreach collection='rows' item='r' separator=','>" +
+            "(#{r.caseId}, #{r.projectId}, #{r.runs}, #{r.failures}, #{r.comparablePairs}, #{r.transitions}, #{r.bounces}, #{r.failStreak}, " +
+            "#{r.maxFailStreak}, #{r.lastStatus}, #{r.prevStatus}, #{r.chainInWindow}, #{r.lastExecutedAt}, #{r.lastReportId}, #{r.flipRate}, " +
+            "#{r.flakiness}, #{r.updatedAt})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE project_id = VALUES(project_id), runs = VALUES(runs), failures = VALUES(failures), " +
+            "comparable_pairs = VALUES(comparable_pairs), transitions = VALUES(transitions), bounces = VALUES(bounces), " +
+            "fail_streak = VALUES(fail_streak), max_fail_streak = VALUES(max_fail_streak), last_status = VALUES(last_status), " +
+            "prev_status = VALUES(prev_status), chain_in_window = VALUES(chain_in_window), last_executed_at = VALUES(last_executed_at), " +
+            "last_report_id = VALUES(last_report_id), flip_rate = VALUES(flip_rate), flakiness = VALUES(flakiness), updated_at = VALUES(updated_at)" +
+            "</script>")
+    int upsertAll(@Param("rows") List<CaseFlakyStat> rows);
+
+    /**
+     * A project's flakiest cases with at least minRuns runs, flakiest first.
+     */
+    @Select("SELECT * FROM case_flaky_stats WHERE project_id = #{projectId} AND flakiness > 0 AND runs >= #{minRuns} " +
+            "ORDER BY flakiness DESC LIMIT #{limit}")
+    List<CaseFlakyStat> selectFlakiest(@Param("projectId") Integer projectId, @Param("minRuns") int minRuns, @Param("limit") int limit);
+}
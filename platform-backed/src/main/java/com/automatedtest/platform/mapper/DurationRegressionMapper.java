@@ -0,0 +1,22 @@
+package com.automatedtest.platform.mapper;
+
+import com.automatedtest.platform.entity.DurationRegression;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+@Mapper
+public interface DurationRegressionMapper extends BaseMapper<DurationRegression> {
+
+    /**
+     * Regressions found in one plan run, largest standard score first.
+     */
+    @Select("SELECT * FROM duration_regressions WHERE plan_id = #{planId} AND plan_run_no = #{runNo} ORDER BY z_score DESC")
+    @Results({@Result(column = "z_score", property = "standardScore")})
+    List<DurationRegression> selectByRun(@Param("planId") Integer planId, @Param("runNo") Integer runNo);
+}
@@ -0,0 +1,24 @@
+package com.automatedtest.platform.mapper;
+
+import com.automatedtest.platform.entity.FailureCluster;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+@Mapper
+public interface FailureClusterMapper extends BaseMapper<FailureCluster> {
+
+    @Update("UPDATE failure_clusters SET size = size + #{added}, updated_at = NOW() WHERE id = #{id}")
+    int grow(@Param("id") Long id, @Param("added") int added);
+
+    /**
+     * Clusters of one plan run, largest first, without their signatures.
+     */
+    @Select("SELECT id, project_id, plan_id, plan_run_no, representative_report_id, representative_case_id, size, sample, " +
+            "created_at, updated_at FROM failure_clusters WHERE plan_id = #{planId} AND plan_run_no = #{runNo} ORDER BY size DESC, id")
+    List<FailureCluster> selectByRun(@Param("planId") Integer planId, @Param("runNo") Integer runNo);
+}
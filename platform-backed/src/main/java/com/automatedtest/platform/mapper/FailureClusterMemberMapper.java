@@ -0,0 +1,27 @@
+package com.automatedtest.platform.mapper;
+
+import com.automatedtest.platform.dto.ReportSummaryDTO;
+import com.automatedtest.platform.entity.FailureClusterMember;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+@Mapper
+public interface FailureClusterMemberMapper extends BaseMapper<FailureClusterMember> {
+
+    @Insert("<script>" +
+            "INSERT IGNORE INTO failure_cluster_members (report_id, cluster_id, project_id, case_id, similarity) VALUES " +
+            "<foreach collection='rows' item='r' separator=','>" +
+            "(#{r.reportId}, #{r.clusterId}, #{r.projectId}, #{r.caseId}, #{r.similarity})" +
+            "</foreach>" +
+            "</script>")
+    int insertAll(@Param("rows") List<FailureClusterMember> rows);
+
+    @Select("SELECT " + ReportSummaryDTO.COLUMNS + " FROM test_reports WHERE id IN " +
+            "(SELECT report_id FROM failure_cluster_members WHERE cluster_id = #{clusterId}) ORDER BY id")
+    List<ReportSummaryDTO> selectReports(@Param("clusterId") Long clusterId);
+}
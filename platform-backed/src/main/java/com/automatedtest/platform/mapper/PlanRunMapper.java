@@ -0,0 +1,53 @@
+package com.automatedtest.platform.mapper;
+
+import com.automatedtest.platform.entity.PlanRun;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface PlanRunMapper extends BaseMapper<PlanRun> {
+
+    /**
+     * Allocates the next run number of a plan in the same statement that inserts the run.
+     * Two concurrent allocations cannot both commit the same number because of
+     * uk_plan_run (plan_id, run_no); the loser gets a duplicate key error and retries.
+     */
+    @Insert("INSERT INTO plan_runs (plan_id, project_id, run_no, status, trigger_type, executed_by, total_cases, passed_cases, failed_cases, started_at) " +
+            "SELECT #{planId}, #{projectId}, COALESCE(MAX(run_no), 0) + 1, #{status}, #{triggerType}, #{executedBy}, #{totalCases}, 0, 0, #{startedAt} " +
+            "FROM plan_runs WHERE plan_id = #{planId}")
+    @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "id")
+    int allocate(PlanRun run);
+
+    @Select("<script>" +
+            "SELECT r.*, p.name AS plan_name FROM plan_runs r JOIN test_plans p ON p.id = r.plan_id " +
+            "WHERE r.status IN ('queued', 'running') " +
+            "<if test='projectId != null'> AND r.project_id = #{projectId} </if>" +
+            "<if test='createdBy != null'> AND p.created_by = #{createdBy} </if>" +
+            "ORDER BY r.started_at DESC LIMIT #{limit}" +
+            "</script>")
+    List<PlanRun> selectActive(@Param("projectId") Integer projectId, @Param("createdBy") Long createdBy, @Param("limit") int limit);
+
+    /**
+     * Folds one finished case into the run's summary row. Cases of a run finish concurrently,
+     * so the counters are incremented in place rather than written from the executor's tally.
+     */
+    @Update("UPDATE plan_runs SET " +
+            "passed_cases = passed_cases + #{passed}, failed_cases = failed_cases + #{failed}, " +
+            "asserts_total = asserts_total + #{assertsTotal}, asserts_passed = asserts_passed + #{assertsPassed}, " +
+            "asserts_failed = asserts_failed + #{assertsFailed}, duration_ms = duration_ms + #{durationMs}, " +
+            "first_report_id = LEAST(COALESCE(first_report_id, #{reportId,jdbcType=INTEGER}), COALESCE(#{reportId,jdbcType=INTEGER}, first_report_id)), " +
+            "executed_at = #{executedAt} " +
+            "WHERE id = #{runId}")
+    int recordCase(@Param("runId") Long runId, @Param("passed") int passed, @Param("failed") int failed,
+                   @Param("assertsTotal") int assertsTotal, @Param("assertsPassed") int assertsPassed,
+                   @Param("assertsFailed") int assertsFailed, @Param("durationMs") long durationMs,
+                   @Param("reportId") Integer reportId, @Param("executedAt") LocalDateTime executedAt);
+}
@@ -0,0 +1,38 @@
+package com.automatedtest.platform.mapper;
+
+import com.automatedtest.platform.entity.ProjectPurge;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * Purge progress rows, plus the chunked deletes of a project's child tables. Table and key
+ * names come from the purge service's fixed list and never from user input.
+ */
+@Mapper
+public interface ProjectPurgeMapper extends BaseMapper<ProjectPurge> {
+
+    /**
+     * Next keys of the project's rows after afterKey, in key order.
+     */
+    @Select("SELECT ${key} FROM ${table} WHERE project_id = #{projectId} AND ${key} > #{afterKey} ORDER BY ${key} LIMIT #{limit}")
+    List<Long> selectKeys(@Param("table") String table, @Param("key") String key, @Param("projectId") Integer projectId,
+                          @Param("afterKey") long afterKey, @Param("limit") int limit);
+
+    @Delete("<script>" +
+            "DELETE FROM ${table} WHERE project_id = #{projectId} AND ${key} IN " +
+            "<foreach collection='keys' item='k' open='(' separator=',' close=')'>#{k}</foreach>" +
+            "</script>")
+    int deleteKeys(@Param("table") String table, @Param("key") String key, @Param("projectId") Integer projectId,
+                   @Param("keys") List<Long> keys);
+
+    /**
+     * For tables keyed by (project_id, ...), where a plain limited delete already walks the key.
+     */
+    @Delete("DELETE FROM ${table} WHERE project_id = #{projectId} LIMIT #{limit}")
+    int deleteChunk(@Param("table") String table, @Param("projectId") Integer projectId, @Param("limit") int limit);
+}
@@ -2,8 +2,23 @@ package com.automatedtest.platform.mapper;
 
 import com.automatedtest.platform.entity.ProjectVariable;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Map;
 
 @Mapper
 public interface ProjectVariableMapper extends BaseMapper<ProjectVariable> {
+
+    /**
+     * Inserts or overwrites several variables of one project in a single statement,
+     * relying on uk_project_key (project_id, key_name).
+     */
+    @Insert("<script>" +
+            "INSERT INTO project_variables (project_id, key_name, `value`) VALUES " +
+            "<foreach collection='vars' index='k' item='v' separator=','>(#{projectId}, #{k}, #{v})</foreach> " +
+            "ON DUPLICATE KEY UPDATE `value` = VALUES(`value`), updated_at = NOW()" +
+            "</script>")
+    int upsertBatch(@Param("projectId") Integer projectId, @Param("vars") Map<String, String> vars);
 }
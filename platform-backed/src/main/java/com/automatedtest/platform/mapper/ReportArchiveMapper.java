@@ -0,0 +1,9 @@
+package com.automatedtest.platform.mapper;
+
+import com.automatedtest.platform.entity.ReportArchive;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+
+@Mapper
+public interface ReportArchiveMapper extends BaseMapper<ReportArchive> {
+}
@@ -0,0 +1,80 @@
+package com.automatedtest.platform.mapper;
+
+import com.automatedtest.platform.entity.TestReport;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partition maintenance and bulk removal of expired reports. Partition names are built by
+ * the retention service from dates only and never come from user input.
+ */
+@Mapper
+public interface ReportRetentionMapper {
+
+    /**
+     * Partitions of test_reports in order; description is the quoted upper bound or MAXVALUE.
+     * Empty if the table is not partitioned.
+     */
+    @Select("SELECT partition_name AS name, partition_description AS description FROM INFORMATION_SCHEMA.PARTITIONS " +
+            "WHERE table_schema = DATABASE() AND table_name = 'test_reports' AND partition_name IS NOT NULL " +
+            "ORDER BY partition_ordinal_position")
+    List<Map<String, Object>> selectPartitions();
+
+    /**
+     * Splits the next month off the catch-all partition, which holds no rows in normal operation.
+     */
+    @Update("ALTER TABLE test_reports REORGANIZE PARTITION p_max INTO (" +
+            "PARTITION ${name} VALUES LESS THAN ('${upperBound}'), PARTITION p_max VALUES LESS THAN (MAXVALUE))")
+    void splitMaxPartition(@Param("name") String name, @Param("upperBound") String upperBound);
+
+    @Update("ALTER TABLE test_reports DROP PARTITION ${name}")
+    void dropPartition(@Param("name") String name);
+
+    @Select("SELECT MIN(executed_at) FROM test_reports")
+    LocalDateTime selectOldestExecutedAt();
+
+    /**
+     * Projects (0 for none) with reports executed in [from, to).
+     */
+    @Select("SELECT DISTINCT COALESCE(project_id, 0) FROM test_reports WHERE executed_at >= #{from} AND executed_at < #{to}")
+    List<Integer> selectProjectsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Select("<script>" +
+            "SELECT * FROM test_reports WHERE executed_at &gt;= #{from} AND executed_at &lt; #{to} " +
+            "<choose><when test='projectId == 0'> AND project_id IS NULL </when><otherwise> AND project_id = #{projectId} </otherwise></choose>" +
+            " AND id &gt; #{afterId} ORDER BY id LIMIT #{limit}" +
+            "</script>")
+    List<TestReport> selectChunk(@Param("projectId") int projectId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                 @Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * Ids of the next chunk of a project's reports executed in [from, to), to be deleted.
+     */
+    @Select("<script>" +
+            "SELECT id FROM test_reports WHERE executed_at &gt;= #{from} AND executed_at &lt; #{to} " +
+            "<choose><when test='projectId == 0'> AND project_id IS NULL </when><otherwise> AND project_id = #{projectId} </otherwise></choose>" +
+            " LIMIT #{limit}" +
+            "</script>")
+    List<Integer> selectExpiredIds(@Param("projectId") int projectId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                   @Param("limit") int limit);
+
+    /**
+     * Ids of reports soft-deleted before the given time.
+     */
+    @Select("SELECT id FROM test_reports WHERE is_deleted = 1 AND deleted_at < #{before} LIMIT #{limit}")
+    List<Integer> selectSoftDeletedIds(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /**
+     * Drops search documents in an id range whose report no longer exists.
+     */
+    @Delete("DELETE d FROM report_search_docs d LEFT JOIN test_reports r ON r.id = d.report_id " +
+            "WHERE d.report_id BETWEEN #{fromId} AND #{toId} AND r.id IS NULL")
+    int deleteOrphanSearchDocs(@Param("fromId") long fromId, @Param("toId") long toId);
+}
@@ -0,0 +1,9 @@
+package com.automatedtest.platform.mapper;
+
+import com.automatedtest.platform.entity.ReportRetentionPolicy;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+
+@Mapper
+public interface ReportRetentionPolicyMapper extends BaseMapper<ReportRetentionPolicy> {
+}
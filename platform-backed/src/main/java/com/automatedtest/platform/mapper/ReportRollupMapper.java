@@ -0,0 +1,143 @@
+package com.automatedtest.platform.mapper;
+
+import com.automatedtest.platform.dto.CaseFailureCountDTO;
+import com.automatedtest.platform.entity.ReportDailyRollup;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Mapper
+public interface ReportRollupMapper extends BaseMapper<ReportDailyRollup> {
+
+    /**
+     * Adds the given deltas to the existing rows, creating missing ones.
+     */
+    @Insert("<script>" +
+            "INSERT INTO report_daily_rollup (project_id, stat_date, case_type, total, passed, failed, dur_count, dur_sum, dur_sumsq, dur_min, dur_max) VALUES " +
+            "<foreach collection='rows' item='r' separator=','>" +
+            "(#{r.projectId}, #{r.statDate}, #{r.caseType}, #{r.total}, #{r.passed}, #{r.failed}, #{r.durCount}, #{r.durSum}, #{r.durSumsq}, #{r.durMin}, #{r.durMax})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE total = total + VALUES(total), passed = passed + VALUES(passed), failed = failed + VALUES(failed), " +
+            "dur_count = dur_count + VALUES(dur_count), dur_sum = dur_sum + VALUES(dur_sum), dur_sumsq = dur_sumsq + VALUES(dur_sumsq), " +
+            "dur_min = LEAST(COALESCE(dur_min, VALUES(dur_min)), COALESCE(VALUES(dur_min), dur_min)), " +
+            "dur_max = GREATEST(COALESCE(dur_max, VALUES(dur_max)), COALESCE(VALUES(dur_max), dur_max))" +
+            "</script>")
+    int upsertDeltas(@Param("rows") List<ReportDailyRollup> rows);
+
+    /**
+     * Records which cases ran on a day and adds their failures; keys are project_id,
+     * stat_date, case_id, and failed / lastFailedAt the deltas.
+     */
+    @Insert("<script>" +
+            "INSERT INTO report_daily_cases (project_id, stat_date, case_id, failed, last_failed_at) VALUES " +
+            "<foreach collection='rows' item='r' separator=','>" +
+            "(#{r.projectId}, #{r.statDate}, #{r.caseId}, #{r.failed}, #{r.lastFailedAt})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE failed = failed + VALUES(failed), " +
+            "last_failed_at = GREATEST(COALESCE(last_failed_at, VALUES(last_failed_at)), COALESCE(VALUES(last_failed_at), last_failed_at))" +
+            "</script>")
+    int insertCases(@Param("rows") List<Map<String, Object>> rows);
+
+    /**
+     * Rollup rows of [from, to]: of every project when projectId is null, of reports without
+     * a project when it is 0.
+     */
+    @Delete("<script>" +
+            "DELETE FROM report_daily_rollup WHERE stat_date BETWEEN #{from} AND #{to}" +
+            "<if test='projectId != null'> AND project_id = #{projectId} </if>" +
+            "</script>")
+    int deleteRollups(@Param("projectId") Integer projectId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Delete("<script>" +
+            "DELETE FROM report_daily_cases WHERE stat_date BETWEEN #{from} AND #{to}" +
+            "<if test='projectId != null'> AND project_id = #{projectId} </if>" +
+            "</script>")
+    int deleteCases(@Param("projectId") Integer projectId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Recomputes the rollups of a date range from test_reports, for one project or all of them
+     * as in {@link #deleteRollups}. Must match what {@link #upsertDeltas} accumulates for the
+     * same reports.
+     */
+    @Insert("<script>" +
+            "INSERT INTO report_daily_rollup (project_id, stat_date, case_type, total, passed, failed, dur_count, dur_sum, dur_sumsq, dur_min, dur_max) " +
+            "SELECT COALESCE(r.project_id, 0), DATE(r.executed_at), UPPER(COALESCE(c.type, '')), COUNT(*), " +
+            "SUM(COALESCE(r.status, '') = 'success'), SUM(COALESCE(r.status, '') &lt;&gt; 'success'), " +
+            "COUNT(r.execution_time), COALESCE(SUM(r.execution_time), 0), COALESCE(SUM(r.execution_time * r.execution_time), 0), " +
+            "MIN(r.execution_time), MAX(r.execution_time) " +
+            "FROM test_reports r LEFT JOIN test_cases c ON c.id = r.case_id " +
+            "WHERE r.executed_at &gt;= #{from} AND r.executed_at &lt; DATE_ADD(#{to}, INTERVAL 1 DAY) " +
+            "<if test='projectId != null'><choose><when test='projectId == 0'> AND r.project_id IS NULL </when>" +
+            "<otherwise> AND r.project_id = #{projectId} </otherwise></choose></if>" +
+            "GROUP BY COALESCE(r.project_id, 0), DATE(r.executed_at), UPPER(COALESCE(c.type, ''))" +
+            "</script>")
+    int rebuildRollups(@Param("projectId") Integer projectId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Insert("<script>" +
+            "INSERT IGNORE INTO report_daily_cases (project_id, stat_date, case_id, failed, last_failed_at) " +
+            "SELECT COALESCE(project_id, 0), DATE(executed_at), case_id, SUM(COALESCE(status, '') &lt;&gt; 'success'), " +
+            "MAX(CASE WHEN COALESCE(status, '') &lt;&gt; 'success' THEN executed_at END) FROM test_reports " +
+            "WHERE case_id IS NOT NULL AND executed_at &gt;= #{from} AND executed_at &lt; DATE_ADD(#{to}, INTERVAL 1 DAY) " +
+            "<if test='projectId != null'><choose><when test='projectId == 0'> AND project_id IS NULL </when>" +
+            "<otherwise> AND project_id = #{projectId} </otherwise></choose></if>" +
+            "GROUP BY COALESCE(project_id, 0), DATE(executed_at), case_id" +
+            "</script>")
+    int rebuildCases(@Param("projectId") Integer projectId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * The distinct project (0 for none) and day pairs the given reports were executed on;
+     * only projectId and statDate are set.
+     */
+    @Select("<script>" +
+            "SELECT DISTINCT COALESCE(project_id, 0) AS project_id, DATE(executed_at) AS stat_date FROM test_reports " +
+            "WHERE executed_at IS NOT NULL AND id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<ReportDailyRollup> selectReportDays(@Param("ids") List<Integer> ids);
+
+    /**
+     * Per day and case type since the given date, summed over projects when projectId is null.
+     */
+    @Select("<script>" +
+            "SELECT stat_date, case_type, SUM(total) AS total, SUM(passed) AS passed, SUM(failed) AS failed, " +
+            "SUM(dur_count) AS dur_count, SUM(dur_sum) AS dur_sum, SUM(dur_sumsq) AS dur_sumsq " +
+            "FROM report_daily_rollup WHERE stat_date &gt;= #{from} " +
+            "<if test='projectId != null'> AND project_id = #{projectId} </if>" +
+            "GROUP BY stat_date, case_type" +
+            "</script>")
+    List<ReportDailyRollup> selectDaily(@Param("projectId") Integer projectId, @Param("from") LocalDate from);
+
+    /**
+     * All-time execution count and duration sums.
+     */
+    @Select("<script>" +
+            "SELECT COALESCE(SUM(total), 0) AS total, COALESCE(SUM(dur_count), 0) AS dur_count, COALESCE(SUM(dur_sum), 0) AS dur_sum " +
+            "FROM report_daily_rollup " +
+            "<if test='projectId != null'> WHERE project_id = #{projectId} </if>" +
+            "</script>")
+    ReportDailyRollup selectTotals(@Param("projectId") Integer projectId);
+
+    @Select("<script>" +
+            "SELECT COUNT(DISTINCT case_id) FROM report_daily_cases WHERE stat_date &gt;= #{from} " +
+            "<if test='projectId != null'> AND project_id = #{projectId} </if>" +
+            "</script>")
+    long countDistinctCases(@Param("projectId") Integer projectId, @Param("from") LocalDate from);
+
+    /**
+     * The limit cases with the most failures since the given date, most failures first;
+     * summed over projects when projectId is null.
+     */
+    @Select("<script>" +
+            "SELECT case_id, SUM(failed) AS failed, MAX(last_failed_at) AS last_failed_at " +
+            "FROM report_daily_cases WHERE stat_date &gt;= #{from} AND failed &gt; 0 " +
+            "<if test='projectId != null'> AND project_id = #{projectId} </if>" +
+            "GROUP BY case_id ORDER BY failed DESC, last_failed_at DESC, case_id LIMIT #{limit}" +
+            "</script>")
+    List<CaseFailureCountDTO> selectTopFailedCases(@Param("projectId") Integer projectId, @Param("from") LocalDate from, @Param("limit") int limit);
+}
@@ -0,0 +1,31 @@
+package com.automatedtest.platform.mapper;
+
+import com.automatedtest.platform.entity.TestReport;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+import java.util.Map;
+
+@Mapper
+public interface ReportSearchMapper {
+
+    @Insert("<script>" +
+            "INSERT INTO report_search_docs (report_id, project_id, plan_id, plan_run_no, content) VALUES " +
+            "<foreach collection='docs' item='d' separator=','>" +
+            "(#{d.reportId}, #{d.projectId}, #{d.planId}, #{d.planRunNo}, #{d.content})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE content = VALUES(content)" +
+            "</script>")
+    int upsertDocs(@Param("docs") List<Map<String, Object>> docs);
+
+    /**
+     * Reports after afterId that have no search document yet.
+     */
+    @Select("SELECT r.id, r.project_id, r.plan_id, r.plan_run_no, r.logs, r.logs_ref FROM test_reports r " +
+            "LEFT JOIN report_search_docs d ON d.report_id = r.id " +
+            "WHERE r.id > #{afterId} AND d.report_id IS NULL ORDER BY r.id LIMIT #{limit}")
+    List<TestReport> selectUnindexed(@Param("afterId") long afterId, @Param("limit") int limit);
+}
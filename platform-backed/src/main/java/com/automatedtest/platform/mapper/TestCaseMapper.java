@@ -3,7 +3,39 @@ package com.automatedtest.platform.mapper;
 import com.automatedtest.platform.entity.TestCase;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Mapper
 public interface TestCaseMapper extends BaseMapper<TestCase> {
+
+    @Update("UPDATE test_cases SET last_result = 'running', last_run = #{lastRun} WHERE id = #{id}")
+    int markRunning(@Param("id") Integer id, @Param("lastRun") LocalDateTime lastRun);
+
+    /**
+     * Writes last_result / last_run for many cases in a single statement.
+     * Callers must pass at most one row per case id.
+     */
+    @Update("<script>" +
+            "UPDATE test_cases SET " +
+            "last_result = CASE id <foreach collection='items' item='c'> WHEN #{c.id} THEN #{c.lastResult} </foreach> END, " +
+            "last_run = CASE id <foreach collection='items' item='c'> WHEN #{c.id} THEN #{c.lastRun} </foreach> END " +
+            "WHERE id IN <foreach collection='items' item='c' open='(' separator=',' close=')'>#{c.id}</foreach>" +
+            "</script>")
+    int updateLastResults(@Param("items") List<TestCase> items);
+
+    /**
+     * Newest cases whose last run failed, of one project and one creator when given.
+     */
+    @Select("<script>" +
+            "SELECT * FROM test_cases WHERE last_result = 'failed'" +
+            "<if test='projectId != null'> AND project_id = #{projectId}</if>" +
+            "<if test='createdBy != null'> AND created_by = #{createdBy}</if>" +
+            " ORDER BY last_run DESC LIMIT #{limit}" +
+            "</script>")
+    List<TestCase> selectRecentFailed(@Param("projectId") Integer projectId, @Param("createdBy") Long createdBy, @Param("limit") int limit);
 }
@@ -3,7 +3,32 @@ package com.automatedtest.platform.mapper;
 import com.automatedtest.platform.entity.TestPlan;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
 
 @Mapper
 public interface TestPlanMapper extends BaseMapper<TestPlan> {
+
+    /**
+     * Newest plans whose last run failed, of one project and one creator when given.
+     */
+    @Select("<script>" +
+            "SELECT * FROM test_plans WHERE last_run_status = 'Failed'" +
+            "<if test='projectId != null'> AND project_id = #{projectId}</if>" +
+            "<if test='createdBy != null'> AND created_by = #{createdBy}</if>" +
+            " ORDER BY last_run_time DESC LIMIT #{limit}" +
+            "</script>")
+    List<TestPlan> selectRecentFailed(@Param("projectId") Integer projectId, @Param("createdBy") Long createdBy, @Param("limit") int limit);
+
+    /**
+     * Marks a plan still shown as running as failed, or every such plan when planId is null.
+     */
+    @Update("<script>" +
+            "UPDATE test_plans SET last_run_status = 'Failed' WHERE last_run_status = 'Running'" +
+            "<if test='planId != null'> AND id = #{planId}</if>" +
+            "</script>")
+    int failRunning(@Param("planId") Integer planId);
 }
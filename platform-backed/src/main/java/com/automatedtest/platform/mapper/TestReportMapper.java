@@ -1,12 +1,18 @@
 package com.automatedtest.platform.mapper;
 
+import com.automatedtest.platform.dto.ReportExportQuery;
+import com.automatedtest.platform.dto.ReportSummaryDTO;
 import com.automatedtest.platform.entity.TestReport;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -28,34 +34,161 @@ public interface TestReportMapper extends BaseMapper<TestReport> {
     @Select("SELECT r.status, r.executed_by as executedBy, r.executed_at as executedAt, c.name as caseName FROM test_reports r LEFT JOIN test_cases c ON r.case_id = c.id ORDER BY r.executed_at DESC LIMIT 10")
     List<Map<String, Object>> getRecentActivity();
 
+    String UNIFIED_SINGLE_WHERE =
+            "  WHERE r.project_id = #{projectId} AND r.plan_id IS NULL AND r.is_deleted = 0 " +
+            "  <if test='status != null and status != \"all\"'> AND r.status = #{status} </if> " +
+            "  <if test='keyword != null and keyword != \"\"'> AND (" +
+            "    <choose><when test='phrase != null'> r.id IN (SELECT d.report_id FROM report_search_docs d WHERE d.project_id = #{projectId} AND MATCH(d.content) AGAINST(#{phrase} IN BOOLEAN MODE)) </when>" +
+            "    <otherwise> r.logs_preview LIKE CONCAT('%',#{keyword},'%') </otherwise></choose>" +
+            "    OR r.case_id IN (SELECT c.id FROM test_cases c WHERE c.project_id = #{projectId} AND c.name LIKE CONCAT('%',#{keyword},'%'))) </if> " +
+            "  <if test='date != null and date != \"\"'> AND r.executed_at &gt;= #{date} AND r.executed_at &lt; DATE_ADD(#{date}, INTERVAL 1 DAY) </if> ";
+
+    String UNIFIED_SINGLE_AFTER =
+            "  <if test='afterTime != null'> AND (r.executed_at &lt; #{afterTime} OR (r.executed_at = #{afterTime} AND r.id &lt; #{afterId})) </if> ";
+
+    /** Plan runs are listed from their plan_runs summary row, keyed to the run's first report. */
+    String UNIFIED_RUN_WHERE =
+            "  WHERE pr.project_id = #{projectId} AND pr.is_deleted = 0 AND pr.first_report_id IS NOT NULL " +
+            "  <if test='status != null and status != \"all\"'> AND (CASE WHEN pr.status = 'queued' THEN 'running' ELSE pr.status END) = #{status} </if> " +
+            "  <if test='keyword != null and keyword != \"\"'> AND (" +
+            "    <choose><when test='phrase != null'> (pr.plan_id, pr.run_no) IN (SELECT d.plan_id, d.plan_run_no FROM report_search_docs d WHERE d.project_id = #{projectId} AND d.plan_id IS NOT NULL AND MATCH(d.content) AGAINST(#{phrase} IN BOOLEAN MODE)) </when>" +
+            "    <otherwise> (pr.plan_id, pr.run_no) IN (SELECT r.plan_id, r.plan_run_no FROM test_reports r WHERE r.project_id = #{projectId} AND r.plan_id IS NOT NULL AND r.logs_preview LIKE CONCAT('%',#{keyword},'%')) </otherwise></choose>" +
+            "    OR pr.plan_id IN (SELECT p.id FROM test_plans p WHERE p.project_id = #{projectId} AND p.name LIKE CONCAT('%',#{keyword},'%'))) </if> " +
+            "  <if test='date != null and date != \"\"'> AND pr.executed_at &gt;= #{date} AND pr.executed_at &lt; DATE_ADD(#{date}, INTERVAL 1 DAY) </if> ";
+
+    String UNIFIED_RUN_AFTER =
+            "  <if test='afterTime != null'> AND (pr.executed_at &lt; #{afterTime} OR (pr.executed_at = #{afterTime} AND pr.first_report_id &lt; #{afterId})) </if> ";
+
+    /**
+     * One page of single-case reports and plan runs, newest first. Each branch is filtered by
+     * project and cut to the first offset + size rows through its own index before the merge,
+     * so neither side is aggregated or sorted in full. The total comes from
+     * {@link #countUnifiedReports}. With afterTime/afterId set, only rows after that
+     * (executedAt, id) position are read, for keyset paging; ids of both branches are report ids.
+     */
     @Select("<script>" +
             "SELECT * FROM (" +
-            "  SELECT r.id, r.project_id as projectId, r.plan_id as planId, r.plan_run_no as planRunNo, r.case_id as caseId, r.status, r.execution_time as executionTime, r.executed_at as executedAt, r.executed_by as executedBy, r.trigger_type as triggerType, r.asserts_total as assertsTotal, r.asserts_passed as assertsPassed, r.asserts_failed as assertsFailed, " +
+            "  (SELECT r.id, r.project_id as projectId, r.plan_id as planId, r.plan_run_no as planRunNo, r.case_id as caseId, r.status, r.execution_time as executionTime, r.executed_at as executedAt, r.executed_by as executedBy, r.trigger_type as triggerType, r.asserts_total as assertsTotal, r.asserts_passed as assertsPassed, r.asserts_failed as assertsFailed, " +
             "         1 as totalCases, CASE WHEN r.status = 'success' THEN 1 ELSE 0 END as passedCases, CASE WHEN r.status = 'failed' THEN 1 ELSE 0 END as failedCases " +
             "  FROM test_reports r " +
-            "  LEFT JOIN test_cases c ON r.case_id = c.id " +
-            "  WHERE r.plan_id IS NULL AND r.is_deleted = 0 " +
-            "  <if test='status != null and status != \"all\"'> AND r.status = #{status} </if> " +
-            "  <if test='keyword != null and keyword != \"\"'> AND (r.logs LIKE CONCAT('%',#{keyword},'%') OR c.name LIKE CONCAT('%',#{keyword},'%')) </if> " +
-            "  <if test='date != null and date != \"\"'> AND DATE(r.executed_at) = #{date} </if> " +
+            UNIFIED_SINGLE_WHERE + UNIFIED_SINGLE_AFTER +
+            "  ORDER BY r.executed_at DESC, r.id DESC LIMIT #{limit}) " +
             "  UNION ALL " +
-            "  SELECT MIN(r.id) as id, r.project_id as projectId, r.plan_id as planId, r.plan_run_no as planRunNo, NULL as caseId, " +
-            "         CASE WHEN SUM(CASE WHEN r.status = 'running' THEN 1 ELSE 0 END) > 0 THEN 'running' " +
-            "              WHEN SUM(CASE WHEN r.status = 'failed' THEN 1 ELSE 0 END) > 0 THEN 'failed' " +
-            "              ELSE 'success' END as status, " +
-            "         SUM(r.execution_time) as executionTime, MAX(r.executed_at) as executedAt, MAX(r.executed_by) as executedBy, r.trigger_type as triggerType, " +
-            "         SUM(r.asserts_total) as assertsTotal, SUM(r.asserts_passed) as assertsPassed, SUM(r.asserts_failed) as assertsFailed, " +
-            "         COUNT(*) as totalCases, SUM(CASE WHEN r.status = 'success' THEN 1 ELSE 0 END) as passedCases, SUM(CASE WHEN r.status = 'failed' THEN 1 ELSE 0 END) as failedCases " +
-            "  FROM test_reports r " +
-            "  LEFT JOIN test_plans p ON r.plan_id = p.id " +
-            "  WHERE r.plan_id IS NOT NULL AND r.is_deleted = 0 " +
-            "  <if test='keyword != null and keyword != \"\"'> AND (r.logs LIKE CONCAT('%',#{keyword},'%') OR p.name LIKE CONCAT('%',#{keyword},'%')) </if> " +
-            "  <if test='date != null and date != \"\"'> AND DATE(r.executed_at) = #{date} </if> " +
-            "  GROUP BY r.project_id, r.plan_id, r.plan_run_no, r.trigger_type " +
-            "  <if test='status != null and status != \"all\"'> HAVING status = #{status} </if> " +
+            "  (SELECT pr.first_report_id as id, pr.project_id as projectId, pr.plan_id as planId, pr.run_no as planRunNo, NULL as caseId, " +
+            "         CASE WHEN pr.status = 'queued' THEN 'running' ELSE pr.status END as status, " +
+            "         pr.duration_ms as executionTime, pr.executed_at as executedAt, pr.executed_by as executedBy, pr.trigger_type as triggerType, " +
+            "         pr.asserts_total as assertsTotal, pr.asserts_passed as assertsPassed, pr.asserts_failed as assertsFailed, " +
+            "         pr.total_cases as totalCases, pr.passed_cases as passedCases, pr.failed_cases as failedCases " +
+            "  FROM plan_runs pr " +
+            UNIFIED_RUN_WHERE + UNIFIED_RUN_AFTER +
+            "  ORDER BY pr.executed_at DESC, pr.first_report_id DESC LIMIT #{limit}) " +
             ") AS unified " +
-            "WHERE projectId = #{projectId} " +
-            "ORDER BY executedAt DESC" +
+            "ORDER BY executedAt DESC, id DESC" +
+            "</script>")
+    IPage<TestReport> selectUnifiedReports(Page<TestReport> page, @Param("projectId") Integer projectId, @Param("status") String status, @Param("keyword") String keyword, @Param("phrase") String phrase, @Param("date") String date,
+                                           @Param("afterTime") LocalDateTime afterTime, @Param("afterId") Long afterId, @Param("limit") long limit);
+
+    @Select("<script>" +
+            "SELECT (SELECT COUNT(*) FROM test_reports r " + UNIFIED_SINGLE_WHERE + ") + " +
+            "       (SELECT COUNT(*) FROM plan_runs pr " + UNIFIED_RUN_WHERE + ")" +
+            "</script>")
+    long countUnifiedReports(@Param("projectId") Integer projectId, @Param("status") String status, @Param("keyword") String keyword, @Param("phrase") String phrase, @Param("date") String date);
+
+    @Select("SELECT " + ReportSummaryDTO.COLUMNS + " FROM test_reports WHERE id = #{id}")
+    ReportSummaryDTO selectSummaryById(@Param("id") Integer id);
+
+    @Select("<script>" +
+            "SELECT " + ReportSummaryDTO.COLUMNS + " FROM test_reports " +
+            "<where><if test='projectId != null'> project_id = #{projectId} </if></where> " +
+            "ORDER BY executed_at DESC LIMIT #{limit}" +
+            "</script>")
+    List<ReportSummaryDTO> selectRecentSummaries(@Param("projectId") Integer projectId, @Param("limit") int limit);
+
+    /**
+     * Id of the newest report of a plan or of a case; singleOnly skips reports written by plan runs.
+     */
+    @Select("<script>" +
+            "SELECT id FROM test_reports " +
+            "<where>" +
+            "<if test='planId != null'> AND plan_id = #{planId} </if>" +
+            "<if test='caseId != null'> AND case_id = #{caseId} </if>" +
+            "<if test='singleOnly'> AND plan_id IS NULL </if>" +
+            "</where> " +
+            "ORDER BY id DESC LIMIT 1" +
+            "</script>")
+    Integer selectLatestId(@Param("planId") Integer planId, @Param("caseId") Integer caseId, @Param("singleOnly") boolean singleOnly);
+
+    /**
+     * Size and success count of the project's newest reports, at most limit of them.
+     */
+    @Select("SELECT COUNT(*) AS total, COALESCE(SUM(status = 'success'), 0) AS success FROM (" +
+            "SELECT status FROM test_reports WHERE project_id = #{projectId} ORDER BY executed_at DESC LIMIT #{limit}) t")
+    Map<String, Object> countRecentOutcomes(@Param("projectId") Integer projectId, @Param("limit") int limit);
+
+    /**
+     * Case, outcome and duration of every report of a plan run, read from idx_plan_run_outcome alone.
+     */
+    @Select("SELECT id, case_id, status, execution_time FROM test_reports " +
+            "WHERE plan_id = #{planId} AND plan_run_no = #{runNo} AND case_id IS NOT NULL")
+    List<ReportSummaryDTO> selectRunOutcomes(@Param("planId") Integer planId, @Param("runNo") Integer runNo);
+
+    /**
+     * Case outcomes written after the given report id, in id order, for incremental scans.
+     */
+    @Select("SELECT id, project_id, case_id, status, executed_at FROM test_reports " +
+            "WHERE id > #{afterId} AND case_id IS NOT NULL ORDER BY id LIMIT #{limit}")
+    List<ReportSummaryDTO> selectOutcomesAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    String EXPORT_WHERE =
+            " WHERE r.project_id = #{q.projectId} AND r.is_deleted = 0 " +
+            "<if test='q.planId != null'> AND r.plan_id = #{q.planId} </if>" +
+            "<if test='q.runNo != null'> AND r.plan_run_no = #{q.runNo} </if>" +
+            "<if test='q.from != null'> AND r.executed_at &gt;= #{q.from} </if>" +
+            "<if test='q.to != null'> AND r.executed_at &lt; #{q.to} </if>" +
+            "<if test='q.status != null'> AND r.status = #{q.status} </if>";
+
+    /**
+     * Totals of an export, read before its first row is written.
+     */
+    @Select("<script>" +
+            "SELECT COUNT(*) AS total, COALESCE(SUM(r.status = 'failed'), 0) AS failed, " +
+            "COALESCE(SUM(r.status NOT IN ('success', 'failed')), 0) AS skipped, " +
+            "COALESCE(SUM(r.execution_time), 0) AS durationMs, MIN(r.executed_at) AS firstAt " +
+            "FROM test_reports r " + EXPORT_WHERE +
             "</script>")
-    IPage<TestReport> selectUnifiedReports(Page<TestReport> page, @Param("projectId") Integer projectId, @Param("status") String status, @Param("keyword") String keyword, @Param("date") String date);
+    Map<String, Object> selectExportSummary(@Param("q") ReportExportQuery query);
+
+    /**
+     * Next rows of an export in (executed_at, id) order, after the given position. Carries the
+     * log preview, and the inline logs only when full logs were asked for.
+     */
+    @Select("<script>" +
+            "SELECT r.id, r.project_id, r.plan_id, r.plan_run_no, r.case_id, r.status, r.execution_time, r.executed_at, " +
+            "r.executed_by, r.trigger_type, r.asserts_total, r.asserts_passed, r.asserts_failed, r.logs_ref, r.logs_size, " +
+            "COALESCE(r.logs_preview, LEFT(r.logs, 500)) AS logs_preview, " +
+            "<if test='q.fullLogs'> CASE WHEN r.logs_ref IS NULL THEN r.logs END AS logs, </if>" +
+            "c.name AS case_name, c.type AS case_type, p.name AS plan_name " +
+            "FROM test_reports r LEFT JOIN test_cases c ON c.id = r.case_id LEFT JOIN test_plans p ON p.id = r.plan_id " +
+            EXPORT_WHERE +
+            "<if test='afterTime != null'> AND (r.executed_at &gt; #{afterTime} OR (r.executed_at = #{afterTime} AND r.id &gt; #{afterId})) </if>" +
+            "ORDER BY r.executed_at, r.id LIMIT #{limit}" +
+            "</script>")
+    List<TestReport> selectExportChunk(@Param("q") ReportExportQuery query, @Param("afterTime") LocalDateTime afterTime,
+                                       @Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * Those of the given log references that some report, deleted or not, still points to.
+     */
+    @Select("<script>" +
+            "SELECT DISTINCT logs_ref FROM test_reports WHERE logs_ref IN " +
+            "<foreach collection='refs' item='ref' open='(' separator=',' close=')'>#{ref}</foreach>" +
+            "</script>")
+    List<String> selectReferencedLogRefs(@Param("refs") Collection<String> refs);
+
+    @Select("SELECT id, logs FROM test_reports WHERE id > #{afterId} AND logs IS NOT NULL AND logs_ref IS NULL ORDER BY id LIMIT #{limit}")
+    List<TestReport> selectInlineLogs(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    @Update("UPDATE test_reports SET logs_ref = #{ref}, logs_size = #{size}, logs_preview = #{preview}, logs = NULL " +
+            "WHERE id = #{id} AND logs_ref IS NULL")
+    int moveLogsToBlob(@Param("id") Integer id, @Param("ref") String ref, @Param("size") int size, @Param("preview") String preview);
 }
@@ -2,8 +2,23 @@ package com.automatedtest.platform.mapper;
 
 import com.automatedtest.platform.entity.UserVariable;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Map;
 
 @Mapper
 public interface UserVariableMapper extends BaseMapper<UserVariable> {
+
+    /**
+     * Inserts or overwrites several variables of one user in a single statement,
+     * relying on unique_user_key (user_id, key_name).
+     */
+    @Insert("<script>" +
+            "INSERT INTO user_variables (user_id, key_name, `value`) VALUES " +
+            "<foreach collection='vars' index='k' item='v' separator=','>(#{userId}, #{k}, #{v})</foreach> " +
+            "ON DUPLICATE KEY UPDATE `value` = VALUES(`value`), updated_at = NOW()" +
+            "</script>")
+    int upsertBatch(@Param("userId") Long userId, @Param("vars") Map<String, String> vars);
 }
@@ -0,0 +1,37 @@
+package com.automatedtest.platform.service;
+
+import com.automatedtest.platform.dto.BulkOperationRequest;
+import com.automatedtest.platform.entity.User;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Archive, delete, restore, re-tag and move over many rows at once. Rows are walked by id in
+ * chunks and each chunk is one set-based statement in its own short transaction, so neither
+ * memory nor lock time grows with the size of the selection.
+ *
+ * Invalid requests are rejected with an IllegalArgumentException carrying the message for the user.
+ */
+public interface BulkOperationService {
+
+    /**
+     * Validates the request and queues it as a background job; returns the job's status.
+     */
+    Map<String, Object> submit(BulkOperationRequest request, User user, Integer projectId);
+
+    /**
+     * Runs the request in the calling thread, chunk by chunk; returns the number of rows processed.
+     */
+    long execute(BulkOperationRequest request, User user, Integer projectId);
+
+    /**
+     * Status of a job, or null if it is unknown or belongs to another user (admins see all).
+     */
+    Map<String, Object> status(String jobId, User user);
+
+    /**
+     * The user's recent jobs, newest first (all jobs for admins).
+     */
+    List<Map<String, Object>> list(User user);
+}
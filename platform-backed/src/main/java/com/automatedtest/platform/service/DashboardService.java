@@ -1,7 +1,21 @@
 package com.automatedtest.platform.service;
 
 import com.automatedtest.platform.dto.DashboardStatsDTO;
+import com.automatedtest.platform.dto.RunningTaskDTO;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
 
 public interface DashboardService {
     DashboardStatsDTO getDashboardStats(String username, Integer projectId);
+
+    List<RunningTaskDTO> getRunningTasks(String username, Integer projectId);
+
+    SseEmitter streamRunningTasks(String username, Integer projectId);
+
+    /**
+     * Load times and cache hit rates of the dashboard sections since start-up.
+     */
+    Map<String, Object> getMetrics();
 }
@@ -0,0 +1,40 @@
+package com.automatedtest.platform.service;
+
+import com.automatedtest.platform.entity.DurationRegression;
+import com.automatedtest.platform.entity.TestReport;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-case execution time baselines and the slowdowns detected against them.
+ */
+public interface DurationRegressionService {
+
+    /**
+     * Queues freshly written reports; their durations are folded into the case baselines
+     * in the background, in arrival order. Only successful reports count.
+     */
+    void record(List<TestReport> reports);
+
+    /**
+     * Waits until the reports of the plan run queued so far have been processed, at most
+     * timeoutMs; returns at once if none are queued.
+     */
+    boolean awaitRun(Integer planId, Integer runNo, long timeoutMs);
+
+    /**
+     * Regressions detected in the reports of a plan run, with case names.
+     */
+    List<DurationRegression> forRun(Integer planId, Integer runNo);
+
+    /**
+     * Latest regressions of a project, optionally of one case, newest first.
+     */
+    List<DurationRegression> list(Integer projectId, Integer caseId, int limit);
+
+    /**
+     * Baseline of a case: samples, means, standard deviation and p50 / p90 / p95 / p99; null if it has none.
+     */
+    Map<String, Object> caseStats(Integer caseId);
+}
@@ -0,0 +1,41 @@
+package com.automatedtest.platform.service;
+
+import com.automatedtest.platform.dto.ReportSummaryDTO;
+import com.automatedtest.platform.entity.FailureCluster;
+import com.automatedtest.platform.entity.TestReport;
+
+import java.util.List;
+
+/**
+ * Groups the failed reports of a plan run by log similarity, so a run with many failures
+ * shows the few distinct causes behind them.
+ */
+public interface FailureClusterService {
+
+    /**
+     * Queues freshly written reports; failed reports of plan runs are fingerprinted and
+     * assigned to a cluster of their run in the background, in arrival order.
+     */
+    void record(List<TestReport> reports);
+
+    /**
+     * Waits until the reports of the plan run queued so far have been clustered, at most
+     * timeoutMs; returns at once if none are queued.
+     */
+    boolean awaitRun(Integer planId, Integer runNo, long timeoutMs);
+
+    /**
+     * Clusters of a plan run, largest first, with the representative's case name.
+     */
+    List<FailureCluster> forRun(Integer planId, Integer runNo);
+
+    /**
+     * A cluster, or null if it does not exist.
+     */
+    FailureCluster get(Long clusterId);
+
+    /**
+     * The reports in a cluster, oldest first.
+     */
+    List<ReportSummaryDTO> reports(Long clusterId);
+}
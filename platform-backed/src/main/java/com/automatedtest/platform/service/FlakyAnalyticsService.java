@@ -0,0 +1,27 @@
+package com.automatedtest.platform.service;
+
+import com.automatedtest.platform.entity.CaseFlakyStat;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flip rates, failure streaks and a flakiness index per case, kept up to date by an
+ * incremental scan of test_reports.
+ */
+public interface FlakyAnalyticsService {
+
+    /**
+     * Starts a scan from the stored checkpoint in the background. Returns false if one is already running.
+     */
+    boolean startScan();
+
+    Map<String, Object> scanStatus();
+
+    /**
+     * The project's flakiest cases with at least minRuns runs, flakiest first, with case names.
+     */
+    List<CaseFlakyStat> listFlaky(Integer projectId, int minRuns, int limit);
+
+    CaseFlakyStat get(Integer caseId);
+}
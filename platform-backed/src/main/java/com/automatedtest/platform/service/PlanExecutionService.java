@@ -0,0 +1,19 @@
+package com.automatedtest.platform.service;
+
+import com.automatedtest.platform.dto.PlanRunCommand;
+import com.automatedtest.platform.dto.PlanRunHandle;
+
+public interface PlanExecutionService {
+
+    /**
+     * Registers the run and hands it to admission control. Returns immediately with the
+     * run handle, or null if the wait queue is full.
+     */
+    PlanRunHandle submit(PlanRunCommand command);
+
+    /**
+     * Current state of a run: live for runs this instance queued or executed recently,
+     * otherwise read from plan_runs. Null if the run does not exist.
+     */
+    PlanRunHandle getHandle(Long runId);
+}
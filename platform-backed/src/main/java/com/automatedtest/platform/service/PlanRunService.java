@@ -0,0 +1,38 @@
+package com.automatedtest.platform.service;
+
+import com.automatedtest.platform.dto.CaseExecuteResultDTO;
+import com.automatedtest.platform.entity.PlanRun;
+import com.automatedtest.platform.entity.TestPlan;
+import com.baomidou.mybatisplus.extension.service.IService;
+
+import java.util.List;
+
+public interface PlanRunService extends IService<PlanRun> {
+
+    /**
+     * Registers a new run of the plan with the next free run number.
+     */
+    PlanRun start(TestPlan plan, String status, String triggerType, String executedBy, int totalCases);
+
+    void markRunning(Long runId);
+
+    /**
+     * Adds one finished case of the run to its summary row.
+     */
+    void recordCase(Long runId, CaseExecuteResultDTO result);
+
+    void finish(Long runId, int total, int passed, int failed);
+
+    /**
+     * Hides plan runs from the report listing when the reports they are listed under are
+     * deleted; with no ids, every run of the project (and executor, if given) is hidden.
+     */
+    void archiveByReports(List<Integer> reportIds, Integer projectId, String executedBy);
+
+    /**
+     * Lists plan runs again whose first report is among the restored reports.
+     */
+    void restoreByReports(List<Integer> reportIds);
+
+    long countActive(Integer projectId);
+}
@@ -0,0 +1,37 @@
+package com.automatedtest.platform.service;
+
+import java.util.Map;
+
+/**
+ * Permanently removes a project and everything that belongs to it, in the background and in
+ * small chunks so other writers are not held up. Progress is stored, so a purge can be
+ * paused and resumed and picks up where it was after a restart.
+ */
+public interface ProjectPurgeService {
+
+    /**
+     * Status of a project while it is being purged.
+     */
+    String PURGING = "purging";
+
+    /**
+     * Hides the project and queues its purge; starting a purge that is already under way
+     * just returns its status.
+     */
+    Map<String, Object> start(Integer projectId, String requestedBy);
+
+    /**
+     * Stops the purge after the current chunk. Returns false if it is not queued or running.
+     */
+    boolean pause(Integer projectId);
+
+    /**
+     * Queues a paused or failed purge again. Returns false if there is nothing to resume.
+     */
+    boolean resume(Integer projectId);
+
+    /**
+     * Progress of the project's purge, or null if it was never purged.
+     */
+    Map<String, Object> status(Integer projectId);
+}
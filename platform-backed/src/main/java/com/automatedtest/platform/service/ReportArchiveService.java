@@ -0,0 +1,28 @@
+package com.automatedtest.platform.service;
+
+import com.automatedtest.platform.entity.ReportArchive;
+import com.automatedtest.platform.entity.TestReport;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ReportArchiveService {
+
+    /**
+     * Writes the reports of a project (0 for none) executed in [from, to) to an archive file
+     * and records it. Returns the existing record if the period was archived before, and null
+     * if there is nothing to archive.
+     */
+    ReportArchive export(int projectId, LocalDateTime from, LocalDateTime to) throws IOException;
+
+    /**
+     * A report that has been archived and removed from test_reports, or null.
+     */
+    TestReport findReport(Integer reportId) throws IOException;
+
+    /**
+     * All archived reports of a plan run, located through the run's first report.
+     */
+    List<TestReport> findRun(Integer projectId, Integer planId, Integer runNo, Integer firstReportId) throws IOException;
+}
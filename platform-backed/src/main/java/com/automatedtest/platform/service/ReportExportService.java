@@ -0,0 +1,21 @@
+package com.automatedtest.platform.service;
+
+import com.automatedtest.platform.dto.ReportExportQuery;
+import com.automatedtest.platform.export.ReportExportWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ReportExportService {
+
+    /**
+     * Writer for junit, csv or allure over the stream, or null for any other format.
+     */
+    ReportExportWriter newWriter(String format, OutputStream out) throws IOException;
+
+    /**
+     * Reads the reports matching the query in chunks and hands them to the writer as they
+     * arrive; returns the number of reports written.
+     */
+    long export(ReportExportQuery query, ReportExportWriter writer) throws IOException;
+}
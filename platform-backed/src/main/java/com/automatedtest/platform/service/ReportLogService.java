@@ -0,0 +1,40 @@
+package com.automatedtest.platform.service;
+
+import com.automatedtest.platform.entity.TestReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+public interface ReportLogService {
+
+    /**
+     * Moves the report's logs into the blob store, leaving reference, size and preview on the
+     * row. Keeps the logs inline if the store cannot be written.
+     */
+    void externalize(TestReport report);
+
+    /**
+     * Full logs of a report, wherever they are kept.
+     */
+    InputStream open(TestReport report) throws IOException;
+
+    /**
+     * At most maxChars of the logs; for the detail view.
+     */
+    String read(TestReport report, int maxChars) throws IOException;
+
+    /**
+     * Starts moving inline logs of existing reports to the blob store in the background.
+     * Returns false if a migration is already running.
+     */
+    boolean startMigration();
+
+    Map<String, Object> migrationStatus();
+
+    /**
+     * Deletes stored logs that no report points to any more. Returns how many were removed;
+     * 0 if a collection is already running.
+     */
+    int collectGarbage();
+}
@@ -0,0 +1,14 @@
+package com.automatedtest.platform.service;
+
+import com.automatedtest.platform.entity.TestReport;
+
+public interface ReportPersistenceService {
+
+    /**
+     * Queues a fully assembled report together with the final status of its case.
+     * Rows from concurrent workers are coalesced into batched inserts; the call
+     * returns the generated report id once its batch has been committed, or null
+     * if that did not happen within the wait budget.
+     */
+    Integer persist(TestReport report, String caseResult);
+}
@@ -0,0 +1,30 @@
+package com.automatedtest.platform.service;
+
+import com.automatedtest.platform.entity.ReportRetentionPolicy;
+
+import java.util.Map;
+
+public interface ReportRetentionService {
+
+    /**
+     * The project's policy, or the default one if the project has none.
+     */
+    ReportRetentionPolicy getPolicy(Integer projectId);
+
+    /**
+     * Sets how long the project's reports are kept; 0 keeps them forever.
+     */
+    void savePolicy(Integer projectId, int retainDays, String updatedBy);
+
+    /**
+     * Starts a retention pass in the background. Returns false if one is already running.
+     */
+    boolean startRun();
+
+    Map<String, Object> runStatus();
+
+    /**
+     * Makes sure test_reports has partitions for the coming months.
+     */
+    void ensurePartitions();
+}
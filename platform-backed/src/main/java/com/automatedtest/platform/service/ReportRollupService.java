@@ -0,0 +1,30 @@
+package com.automatedtest.platform.service;
+
+import com.automatedtest.platform.entity.TestReport;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ReportRollupService {
+
+    /**
+     * Adds freshly inserted reports to the daily rollups. Runs in the caller's transaction.
+     */
+    void apply(List<TestReport> reports);
+
+    /**
+     * Recomputes the rollups of [from, to] from test_reports.
+     */
+    void rebuild(LocalDate from, LocalDate to);
+
+    /**
+     * Recomputes the rollups of one project (0 for reports without one) over [from, to].
+     */
+    void rebuild(Integer projectId, LocalDate from, LocalDate to);
+
+    /**
+     * Hard-deletes the given reports and recomputes the rollup days they were executed on, in
+     * one transaction (the caller's, if there is one). Returns the number of reports deleted.
+     */
+    int deleteReports(List<Integer> reportIds);
+}
@@ -0,0 +1,28 @@
+package com.automatedtest.platform.service;
+
+import com.automatedtest.platform.entity.TestReport;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ReportSearchService {
+
+    /**
+     * Adds freshly inserted reports to the search index. Runs in the caller's transaction.
+     */
+    void index(List<TestReport> reports);
+
+    /**
+     * Boolean-mode phrase for the full-text index, or null if the keyword is too short
+     * for n-gram matching and the caller should fall back to the preview.
+     */
+    String toPhrase(String keyword);
+
+    /**
+     * Indexes reports that have no search document yet, in the background.
+     * Returns false if a rebuild is already running.
+     */
+    boolean startRebuild();
+
+    Map<String, Object> rebuildStatus();
+}
@@ -0,0 +1,15 @@
+package com.automatedtest.platform.service;
+
+import com.automatedtest.platform.dto.RunDiffDTO;
+import com.automatedtest.platform.entity.PlanRun;
+
+import java.io.IOException;
+
+public interface RunDiffService {
+
+    /**
+     * Compares the target run against the base run; the runs may belong to different plans
+     * as long as they share cases. top limits the slowest / fastest lists.
+     */
+    RunDiffDTO diff(PlanRun base, PlanRun target, int top) throws IOException;
+}
@@ -3,6 +3,7 @@ package com.automatedtest.platform.service;
 import com.automatedtest.platform.dto.ApiTestRequestDTO;
 import com.automatedtest.platform.dto.ApiTestResponseDTO;
 import com.automatedtest.platform.dto.CaseExecuteResultDTO;
+import com.automatedtest.platform.dto.CaseRunContext;
 import com.automatedtest.platform.entity.TestCase;
 import com.baomidou.mybatisplus.extension.service.IService;
 
@@ -15,4 +16,5 @@ public interface TestCaseService extends IService<TestCase> {
     CaseExecuteResultDTO executeCaseById(Integer id, String executedBy, Integer planId, Integer planRunNo);
     CaseExecuteResultDTO executeCaseById(Integer id, String executedBy, Integer planId, Integer planRunNo, String triggerType);
     CaseExecuteResultDTO executeCaseByIdWithVariables(Integer id, String executedBy, java.util.Map<String, String> variables);
+    CaseExecuteResultDTO executeCase(Integer id, CaseRunContext context);
 }
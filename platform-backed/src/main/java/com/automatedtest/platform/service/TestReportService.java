@@ -1,5 +1,7 @@
 package com.automatedtest.platform.service;
 
+import com.automatedtest.platform.common.CursorPage;
+import com.automatedtest.platform.dto.ReportSummaryDTO;
 import com.automatedtest.platform.entity.TestReport;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
@@ -7,4 +9,15 @@ import com.baomidou.mybatisplus.extension.service.IService;
 
 public interface TestReportService extends IService<TestReport> {
     IPage<TestReport> listUnified(Page<TestReport> page, Integer projectId, String status, String keyword, String date);
+
+    /**
+     * Keyset variant of {@link #listUnified}: the page after the given cursor (first page if
+     * blank), counting the total only when withTotal is set.
+     */
+    CursorPage<TestReport> listUnifiedAfter(String cursor, long size, boolean withTotal, Integer projectId, String status, String keyword, String date);
+
+    /**
+     * The report without its logs, for checks that do not display it.
+     */
+    ReportSummaryDTO getSummary(Integer id);
 }
@@ -0,0 +1,516 @@
+package com.automatedtest.platform.service.impl;
+
+import com.automatedtest.platform.common.DataChangedEvent;
+import com.automatedtest.platform.dto.BulkOperationRequest;
+import com.automatedtest.platform.entity.PlanRun;
+import com.automatedtest.platform.entity.TestCase;
+import com.automatedtest.platform.entity.TestPlan;
+import com.automatedtest.platform.entity.TestReport;
+import com.automatedtest.platform.entity.User;
+import com.automatedtest.platform.mapper.ReportRetentionMapper;
+import com.automatedtest.platform.service.BulkOperationService;
+import com.automatedtest.platform.service.PlanRunService;
+import com.automatedtest.platform.service.ReportRollupService;
+import com.automatedtest.platform.service.TestCaseService;
+import com.automatedtest.platform.service.TestPlanService;
+import com.automatedtest.platform.service.TestReportService;
+import com.baomidou.mybatisplus.core.conditions.AbstractWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.extension.service.IService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class BulkOperationServiceImpl implements BulkOperationService {
+
+    private static final List<String> CASE_STATUSES = Arrays.asList("active", "inactive", "draft");
+    private static final List<String> CASE_PRIORITIES = Arrays.asList("high", "medium", "low");
+    private static final List<String> PLAN_STATUSES = Arrays.asList("active", "inactive");
+
+    @Autowired
+    private TestReportService testReportService;
+
+    @Autowired
+    private TestCaseService testCaseService;
+
+    @Autowired
+    private TestPlanService testPlanService;
+
+    @Autowired
+    private PlanRunService planRunService;
+
+    @Autowired
+    private ReportRollupService reportRollupService;
+
+    @Autowired
+    private ReportRetentionMapper reportRetentionMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${engine.bulk_chunk:500}")
+    private Integer chunkSize;
+
+    @Value("${engine.bulk_pause_ms:20}")
+    private Long pauseMs;
+
+    @Value("${engine.bulk_workers:2}")
+    private Integer workers;
+
+    @Value("${engine.bulk_job_keep_minutes:1440}")
+    private Long keepMinutes;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * A validated request together with who asked for it. Counters are written by the worker
+     * and read by status calls.
+     */
+    private static final class Job {
+        final String id = UUID.randomUUID().toString();
+        final BulkOperationRequest request;
+        final Integer projectId;
+        final Long userId;
+        final String username;
+        final boolean restrictToUser;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        final AtomicLong processed = new AtomicLong();
+        volatile long total;
+        volatile String state = "queued";
+        volatile String error;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+
+        Job(BulkOperationRequest request, User user, Integer projectId) {
+            this.request = request;
+            this.projectId = projectId;
+            this.userId = user.getId();
+            this.username = user.getUsername();
+            this.restrictToUser = !"admin".equalsIgnoreCase(user.getRole()) || Boolean.TRUE.equals(request.getMine());
+        }
+
+        String target() {
+            return request.getTarget();
+        }
+
+        String action() {
+            return request.getAction();
+        }
+
+        boolean byIds() {
+            return request.getIds() != null && !request.getIds().isEmpty();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        CustomizableThreadFactory factory = new CustomizableThreadFactory("bulk-op-");
+        factory.setDaemon(true);
+        executor = Executors.newFixedThreadPool(Math.max(1, workers), factory);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Map<String, Object> submit(BulkOperationRequest request, User user, Integer projectId) {
+        Job job = prepare(request, user, projectId);
+        pruneFinished();
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new IllegalArgumentException("批量操作服务不可用");
+        }
+        return snapshot(job);
+    }
+
+    @Override
+    public long execute(BulkOperationRequest request, User user, Integer projectId) {
+        Job job = prepare(request, user, projectId);
+        run(job);
+        if ("failed".equals(job.state)) {
+            throw new IllegalStateException(job.error);
+        }
+        return job.processed.get();
+    }
+
+    @Override
+    public Map<String, Object> status(String jobId, User user) {
+        Job job = jobId != null ? jobs.get(jobId) : null;
+        if (job == null || !visibleTo(job, user)) {
+            return null;
+        }
+        return snapshot(job);
+    }
+
+    @Override
+    public List<Map<String, Object>> list(User user) {
+        return jobs.values().stream()
+                .filter(job -> visibleTo(job, user))
+                .sorted((a, b) -> b.createdAt.compareTo(a.createdAt))
+                .map(this::snapshot)
+                .collect(Collectors.toList());
+    }
+
+    private static boolean visibleTo(Job job, User user) {
+        return user != null && ("admin".equalsIgnoreCase(user.getRole()) || user.getId() != null && user.getId().equals(job.userId));
+    }
+
+    private Map<String, Object> snapshot(Job job) {
+        Map<String, Object> status = new HashMap<>();
+        status.put("id", job.id);
+        status.put("target", job.target());
+        status.put("action", job.action());
+        status.put("state", job.state);
+        status.put("total", job.total);
+        status.put("processed", job.processed.get());
+        status.put("error", job.error);
+        status.put("createdBy", job.username);
+        status.put("createdAt", job.createdAt);
+        status.put("startedAt", job.startedAt);
+        status.put("finishedAt", job.finishedAt);
+        return status;
+    }
+
+    private void pruneFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(Math.max(1, keepMinutes));
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    /**
+     * Checks the request and counts the rows it covers. When ids are given they must all be
+     * within the user's scope, as for the single-row endpoints.
+     */
+    private Job prepare(BulkOperationRequest request, User user, Integer projectId) {
+        if (user == null || user.getId() == null) {
+            throw new IllegalArgumentException("未登录");
+        }
+        if (request == null || request.getTarget() == null || request.getAction() == null) {
+            throw new IllegalArgumentException("批量操作需指定对象和操作");
+        }
+        Job job = new Job(request, user, projectId);
+        if (projectId == null && !job.byIds() && !job.restrictToUser) {
+            throw new IllegalArgumentException("批量操作需指定条件");
+        }
+        String action = request.getAction();
+        switch (request.getTarget()) {
+            case "reports":
+                if (!Arrays.asList("archive", "restore", "delete").contains(action)) {
+                    throw new IllegalArgumentException("不支持的报告操作: " + action);
+                }
+                if (request.getBefore() != null && !request.getBefore().isEmpty()) {
+                    try {
+                        LocalDate.parse(request.getBefore());
+                    } catch (DateTimeParseException e) {
+                        throw new IllegalArgumentException("无效的日期: " + request.getBefore());
+                    }
+                }
+                job.total = count(job, testReportService, reportScope(job, new QueryWrapper<>(), job.request.getIds(), false));
+                break;
+            case "cases":
+                if ("retag".equals(action)) {
+                    checkRetag(request, "priority".equals(request.getField()) ? CASE_PRIORITIES : CASE_STATUSES, "status", "priority");
+                } else if ("move".equals(action)) {
+                    checkMoveTarget(job);
+                } else if (!"delete".equals(action)) {
+                    throw new IllegalArgumentException("不支持的用例操作: " + action);
+                }
+                job.total = count(job, testCaseService, ownedScope(job, new QueryWrapper<>(), job.request.getIds()));
+                break;
+            case "plans":
+                if ("retag".equals(action)) {
+                    checkRetag(request, PLAN_STATUSES, "status");
+                } else if (!"delete".equals(action)) {
+                    throw new IllegalArgumentException("不支持的计划操作: " + action);
+                }
+                job.total = count(job, testPlanService, ownedScope(job, new QueryWrapper<>(), job.request.getIds()));
+                break;
+            default:
+                throw new IllegalArgumentException("不支持的批量操作对象: " + request.getTarget());
+        }
+        return job;
+    }
+
+    private static <E> long count(Job job, IService<E> service, QueryWrapper<E> scope) {
+        long total = service.count(scope);
+        if (job.byIds() && total != new LinkedHashSet<>(job.request.getIds()).size()) {
+            throw new IllegalArgumentException("部分记录不存在或无权限操作");
+        }
+        return total;
+    }
+
+    private static void checkRetag(BulkOperationRequest request, List<String> allowedValues, String... fields) {
+        if (!Arrays.asList(fields).contains(request.getField())) {
+            throw new IllegalArgumentException("不支持修改的字段: " + request.getField());
+        }
+        if (!allowedValues.contains(request.getValue())) {
+            throw new IllegalArgumentException("无效的取值: " + request.getValue());
+        }
+    }
+
+    private void checkMoveTarget(Job job) {
+        for (Integer planId : Arrays.asList(job.request.getPlanId(), job.request.getFromPlanId())) {
+            if (planId == null) {
+                continue;
+            }
+            TestPlan plan = testPlanService.getById(planId);
+            if (plan == null || (job.projectId != null && !job.projectId.equals(plan.getProjectId()))
+                    || (job.restrictToUser && (plan.getCreatedBy() == null || plan.getCreatedBy().longValue() != job.userId))) {
+                throw new IllegalArgumentException("测试计划不存在或无权限操作");
+            }
+        }
+        if (job.request.getPlanId() == null) {
+            throw new IllegalArgumentException("请指定目标测试计划");
+        }
+    }
+
+    /**
+     * Reports the job may touch. withState also skips rows already in the requested state,
+     * so a whole-project archive does not walk the reports archived before.
+     */
+    private <W extends AbstractWrapper<TestReport, String, W>> W reportScope(Job job, W wrapper, List<Integer> ids, boolean withState) {
+        BulkOperationRequest r = job.request;
+        wrapper.in(ids != null, "id", ids)
+                .eq(job.projectId != null, "project_id", job.projectId)
+                .eq(job.restrictToUser, "executed_by", job.username)
+                .eq(r.getStatus() != null && !r.getStatus().isEmpty() && !"all".equals(r.getStatus()), "status", r.getStatus())
+                .lt(r.getBefore() != null && !r.getBefore().isEmpty(), "executed_at", r.getBefore());
+        if (withState && "archive".equals(job.action())) {
+            wrapper.eq("is_deleted", 0);
+        } else if (withState && "restore".equals(job.action())) {
+            wrapper.eq("is_deleted", 1);
+        }
+        return wrapper;
+    }
+
+    private static <E, W extends AbstractWrapper<E, String, W>> W ownedScope(Job job, W wrapper, List<Integer> ids) {
+        return wrapper.in(ids != null, "id", ids)
+                .eq(job.projectId != null, "project_id", job.projectId)
+                .eq(job.restrictToUser, "created_by", job.userId);
+    }
+
+    private void run(Job job) {
+        job.startedAt = LocalDateTime.now();
+        job.state = "running";
+        try {
+            switch (job.target()) {
+                case "reports":
+                    forEachChunk(job, testReportService, ids -> reportScope(job, new QueryWrapper<>(), ids, true), ids -> reportChunk(job, ids));
+                    break;
+                case "cases":
+                    forEachChunk(job, testCaseService, ids -> ownedScope(job, new QueryWrapper<>(), ids), ids -> caseChunk(job, ids));
+                    break;
+                default:
+                    forEachChunk(job, testPlanService, ids -> ownedScope(job, new QueryWrapper<>(), ids), ids -> planChunk(job, ids));
+                    break;
+            }
+            job.state = "finished";
+            log.info("Bulk {} of {} by {} finished: {} rows", job.action(), job.target(), job.username, job.processed.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.state = "failed";
+            job.error = "interrupted";
+        } catch (Exception e) {
+            job.state = "failed";
+            job.error = e.getMessage();
+            log.error("Bulk {} of {} by {} failed after {} rows", job.action(), job.target(), job.username, job.processed.get(), e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            if (job.processed.get() > 0) {
+                eventPublisher.publishEvent(new DataChangedEvent(job.target(), job.projectId));
+                if ("plans".equals(job.target()) && "delete".equals(job.action())) {
+                    eventPublisher.publishEvent(new DataChangedEvent(DataChangedEvent.REPORTS, job.projectId));
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks the matching ids in ascending order, a chunk at a time, and hands each chunk to the
+     * work in its own transaction. Only ids are read. Without an id list the next chunk starts
+     * after the last id of the previous one, so rows that leave the selection when they are
+     * changed do not shift the walk; with one, the list itself is cut into chunks and each
+     * chunk is narrowed by the scope.
+     */
+    private <E> void forEachChunk(Job job, IService<E> service, Function<List<Integer>, QueryWrapper<E>> scope,
+                                  Consumer<List<Integer>> work) throws InterruptedException {
+        int size = Math.max(1, chunkSize);
+        List<Integer> requested = job.byIds()
+                ? job.request.getIds().stream().filter(Objects::nonNull).distinct().sorted().collect(Collectors.toList())
+                : null;
+        long afterId = 0;
+        int offset = 0;
+        while (true) {
+            QueryWrapper<E> page;
+            if (requested != null) {
+                if (offset >= requested.size()) {
+                    return;
+                }
+                page = scope.apply(requested.subList(offset, Math.min(offset + size, requested.size()))).select("id").orderByAsc("id");
+                offset += size;
+            } else {
+                page = scope.apply(null).select("id").gt("id", afterId).orderByAsc("id").last("LIMIT " + size);
+            }
+            List<Integer> ids = service.listObjs(page, o -> ((Number) o).intValue());
+            if (requested == null && ids.isEmpty()) {
+                return;
+            }
+            if (!ids.isEmpty()) {
+                if ("plans".equals(job.target()) && "delete".equals(job.action())) {
+                    deletePlanReports(ids);
+                }
+                transactionTemplate.executeWithoutResult(tx -> work.accept(ids));
+                job.processed.addAndGet(ids.size());
+            }
+            if (requested == null) {
+                if (ids.size() < size) {
+                    return;
+                }
+                afterId = ids.get(ids.size() - 1);
+            }
+            if (pauseMs > 0) {
+                Thread.sleep(pauseMs);
+            }
+        }
+    }
+
+    private void reportChunk(Job job, List<Integer> ids) {
+        switch (job.action()) {
+            case "archive":
+                testReportService.update(new UpdateWrapper<TestReport>().set("is_deleted", 1)
+                        .set("deleted_at", LocalDateTime.now()).in("id", ids));
+                planRunService.archiveByReports(ids, job.projectId, null);
+                break;
+            case "restore":
+                testReportService.update(new UpdateWrapper<TestReport>().set("is_deleted", 0)
+                        .set("deleted_at", null).in("id", ids));
+                planRunService.restoreByReports(ids);
+                break;
+            default:
+                deleteReports(ids, job.projectId);
+                break;
+        }
+    }
+
+    private void deleteReports(List<Integer> ids, Integer projectId) {
+        reportRollupService.deleteReports(ids);
+        planRunService.archiveByReports(ids, projectId, null);
+        reportRetentionMapper.deleteOrphanSearchDocs(ids.get(0), ids.get(ids.size() - 1));
+    }
+
+    private void caseChunk(Job job, List<Integer> ids) {
+        BulkOperationRequest r = job.request;
+        switch (job.action()) {
+            case "retag":
+                testCaseService.update(new UpdateWrapper<TestCase>().set(r.getField(), r.getValue())
+                        .set("updated_at", LocalDateTime.now()).in("id", ids));
+                break;
+            case "move":
+                updatePlanCases(r.getPlanId(), ids, true);
+                if (r.getFromPlanId() != null && !r.getFromPlanId().equals(r.getPlanId())) {
+                    updatePlanCases(r.getFromPlanId(), ids, false);
+                }
+                break;
+            default:
+                testCaseService.remove(new QueryWrapper<TestCase>().in("id", ids));
+                break;
+        }
+    }
+
+    /**
+     * Adds the cases to, or takes them out of, the plan's comma-separated case list. The plan
+     * row is locked for the chunk so concurrent edits of the list are not lost.
+     */
+    private void updatePlanCases(Integer planId, List<Integer> caseIds, boolean add) {
+        TestPlan plan = testPlanService.getOne(new QueryWrapper<TestPlan>().eq("id", planId).last("FOR UPDATE"));
+        if (plan == null) {
+            return;
+        }
+        Set<String> current = new LinkedHashSet<>();
+        if (plan.getTestCaseIds() != null) {
+            for (String part : plan.getTestCaseIds().split(",")) {
+                if (!part.trim().isEmpty()) {
+                    current.add(part.trim());
+                }
+            }
+        }
+        List<String> changed = caseIds.stream().map(String::valueOf).collect(Collectors.toList());
+        boolean modified = add ? current.addAll(changed) : current.removeAll(changed);
+        if (modified) {
+            testPlanService.update(new UpdateWrapper<TestPlan>()
+                    .set("test_case_ids", String.join(",", current))
+                    .set("updated_at", LocalDateTime.now())
+                    .eq("id", planId));
+        }
+    }
+
+    private void planChunk(Job job, List<Integer> ids) {
+        BulkOperationRequest r = job.request;
+        if ("retag".equals(job.action())) {
+            testPlanService.update(new UpdateWrapper<TestPlan>().set(r.getField(), r.getValue())
+                    .set("updated_at", LocalDateTime.now()).in("id", ids));
+            return;
+        }
+        planRunService.remove(new QueryWrapper<PlanRun>().in("plan_id", ids));
+        testPlanService.remove(new QueryWrapper<TestPlan>().in("id", ids));
+    }
+
+    /**
+     * Deletes the reports of the plans before the plans themselves, each chunk of reports in
+     * its own transaction so a plan with a long history does not make one huge one.
+     */
+    private void deletePlanReports(List<Integer> planIds) {
+        int size = Math.max(1, chunkSize);
+        while (true) {
+            List<Integer> reportIds = testReportService.listObjs(new QueryWrapper<TestReport>()
+                    .select("id").in("plan_id", planIds).orderByAsc("id").last("LIMIT " + size), o -> ((Number) o).intValue());
+            if (reportIds.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(tx -> deleteReports(reportIds, null));
+            if (reportIds.size() < size) {
+                return;
+            }
+        }
+    }
+}
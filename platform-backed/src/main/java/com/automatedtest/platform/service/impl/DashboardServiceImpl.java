@@ -1,29 +1,59 @@
 package com.automatedtest.platform.service.impl;
 
+import com.automatedtest.platform.common.DataChangedEvent;
+import com.automatedtest.platform.common.TtlCache;
+import com.automatedtest.platform.common.UserContext;
+import com.automatedtest.platform.dto.CaseFailureCountDTO;
 import com.automatedtest.platform.dto.DailyTrendDTO;
 import com.automatedtest.platform.dto.DashboardStatsDTO;
 import com.automatedtest.platform.dto.RecentActivityDTO;
+import com.automatedtest.platform.dto.ReportSummaryDTO;
 import com.automatedtest.platform.dto.RunningTaskDTO;
 import com.automatedtest.platform.dto.FailedItemDTO;
+import com.automatedtest.platform.engine.RunningTaskRegistry;
+import com.automatedtest.platform.engine.SseWriter;
+import com.automatedtest.platform.entity.ReportDailyRollup;
 import com.automatedtest.platform.entity.TestCase;
 import com.automatedtest.platform.entity.TestPlan;
-import com.automatedtest.platform.entity.TestReport;
 import com.automatedtest.platform.entity.User;
+import com.automatedtest.platform.mapper.ReportRollupMapper;
 import com.automatedtest.platform.mapper.TestCaseMapper;
 import com.automatedtest.platform.mapper.TestPlanMapper;
 import com.automatedtest.platform.mapper.TestReportMapper;
 import com.automatedtest.platform.mapper.UserMapper;
 import com.automatedtest.platform.service.DashboardService;
+import com.automatedtest.platform.stats.LatencyStats;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class DashboardServiceImpl implements DashboardService {
 
@@ -39,112 +69,406 @@ public class DashboardServiceImpl implements DashboardService {
     @Autowired
     private TestPlanMapper testPlanMapper;
 
-    @Override
-    public DashboardStatsDTO getDashboardStats(String username, Integer projectId) {
-        try {
-            String normalizedUsername = username != null ? username.trim() : null;
-            User user = null;
-            if (normalizedUsername != null && !normalizedUsername.isEmpty()) {
-                user = userMapper.selectOne(new QueryWrapper<User>().eq("username", normalizedUsername));
-            }
-            
-            // 修正：从 UserContext 获取当前项目ID，如果参数未传递
-            if (projectId == null) {
-                projectId = com.automatedtest.platform.common.UserContext.getCurrentProjectId();
-            }
-            
-            Integer finalProjectId = projectId;
-            boolean isAdmin = user != null && user.getRole() != null && "admin".equalsIgnoreCase(user.getRole());
-            Long userId = user != null ? user.getId() : null;
-            
-            // 如果不是管理员且未指定项目，尝试查找用户所属的第一个项目
-            if (finalProjectId == null && !isAdmin && user != null) {
-                // 这里可以添加逻辑查找用户的默认项目，暂时保持为 null
+    @Autowired
+    private RunningTaskRegistry runningTaskRegistry;
+
+    @Autowired
+    private SseWriter sseWriter;
+
+    @Autowired
+    private ReportRollupMapper reportRollupMapper;
+
+    private static final int TOP_FAILED_DAYS = 30;
+    private static final int TOP_FAILED_LIMIT = 5;
+
+    private static final String SECTION_CASES = "cases";
+    private static final String SECTION_EXECUTIONS = "executions";
+    private static final String SECTION_TREND = "trend";
+    private static final String SECTION_RECENT = "recentActivity";
+    private static final String SECTION_FAILED = "failedItems";
+    private static final String SECTION_TOP_FAILED = "topFailedCases";
+
+    /** What each section reads; a write to any of these drops it from the cache. */
+    private static final Map<String, Set<String>> SECTION_SOURCES = new LinkedHashMap<>();
+
+    static {
+        SECTION_SOURCES.put(SECTION_CASES, sources(DataChangedEvent.CASES, DataChangedEvent.REPORTS));
+        SECTION_SOURCES.put(SECTION_EXECUTIONS, sources(DataChangedEvent.REPORTS));
+        SECTION_SOURCES.put(SECTION_TREND, sources(DataChangedEvent.REPORTS, DataChangedEvent.CASES));
+        SECTION_SOURCES.put(SECTION_RECENT, sources(DataChangedEvent.REPORTS, DataChangedEvent.CASES));
+        SECTION_SOURCES.put(SECTION_FAILED, sources(DataChangedEvent.REPORTS, DataChangedEvent.CASES, DataChangedEvent.PLANS));
+        SECTION_SOURCES.put(SECTION_TOP_FAILED, sources(DataChangedEvent.REPORTS, DataChangedEvent.CASES));
+    }
+
+    private static Set<String> sources(String... targets) {
+        return new HashSet<>(Arrays.asList(targets));
+    }
+
+    /** A cached section of one project (null: all projects); owner only for sections filtered by owner. */
+    private static final class SectionKey {
+        final String section;
+        final Integer projectId;
+        final Long ownerId;
+
+        SectionKey(String section, Integer projectId, Long ownerId) {
+            this.section = section;
+            this.projectId = projectId;
+            this.ownerId = ownerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof SectionKey)) {
+                return false;
             }
-            
-            System.out.println("Generating Dashboard Stats. User: " + normalizedUsername + ", ProjectId: " + finalProjectId);
+            SectionKey k = (SectionKey) o;
+            return section.equals(k.section) && Objects.equals(projectId, k.projectId) && Objects.equals(ownerId, k.ownerId);
+        }
 
-            DashboardStatsDTO stats = new DashboardStatsDTO();
-        // 1. Top Cards (Test Case Status) - FILTER BY PROJECT
-        QueryWrapper<TestCase> caseTotalQuery = new QueryWrapper<>();
-        if (finalProjectId != null) {
-            caseTotalQuery.eq("project_id", finalProjectId);
+        @Override
+        public int hashCode() {
+            return Objects.hash(section, projectId, ownerId);
         }
-        Long totalCases = testCaseMapper.selectCount(caseTotalQuery);
-        System.out.println("Dashboard Debug: Total Cases = " + totalCases + " (Project: " + finalProjectId + ")");
-        stats.setTotalCases(totalCases);
-        
-        QueryWrapper<TestReport> totalExecQuery = new QueryWrapper<>();
-        if (finalProjectId != null) {
-            totalExecQuery.eq("project_id", finalProjectId);
+    }
+
+    /** Last 7 days per day and case type, and what coverage and stability are derived from. */
+    private static final class Trend {
+        List<DailyTrendDTO> days;
+        long executedCases;
+        double stability;
+    }
+
+    @Value("${engine.dashboard_push_ms:1000}")
+    private Long pushIntervalMs;
+
+    @Value("${engine.sse_timeout_ms:1800000}")
+    private Long emitterTimeoutMs;
+
+    @Value("${engine.dashboard_cache_ttl_ms:15000}")
+    private Long cacheTtlMs;
+
+    @Value("${engine.dashboard_threads:4}")
+    private Integer sectionThreads;
+
+    @Value("${engine.dashboard_section_timeout_ms:10000}")
+    private Long sectionTimeoutMs;
+
+    /**
+     * One open running-tasks stream; the filter is resolved once when it connects. The pusher
+     * only marks what is due, the stream's own writer sends it.
+     */
+    private static class RunningStream {
+        final SseEmitter emitter;
+        final Integer projectId;
+        final Long ownerId;
+        final AtomicBoolean snapshotDue = new AtomicBoolean();
+        final AtomicBoolean pingDue = new AtomicBoolean();
+        final AtomicBoolean writing = new AtomicBoolean();
+
+        RunningStream(SseEmitter emitter, Integer projectId, Long ownerId) {
+            this.emitter = emitter;
+            this.projectId = projectId;
+            this.ownerId = ownerId;
         }
-        Long totalExecutions = testReportMapper.selectCount(totalExecQuery);
-        System.out.println("Dashboard Debug: Total Executions = " + totalExecutions + " (Project: " + finalProjectId + ")");
-        stats.setTotalExecutions(totalExecutions);
+    }
 
-        // Passed Cases
-        QueryWrapper<TestCase> passedCaseQuery = new QueryWrapper<>();
-        if (finalProjectId != null) passedCaseQuery.eq("project_id", finalProjectId);
-        passedCaseQuery.eq("last_result", "success");
-        Long passedCases = testCaseMapper.selectCount(passedCaseQuery);
-        System.out.println("Dashboard Debug: Passed Cases = " + passedCases);
-        stats.setPassedCases(passedCases);
-        
-        // Failed Cases
-        QueryWrapper<TestCase> failedCaseQuery = new QueryWrapper<>();
-        if (finalProjectId != null) failedCaseQuery.eq("project_id", finalProjectId);
-        failedCaseQuery.eq("last_result", "failed");
-        Long failedCases = testCaseMapper.selectCount(failedCaseQuery);
-        System.out.println("Dashboard Debug: Failed Cases = " + failedCases);
-        stats.setFailedCases(failedCases);
-
-        // Avg Duration
-        QueryWrapper<TestReport> avgQuery = new QueryWrapper<>();
-        if (finalProjectId != null) avgQuery.eq("project_id", finalProjectId);
-        avgQuery.select("avg(execution_time) as avg_time");
-        List<Map<String, Object>> avgResult = testReportMapper.selectMaps(avgQuery);
-        Double avg = 0.0;
-        if (avgResult != null && !avgResult.isEmpty() && avgResult.get(0) != null) {
-            Object val = avgResult.get(0).get("avg_time");
-            if (val != null) {
+    private final List<RunningStream> runningStreams = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean runningDirty = new AtomicBoolean();
+    private ScheduledExecutorService pusher;
+    private long ticks;
+
+    private TtlCache<SectionKey, Object> sectionCache;
+    private ExecutorService sectionPool;
+    private final Map<String, LatencyStats> sectionStats = new LinkedHashMap<>();
+    private final LatencyStats totalStats = new LatencyStats();
+
+    @PostConstruct
+    public void startPusher() {
+        CustomizableThreadFactory factory = new CustomizableThreadFactory("dashboard-push-");
+        factory.setDaemon(true);
+        pusher = Executors.newSingleThreadScheduledExecutor(factory);
+        runningTaskRegistry.addListener(() -> runningDirty.set(true));
+        // changes are coalesced: at most one snapshot per stream per interval
+        pusher.scheduleWithFixedDelay(this::pushRunningTasks, pushIntervalMs, pushIntervalMs, TimeUnit.MILLISECONDS);
+
+        sectionCache = new TtlCache<>(Math.max(0L, cacheTtlMs));
+        for (String section : SECTION_SOURCES.keySet()) {
+            sectionStats.put(section, new LatencyStats());
+        }
+        CustomizableThreadFactory sectionFactory = new CustomizableThreadFactory("dashboard-section-");
+        sectionFactory.setDaemon(true);
+        sectionPool = Executors.newFixedThreadPool(Math.max(1, sectionThreads), sectionFactory);
+        pusher.scheduleWithFixedDelay(sectionCache::purgeExpired, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stopPusher() {
+        for (RunningStream s : runningStreams) {
+            s.emitter.complete();
+        }
+        pusher.shutdownNow();
+        sectionPool.shutdownNow();
+    }
+
+    @Override
+    public List<RunningTaskDTO> getRunningTasks(String username, Integer projectId) {
+        User user = findUser(username);
+        return listRunningTasks(projectId, ownerFilter(user), 0);
+    }
+
+    @Override
+    public SseEmitter streamRunningTasks(String username, Integer projectId) {
+        User user = findUser(username);
+        RunningStream stream = new RunningStream(new SseEmitter(emitterTimeoutMs), projectId, ownerFilter(user));
+        Runnable detach = () -> runningStreams.remove(stream);
+        stream.emitter.onCompletion(detach);
+        stream.emitter.onTimeout(detach);
+        stream.emitter.onError(e -> detach.run());
+        runningStreams.add(stream);
+        // first snapshot right away, later ones only when something changed
+        stream.snapshotDue.set(true);
+        scheduleWrite(stream);
+        return stream.emitter;
+    }
+
+    private void pushRunningTasks() {
+        ticks++;
+        boolean heartbeat = pushIntervalMs > 0 && ticks % Math.max(1L, 15000L / pushIntervalMs) == 0;
+        boolean dirty = runningDirty.getAndSet(false);
+        if (!dirty && !heartbeat) {
+            return;
+        }
+        for (RunningStream s : runningStreams) {
+            if (dirty) {
+                s.snapshotDue.set(true);
+            } else {
+                // keeps proxies from closing idle streams
+                s.pingDue.set(true);
+            }
+            scheduleWrite(s);
+        }
+    }
+
+    private void scheduleWrite(RunningStream s) {
+        if (s.writing.compareAndSet(false, true)) {
+            sseWriter.execute(() -> write(s));
+        }
+    }
+
+    /**
+     * Sends what is due on one stream, latest snapshot only. Runs with writing held, so a
+     * stream has at most one writer; a stuck client holds up nobody else.
+     */
+    private void write(RunningStream s) {
+        do {
+            while (s.snapshotDue.get() || s.pingDue.get()) {
                 try {
-                    avg = Double.parseDouble(val.toString());
-                } catch (NumberFormatException e) {
-                    avg = 0.0;
+                    if (s.snapshotDue.getAndSet(false)) {
+                        s.pingDue.set(false);
+                        sseWriter.send(s.emitter, SseEmitter.event()
+                                .name("running")
+                                .data(listRunningTasks(s.projectId, s.ownerId, 0), MediaType.APPLICATION_JSON));
+                    } else if (s.pingDue.getAndSet(false)) {
+                        sseWriter.send(s.emitter, SseEmitter.event().comment("ping"));
+                    }
+                } catch (Exception e) {
+                    log.debug("Running tasks stream closed: {}", e.getMessage());
+                    runningStreams.remove(s);
+                    s.emitter.completeWithError(e);
+                    return;
                 }
             }
+            s.writing.set(false);
+        } while ((s.snapshotDue.get() || s.pingDue.get()) && s.writing.compareAndSet(false, true));
+    }
+
+    private User findUser(String username) {
+        String normalized = username != null ? username.trim() : null;
+        if (normalized == null || normalized.isEmpty()) {
+            return null;
         }
+        return userMapper.selectOne(new QueryWrapper<User>().eq("username", normalized));
+    }
+
+    /** Non-admins only see what they own, like the rest of the workbench. */
+    private Long ownerFilter(User user) {
+        if (user == null || "admin".equalsIgnoreCase(user.getRole())) {
+            return null;
+        }
+        return user.getId();
+    }
+
+    private List<RunningTaskDTO> listRunningTasks(Integer projectId, Long ownerId, int limit) {
+        List<RunningTaskDTO> list = new ArrayList<>();
+        for (RunningTaskRegistry.RunningTask t : runningTaskRegistry.list(projectId, ownerId, limit)) {
+            RunningTaskDTO rtd = new RunningTaskDTO();
+            boolean plan = RunningTaskRegistry.TYPE_PLAN.equals(t.getType());
+            rtd.setId((plan ? "plan-" : "case-") + t.getTargetId());
+            rtd.setName((plan ? "[计划] " : "[单例] ") + t.getName());
+            rtd.setLastRunTime(t.getStartedAt());
+            rtd.setType(t.getType());
+            rtd.setReportId(t.getReportId());
+            list.add(rtd);
+        }
+        return list;
+    }
+
+    @Override
+    public DashboardStatsDTO getDashboardStats(String username, Integer projectId) {
+        long started = System.nanoTime();
+        User user = findUser(username);
+        Integer finalProjectId = projectId != null ? projectId : UserContext.getCurrentProjectId();
+        // non-admins only see their own failed plans and cases, so that section is cached per owner
+        Long ownerId = ownerFilter(user);
+        log.debug("Dashboard stats for user {} in project {}", username, finalProjectId);
+
+        // independent sections, each served from the cache or loaded in parallel
+        CompletableFuture<long[]> caseCounts = section(SECTION_CASES, finalProjectId, null, () -> loadCaseCounts(finalProjectId));
+        CompletableFuture<ReportDailyRollup> executions = section(SECTION_EXECUTIONS, finalProjectId, null, () -> reportRollupMapper.selectTotals(finalProjectId));
+        CompletableFuture<Trend> trend = section(SECTION_TREND, finalProjectId, null, () -> loadTrend(finalProjectId));
+        CompletableFuture<List<RecentActivityDTO>> recent = section(SECTION_RECENT, finalProjectId, null, () -> loadRecentActivity(finalProjectId));
+        CompletableFuture<List<FailedItemDTO>> failedItems = section(SECTION_FAILED, finalProjectId, ownerId, () -> loadFailedItems(finalProjectId, ownerId));
+        CompletableFuture<List<FailedItemDTO>> topFailed = section(SECTION_TOP_FAILED, finalProjectId, null, () -> loadTopFailedCases(finalProjectId));
+
+        DashboardStatsDTO stats = new DashboardStatsDTO();
+        // 1. Top Cards (Test Case Status)
+        long[] counts = await(SECTION_CASES, caseCounts, new long[3]);
+        stats.setTotalCases(counts[0]);
+        stats.setPassedCases(counts[1]);
+        stats.setFailedCases(counts[2]);
+
+        // Executions and durations come from the daily rollups, never from raw reports
+        ReportDailyRollup totals = await(SECTION_EXECUTIONS, executions, null);
+        stats.setTotalExecutions(totals != null && totals.getTotal() != null ? totals.getTotal() : 0L);
+        double avg = totals != null && totals.getDurCount() != null && totals.getDurCount() > 0
+                ? (double) totals.getDurSum() / totals.getDurCount() : 0.0;
         stats.setAvgDuration(Math.round(avg * 100.0) / 100.0);
-        
+
         // 2. Daily Trend (Last 7 days)
-        LocalDateTime startDate = LocalDateTime.now().minusDays(6).withHour(0).withMinute(0).withSecond(0);
-        
-        // Fetch raw reports since startDate FILTERED BY PROJECT
-        QueryWrapper<TestReport> reportQuery = new QueryWrapper<>();
-        reportQuery.ge("executed_at", startDate);
-        if (finalProjectId != null) reportQuery.eq("project_id", finalProjectId);
+        Trend t = await(SECTION_TREND, trend, null);
+        stats.setDailyTrend(t != null ? t.days : new ArrayList<>());
 
-        List<TestReport> rawReports = testReportMapper.selectList(reportQuery);
-        
-        // Fetch related test cases for type info
-        Map<Integer, String> caseTypeMap = new HashMap<>();
-        if (rawReports != null && !rawReports.isEmpty()) {
-            Set<Integer> caseIds = rawReports.stream()
-                .map(TestReport::getCaseId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
-            
-            if (!caseIds.isEmpty()) {
-                List<TestCase> cases = testCaseMapper.selectBatchIds(caseIds);
-                for (TestCase c : cases) {
-                    caseTypeMap.put(c.getId(), c.getType());
-                }
+        long totalForRate = stats.getPassedCases() + stats.getFailedCases();
+        double passRate = totalForRate > 0 ? Math.round((stats.getPassedCases() * 10000.0) / totalForRate) / 100.0 : 0.0;
+        stats.setPassRate(passRate);
+        // Coverage: unique executed cases in last 7 days / total cases
+        long executedCases = t != null ? t.executedCases : 0L;
+        double coverage = stats.getTotalCases() > 0 ? Math.round((executedCases * 10000.0) / stats.getTotalCases()) / 100.0 : 0.0;
+        stats.setCoverage(coverage);
+        double stability = t != null ? t.stability : 0.0;
+        stats.setStability(stability);
+        // Health Score: 0.6*passRate + 0.2*coverage + 0.2*stability
+        stats.setHealthScore(Math.round((passRate * 0.6 + coverage * 0.2 + stability * 0.2) * 100.0) / 100.0);
+
+        // 3. Recent Activity; "time ago" is relative to now, not to when the section was cached
+        List<RecentActivityDTO> recentActivity = new ArrayList<>();
+        for (RecentActivityDTO cached : await(SECTION_RECENT, recent, Collections.<RecentActivityDTO>emptyList())) {
+            RecentActivityDTO dto = new RecentActivityDTO();
+            dto.setCaseName(cached.getCaseName());
+            dto.setStatus(cached.getStatus());
+            dto.setExecutedBy(cached.getExecutedBy());
+            dto.setTimestamp(cached.getTimestamp());
+            dto.setTimeAgo(cached.getTimestamp() != null ? formatTimeAgo(cached.getTimestamp()) : "未知");
+            recentActivity.add(dto);
+        }
+        stats.setRecentActivity(recentActivity);
+
+        // 4. Workbench Snapshot: running work is registered by the executors, read from memory
+        stats.setMyRunningTasks(listRunningTasks(finalProjectId, ownerId, 5));
+        stats.setMyFailedPlans(await(SECTION_FAILED, failedItems, Collections.<FailedItemDTO>emptyList()));
+        stats.setTopFailedCases(await(SECTION_TOP_FAILED, topFailed, Collections.<FailedItemDTO>emptyList()));
+
+        totalStats.record((System.nanoTime() - started) / 1e6);
+        return stats;
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> sections = new LinkedHashMap<>();
+        for (Map.Entry<String, LatencyStats> entry : sectionStats.entrySet()) {
+            sections.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("total", totalStats.snapshot());
+        metrics.put("sections", sections);
+        metrics.put("cachedEntries", sectionCache.size());
+        metrics.put("ttlMs", cacheTtlMs);
+        return metrics;
+    }
+
+    /**
+     * Writes drop the cached sections of the project that read what was written; sections
+     * for all projects (no project context) are dropped by every write.
+     */
+    @EventListener
+    public void onDataChanged(DataChangedEvent event) {
+        Integer changed = event.getProjectId();
+        sectionCache.invalidate(key -> (changed == null || key.projectId == null || changed.equals(key.projectId))
+                && SECTION_SOURCES.get(key.section).contains(event.getTarget()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> section(String name, Integer projectId, Long ownerId, Supplier<T> loader) {
+        LatencyStats stats = sectionStats.get(name);
+        Supplier<Object> timed = () -> {
+            long started = System.nanoTime();
+            try {
+                return loader.get();
+            } finally {
+                stats.record((System.nanoTime() - started) / 1e6);
             }
+        };
+        // the executor is only handed the load on a miss
+        boolean[] missed = new boolean[1];
+        CompletableFuture<Object> value = sectionCache.get(new SectionKey(name, projectId, ownerId), timed, r -> {
+            missed[0] = true;
+            sectionPool.execute(r);
+        });
+        if (!missed[0]) {
+            stats.hit();
         }
+        return (CompletableFuture<T>) (CompletableFuture<?>) value;
+    }
+
+    /**
+     * A section that fails or times out is left at its fallback; the rest of the dashboard still renders.
+     */
+    private <T> T await(String name, CompletableFuture<T> section, T fallback) {
+        try {
+            return section.get(sectionTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback;
+        } catch (TimeoutException e) {
+            log.warn("Dashboard section {} took longer than {}ms", name, sectionTimeoutMs);
+            return fallback;
+        } catch (ExecutionException e) {
+            log.error("Dashboard section {} failed", name, e.getCause());
+            return fallback;
+        }
+    }
+
+    /** Total, passed and failed cases by their last result. */
+    private long[] loadCaseCounts(Integer projectId) {
+        QueryWrapper<TestCase> caseTotalQuery = new QueryWrapper<>();
+        if (projectId != null) caseTotalQuery.eq("project_id", projectId);
+        QueryWrapper<TestCase> passedCaseQuery = new QueryWrapper<>();
+        if (projectId != null) passedCaseQuery.eq("project_id", projectId);
+        passedCaseQuery.eq("last_result", "success");
+        QueryWrapper<TestCase> failedCaseQuery = new QueryWrapper<>();
+        if (projectId != null) failedCaseQuery.eq("project_id", projectId);
+        failedCaseQuery.eq("last_result", "failed");
+        return new long[] {
+                testCaseMapper.selectCount(caseTotalQuery),
+                testCaseMapper.selectCount(passedCaseQuery),
+                testCaseMapper.selectCount(failedCaseQuery)
+        };
+    }
+
+    private Trend loadTrend(Integer finalProjectId) {
+        LocalDateTime startDate = LocalDateTime.now().minusDays(6).withHour(0).withMinute(0).withSecond(0);
         
-        // Debug Log
-        System.out.println("Dashboard Stats: Fetching daily stats from " + startDate);
-        System.out.println("Dashboard Stats: Found " + (rawReports != null ? rawReports.size() : 0) + " raw reports for aggregation");
+        List<ReportDailyRollup> rollups = reportRollupMapper.selectDaily(finalProjectId, startDate.toLocalDate());
 
         List<DailyTrendDTO> dailyTrend = new ArrayList<>();
         Map<String, DailyTrendDTO> dateMap = new HashMap<>();
@@ -167,37 +491,33 @@ public class DashboardServiceImpl implements DashboardService {
             dateMap.put(dateStr, dto);
         }
         
-        if (rawReports != null) {
-            for (TestReport report : rawReports) {
-                if (report.getExecutedAt() == null) continue;
-                
-                String dateStr = report.getExecutedAt().format(DateTimeFormatter.ofPattern("MM-dd"));
-                String status = report.getStatus();
-                String type = caseTypeMap.get(report.getCaseId()); // Can be null if case deleted
-                
+        long windowCount = 0;
+        long windowDurCount = 0;
+        double windowDurSum = 0;
+        double windowDurSumsq = 0;
+        if (rollups != null) {
+            for (ReportDailyRollup row : rollups) {
+                if (row.getStatDate() == null) continue;
+                windowCount += row.getTotal();
+                windowDurCount += row.getDurCount();
+                windowDurSum += row.getDurSum();
+                windowDurSumsq += row.getDurSumsq();
+
+                String dateStr = row.getStatDate().format(DateTimeFormatter.ofPattern("MM-dd"));
                 DailyTrendDTO dto = dateMap.get(dateStr);
-                if (dto != null) {
-                    if ("success".equalsIgnoreCase(status)) {
-                        dto.setPassed(dto.getPassed() + 1);
-                    } else {
-                        dto.setFailed(dto.getFailed() + 1);
-                    }
-                }
-    
-                if (type != null && dto != null) {
-                    String upperType = type.toUpperCase();
-                    String key = dateStr + "|" + upperType;
-                    long[] counters = perTypeCounters.computeIfAbsent(key, k -> new long[2]);
-                    counters[0] += 1; // total
-                    if ("success".equalsIgnoreCase(status)) {
-                        counters[1] += 1; // passed
-                    }
+                if (dto == null) continue;
+                dto.setPassed(dto.getPassed() + row.getPassed());
+                dto.setFailed(dto.getFailed() + row.getFailed());
+                if (row.getCaseType() != null && !row.getCaseType().isEmpty()) {
+                    long[] counters = perTypeCounters.computeIfAbsent(dateStr + "|" + row.getCaseType(), k -> new long[2]);
+                    counters[0] += row.getTotal();
+                    counters[1] += row.getPassed();
                 }
             }
         }
         
         // Fallback: If no reports found in last 7 days, derive trend from test_cases.last_run / last_result
-        if ((rawReports == null || rawReports.isEmpty())) {
+        if (windowCount == 0) {
             QueryWrapper<TestCase> caseTrendQuery = new QueryWrapper<>();
             caseTrendQuery.ge("last_run", startDate);
             if (finalProjectId != null) caseTrendQuery.eq("project_id", finalProjectId);
@@ -257,64 +577,30 @@ public class DashboardServiceImpl implements DashboardService {
                 }
             }
         }
-        stats.setDailyTrend(dailyTrend);
-        
-        // Compute passRate
-        long totalForRate = stats.getPassedCases() + stats.getFailedCases();
-        double passRate = totalForRate > 0 ? Math.round((stats.getPassedCases() * 10000.0) / totalForRate) / 100.0 : 0.0;
-        stats.setPassRate(passRate);
-        
-        // Coverage: unique executed cases in last 7 days / total cases
-        QueryWrapper<TestReport> coverageWrapper = new QueryWrapper<>();
-        coverageWrapper.ge("executed_at", startDate);
-        if (finalProjectId != null) coverageWrapper.eq("project_id", finalProjectId);
-        List<TestReport> covReports = testReportMapper.selectList(coverageWrapper);
-        Set<Integer> executedCaseIds = new HashSet<>();
-        if (covReports != null) {
-            for (TestReport r : covReports) {
-                if (r.getCaseId() != null) executedCaseIds.add(r.getCaseId());
-            }
-        }
-        double coverage = stats.getTotalCases() > 0 ? Math.round((executedCaseIds.size() * 10000.0) / stats.getTotalCases()) / 100.0 : 0.0;
-        stats.setCoverage(coverage);
-        
+        // Coverage: unique executed cases in last 7 days
+        Trend trend = new Trend();
+        trend.days = dailyTrend;
+        trend.executedCases = reportRollupMapper.countDistinctCases(finalProjectId, startDate.toLocalDate());
+
         // Stability: 1 - stddev/mean of execution time (last 7 days), clamp to [0,1], then scale 0-100
-        List<Integer> durations = new ArrayList<>();
-        if (covReports != null) {
-            for (TestReport r : covReports) {
-                if (r.getExecutionTime() != null && r.getExecutionTime() > 0) durations.add(r.getExecutionTime());
-            }
-        }
-        double stability = 0.0;
-        if (!durations.isEmpty()) {
-            double mean = durations.stream().mapToDouble(d -> d).average().orElse(0.0);
-            double variance = durations.stream().mapToDouble(d -> (d - mean) * (d - mean)).sum() / durations.size();
+        if (windowDurCount > 0) {
+            double mean = windowDurSum / windowDurCount;
+            double variance = Math.max(0.0, windowDurSumsq / windowDurCount - mean * mean);
             double stddev = Math.sqrt(variance);
             double ratio = mean > 0 ? (stddev / mean) : 1.0;
             double s = 1.0 - Math.min(Math.max(ratio, 0.0), 1.0);
-            stability = Math.round(s * 10000.0) / 100.0;
-        }
-        stats.setStability(stability);
-        
-        // Health Score: 0.6*passRate + 0.2*coverage + 0.2*stability
-        double healthScore = Math.round((passRate * 0.6 + coverage * 0.2 + stability * 0.2) * 100.0) / 100.0;
-        stats.setHealthScore(healthScore);
-        
-        // 3. Recent Activity
-        QueryWrapper<TestReport> recentWrapper = new QueryWrapper<>();
-        if (finalProjectId != null) {
-            recentWrapper.eq("project_id", finalProjectId);
+            trend.stability = Math.round(s * 10000.0) / 100.0;
         }
-        recentWrapper.orderByDesc("executed_at");
-        recentWrapper.last("LIMIT 10");
-        List<TestReport> recentReports = testReportMapper.selectList(recentWrapper);
-        
-        System.out.println("Dashboard Stats: Found " + (recentReports != null ? recentReports.size() : 0) + " recent reports");
+        return trend;
+    }
 
+    private List<RecentActivityDTO> loadRecentActivity(Integer finalProjectId) {
+        List<ReportSummaryDTO> recentReports = testReportMapper.selectRecentSummaries(finalProjectId, 10);
+        
         List<RecentActivityDTO> recentActivity = new ArrayList<>();
         if (recentReports != null && !recentReports.isEmpty()) {
             Set<Integer> caseIds = recentReports.stream()
-                .map(TestReport::getCaseId)
+                .map(ReportSummaryDTO::getCaseId)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toSet());
             
@@ -326,19 +612,13 @@ public class DashboardServiceImpl implements DashboardService {
                 }
             }
             
-            for (TestReport r : recentReports) {
+            for (ReportSummaryDTO r : recentReports) {
                 RecentActivityDTO dto = new RecentActivityDTO();
                 String name = caseNameMap.get(r.getCaseId());
                 dto.setCaseName(name != null ? name : "Unknown Case (ID:" + r.getCaseId() + ")");
                 dto.setStatus(r.getStatus());
                 dto.setExecutedBy(r.getExecutedBy() != null ? r.getExecutedBy() : "System");
                 dto.setTimestamp(r.getExecutedAt());
-                
-                if (r.getExecutedAt() != null) {
-                    dto.setTimeAgo(formatTimeAgo(r.getExecutedAt()));
-                } else {
-                    dto.setTimeAgo("未知");
-                }
                 recentActivity.add(dto);
             }
         }
@@ -357,100 +637,20 @@ public class DashboardServiceImpl implements DashboardService {
                     dto.setStatus(c.getLastResult());
                     dto.setExecutedBy("System");
                     dto.setTimestamp(c.getLastRun());
-                    dto.setTimeAgo(formatTimeAgo(c.getLastRun()));
                     recentActivity.add(dto);
                 }
             }
         }
         
-        stats.setRecentActivity(recentActivity);
-        
-        // 4. Workbench Snapshot (My Tasks & Exception Reminders)
-        List<RunningTaskDTO> myRunningTasks = new ArrayList<>();
-        
-        // My Running Test Plans
-        QueryWrapper<TestPlan> runningPlanQuery = new QueryWrapper<>();
-        if (finalProjectId != null) runningPlanQuery.eq("project_id", finalProjectId);
-        if (userId != null && !isAdmin) runningPlanQuery.eq("created_by", userId);
-        runningPlanQuery.eq("last_run_status", "Running");
-        runningPlanQuery.orderByDesc("last_run_time");
-        runningPlanQuery.last("LIMIT 5");
-        List<TestPlan> runningPlans = testPlanMapper.selectList(runningPlanQuery);
-        if (runningPlans != null) {
-            for (TestPlan p : runningPlans) {
-                RunningTaskDTO rtd = new RunningTaskDTO();
-                rtd.setId("plan-" + p.getId());
-                rtd.setName("[计划] " + p.getName());
-                rtd.setLastRunTime(p.getLastRunTime());
-                rtd.setType("Plan");
-                
-                // Find latest report for this plan
-                QueryWrapper<TestReport> planReportQuery = new QueryWrapper<>();
-                planReportQuery.eq("plan_id", p.getId());
-                planReportQuery.orderByDesc("id");
-                planReportQuery.last("LIMIT 1");
-                TestReport latest = testReportMapper.selectOne(planReportQuery);
-                if (latest != null) {
-                    rtd.setReportId(latest.getId());
-                }
-                
-                myRunningTasks.add(rtd);
-            }
-        }
-
-        // My Running Test Cases (Manual execution)
-        QueryWrapper<TestCase> runningCaseQuery = new QueryWrapper<>();
-        if (finalProjectId != null) runningCaseQuery.eq("project_id", finalProjectId);
-        if (userId != null && !isAdmin) runningCaseQuery.eq("created_by", userId);
-        runningCaseQuery.eq("last_result", "running");
-        runningCaseQuery.orderByDesc("last_run");
-        runningCaseQuery.last("LIMIT 5");
-        List<TestCase> runningCases = testCaseMapper.selectList(runningCaseQuery);
-        if (runningCases != null) {
-            for (TestCase c : runningCases) {
-                RunningTaskDTO rtd = new RunningTaskDTO();
-                rtd.setId("case-" + c.getId());
-                rtd.setName("[单例] " + c.getName());
-                rtd.setLastRunTime(c.getLastRun());
-                rtd.setType("Case");
-                
-                // Find latest report for this case
-                QueryWrapper<TestReport> caseReportQuery = new QueryWrapper<>();
-                caseReportQuery.eq("case_id", c.getId());
-                caseReportQuery.isNull("plan_id"); // only single case reports
-                caseReportQuery.orderByDesc("id");
-                caseReportQuery.last("LIMIT 1");
-                TestReport latest = testReportMapper.selectOne(caseReportQuery);
-                if (latest != null) {
-                    rtd.setReportId(latest.getId());
-                }
-                
-                myRunningTasks.add(rtd);
-            }
-        }
-        
-        // Sort by time descending and limit to 5
-        myRunningTasks.sort((a, b) -> {
-            if (a.getLastRunTime() == null) return 1;
-            if (b.getLastRunTime() == null) return -1;
-            return b.getLastRunTime().compareTo(a.getLastRunTime());
-        });
-        if (myRunningTasks.size() > 5) {
-            myRunningTasks = myRunningTasks.subList(0, 5);
-        }
-        stats.setMyRunningTasks(myRunningTasks);
+        return recentActivity;
+    }
 
-        // Exception Reminders (Failed Plans & Failed Cases)
+    /** Failed plans and manually run cases, newest first, at most 5. */
+    private List<FailedItemDTO> loadFailedItems(Integer finalProjectId, Long ownerId) {
         List<FailedItemDTO> myFailedItems = new ArrayList<>();
-        
+
         // Failed Test Plans
-        QueryWrapper<TestPlan> failedPlanQuery = new QueryWrapper<>();
-        if (finalProjectId != null) failedPlanQuery.eq("project_id", finalProjectId);
-        if (userId != null && !isAdmin) failedPlanQuery.eq("created_by", userId);
-        failedPlanQuery.eq("last_run_status", "Failed");
-        failedPlanQuery.orderByDesc("last_run_time");
-        failedPlanQuery.last("LIMIT 5");
-        List<TestPlan> failedPlans = testPlanMapper.selectList(failedPlanQuery);
+        List<TestPlan> failedPlans = testPlanMapper.selectRecentFailed(finalProjectId, ownerId, 5);
         if (failedPlans != null) {
             for (TestPlan p : failedPlans) {
                 FailedItemDTO fid = new FailedItemDTO();
@@ -458,29 +658,16 @@ public class DashboardServiceImpl implements DashboardService {
                 fid.setName("[计划] " + p.getName());
                 fid.setLastRunTime(p.getLastRunTime());
                 fid.setType("Plan");
-                
+
                 // Find latest report for this plan
-                QueryWrapper<TestReport> failedPlanReportQuery = new QueryWrapper<>();
-                failedPlanReportQuery.eq("plan_id", p.getId());
-                failedPlanReportQuery.orderByDesc("id");
-                failedPlanReportQuery.last("LIMIT 1");
-                TestReport latest = testReportMapper.selectOne(failedPlanReportQuery);
-                if (latest != null) {
-                    fid.setReportId(latest.getId());
-                }
-                
+                fid.setReportId(testReportMapper.selectLatestId(p.getId(), null, false));
+
                 myFailedItems.add(fid);
             }
         }
 
         // Failed Test Cases (Manual execution)
-        QueryWrapper<TestCase> failedCaseManualQuery = new QueryWrapper<>();
-        if (finalProjectId != null) failedCaseManualQuery.eq("project_id", finalProjectId);
-        if (userId != null && !isAdmin) failedCaseManualQuery.eq("created_by", userId);
-        failedCaseManualQuery.eq("last_result", "failed");
-        failedCaseManualQuery.orderByDesc("last_run");
-        failedCaseManualQuery.last("LIMIT 5");
-        List<TestCase> failedManualCases = testCaseMapper.selectList(failedCaseManualQuery);
+        List<TestCase> failedManualCases = testCaseMapper.selectRecentFailed(finalProjectId, ownerId, 5);
         if (failedManualCases != null) {
             for (TestCase c : failedManualCases) {
                 FailedItemDTO fid = new FailedItemDTO();
@@ -488,151 +675,52 @@ public class DashboardServiceImpl implements DashboardService {
                 fid.setName("[单例] " + c.getName());
                 fid.setLastRunTime(c.getLastRun());
                 fid.setType("Case");
-                
+
                 // Find latest report for this case
-                QueryWrapper<TestReport> failedCaseReportQuery = new QueryWrapper<>();
-                failedCaseReportQuery.eq("case_id", c.getId());
-                failedCaseReportQuery.isNull("plan_id"); // only single case reports
-                failedCaseReportQuery.orderByDesc("id");
-                failedCaseReportQuery.last("LIMIT 1");
-                TestReport latest = testReportMapper.selectOne(failedCaseReportQuery);
-                if (latest != null) {
-                    fid.setReportId(latest.getId());
-                }
-                
+                fid.setReportId(testReportMapper.selectLatestId(null, c.getId(), true)); // only single case reports
+
                 myFailedItems.add(fid);
             }
         }
 
-         // Sort by time descending and limit to 5
-         myFailedItems.sort((a, b) -> {
-             if (a.getLastRunTime() == null) return 1;
-             if (b.getLastRunTime() == null) return -1;
-             return b.getLastRunTime().compareTo(a.getLastRunTime());
-         });
-         if (myFailedItems.size() > 5) {
-             myFailedItems = myFailedItems.subList(0, 5);
-         }
-            stats.setMyFailedPlans(myFailedItems);
-            
-            // Top Failed Cases (last 30 days)
-            List<FailedItemDTO> topFailedCases = new ArrayList<>();
-            {
-                QueryWrapper<TestReport> failQuery = new QueryWrapper<>();
-                if (finalProjectId != null) failQuery.eq("project_id", finalProjectId);
-                failQuery.eq("status", "failed");
-                failQuery.orderByDesc("executed_at");
-                List<TestReport> recentFails = testReportMapper.selectList(failQuery);
-                Map<Integer, Integer> countMap = new HashMap<>();
-                Map<Integer, LocalDateTime> lastTimeMap = new HashMap<>();
-                for (TestReport r : recentFails) {
-                    if (r.getCaseId() == null) continue;
-                    int cid = r.getCaseId();
-                    countMap.put(cid, 1 + (countMap.getOrDefault(cid, 0)));
-                    if (r.getExecutedAt() != null) {
-                        LocalDateTime t = lastTimeMap.get(cid);
-                        if (t == null || r.getExecutedAt().isAfter(t)) {
-                            lastTimeMap.put(cid, r.getExecutedAt());
-                        }
-                    }
-                }
-                if (!countMap.isEmpty()) {
-                    List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(countMap.entrySet());
-                    entries.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
-                    int limit = Math.min(5, entries.size());
-                    Set<Integer> caseIds = entries.stream().limit(limit).map(Map.Entry::getKey).collect(Collectors.toSet());
-                    List<TestCase> cases = caseIds.isEmpty() ? Collections.emptyList() : testCaseMapper.selectBatchIds(caseIds);
-                    Map<Integer, String> nameMap = new HashMap<>();
-                    for (TestCase c : cases) {
-                        if (c.getId() != null) nameMap.put(c.getId(), c.getName());
-                    }
-                    for (int i = 0; i < limit; i++) {
-                        Integer cid = entries.get(i).getKey();
-                        Integer cnt = entries.get(i).getValue();
-                        FailedItemDTO dto = new FailedItemDTO();
-                        dto.setId("case-" + cid);
-                        dto.setName(nameMap.getOrDefault(cid, "用例#" + cid));
-                        dto.setType("Case");
-                        dto.setCount(cnt);
-                        dto.setLastRunTime(lastTimeMap.get(cid));
-                        topFailedCases.add(dto);
-                    }
-                }
-                // Fallback from test_cases if no failed reports
-                if (topFailedCases.isEmpty()) {
-                    QueryWrapper<TestCase> failedCaseListQuery = new QueryWrapper<>();
-                    if (finalProjectId != null) failedCaseListQuery.eq("project_id", finalProjectId);
-                    failedCaseListQuery.eq("last_result", "failed");
-                    failedCaseListQuery.orderByDesc("last_run");
-                    failedCaseListQuery.last("LIMIT 50");
-                    List<TestCase> failedCaseList = testCaseMapper.selectList(failedCaseListQuery);
-                    Map<Integer, Integer> cntMap = new HashMap<>();
-                    Map<Integer, LocalDateTime> lastMap = new HashMap<>();
-                    for (TestCase c : failedCaseList) {
-                        if (c.getId() == null) continue;
-                        int cid = c.getId();
-                        cntMap.put(cid, 1 + (cntMap.getOrDefault(cid, 0)));
-                        LocalDateTime t = lastMap.get(cid);
-                        if (t == null || (c.getLastRun() != null && c.getLastRun().isAfter(t))) {
-                            lastMap.put(cid, c.getLastRun());
-                        }
-                    }
-                    if (!cntMap.isEmpty()) {
-                        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(cntMap.entrySet());
-                        entries.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
-                        int limit2 = Math.min(5, entries.size());
-                        Set<Integer> caseIds2 = entries.stream().limit(limit2).map(Map.Entry::getKey).collect(Collectors.toSet());
-                        List<TestCase> cases2 = caseIds2.isEmpty() ? Collections.emptyList() : testCaseMapper.selectBatchIds(caseIds2);
-                        Map<Integer, String> nameMap2 = new HashMap<>();
-                        for (TestCase c : cases2) {
-                            if (c.getId() != null) nameMap2.put(c.getId(), c.getName());
-                        }
-                        for (int i = 0; i < limit2; i++) {
-                            Integer cid = entries.get(i).getKey();
-                            Integer cnt = entries.get(i).getValue();
-                            FailedItemDTO dto = new FailedItemDTO();
-                            dto.setId("case-" + cid);
-                            dto.setName(nameMap2.getOrDefault(cid, "用例#" + cid));
-                            dto.setType("Case");
-                            dto.setCount(cnt);
-                            dto.setLastRunTime(lastMap.get(cid));
-                            topFailedCases.add(dto);
-                        }
-                    }
-                }
-            }
-            stats.setTopFailedCases(topFailedCases);
-
+        // Sort by time descending and limit to 5
+        myFailedItems.sort((a, b) -> {
+            if (a.getLastRunTime() == null) return 1;
+            if (b.getLastRunTime() == null) return -1;
+            return b.getLastRunTime().compareTo(a.getLastRunTime());
+        });
+        if (myFailedItems.size() > 5) {
+            myFailedItems = new ArrayList<>(myFailedItems.subList(0, 5));
+        }
+        return myFailedItems;
+    }
 
-            return stats;
-        } catch (Exception e) {
-            System.err.println("Dashboard Stats error: " + e.getMessage());
-            try {
-                DashboardStatsDTO stats = new DashboardStatsDTO();
-                Integer finalProjectId = projectId != null ? projectId : com.automatedtest.platform.common.UserContext.getCurrentProjectId();
-                QueryWrapper<TestCase> cQ = new QueryWrapper<>();
-                if (finalProjectId != null) cQ.eq("project_id", finalProjectId);
-                stats.setTotalCases(testCaseMapper.selectCount(cQ));
-                QueryWrapper<TestCase> cSucc = new QueryWrapper<>();
-                if (finalProjectId != null) cSucc.eq("project_id", finalProjectId);
-                cSucc.eq("last_result", "success");
-                stats.setPassedCases(testCaseMapper.selectCount(cSucc));
-                QueryWrapper<TestCase> cFail = new QueryWrapper<>();
-                if (finalProjectId != null) cFail.eq("project_id", finalProjectId);
-                cFail.eq("last_result", "failed");
-                stats.setFailedCases(testCaseMapper.selectCount(cFail));
-                QueryWrapper<TestReport> rQ = new QueryWrapper<>();
-                if (finalProjectId != null) rQ.eq("project_id", finalProjectId);
-                stats.setTotalExecutions(testReportMapper.selectCount(rQ));
-                stats.setPassRate(stats.getPassedCases() + stats.getFailedCases() > 0
-                        ? Math.round((stats.getPassedCases() * 10000.0) / (stats.getPassedCases() + stats.getFailedCases())) / 100.0
-                        : 0.0);
-                return stats;
-            } catch (Exception ignored) {}
-            return new DashboardStatsDTO();
+    /**
+     * Cases with the most failures over the last 30 days; empty when nothing failed in that window.
+     */
+    private List<FailedItemDTO> loadTopFailedCases(Integer finalProjectId) {
+        List<FailedItemDTO> topFailedCases = new ArrayList<>();
+        List<CaseFailureCountDTO> topFails = reportRollupMapper.selectTopFailedCases(finalProjectId,
+                LocalDate.now().minusDays(TOP_FAILED_DAYS - 1L), TOP_FAILED_LIMIT);
+        if (!topFails.isEmpty()) {
+            Set<Integer> caseIds = topFails.stream().map(CaseFailureCountDTO::getCaseId).collect(Collectors.toSet());
+            Map<Integer, String> nameMap = new HashMap<>();
+            for (TestCase c : testCaseMapper.selectList(new QueryWrapper<TestCase>().select("id", "name").in("id", caseIds))) {
+                nameMap.put(c.getId(), c.getName());
+            }
+            for (CaseFailureCountDTO f : topFails) {
+                FailedItemDTO dto = new FailedItemDTO();
+                dto.setId("case-" + f.getCaseId());
+                dto.setName(nameMap.getOrDefault(f.getCaseId(), "用例#" + f.getCaseId()));
+                dto.setType("Case");
+                dto.setCount(f.getFailed() != null ? f.getFailed().intValue() : 0);
+                dto.setLastRunTime(f.getLastFailedAt());
+                topFailedCases.add(dto);
+            }
         }
+        return topFailedCases;
     }
-    
+
     private String formatTimeAgo(LocalDateTime dateTime) {
         Duration duration = Duration.between(dateTime, LocalDateTime.now());
         long seconds = duration.getSeconds();
@@ -0,0 +1,269 @@
+package com.automatedtest.platform.service.impl;
+
+import com.automatedtest.platform.common.RunBatches;
+import com.automatedtest.platform.entity.CaseDurationStat;
+import com.automatedtest.platform.entity.DurationRegression;
+import com.automatedtest.platform.entity.TestCase;
+import com.automatedtest.platform.entity.TestReport;
+import com.automatedtest.platform.mapper.CaseDurationStatMapper;
+import com.automatedtest.platform.mapper.DurationRegressionMapper;
+import com.automatedtest.platform.mapper.TestCaseMapper;
+import com.automatedtest.platform.service.DurationRegressionService;
+import com.automatedtest.platform.stats.DurationBaseline;
+import com.automatedtest.platform.stats.DurationThresholds;
+import com.automatedtest.platform.stats.TDigest;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Baselines are read, updated and written back by one thread, so two batches never race on
+ * the same case and the report writer is not held up by the statistics.
+ */
+@Slf4j
+@Service
+public class DurationRegressionServiceImpl implements DurationRegressionService {
+
+    @Autowired
+    private CaseDurationStatMapper caseDurationStatMapper;
+
+    @Autowired
+    private DurationRegressionMapper durationRegressionMapper;
+
+    @Autowired
+    private TestCaseMapper testCaseMapper;
+
+    @Value("${engine.duration_baseline_alpha:0.05}")
+    private Double baselineAlpha;
+
+    @Value("${engine.duration_recent_alpha:0.3}")
+    private Double recentAlpha;
+
+    @Value("${engine.duration_min_samples:20}")
+    private Integer minSamples;
+
+    @Value("${engine.duration_z_threshold:3}")
+    private Double zThreshold;
+
+    @Value("${engine.duration_min_ratio:0.2}")
+    private Double minRatio;
+
+    @Value("${engine.duration_min_delta_ms:50}")
+    private Double minDeltaMs;
+
+    @Value("${engine.duration_min_slow_runs:3}")
+    private Integer minSlowRuns;
+
+    @Value("${engine.duration_digest_window:500}")
+    private Double digestWindow;
+
+    @Value("${engine.duration_digest_compression:100}")
+    private Double compression;
+
+    private DurationThresholds thresholds;
+    private ExecutorService executor;
+    private RunBatches batches;
+
+    @PostConstruct
+    public void init() {
+        thresholds = new DurationThresholds(baselineAlpha, recentAlpha, minSamples, zThreshold, minRatio, minDeltaMs, minSlowRuns, digestWindow);
+        CustomizableThreadFactory factory = new CustomizableThreadFactory("duration-stats-");
+        factory.setDaemon(true);
+        executor = Executors.newSingleThreadExecutor(factory);
+        batches = new RunBatches(executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void record(List<TestReport> reports) {
+        List<TestReport> samples = reports.stream()
+                .filter(r -> r.getCaseId() != null && r.getExecutionTime() != null && "success".equals(r.getStatus()))
+                .collect(Collectors.toList());
+        if (samples.isEmpty()) {
+            return;
+        }
+        try {
+            batches.submit(runsOf(samples), () -> {
+                try {
+                    apply(samples);
+                } catch (Exception e) {
+                    log.error("Updating duration baselines of {} reports failed", samples.size(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Duration baselines not updated for {} reports: shutting down", samples.size());
+        }
+    }
+
+    @Override
+    public boolean awaitRun(Integer planId, Integer runNo, long timeoutMs) {
+        return batches.await(planId, runNo, timeoutMs);
+    }
+
+    private static Set<String> runsOf(List<TestReport> reports) {
+        return reports.stream()
+                .filter(r -> r.getPlanId() != null && r.getPlanRunNo() != null)
+                .map(r -> RunBatches.runKey(r.getPlanId(), r.getPlanRunNo()))
+                .collect(Collectors.toSet());
+    }
+
+    private void apply(List<TestReport> reports) {
+        Set<Integer> caseIds = reports.stream().map(TestReport::getCaseId).collect(Collectors.toSet());
+        Map<Integer, CaseDurationStat> rows = new LinkedHashMap<>();
+        for (CaseDurationStat row : caseDurationStatMapper.selectBatchIds(caseIds)) {
+            rows.put(row.getCaseId(), row);
+        }
+        Map<Integer, DurationBaseline> baselines = new HashMap<>();
+        List<DurationRegression> regressions = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (TestReport report : reports) {
+            CaseDurationStat row = rows.computeIfAbsent(report.getCaseId(), id -> {
+                CaseDurationStat created = new CaseDurationStat();
+                created.setCaseId(id);
+                return created;
+            });
+            DurationBaseline baseline = baselines.computeIfAbsent(report.getCaseId(), id -> toBaseline(row));
+            if (baseline.observe(report.getExecutionTime(), thresholds)) {
+                regressions.add(toRegression(report, baseline, now));
+            }
+            row.setProjectId(report.getProjectId());
+            row.setLastMs(report.getExecutionTime());
+        }
+        for (Map.Entry<Integer, DurationBaseline> entry : baselines.entrySet()) {
+            CaseDurationStat row = rows.get(entry.getKey());
+            DurationBaseline b = entry.getValue();
+            row.setSamples(b.getSamples());
+            row.setBaselineMean(b.getBaselineMean());
+            row.setBaselineVar(b.getBaselineVar());
+            row.setRecentMean(b.getRecentMean());
+            row.setSlowStreak(b.getSlowStreak());
+            row.setRegressed(b.isRegressed());
+            row.setDigest(b.getDigest().toBytes());
+            row.setUpdatedAt(now);
+        }
+        caseDurationStatMapper.upsertAll(new ArrayList<>(rows.values()));
+        for (DurationRegression regression : regressions) {
+            durationRegressionMapper.insert(regression);
+            log.info("Duration regression of case {}: recent mean {}ms vs baseline {}ms (z={})", regression.getCaseId(),
+                    Math.round(regression.getRecentMean()), Math.round(regression.getBaselineMean()),
+                    String.format(java.util.Locale.ROOT, "%.1f", regression.getStandardScore()));
+        }
+    }
+
+    private DurationBaseline toBaseline(CaseDurationStat row) {
+        TDigest digest = TDigest.fromBytes(row.getDigest(), compression);
+        if (row.getSamples() == null) {
+            return new DurationBaseline(digest);
+        }
+        return new DurationBaseline(row.getSamples(), value(row.getBaselineMean()), value(row.getBaselineVar()),
+                value(row.getRecentMean()), row.getSlowStreak() != null ? row.getSlowStreak() : 0,
+                Boolean.TRUE.equals(row.getRegressed()), digest);
+    }
+
+    private static double value(Double d) {
+        return d != null ? d : 0;
+    }
+
+    private static DurationRegression toRegression(TestReport report, DurationBaseline baseline, LocalDateTime now) {
+        DurationRegression regression = new DurationRegression();
+        regression.setProjectId(report.getProjectId());
+        regression.setCaseId(report.getCaseId());
+        regression.setReportId(report.getId());
+        regression.setPlanId(report.getPlanId());
+        regression.setPlanRunNo(report.getPlanRunNo());
+        regression.setDurationMs(report.getExecutionTime());
+        regression.setRecentMean(baseline.getRecentMean());
+        regression.setBaselineMean(baseline.getLastBaselineMean());
+        regression.setBaselineP95(Double.isNaN(baseline.getLastBaselineP95()) ? null : baseline.getLastBaselineP95());
+        regression.setStandardScore(baseline.getLastZ());
+        regression.setDetectedAt(now);
+        return regression;
+    }
+
+    @Override
+    public List<DurationRegression> forRun(Integer planId, Integer runNo) {
+        return withNames(durationRegressionMapper.selectByRun(planId, runNo));
+    }
+
+    @Override
+    public List<DurationRegression> list(Integer projectId, Integer caseId, int limit) {
+        QueryWrapper<DurationRegression> query = new QueryWrapper<DurationRegression>()
+                .eq("project_id", projectId)
+                .orderByDesc("detected_at")
+                .last("LIMIT " + Math.max(1, Math.min(limit, 500)));
+        if (caseId != null) {
+            query.eq("case_id", caseId);
+        }
+        return withNames(durationRegressionMapper.selectList(query));
+    }
+
+    private List<DurationRegression> withNames(List<DurationRegression> list) {
+        if (list.isEmpty()) {
+            return list;
+        }
+        Set<Integer> ids = list.stream().map(DurationRegression::getCaseId).collect(Collectors.toSet());
+        Map<Integer, String> names = new HashMap<>();
+        for (TestCase testCase : testCaseMapper.selectList(new QueryWrapper<TestCase>().select("id", "name").in("id", ids))) {
+            names.put(testCase.getId(), testCase.getName());
+        }
+        for (DurationRegression regression : list) {
+            regression.setCaseName(names.get(regression.getCaseId()));
+        }
+        return list;
+    }
+
+    @Override
+    public Map<String, Object> caseStats(Integer caseId) {
+        CaseDurationStat row = caseDurationStatMapper.selectById(caseId);
+        if (row == null) {
+            return null;
+        }
+        TDigest digest = TDigest.fromBytes(row.getDigest(), compression);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("caseId", row.getCaseId());
+        stats.put("samples", row.getSamples());
+        stats.put("baselineMean", row.getBaselineMean());
+        stats.put("baselineStdDev", Math.sqrt(value(row.getBaselineVar())));
+        stats.put("recentMean", row.getRecentMean());
+        stats.put("p50", percentile(digest, 0.5));
+        stats.put("p90", percentile(digest, 0.9));
+        stats.put("p95", percentile(digest, 0.95));
+        stats.put("p99", percentile(digest, 0.99));
+        stats.put("regressed", Boolean.TRUE.equals(row.getRegressed()));
+        stats.put("lastMs", row.getLastMs());
+        stats.put("updatedAt", row.getUpdatedAt());
+        return stats;
+    }
+
+    private static Double percentile(TDigest digest, double q) {
+        double v = digest.quantile(q);
+        return Double.isNaN(v) ? null : v;
+    }
+}
@@ -0,0 +1,212 @@
+package com.automatedtest.platform.service.impl;
+
+import com.automatedtest.platform.cluster.FailureClusterIndex;
+import com.automatedtest.platform.cluster.LogFingerprint;
+import com.automatedtest.platform.common.RunBatches;
+import com.automatedtest.platform.dto.ReportSummaryDTO;
+import com.automatedtest.platform.entity.FailureCluster;
+import com.automatedtest.platform.entity.FailureClusterMember;
+import com.automatedtest.platform.entity.TestCase;
+import com.automatedtest.platform.entity.TestReport;
+import com.automatedtest.platform.mapper.FailureClusterMapper;
+import com.automatedtest.platform.mapper.FailureClusterMemberMapper;
+import com.automatedtest.platform.mapper.TestCaseMapper;
+import com.automatedtest.platform.service.FailureClusterService;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Clusters are assigned by one thread, so two batches of the same run never race on a
+ * cluster. Each batch only loads the signatures of its own runs' clusters; logs already
+ * clustered are never read again.
+ */
+@Slf4j
+@Service
+public class FailureClusterServiceImpl implements FailureClusterService {
+
+    private static final int SAMPLE_CHARS = 300;
+
+    @Autowired
+    private FailureClusterMapper failureClusterMapper;
+
+    @Autowired
+    private FailureClusterMemberMapper failureClusterMemberMapper;
+
+    @Autowired
+    private TestCaseMapper testCaseMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${engine.cluster_min_similarity:0.6}")
+    private Double minSimilarity;
+
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService executor;
+    private RunBatches batches;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        CustomizableThreadFactory factory = new CustomizableThreadFactory("failure-cluster-");
+        factory.setDaemon(true);
+        executor = Executors.newSingleThreadExecutor(factory);
+        batches = new RunBatches(executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void record(List<TestReport> reports) {
+        List<TestReport> failures = reports.stream()
+                .filter(r -> r.getId() != null && r.getPlanId() != null && r.getPlanRunNo() != null && "failed".equals(r.getStatus()))
+                .collect(Collectors.toList());
+        if (failures.isEmpty()) {
+            return;
+        }
+        try {
+            batches.submit(runsOf(failures), () -> {
+                try {
+                    apply(failures);
+                } catch (Exception e) {
+                    log.error("Clustering {} failed reports failed", failures.size(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("{} failed reports not clustered: shutting down", failures.size());
+        }
+    }
+
+    @Override
+    public boolean awaitRun(Integer planId, Integer runNo, long timeoutMs) {
+        return batches.await(planId, runNo, timeoutMs);
+    }
+
+    private static Set<String> runsOf(List<TestReport> reports) {
+        return reports.stream()
+                .filter(r -> r.getPlanId() != null && r.getPlanRunNo() != null)
+                .map(r -> RunBatches.runKey(r.getPlanId(), r.getPlanRunNo()))
+                .collect(Collectors.toSet());
+    }
+
+    private void apply(List<TestReport> failures) {
+        Map<String, List<TestReport>> byRun = new LinkedHashMap<>();
+        for (TestReport report : failures) {
+            byRun.computeIfAbsent(report.getPlanId() + "#" + report.getPlanRunNo(), k -> new ArrayList<>()).add(report);
+        }
+        for (List<TestReport> run : byRun.values()) {
+            transactionTemplate.executeWithoutResult(tx -> cluster(run));
+        }
+    }
+
+    private void cluster(List<TestReport> reports) {
+        TestReport first = reports.get(0);
+        FailureClusterIndex<Long> index = new FailureClusterIndex<>(minSimilarity);
+        List<FailureCluster> existing = failureClusterMapper.selectList(new QueryWrapper<FailureCluster>()
+                .select("id", "signature")
+                .eq("plan_id", first.getPlanId())
+                .eq("plan_run_no", first.getPlanRunNo()));
+        for (FailureCluster cluster : existing) {
+            index.add(cluster.getId(), LogFingerprint.fromBytes(cluster.getSignature()));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<FailureClusterMember> members = new ArrayList<>(reports.size());
+        Map<Long, Integer> grown = new HashMap<>();
+        for (TestReport report : reports) {
+            String text = report.getIndexText() != null ? report.getIndexText() : report.getLogs();
+            int[] signature = LogFingerprint.signature(text);
+            FailureClusterIndex.Match<Long> match = index.match(signature);
+            FailureClusterMember member = new FailureClusterMember();
+            member.setReportId(report.getId());
+            member.setProjectId(report.getProjectId());
+            member.setCaseId(report.getCaseId());
+            if (match != null) {
+                member.setClusterId(match.getKey());
+                member.setSimilarity(match.getSimilarity());
+                grown.merge(match.getKey(), 1, Integer::sum);
+            } else {
+                FailureCluster cluster = new FailureCluster();
+                cluster.setProjectId(report.getProjectId());
+                cluster.setPlanId(report.getPlanId());
+                cluster.setPlanRunNo(report.getPlanRunNo());
+                cluster.setRepresentativeReportId(report.getId());
+                cluster.setRepresentativeCaseId(report.getCaseId());
+                cluster.setSize(1);
+                cluster.setSignature(LogFingerprint.toBytes(signature));
+                cluster.setSample(LogFingerprint.sample(text, SAMPLE_CHARS));
+                cluster.setCreatedAt(now);
+                cluster.setUpdatedAt(now);
+                failureClusterMapper.insert(cluster);
+                index.add(cluster.getId(), signature);
+                member.setClusterId(cluster.getId());
+                member.setSimilarity(1.0);
+            }
+            members.add(member);
+        }
+        failureClusterMemberMapper.insertAll(members);
+        for (Map.Entry<Long, Integer> entry : grown.entrySet()) {
+            failureClusterMapper.grow(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public List<FailureCluster> forRun(Integer planId, Integer runNo) {
+        List<FailureCluster> list = failureClusterMapper.selectByRun(planId, runNo);
+        if (list.isEmpty()) {
+            return list;
+        }
+        Set<Integer> ids = list.stream().map(FailureCluster::getRepresentativeCaseId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Integer, String> names = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (TestCase testCase : testCaseMapper.selectList(new QueryWrapper<TestCase>().select("id", "name").in("id", ids))) {
+                names.put(testCase.getId(), testCase.getName());
+            }
+        }
+        for (FailureCluster cluster : list) {
+            cluster.setCaseName(names.get(cluster.getRepresentativeCaseId()));
+        }
+        return list;
+    }
+
+    @Override
+    public FailureCluster get(Long clusterId) {
+        return failureClusterMapper.selectById(clusterId);
+    }
+
+    @Override
+    public List<ReportSummaryDTO> reports(Long clusterId) {
+        return failureClusterMemberMapper.selectReports(clusterId);
+    }
+}
@@ -0,0 +1,222 @@
+package com.automatedtest.platform.service.impl;
+
+import com.automatedtest.platform.dto.ReportSummaryDTO;
+import com.automatedtest.platform.entity.AnalyticsCheckpoint;
+import com.automatedtest.platform.entity.CaseFlakyStat;
+import com.automatedtest.platform.entity.TestCase;
+import com.automatedtest.platform.mapper.AnalyticsCheckpointMapper;
+import com.automatedtest.platform.mapper.CaseFlakyStatMapper;
+import com.automatedtest.platform.mapper.TestCaseMapper;
+import com.automatedtest.platform.mapper.TestReportMapper;
+import com.automatedtest.platform.service.FlakyAnalyticsService;
+import com.automatedtest.platform.stats.FlakinessTracker;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class FlakyAnalyticsServiceImpl implements FlakyAnalyticsService {
+
+    private static final String CHECKPOINT = "flaky_stats";
+
+    @Autowired
+    private TestReportMapper testReportMapper;
+
+    @Autowired
+    private CaseFlakyStatMapper caseFlakyStatMapper;
+
+    @Autowired
+    private AnalyticsCheckpointMapper analyticsCheckpointMapper;
+
+    @Autowired
+    private TestCaseMapper testCaseMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${engine.flaky_chunk:5000}")
+    private Integer chunkSize;
+
+    /** Consecutive runs further apart than this are not compared. */
+    @Value("${engine.flaky_window_hours:24}")
+    private Long windowHours;
+
+    @Value("${engine.flaky_alpha:0.1}")
+    private Double alpha;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong scannedRows = new AtomicLong();
+    private volatile long lastReportId;
+    private volatile LocalDateTime scanStartedAt;
+    private volatile LocalDateTime scanFinishedAt;
+    private volatile String lastError;
+
+    @Scheduled(fixedDelayString = "${engine.flaky_scan_ms:600000}", initialDelayString = "${engine.flaky_scan_initial_ms:120000}")
+    public void scheduledScan() {
+        startScan();
+    }
+
+    @Override
+    public boolean startScan() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        scannedRows.set(0);
+        lastError = null;
+        scanStartedAt = LocalDateTime.now();
+        scanFinishedAt = null;
+        Thread t = new Thread(this::scan, "flaky-scan");
+        t.setDaemon(true);
+        t.start();
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> scanStatus() {
+        Map<String, Object> status = new HashMap<>();
+        AnalyticsCheckpoint checkpoint = analyticsCheckpointMapper.selectById(CHECKPOINT);
+        status.put("running", running.get());
+        status.put("scanned", scannedRows.get());
+        status.put("checkpoint", checkpoint != null ? checkpoint.getLastId() : 0L);
+        status.put("checkpointAt", checkpoint != null ? checkpoint.getUpdatedAt() : null);
+        status.put("startedAt", scanStartedAt);
+        status.put("finishedAt", scanFinishedAt);
+        status.put("error", lastError);
+        return status;
+    }
+
+    /**
+     * Folds reports after the checkpoint into the case statistics a chunk at a time. The
+     * statistics and the new checkpoint are written in the same transaction, so a chunk is
+     * counted exactly once even if the scan dies half way.
+     */
+    private void scan() {
+        try {
+            AnalyticsCheckpoint checkpoint = analyticsCheckpointMapper.selectById(CHECKPOINT);
+            long afterId = checkpoint != null && checkpoint.getLastId() != null ? checkpoint.getLastId() : 0L;
+            int size = Math.max(1, chunkSize);
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            while (true) {
+                List<ReportSummaryDTO> chunk = testReportMapper.selectOutcomesAfter(afterId, size);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                long last = chunk.get(chunk.size() - 1).getId();
+                tx.executeWithoutResult(status -> {
+                    fold(chunk);
+                    analyticsCheckpointMapper.save(CHECKPOINT, last);
+                });
+                afterId = last;
+                lastReportId = last;
+                scannedRows.addAndGet(chunk.size());
+                if (chunk.size() < size) {
+                    break;
+                }
+            }
+            if (scannedRows.get() > 0) {
+                log.info("Flaky scan folded {} reports, checkpoint at report {}", scannedRows.get(), lastReportId);
+            }
+        } catch (Exception e) {
+            log.error("Flaky scan failed", e);
+            lastError = e.getMessage();
+        } finally {
+            scanFinishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private void fold(List<ReportSummaryDTO> chunk) {
+        Set<Integer> caseIds = chunk.stream().map(ReportSummaryDTO::getCaseId).collect(Collectors.toSet());
+        Map<Integer, CaseFlakyStat> rows = new LinkedHashMap<>();
+        for (CaseFlakyStat row : caseFlakyStatMapper.selectBatchIds(caseIds)) {
+            rows.put(row.getCaseId(), row);
+        }
+        Map<Integer, FlakinessTracker> trackers = new HashMap<>();
+        Duration window = Duration.ofHours(Math.max(1, windowHours));
+        for (ReportSummaryDTO report : chunk) {
+            CaseFlakyStat row = rows.computeIfAbsent(report.getCaseId(), id -> {
+                CaseFlakyStat created = new CaseFlakyStat();
+                created.setCaseId(id);
+                return created;
+            });
+            FlakinessTracker tracker = trackers.computeIfAbsent(report.getCaseId(), id -> toTracker(row));
+            tracker.observe(report.getStatus(), report.getExecutedAt(), window, alpha);
+            row.setProjectId(report.getProjectId());
+            row.setLastReportId(report.getId());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Integer, FlakinessTracker> entry : trackers.entrySet()) {
+            CaseFlakyStat row = rows.get(entry.getKey());
+            FlakinessTracker t = entry.getValue();
+            row.setRuns(t.getRuns());
+            row.setFailures(t.getFailures());
+            row.setComparablePairs(t.getComparablePairs());
+            row.setTransitions(t.getTransitions());
+            row.setBounces(t.getBounces());
+            row.setFailStreak(t.getFailStreak());
+            row.setMaxFailStreak(t.getMaxFailStreak());
+            row.setLastStatus(t.getLastStatus());
+            row.setPrevStatus(t.getPrevStatus());
+            row.setChainInWindow(t.isChainInWindow());
+            row.setLastExecutedAt(t.getLastExecutedAt());
+            row.setFlipRate(t.flipRate());
+            row.setFlakiness(t.getFlakiness());
+            row.setUpdatedAt(now);
+        }
+        caseFlakyStatMapper.upsertAll(new ArrayList<>(rows.values()));
+    }
+
+    private static FlakinessTracker toTracker(CaseFlakyStat row) {
+        if (row.getRuns() == null) {
+            return new FlakinessTracker();
+        }
+        return new FlakinessTracker(row.getRuns(), nz(row.getFailures()), nz(row.getComparablePairs()), nz(row.getTransitions()),
+                nz(row.getBounces()), row.getFailStreak() != null ? row.getFailStreak() : 0,
+                row.getMaxFailStreak() != null ? row.getMaxFailStreak() : 0, row.getLastStatus(), row.getPrevStatus(),
+                Boolean.TRUE.equals(row.getChainInWindow()), row.getLastExecutedAt(),
+                row.getFlakiness() != null ? row.getFlakiness() : 0);
+    }
+
+    private static long nz(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    @Override
+    public List<CaseFlakyStat> listFlaky(Integer projectId, int minRuns, int limit) {
+        List<CaseFlakyStat> list = caseFlakyStatMapper.selectFlakiest(projectId, Math.max(0, minRuns), Math.max(1, Math.min(limit, 500)));
+        if (!list.isEmpty()) {
+            Set<Integer> ids = list.stream().map(CaseFlakyStat::getCaseId).collect(Collectors.toSet());
+            Map<Integer, String> names = new HashMap<>();
+            for (TestCase testCase : testCaseMapper.selectList(new QueryWrapper<TestCase>().select("id", "name").in("id", ids))) {
+                names.put(testCase.getId(), testCase.getName());
+            }
+            for (CaseFlakyStat stat : list) {
+                stat.setCaseName(names.get(stat.getCaseId()));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public CaseFlakyStat get(Integer caseId) {
+        return caseFlakyStatMapper.selectById(caseId);
+    }
+}
@@ -0,0 +1,690 @@
+package com.automatedtest.platform.service.impl;
+
+import com.automatedtest.platform.common.DataChangedEvent;
+import com.automatedtest.platform.dto.CaseExecuteResultDTO;
+import com.automatedtest.platform.dto.CaseRunContext;
+import com.automatedtest.platform.dto.PlanRunCommand;
+import com.automatedtest.platform.dto.PlanRunHandle;
+import com.automatedtest.platform.engine.AdmissionController;
+import com.automatedtest.platform.engine.CaseDependencies;
+import com.automatedtest.platform.engine.CaseScheduler;
+import com.automatedtest.platform.engine.PlanVariableStore;
+import com.automatedtest.platform.engine.RunEventBus;
+import com.automatedtest.platform.engine.RunningTaskRegistry;
+import com.automatedtest.platform.entity.DurationRegression;
+import com.automatedtest.platform.entity.FailureCluster;
+import com.automatedtest.platform.entity.PlanRun;
+import com.automatedtest.platform.entity.Project;
+import com.automatedtest.platform.entity.TestCase;
+import com.automatedtest.platform.entity.TestPlan;
+import com.automatedtest.platform.entity.User;
+import com.automatedtest.platform.mapper.TestPlanMapper;
+import com.automatedtest.platform.mapper.TestReportMapper;
+import com.automatedtest.platform.service.DurationRegressionService;
+import com.automatedtest.platform.service.FailureClusterService;
+import com.automatedtest.platform.service.PlanExecutionService;
+import com.automatedtest.platform.service.PlanRunService;
+import com.automatedtest.platform.service.ProjectService;
+import com.automatedtest.platform.service.TestCaseService;
+import com.automatedtest.platform.service.TestPlanService;
+import com.automatedtest.platform.service.UserService;
+import com.automatedtest.platform.util.WebhookClient;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class PlanExecutionServiceImpl implements PlanExecutionService {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** Runs this instance queued or finished recently, for live status and queue position. */
+    private final Map<Long, PlanRunHandle> handles = new ConcurrentHashMap<>();
+    private final Map<Long, AdmissionController.Ticket> tickets = new ConcurrentHashMap<>();
+
+    @Autowired
+    private AdmissionController admissionController;
+
+    @Autowired
+    private CaseScheduler caseScheduler;
+
+    @Autowired
+    private RunEventBus runEventBus;
+
+    @Autowired
+    private RunningTaskRegistry runningTaskRegistry;
+
+    @Autowired
+    private PlanRunService planRunService;
+
+    @Autowired
+    private TestPlanService testPlanService;
+
+    @Autowired
+    private TestPlanMapper testPlanMapper;
+
+    @Autowired
+    private TestCaseService testCaseService;
+
+    @Autowired
+    private TestReportMapper testReportMapper;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private com.automatedtest.platform.service.ProjectVariableService projectVariableService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private WebhookClient webhookClient;
+
+    @Autowired
+    private DurationRegressionService durationRegressionService;
+
+    @Autowired
+    private FailureClusterService failureClusterService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${engine.max_concurrency:8}")
+    private Integer maxConcurrency;
+
+    @Value("${engine.run_handle_ttl_minutes:30}")
+    private Long handleTtlMinutes;
+
+    @Value("${engine.plan_var_wait_ms:30000}")
+    private Long planVarWaitMs;
+
+    @Value("${engine.duration_wait_ms:3000}")
+    private Long durationWaitMs;
+
+    /** Counts and per-case items of one run; shared by worker threads in the concurrent path. */
+    private static class RunTally {
+        int total;
+        int successCount;
+        int failedCount;
+        long totalDuration;
+        Integer firstReportId;
+        final List<Map<String, Object>> items = new ArrayList<>();
+
+        synchronized void add(Map<String, Object> item) {
+            items.add(item);
+            if ("success".equalsIgnoreCase(String.valueOf(item.get("status")))) {
+                successCount++;
+            } else {
+                failedCount++;
+            }
+            Object dur = item.get("durationMs");
+            if (dur instanceof Number) {
+                totalDuration += ((Number) dur).longValue();
+            }
+            Object rid = item.get("reportId");
+            if (firstReportId == null && rid instanceof Number) {
+                firstReportId = ((Number) rid).intValue();
+            }
+        }
+    }
+
+    @Override
+    public PlanRunHandle submit(PlanRunCommand command) {
+        evictExpiredHandles();
+        TestPlan plan = command.getPlan();
+        PlanRun run = planRunService.start(plan, "queued", command.getTriggerType(), command.getExecutedBy(), command.getCaseIds().size());
+        command.setRunId(run.getId());
+
+        PlanRunHandle handle = new PlanRunHandle();
+        handle.setRunId(run.getId());
+        handle.setPlanId(plan.getId());
+        handle.setRunNo(run.getRunNo());
+        handle.setStatus("queued");
+        handle.setCompletion(new CompletableFuture<>());
+        handles.put(run.getId(), handle);
+
+        Project project = projectService.getById(plan.getProjectId());
+        Integer teamId = project != null ? project.getTeamId() : null;
+        boolean smoke = Boolean.TRUE.equals(plan.getSmoke());
+        AdmissionController.Ticket ticket = admissionController.submit(plan.getProjectId(), teamId, smoke, () -> execute(command, run, handle));
+        if (ticket == null) {
+            handles.remove(run.getId());
+            planRunService.removeById(run.getId());
+            return null;
+        }
+        tickets.put(run.getId(), ticket);
+        handle.setQueuePosition(ticket.position());
+        if (ticket.getState() == AdmissionController.State.QUEUED) {
+            Map<String, Object> data = runEventData(run);
+            data.put("queuePosition", handle.getQueuePosition());
+            runEventBus.publish(run.getId(), RunEventBus.RUN_QUEUED, data);
+        }
+        return handle;
+    }
+
+    @Override
+    public PlanRunHandle getHandle(Long runId) {
+        PlanRunHandle live = handles.get(runId);
+        if (live != null) {
+            AdmissionController.Ticket ticket = tickets.get(runId);
+            live.setQueuePosition(ticket != null ? ticket.position() : 0);
+            return live;
+        }
+        PlanRun run = planRunService.getById(runId);
+        if (run == null) {
+            return null;
+        }
+        PlanRunHandle handle = new PlanRunHandle();
+        handle.setRunId(run.getId());
+        handle.setPlanId(run.getPlanId());
+        handle.setRunNo(run.getRunNo());
+        handle.setStatus(run.getStatus());
+        handle.setQueuePosition(0);
+        handle.setStartedAt(run.getStartedAt());
+        handle.setFinishedAt(run.getFinishedAt());
+        return handle;
+    }
+
+    private void evictExpiredHandles() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(handleTtlMinutes != null ? handleTtlMinutes : 30L);
+        handles.entrySet().removeIf(e -> e.getValue().getFinishedAt() != null && e.getValue().getFinishedAt().isBefore(cutoff));
+        tickets.keySet().removeIf(id -> !handles.containsKey(id));
+    }
+
+    private void execute(PlanRunCommand command, PlanRun run, PlanRunHandle handle) {
+        RunTally tally = new RunTally();
+        TestPlan plan = command.getPlan();
+        runningTaskRegistry.planStarted(run.getId(), plan.getId(), plan.getName(), plan.getProjectId(),
+                plan.getCreatedBy(), command.getCaseIds().size());
+        try {
+            planRunService.markRunning(run.getId());
+            handle.setStatus("running");
+            handle.setStartedAt(LocalDateTime.now());
+            runEventBus.publish(run.getId(), RunEventBus.RUN_STARTED, runEventData(run));
+            Map<String, Object> summary = runPlan(command, run, tally);
+            handle.setSummary(summary);
+            handle.setStatus(tally.failedCount > 0 ? "failed" : "success");
+            handle.setFinishedAt(LocalDateTime.now());
+            publishRunFinished(run, handle.getStatus(), tally);
+            handle.getCompletion().complete(summary);
+        } catch (Throwable e) {
+            log.error("Plan run {} of plan {} aborted", run.getRunNo(), run.getPlanId(), e);
+            planRunService.finish(run.getId(), tally.total, tally.successCount, Math.max(1, tally.failedCount));
+            if (testPlanMapper.failRunning(plan.getId()) > 0) {
+                eventPublisher.publishEvent(new DataChangedEvent(DataChangedEvent.PLANS, plan.getProjectId()));
+            }
+            handle.setStatus("failed");
+            handle.setFinishedAt(LocalDateTime.now());
+            publishRunFinished(run, "failed", tally);
+            handle.getCompletion().completeExceptionally(e);
+        } finally {
+            runningTaskRegistry.planFinished(run.getId());
+        }
+    }
+
+    private Map<String, Object> runPlan(PlanRunCommand command, PlanRun run, RunTally tally) {
+        TestPlan plan = command.getPlan();
+        List<Integer> caseIds = command.getCaseIds();
+        Map<Integer, TestCase> caseMap = command.getCaseMap();
+        String executedBy = command.getExecutedBy();
+        Long userId = command.getUserId();
+        String triggerType = command.getTriggerType();
+        int currentRunNo = run.getRunNo();
+
+        // Update status to Running
+        plan.setLastRunStatus("Running");
+        plan.setLastRunTime(LocalDateTime.now());
+        testPlanService.updateById(plan);
+        eventPublisher.publishEvent(new DataChangedEvent(DataChangedEvent.PLANS, plan.getProjectId()));
+
+        Integer concurrency = command.getConcurrency();
+        if (concurrency == null || concurrency < 1) concurrency = 1;
+        if (maxConcurrency != null && maxConcurrency > 0 && concurrency > maxConcurrency) {
+            concurrency = maxConcurrency;
+        }
+        PlanVariableStore planVars = new PlanVariableStore();
+
+        boolean hasFlow = plan.getFlowJson() != null && !plan.getFlowJson().trim().isEmpty();
+        if (hasFlow) concurrency = 1;
+        if (!hasFlow && command.isContainsUiCase()) {
+            if (concurrency > 2) concurrency = 2;
+        }
+        if (hasFlow) {
+            try {
+                List<?> steps = objectMapper.readValue(plan.getFlowJson(), List.class);
+                if (steps != null) {
+                    runFlow(steps, command, currentRunNo, planVars, tally);
+                }
+            } catch (Exception ignored) {}
+        }
+        if (!hasFlow && concurrency == 1) {
+            for (Integer caseId : caseIds) {
+                if (caseId == null || caseId <= 0) {
+                    continue;
+                }
+                tally.total++;
+                CaseExecuteResultDTO result = runCase(caseId, command, currentRunNo, null, planVars);
+                tally.add(toItem(caseId, result, caseMap));
+            }
+        } else if (!hasFlow) {
+            // Independent cases: hand the plan's higher-priority cases to the shared workers
+            // first, never more than `concurrency` of this run at a time. Items keep plan order.
+            // A case that requires plan variables is held back here, before it takes a lane or
+            // a worker, until the cases extracting them have finished.
+            List<Integer> positions = new ArrayList<>();
+            List<Integer> levels = new ArrayList<>();
+            List<Set<String>> requires = new ArrayList<>();
+            List<Set<String>> produces = new ArrayList<>();
+            for (int i = 0; i < caseIds.size(); i++) {
+                Integer caseId = caseIds.get(i);
+                if (caseId == null || caseId <= 0) continue;
+                TestCase tc = caseMap.get(caseId);
+                positions.add(i);
+                levels.add(levelOf(caseId, command));
+                requires.add(CaseDependencies.requires(tc != null ? tc.getContent() : null));
+                produces.add(CaseDependencies.produces(tc != null ? tc.getContent() : null));
+            }
+            CaseDependencies dependencies = new CaseDependencies(levels, requires, produces);
+            java.util.concurrent.Semaphore lanes = new java.util.concurrent.Semaphore(Math.max(1, concurrency));
+            Map<Integer, CompletableFuture<Map<String, Object>>> futures = new java.util.TreeMap<>();
+            for (Integer k : dependencies.order()) {
+                final Integer i = positions.get(k);
+                final Integer cid = caseIds.get(i);
+                tally.total++;
+                awaitProducers(dependencies.producersOf(k), positions, futures);
+                lanes.acquireUninterruptibly();
+                futures.put(i, scheduleCase(cid, command, currentRunNo, null, planVars)
+                        .handle((result, e) -> toItem(cid, e == null ? result : failedResult(e), caseMap))
+                        .whenComplete((item, e) -> lanes.release()));
+            }
+            for (CompletableFuture<Map<String, Object>> f : futures.values()) {
+                tally.add(f.join());
+            }
+        }
+
+        int total = tally.total;
+        int successCount = tally.successCount;
+        int failedCount = tally.failedCount;
+        long totalDuration = tally.totalDuration;
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("planId", plan.getId());
+        summary.put("runId", run.getId());
+        summary.put("runNo", currentRunNo);
+        summary.put("planName", plan.getName());
+        summary.put("environment", plan.getEnvironment());
+        if (executedBy != null && !executedBy.trim().isEmpty()) {
+            summary.put("executedBy", executedBy.trim());
+        } else {
+            summary.put("executedBy", "System");
+        }
+        summary.put("concurrencyApplied", concurrency);
+        summary.put("uiCasePresent", command.isContainsUiCase());
+        summary.put("total", total);
+        summary.put("success", successCount);
+        summary.put("failed", failedCount);
+        summary.put("durationMs", totalDuration);
+        summary.put("avgDurationMs", total > 0 ? totalDuration / total : 0L);
+        summary.put("items", tally.items);
+        if (tally.firstReportId != null) {
+            summary.put("planSummaryReportId", tally.firstReportId);
+        }
+        // the run's reports are queued for the duration baselines and clusters; let them be
+        // evaluated first, within one shared wait
+        long waitUntil = System.currentTimeMillis() + durationWaitMs;
+        durationRegressionService.awaitRun(plan.getId(), currentRunNo, durationWaitMs);
+        List<DurationRegression> regressions = durationRegressionService.forRun(plan.getId(), currentRunNo);
+        summary.put("durationRegressions", regressions);
+        List<FailureCluster> clusters = Collections.emptyList();
+        if (failedCount > 0) {
+            failureClusterService.awaitRun(plan.getId(), currentRunNo, waitUntil - System.currentTimeMillis());
+            clusters = failureClusterService.forRun(plan.getId(), currentRunNo);
+        }
+        summary.put("failureClusters", clusters);
+        summary.put("failureCauses", clusters.size());
+
+        double passRate = total > 0 ? (successCount * 100.0) / total : 0.0;
+        double coverage = 0.0;
+        long totalProjectCases = testCaseService.count(new QueryWrapper<TestCase>().eq("project_id", plan.getProjectId()));
+        if (totalProjectCases > 0) {
+            java.util.Set<Integer> uniq = new java.util.HashSet<>(caseIds);
+            coverage = (uniq.size() * 100.0) / totalProjectCases;
+        }
+        double stability = 0.0;
+        Map<String, Object> recent = testReportMapper.countRecentOutcomes(plan.getProjectId(), 50);
+        if (recent != null && recent.get("total") instanceof Number && ((Number) recent.get("total")).longValue() > 0) {
+            long ok = ((Number) recent.get("success")).longValue();
+            stability = (ok * 100.0) / ((Number) recent.get("total")).longValue();
+        }
+        double healthScore = passRate * 0.6 + coverage * 0.2 + stability * 0.2;
+        summary.put("passRate", passRate);
+        summary.put("coverage", coverage);
+        summary.put("stability", stability);
+        summary.put("healthScore", healthScore);
+        projectService.updateHealthScoreAsync(plan.getProjectId(), healthScore);
+        com.automatedtest.platform.entity.ProjectVariable hs = projectVariableService.getOne(new QueryWrapper<com.automatedtest.platform.entity.ProjectVariable>()
+                .eq("project_id", plan.getProjectId())
+                .eq("key_name", "health_score"));
+        if (hs == null) {
+            hs = new com.automatedtest.platform.entity.ProjectVariable();
+            hs.setProjectId(plan.getProjectId());
+            hs.setKeyName("health_score");
+            hs.setValue(String.format(java.util.Locale.ROOT, "%.2f", healthScore));
+            projectVariableService.save(hs);
+        } else {
+            hs.setValue(String.format(java.util.Locale.ROOT, "%.2f", healthScore));
+            projectVariableService.updateById(hs);
+        }
+
+        Long ownerId = null;
+        if (plan.getCreatedBy() != null) {
+            ownerId = Long.valueOf(plan.getCreatedBy());
+        } else if (userId != null) {
+            ownerId = userId;
+        }
+
+        if (ownerId != null) {
+            User owner = userService.getById(ownerId);
+            if (owner != null && Boolean.TRUE.equals(owner.getEnableNotification()) && owner.getNotificationWebhook() != null) {
+                String rule = owner.getNotificationRule() != null ? owner.getNotificationRule().trim() : "on_fail";
+                Integer threshold = owner.getNotificationThreshold() != null ? owner.getNotificationThreshold() : 80;
+                boolean shouldNotify = false;
+                if ("all".equalsIgnoreCase(rule)) {
+                    shouldNotify = true;
+                } else if ("low_pass_rate".equalsIgnoreCase(rule)) {
+                    shouldNotify = passRate < threshold;
+                } else if ("perf_regression".equalsIgnoreCase(rule)) {
+                    shouldNotify = !regressions.isEmpty();
+                } else {
+                    shouldNotify = failedCount > 0;
+                }
+
+                if (shouldNotify) {
+                    String title = "测试计划通知: " + plan.getName();
+                    String content = String.format(
+                        "**执行人**: %s\n\n**环境**: %s\n\n**总用例数**: %d\n\n**通过**: %d\n\n**失败**: %d\n\n**通过率**: %.2f%%\n\n**耗时**: %dms",
+                        executedBy != null ? executedBy : "System",
+                        plan.getEnvironment(),
+                        total,
+                        successCount,
+                        failedCount,
+                        passRate,
+                        totalDuration
+                    ) + clusterLines(clusters) + regressionLines(regressions);
+                    webhookClient.sendNotification(owner.getNotificationWebhook(), title, content);
+                }
+            }
+        }
+
+        planRunService.finish(run.getId(), total, successCount, failedCount);
+
+        // Update status to Success/Failed
+        plan.setLastRunStatus(failedCount > 0 ? "Failed" : "Success");
+        plan.setLastRunTime(LocalDateTime.now());
+        testPlanService.updateById(plan);
+        eventPublisher.publishEvent(new DataChangedEvent(DataChangedEvent.PLANS, plan.getProjectId()));
+
+        return summary;
+    }
+
+    private static String clusterLines(List<FailureCluster> clusters) {
+        if (clusters.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("\n\n**失败原因**: ").append(clusters.size()).append(" 类");
+        int shown = 0;
+        for (FailureCluster c : clusters) {
+            if (shown++ == 5) {
+                sb.append("\n\n- ...");
+                break;
+            }
+            sb.append(String.format(java.util.Locale.ROOT, "\n\n- %d 个失败, 如 %s: %s", c.getSize(),
+                    c.getCaseName() != null ? c.getCaseName() : "用例 " + c.getRepresentativeCaseId(),
+                    c.getSample() != null ? c.getSample() : "-"));
+        }
+        return sb.toString();
+    }
+
+    private static String regressionLines(List<DurationRegression> regressions) {
+        if (regressions.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("\n\n**耗时回归**: ").append(regressions.size()).append(" 个用例");
+        int shown = 0;
+        for (DurationRegression r : regressions) {
+            if (shown++ == 10) {
+                sb.append("\n\n- ...");
+                break;
+            }
+            sb.append(String.format(java.util.Locale.ROOT, "\n\n- %s: 近期 %.0fms, 基线 %.0fms",
+                    r.getCaseName() != null ? r.getCaseName() : "用例 " + r.getCaseId(), r.getRecentMean(), r.getBaselineMean()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Runs flow steps in order. IF evaluates its condition against the plan variables
+     * produced so far and runs the chosen branch in place.
+     */
+    private void runFlow(List<?> steps, PlanRunCommand command, int currentRunNo, PlanVariableStore planVars, RunTally tally) {
+        for (Object st : steps) {
+            if (!(st instanceof Map)) continue;
+            @SuppressWarnings("unchecked")
+            Map<String, Object> step = (Map<String, Object>) st;
+            String type = step.get("type") != null ? step.get("type").toString() : "RUN";
+            if ("RUN".equalsIgnoreCase(type)) {
+                Object cidObj = step.get("caseId");
+                if (cidObj == null) continue;
+                Integer cid;
+                try { cid = Integer.parseInt(cidObj.toString()); } catch (Exception e) { continue; }
+                tally.total++;
+                Map<String, String> extra = new HashMap<>(planVars.snapshot());
+                applyStepVars(step.get("vars"), planVars.snapshot(), extra);
+                CaseExecuteResultDTO result = runCase(cid, command, currentRunNo, extra, planVars);
+                tally.add(toItem(cid, result, command.getCaseMap()));
+            } else if ("IF".equalsIgnoreCase(type)) {
+                Object condObj = step.get("condition");
+                boolean ok = false;
+                if (condObj instanceof Map) {
+                    Object vne = ((Map<?, ?>) condObj).get("varNotEmpty");
+                    if (vne != null) {
+                        String val = planVars.get(vne.toString());
+                        ok = val != null && !val.trim().isEmpty();
+                    }
+                }
+                Object branch = ok ? step.get("then") : step.get("else");
+                if (branch instanceof List) {
+                    runFlow((List<?>) branch, command, currentRunNo, planVars, tally);
+                }
+            } else if ("FOREACH".equalsIgnoreCase(type)) {
+                String listVar = step.get("listVar") != null ? step.get("listVar").toString() : null;
+                String itemVar = step.get("itemVar") != null ? step.get("itemVar").toString() : "item";
+                Object stepObj = step.get("step");
+                if (listVar == null || !(stepObj instanceof Map)) continue;
+                String raw = planVars.get(listVar);
+                List<?> arr = null;
+                try { arr = objectMapper.readValue(raw, List.class); } catch (Exception ignored) {}
+                if (arr == null) {
+                    if (raw != null && !raw.isEmpty()) arr = java.util.Arrays.asList(raw.split(","));
+                }
+                if (arr == null) continue;
+                @SuppressWarnings("unchecked")
+                Map<String, Object> subStep = (Map<String, Object>) stepObj;
+                for (Object elem : arr) {
+                    Object cidObj = subStep.get("caseId");
+                    if (cidObj == null) continue;
+                    Integer cid;
+                    try { cid = Integer.parseInt(cidObj.toString()); } catch (Exception e) { continue; }
+                    tally.total++;
+                    Map<String, String> extra = new HashMap<>(planVars.snapshot());
+                    extra.put(itemVar, elem != null ? elem.toString() : "");
+                    applyStepVars(subStep.get("vars"), new HashMap<>(extra), extra);
+                    CaseExecuteResultDTO result = runCase(cid, command, currentRunNo, extra, planVars);
+                    tally.add(toItem(cid, result, command.getCaseMap()));
+                }
+            }
+        }
+    }
+
+    private CompletableFuture<CaseExecuteResultDTO> scheduleCase(Integer caseId, PlanRunCommand command, int runNo,
+                                                                 Map<String, String> extraVars, PlanVariableStore planVars) {
+        CaseRunContext context = runContext(command, runNo, extraVars, planVars);
+        Long runId = command.getRunId();
+        return caseScheduler.submit(levelOf(caseId, command), () -> {
+            Map<String, Object> started = new HashMap<>();
+            started.put("caseId", caseId);
+            TestCase tc = command.getCaseMap() != null ? command.getCaseMap().get(caseId) : null;
+            if (tc != null) {
+                started.put("caseName", tc.getName());
+            }
+            runEventBus.publish(runId, RunEventBus.CASE_STARTED, started);
+            CaseExecuteResultDTO result = null;
+            try {
+                result = testCaseService.executeCase(caseId, context);
+                return result;
+            } finally {
+                Map<String, Object> finished = new HashMap<>();
+                finished.put("caseId", caseId);
+                finished.put("status", result != null ? result.getStatus() : "failed");
+                finished.put("durationMs", result != null ? result.getDurationMs() : null);
+                finished.put("reportId", result != null ? result.getReportId() : null);
+                runEventBus.publish(runId, RunEventBus.CASE_FINISHED, finished);
+                runningTaskRegistry.planCaseFinished(runId, result != null ? result.getReportId() : null);
+                try {
+                    planRunService.recordCase(runId, result);
+                } catch (RuntimeException e) {
+                    // finish() still writes the final counts; never fail the case over the summary
+                    log.warn("Failed to update summary of plan run {}: {}", runId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private Map<String, Object> runEventData(PlanRun run) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("runId", run.getId());
+        data.put("planId", run.getPlanId());
+        data.put("runNo", run.getRunNo());
+        return data;
+    }
+
+    private void publishRunFinished(PlanRun run, String status, RunTally tally) {
+        Map<String, Object> data = runEventData(run);
+        data.put("status", status);
+        synchronized (tally) {
+            data.put("total", tally.total);
+            data.put("success", tally.successCount);
+            data.put("failed", tally.failedCount);
+            data.put("durationMs", tally.totalDuration);
+        }
+        runEventBus.publish(run.getId(), RunEventBus.RUN_FINISHED, data);
+    }
+
+    /** Runs one case on the shared workers and waits for it, for steps that depend on order. */
+    private CaseExecuteResultDTO runCase(Integer caseId, PlanRunCommand command, int runNo,
+                                         Map<String, String> extraVars, PlanVariableStore planVars) {
+        try {
+            return scheduleCase(caseId, command, runNo, extraVars, planVars).join();
+        } catch (Exception e) {
+            return failedResult(e);
+        }
+    }
+
+    /**
+     * Waits, up to plan_var_wait_ms, for the already dispatched producers of a case. A producer
+     * that fails still ends the wait; the case then runs without the variable, as it would
+     * after timing out in executeCase.
+     */
+    private void awaitProducers(Set<Integer> producers, List<Integer> positions,
+                                Map<Integer, CompletableFuture<Map<String, Object>>> futures) {
+        List<CompletableFuture<Map<String, Object>>> pending = new ArrayList<>();
+        for (Integer p : producers) {
+            CompletableFuture<Map<String, Object>> f = futures.get(positions.get(p));
+            if (f != null) {
+                pending.add(f);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]))
+                    .get(Math.max(0L, planVarWaitMs), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ignored) {
+            // timed out or a producer failed
+        }
+    }
+
+    private int levelOf(Integer caseId, PlanRunCommand command) {
+        TestCase tc = command.getCaseMap() != null ? command.getCaseMap().get(caseId) : null;
+        return CaseScheduler.levelOf(tc != null ? tc.getPriority() : null, Boolean.TRUE.equals(command.getPlan().getSmoke()));
+    }
+
+    private CaseExecuteResultDTO failedResult(Throwable e) {
+        Throwable cause = e instanceof java.util.concurrent.CompletionException && e.getCause() != null ? e.getCause() : e;
+        CaseExecuteResultDTO result = new CaseExecuteResultDTO();
+        result.setStatus("failed");
+        result.setError(cause.getMessage());
+        return result;
+    }
+
+    /** Resolves a step's "vars" against the given values and puts them into extra. */
+    private void applyStepVars(Object varsObj, Map<String, String> values, Map<String, String> extra) {
+        if (!(varsObj instanceof Map)) {
+            return;
+        }
+        for (Map.Entry<?, ?> en : ((Map<?, ?>) varsObj).entrySet()) {
+            String vv = en.getValue() != null ? en.getValue().toString() : "";
+            for (Map.Entry<String, String> pv : values.entrySet()) {
+                String val = pv.getValue();
+                vv = vv.replace("{{" + pv.getKey() + "}}", val != null ? val : "");
+            }
+            extra.put(String.valueOf(en.getKey()), vv);
+        }
+    }
+
+    private Map<String, Object> toItem(Integer caseId, CaseExecuteResultDTO result, Map<Integer, TestCase> caseMap) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("caseId", caseId);
+        item.put("status", result != null ? result.getStatus() : "failed");
+        item.put("durationMs", result != null ? result.getDurationMs() : null);
+        item.put("reportId", result != null ? result.getReportId() : null);
+        TestCase tc = caseMap != null ? caseMap.get(caseId) : null;
+        if (tc != null) {
+            item.put("caseName", tc.getName());
+            item.put("caseType", tc.getType());
+        }
+        return item;
+    }
+
+    private CaseRunContext runContext(PlanRunCommand command, int runNo, Map<String, String> extraVars, PlanVariableStore variableStore) {
+        CaseRunContext context = new CaseRunContext();
+        context.setExecutedBy(command.getExecutedBy());
+        context.setUserId(command.getUserId());
+        context.setPlanId(command.getPlan().getId());
+        context.setPlanRunNo(runNo);
+        context.setTriggerType(command.getTriggerType());
+        context.setExtraVars(extraVars);
+        context.setVariableStore(variableStore);
+        return context;
+    }
+}
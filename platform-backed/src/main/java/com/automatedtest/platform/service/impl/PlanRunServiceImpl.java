@@ -0,0 +1,147 @@
+package com.automatedtest.platform.service.impl;
+
+import com.automatedtest.platform.dto.CaseExecuteResultDTO;
+import com.automatedtest.platform.entity.PlanRun;
+import com.automatedtest.platform.entity.TestPlan;
+import com.automatedtest.platform.mapper.PlanRunMapper;
+import com.automatedtest.platform.mapper.TestPlanMapper;
+import com.automatedtest.platform.service.PlanRunService;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+@Slf4j
+@Service
+public class PlanRunServiceImpl extends ServiceImpl<PlanRunMapper, PlanRun> implements PlanRunService {
+
+    private static final int MAX_ALLOCATE_ATTEMPTS = 5;
+
+    @Autowired
+    private TestPlanMapper testPlanMapper;
+
+    @Override
+    public PlanRun start(TestPlan plan, String status, String triggerType, String executedBy, int totalCases) {
+        RuntimeException last = null;
+        for (int attempt = 0; attempt < MAX_ALLOCATE_ATTEMPTS; attempt++) {
+            PlanRun run = new PlanRun();
+            run.setPlanId(plan.getId());
+            run.setProjectId(plan.getProjectId());
+            run.setStatus(status);
+            run.setTriggerType(triggerType);
+            run.setExecutedBy(executedBy);
+            run.setTotalCases(totalCases);
+            run.setStartedAt(LocalDateTime.now());
+            try {
+                baseMapper.allocate(run);
+                return getById(run.getId());
+            } catch (DuplicateKeyException | PessimisticLockingFailureException e) {
+                // another trigger of the same plan took this number; take the next one
+                last = e;
+            }
+        }
+        throw last;
+    }
+
+    @Override
+    public void markRunning(Long runId) {
+        update(new UpdateWrapper<PlanRun>()
+                .eq("id", runId)
+                .eq("status", "queued")
+                .set("status", "running")
+                .set("started_at", LocalDateTime.now()));
+    }
+
+    @Override
+    public void recordCase(Long runId, CaseExecuteResultDTO result) {
+        if (runId == null) {
+            return;
+        }
+        boolean success = result != null && "success".equals(result.getStatus());
+        baseMapper.recordCase(runId,
+                success ? 1 : 0,
+                success ? 0 : 1,
+                result != null ? orZero(result.getAssertsTotal()) : 0,
+                result != null ? orZero(result.getAssertsPassed()) : 0,
+                result != null ? orZero(result.getAssertsFailed()) : 0,
+                result != null && result.getDurationMs() != null ? result.getDurationMs() : 0L,
+                result != null ? result.getReportId() : null,
+                LocalDateTime.now());
+    }
+
+    @Override
+    public void finish(Long runId, int total, int passed, int failed) {
+        if (runId == null) {
+            return;
+        }
+        update(new UpdateWrapper<PlanRun>()
+                .eq("id", runId)
+                .set("status", failed > 0 ? "failed" : "success")
+                .set("total_cases", total)
+                .set("passed_cases", passed)
+                .set("failed_cases", failed)
+                .set("executed_at", LocalDateTime.now())
+                .set("finished_at", LocalDateTime.now()));
+    }
+
+    @Override
+    public void archiveByReports(List<Integer> reportIds, Integer projectId, String executedBy) {
+        boolean byIds = reportIds != null && !reportIds.isEmpty();
+        if (!byIds && projectId == null && executedBy == null) {
+            return;
+        }
+        update(new UpdateWrapper<PlanRun>()
+                .in(byIds, "first_report_id", reportIds)
+                .eq(projectId != null, "project_id", projectId)
+                .eq(executedBy != null, "executed_by", executedBy)
+                .set("is_deleted", 1));
+    }
+
+    @Override
+    public void restoreByReports(List<Integer> reportIds) {
+        if (reportIds == null || reportIds.isEmpty()) {
+            return;
+        }
+        update(new UpdateWrapper<PlanRun>()
+                .in("first_report_id", reportIds)
+                .set("is_deleted", 0));
+    }
+
+    @Override
+    public long countActive(Integer projectId) {
+        return count(new QueryWrapper<PlanRun>()
+                .eq(projectId != null, "project_id", projectId)
+                .in("status", Arrays.asList("queued", "running")));
+    }
+
+    /**
+     * Runs execute inside this process, so anything still marked active at startup was
+     * cut off by a restart and would otherwise block the project's running limit forever.
+     * Their plans would likewise stay "Running" in the plan list.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failOrphanedRuns() {
+        boolean changed = update(new UpdateWrapper<PlanRun>()
+                .in("status", Arrays.asList("queued", "running"))
+                .set("status", "failed")
+                .set("finished_at", LocalDateTime.now()));
+        int plans = testPlanMapper.failRunning(null);
+        if (changed || plans > 0) {
+            log.warn("Marked plan runs left over from the previous process as failed");
+        }
+    }
+
+    private static int orZero(Integer value) {
+        return value != null ? value : 0;
+    }
+}
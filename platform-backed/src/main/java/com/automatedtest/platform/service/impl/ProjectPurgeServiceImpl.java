@@ -0,0 +1,323 @@
+package com.automatedtest.platform.service.impl;
+
+import com.automatedtest.platform.entity.Project;
+import com.automatedtest.platform.entity.ProjectPurge;
+import com.automatedtest.platform.entity.ReportArchive;
+import com.automatedtest.platform.mapper.ProjectPurgeMapper;
+import com.automatedtest.platform.mapper.ReportArchiveMapper;
+import com.automatedtest.platform.service.ProjectPurgeService;
+import com.automatedtest.platform.service.ProjectService;
+import com.automatedtest.platform.service.ReportLogService;
+import com.automatedtest.platform.storage.ReportArchiveStore;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Slf4j
+@Service
+public class ProjectPurgeServiceImpl implements ProjectPurgeService {
+
+    /**
+     * A child table and the key it is purged by, in purge order: dependants before what they
+     * depend on. A null key means the table's primary key starts with project_id.
+     */
+    private static final class Step {
+        final String table;
+        final String key;
+
+        Step(String table, String key) {
+            this.table = table;
+            this.key = key;
+        }
+    }
+
+    private static final List<Step> STEPS = Arrays.asList(
+            new Step("report_search_docs", "report_id"),
+            new Step("failure_cluster_members", "report_id"),
+            new Step("failure_clusters", "id"),
+            new Step("duration_regressions", "id"),
+            new Step("case_duration_stats", "case_id"),
+            new Step("case_flaky_stats", "case_id"),
+            new Step("test_reports", "id"),
+            new Step("plan_runs", "id"),
+            new Step("report_daily_cases", null),
+            new Step("report_daily_rollup", null),
+            new Step("report_archives", "id"),
+            new Step("report_retention_policies", null),
+            new Step("test_plans", "id"),
+            new Step("test_cases", "id"),
+            new Step("project_variables", "id"),
+            new Step("environments", "id"),
+            new Step("project_api_keys", "id"),
+            new Step("project_members", "id"),
+            new Step("permission_requests", "id"));
+
+    @Autowired
+    private ProjectPurgeMapper projectPurgeMapper;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private ReportLogService reportLogService;
+
+    @Autowired
+    private ReportArchiveMapper reportArchiveMapper;
+
+    @Autowired
+    private ReportArchiveStore reportArchiveStore;
+
+    @Value("${engine.purge_chunk:1000}")
+    private Integer chunkSize;
+
+    @Value("${engine.purge_pause_ms:200}")
+    private Long pauseMs;
+
+    /** Projects whose purge should stop after the current chunk. */
+    private final Set<Integer> pauseRequested = ConcurrentHashMap.newKeySet();
+    /** Projects queued or running in this process. */
+    private final Set<Integer> active = ConcurrentHashMap.newKeySet();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        // one purge at a time, so two big purges never compete with the rest of the application
+        CustomizableThreadFactory factory = new CustomizableThreadFactory("project-purge-");
+        factory.setDaemon(true);
+        executor = Executors.newSingleThreadExecutor(factory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Purges cut off by a restart continue from their stored position.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        List<ProjectPurge> pending = projectPurgeMapper.selectList(new QueryWrapper<ProjectPurge>()
+                .in("status", Arrays.asList("queued", "running")));
+        for (ProjectPurge purge : pending) {
+            log.info("Resuming purge of project {} at {} after key {}", purge.getProjectId(), tableOf(purge.getStep()), purge.getLastKey());
+            submit(purge.getProjectId());
+        }
+    }
+
+    @Override
+    public synchronized Map<String, Object> start(Integer projectId, String requestedBy) {
+        ProjectPurge purge = projectPurgeMapper.selectById(projectId);
+        if (purge != null && !"finished".equals(purge.getStatus()) && !"failed".equals(purge.getStatus())) {
+            return toStatus(purge);
+        }
+        projectService.update(new UpdateWrapper<Project>()
+                .set("is_deleted", 1)
+                .set("status", PURGING)
+                .eq("id", projectId));
+        if (purge == null) {
+            purge = new ProjectPurge();
+            purge.setProjectId(projectId);
+            purge.setStatus("queued");
+            purge.setStep(0);
+            purge.setLastKey(0L);
+            purge.setDeletedRows(0L);
+            purge.setRequestedBy(requestedBy);
+            purge.setCreatedAt(LocalDateTime.now());
+            projectPurgeMapper.insert(purge);
+        } else {
+            // purged before and recreated with the same id, or a failed purge started over
+            projectPurgeMapper.update(null, new UpdateWrapper<ProjectPurge>()
+                    .set("status", "queued")
+                    .set("requested_by", requestedBy)
+                    .set("error", null)
+                    .set("finished_at", null)
+                    .set("step", "finished".equals(purge.getStatus()) ? 0 : purge.getStep())
+                    .set("last_key", "finished".equals(purge.getStatus()) ? 0 : purge.getLastKey())
+                    .set("deleted_rows", "finished".equals(purge.getStatus()) ? 0 : purge.getDeletedRows())
+                    .eq("project_id", projectId));
+        }
+        submit(projectId);
+        return status(projectId);
+    }
+
+    @Override
+    public synchronized boolean pause(Integer projectId) {
+        ProjectPurge purge = projectPurgeMapper.selectById(projectId);
+        if (purge == null || !("queued".equals(purge.getStatus()) || "running".equals(purge.getStatus()))) {
+            return false;
+        }
+        pauseRequested.add(projectId);
+        if (!active.contains(projectId)) {
+            setStatus(projectId, "paused", null);
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized boolean resume(Integer projectId) {
+        ProjectPurge purge = projectPurgeMapper.selectById(projectId);
+        if (purge == null || !("paused".equals(purge.getStatus()) || "failed".equals(purge.getStatus()))) {
+            return false;
+        }
+        pauseRequested.remove(projectId);
+        setStatus(projectId, "queued", null);
+        submit(projectId);
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> status(Integer projectId) {
+        ProjectPurge purge = projectPurgeMapper.selectById(projectId);
+        return purge != null ? toStatus(purge) : null;
+    }
+
+    private Map<String, Object> toStatus(ProjectPurge purge) {
+        Map<String, Object> status = new HashMap<>();
+        int step = purge.getStep() != null ? purge.getStep() : 0;
+        status.put("projectId", purge.getProjectId());
+        status.put("status", purge.getStatus());
+        status.put("table", tableOf(step));
+        status.put("step", Math.min(step, STEPS.size()));
+        status.put("steps", STEPS.size());
+        status.put("lastKey", purge.getLastKey());
+        status.put("deleted", purge.getDeletedRows());
+        status.put("requestedBy", purge.getRequestedBy());
+        status.put("error", purge.getError());
+        status.put("createdAt", purge.getCreatedAt());
+        status.put("updatedAt", purge.getUpdatedAt());
+        status.put("finishedAt", purge.getFinishedAt());
+        return status;
+    }
+
+    private static String tableOf(Integer step) {
+        return step != null && step < STEPS.size() ? STEPS.get(step).table : "projects";
+    }
+
+    private void submit(Integer projectId) {
+        if (active.add(projectId)) {
+            executor.execute(() -> {
+                try {
+                    purge(projectId);
+                } finally {
+                    active.remove(projectId);
+                }
+            });
+        }
+    }
+
+    private void setStatus(Integer projectId, String status, String error) {
+        projectPurgeMapper.update(null, new UpdateWrapper<ProjectPurge>()
+                .set("status", status)
+                .set("error", error)
+                .set("finished_at", "finished".equals(status) ? LocalDateTime.now() : null)
+                .eq("project_id", projectId));
+    }
+
+    /**
+     * Deletes the project's rows table by table. Each chunk is its own statement; the
+     * position is saved after every chunk, so pausing, failing or restarting loses at most
+     * one chunk of progress and repeating a chunk is harmless.
+     */
+    private void purge(Integer projectId) {
+        ProjectPurge purge = projectPurgeMapper.selectById(projectId);
+        if (purge == null || !"queued".equals(purge.getStatus()) && !"running".equals(purge.getStatus())) {
+            return;
+        }
+        if (pauseRequested.remove(projectId)) {
+            setStatus(projectId, "paused", null);
+            return;
+        }
+        setStatus(projectId, "running", null);
+        int step = purge.getStep() != null ? purge.getStep() : 0;
+        long lastKey = purge.getLastKey() != null ? purge.getLastKey() : 0L;
+        int size = Math.max(1, chunkSize);
+        try {
+            while (step < STEPS.size()) {
+                Step s = STEPS.get(step);
+                int deleted;
+                if (s.key != null) {
+                    List<Long> keys = projectPurgeMapper.selectKeys(s.table, s.key, projectId, lastKey, size);
+                    if ("report_archives".equals(s.table) && !keys.isEmpty()) {
+                        deleteArchiveFiles(keys);
+                    }
+                    deleted = keys.isEmpty() ? 0 : projectPurgeMapper.deleteKeys(s.table, s.key, projectId, keys);
+                    if (!keys.isEmpty()) {
+                        lastKey = keys.get(keys.size() - 1);
+                    }
+                    if (keys.size() < size) {
+                        step++;
+                        lastKey = 0;
+                    }
+                } else {
+                    deleted = projectPurgeMapper.deleteChunk(s.table, projectId, size);
+                    if (deleted < size) {
+                        step++;
+                        lastKey = 0;
+                    }
+                }
+                saveProgress(projectId, step, lastKey, deleted);
+
+                if (pauseRequested.remove(projectId)) {
+                    setStatus(projectId, "paused", null);
+                    log.info("Purge of project {} paused at {}", projectId, tableOf(step));
+                    return;
+                }
+                if (deleted > 0 && pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+            projectService.removeById(projectId);
+            setStatus(projectId, "finished", null);
+            log.info("Purge of project {} finished", projectId);
+            // the project's reports are gone, and with them the last references to their logs
+            reportLogService.collectGarbage();
+        } catch (InterruptedException e) {
+            // shutting down: the row stays "running" and is resumed at the next start
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Purge of project {} failed at {}", projectId, tableOf(step), e);
+            String message = e.getMessage() != null && e.getMessage().length() > 500 ? e.getMessage().substring(0, 500) : e.getMessage();
+            setStatus(projectId, "failed", message);
+        }
+    }
+
+    /**
+     * Files of the archive rows about to be deleted; nothing would point to them afterwards.
+     * Done before the rows go, so a failure leaves them to the retried chunk.
+     */
+    private void deleteArchiveFiles(List<Long> ids) throws IOException {
+        for (ReportArchive archive : reportArchiveMapper.selectBatchIds(ids)) {
+            if (archive.getArchiveRef() != null) {
+                reportArchiveStore.delete(archive.getArchiveRef());
+            }
+        }
+    }
+
+    private void saveProgress(Integer projectId, int step, long lastKey, int deleted) {
+        projectPurgeMapper.update(null, new UpdateWrapper<ProjectPurge>()
+                .set("step", step)
+                .set("last_key", lastKey)
+                .setSql("deleted_rows = deleted_rows + " + deleted)
+                .eq("project_id", projectId));
+    }
+}
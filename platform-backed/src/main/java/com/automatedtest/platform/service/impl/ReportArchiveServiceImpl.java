@@ -0,0 +1,186 @@
+package com.automatedtest.platform.service.impl;
+
+import com.automatedtest.platform.entity.ReportArchive;
+import com.automatedtest.platform.entity.TestReport;
+import com.automatedtest.platform.mapper.ReportArchiveMapper;
+import com.automatedtest.platform.mapper.ReportRetentionMapper;
+import com.automatedtest.platform.service.ReportArchiveService;
+import com.automatedtest.platform.service.ReportLogService;
+import com.automatedtest.platform.storage.ReportArchiveStore;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Archives are gzip JSON-lines files, one report per line in id order, one file per
+ * project and period. Reading them back is a sequential scan, which is fine for the
+ * occasional look at an old run. Logs kept in the blob store are copied into the archive
+ * line, since their blobs are collected once the rows are gone.
+ */
+@Slf4j
+@Service
+public class ReportArchiveServiceImpl implements ReportArchiveService {
+
+    @Autowired
+    private ReportArchiveStore reportArchiveStore;
+
+    @Autowired
+    private ReportArchiveMapper reportArchiveMapper;
+
+    @Autowired
+    private ReportRetentionMapper reportRetentionMapper;
+
+    @Autowired
+    private ReportLogService reportLogService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${engine.archive_chunk:1000}")
+    private Integer chunkSize;
+
+    @Override
+    public ReportArchive export(int projectId, LocalDateTime from, LocalDateTime to) throws IOException {
+        ReportArchive existing = reportArchiveMapper.selectOne(new QueryWrapper<ReportArchive>()
+                .eq("project_id", projectId)
+                .eq("period_start", from));
+        if (existing != null) {
+            return existing;
+        }
+
+        String name = "project-" + projectId + "/" + from.toLocalDate() + "_" + to.toLocalDate() + ".jsonl.gz";
+        int rows = 0;
+        Integer minId = null;
+        Integer maxId = null;
+        try (ReportArchiveStore.Output out = reportArchiveStore.create(name)) {
+            long afterId = 0;
+            while (true) {
+                List<TestReport> chunk = reportRetentionMapper.selectChunk(projectId, from, to, afterId, Math.max(1, chunkSize));
+                if (chunk == null || chunk.isEmpty()) {
+                    break;
+                }
+                for (TestReport r : chunk) {
+                    inlineLogs(r);
+                    out.write(objectMapper.writeValueAsBytes(r));
+                    out.write('\n');
+                    rows++;
+                    if (minId == null) {
+                        minId = r.getId();
+                    }
+                    maxId = r.getId();
+                    afterId = r.getId();
+                }
+            }
+            if (rows == 0) {
+                return null;
+            }
+            out.commit();
+        }
+
+        ReportArchive archive = new ReportArchive();
+        archive.setProjectId(projectId);
+        archive.setPeriodStart(from);
+        archive.setPeriodEnd(to);
+        archive.setArchiveRef(name);
+        archive.setRowCount(rows);
+        archive.setMinReportId(minId);
+        archive.setMaxReportId(maxId);
+        archive.setCreatedAt(LocalDateTime.now());
+        reportArchiveMapper.insert(archive);
+        log.info("Archived {} reports of project {} executed in [{}, {}) to {}", rows, projectId, from, to, name);
+        return archive;
+    }
+
+    private void inlineLogs(TestReport report) {
+        if (report.getLogsRef() == null) {
+            return;
+        }
+        try {
+            report.setLogs(reportLogService.read(report, Integer.MAX_VALUE));
+            report.setLogsRef(null);
+        } catch (IOException e) {
+            // nothing left to copy; the archive keeps the reference and the preview
+            log.warn("Logs of report {} could not be read for archiving: {}", report.getId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public TestReport findReport(Integer reportId) throws IOException {
+        if (reportId == null) {
+            return null;
+        }
+        for (ReportArchive archive : archivesContaining(reportId, null)) {
+            List<TestReport> found = scan(archive, r -> reportId.equals(r.getId()), true);
+            if (!found.isEmpty()) {
+                return found.get(0);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<TestReport> findRun(Integer projectId, Integer planId, Integer runNo, Integer firstReportId) throws IOException {
+        List<TestReport> result = new ArrayList<>();
+        if (planId == null || runNo == null || firstReportId == null) {
+            return result;
+        }
+        // a run can straddle the end of a period, so look at the archive holding its first
+        // report and the ones after it
+        for (ReportArchive archive : archivesContaining(firstReportId, projectId != null ? projectId : 0)) {
+            result.addAll(scan(archive, r -> planId.equals(r.getPlanId()) && runNo.equals(r.getPlanRunNo()), false));
+        }
+        result.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        return result;
+    }
+
+    /**
+     * Archives whose id range holds the report; with a project, that project's archive holding
+     * it and the two after it, oldest first.
+     */
+    private List<ReportArchive> archivesContaining(Integer reportId, Integer projectId) {
+        QueryWrapper<ReportArchive> query = new QueryWrapper<ReportArchive>().ge("max_report_id", reportId);
+        if (projectId == null) {
+            query.le("min_report_id", reportId).orderByAsc("period_start");
+        } else {
+            query.eq("project_id", projectId).orderByAsc("period_start").last("LIMIT 3");
+        }
+        return reportArchiveMapper.selectList(query);
+    }
+
+    private List<TestReport> scan(ReportArchive archive, Predicate<TestReport> match, boolean firstOnly) throws IOException {
+        List<TestReport> found = new ArrayList<>();
+        ObjectReader reader = objectMapper.readerFor(TestReport.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                reportArchiveStore.open(archive.getArchiveRef()), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                TestReport r = reader.readValue(line);
+                if (match.test(r)) {
+                    found.add(r);
+                    if (firstOnly) {
+                        break;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+}
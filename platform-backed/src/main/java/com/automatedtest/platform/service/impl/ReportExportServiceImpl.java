@@ -0,0 +1,119 @@
+package com.automatedtest.platform.service.impl;
+
+import com.automatedtest.platform.dto.ReportExportQuery;
+import com.automatedtest.platform.entity.TestReport;
+import com.automatedtest.platform.export.AllureExportWriter;
+import com.automatedtest.platform.export.CsvExportWriter;
+import com.automatedtest.platform.export.ExportSummary;
+import com.automatedtest.platform.export.JUnitXmlExportWriter;
+import com.automatedtest.platform.export.ReportExportWriter;
+import com.automatedtest.platform.mapper.TestReportMapper;
+import com.automatedtest.platform.service.ReportExportService;
+import com.automatedtest.platform.service.ReportLogService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class ReportExportServiceImpl implements ReportExportService {
+
+    @Autowired
+    private TestReportMapper testReportMapper;
+
+    @Autowired
+    private ReportLogService reportLogService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${engine.export_chunk:1000}")
+    private Integer chunkSize;
+
+    /** Cap on the logs written per report with full logs, so one runaway log cannot dominate an export. */
+    @Value("${engine.export_log_max_chars:1048576}")
+    private Integer logMaxChars;
+
+    @Override
+    public ReportExportWriter newWriter(String format, OutputStream out) throws IOException {
+        if ("junit".equalsIgnoreCase(format)) {
+            return new JUnitXmlExportWriter(out);
+        }
+        if ("csv".equalsIgnoreCase(format)) {
+            return new CsvExportWriter(out);
+        }
+        if ("allure".equalsIgnoreCase(format)) {
+            return new AllureExportWriter(out, objectMapper);
+        }
+        return null;
+    }
+
+    /**
+     * Walks the reports by (executed_at, id) a chunk at a time instead of holding one cursor
+     * open for the whole download: a slow client then keeps no connection busy between
+     * chunks, and memory stays at one chunk whatever the size of the export.
+     */
+    @Override
+    public long export(ReportExportQuery query, ReportExportWriter writer) throws IOException {
+        writer.begin(summary(query));
+        int size = Math.max(1, chunkSize);
+        LocalDateTime afterTime = null;
+        long afterId = 0;
+        long written = 0;
+        while (true) {
+            List<TestReport> chunk = testReportMapper.selectExportChunk(query, afterTime, afterId, size);
+            for (TestReport report : chunk) {
+                writer.write(report, details(query, report));
+                written++;
+            }
+            if (chunk.size() < size) {
+                break;
+            }
+            TestReport last = chunk.get(chunk.size() - 1);
+            afterTime = last.getExecutedAt();
+            afterId = last.getId();
+            if (afterTime == null) {
+                // executed_at is filled on insert; a row without it cannot be paged past
+                break;
+            }
+        }
+        writer.end();
+        return written;
+    }
+
+    private ExportSummary summary(ReportExportQuery query) {
+        Map<String, Object> row = testReportMapper.selectExportSummary(query);
+        Object firstAt = row != null ? row.get("firstAt") : null;
+        LocalDateTime timestamp = firstAt instanceof Timestamp ? ((Timestamp) firstAt).toLocalDateTime()
+                : firstAt instanceof LocalDateTime ? (LocalDateTime) firstAt : null;
+        return new ExportSummary(query.getName(), number(row, "total"), number(row, "failed"),
+                number(row, "skipped"), number(row, "durationMs"), timestamp);
+    }
+
+    private static long number(Map<String, Object> row, String key) {
+        Object value = row != null ? row.get(key) : null;
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private String details(ReportExportQuery query, TestReport report) {
+        if (!query.isFullLogs()) {
+            return report.getLogsPreview();
+        }
+        try {
+            return reportLogService.read(report, logMaxChars);
+        } catch (IOException e) {
+            // a missing blob should not abort the whole export
+            log.warn("Logs of report {} could not be read for export: {}", report.getId(), e.getMessage());
+            return report.getLogsPreview();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.automatedtest.platform.service.impl;
+
+import com.automatedtest.platform.entity.TestReport;
+import com.automatedtest.platform.mapper.TestReportMapper;
+import com.automatedtest.platform.service.ReportLogService;
+import com.automatedtest.platform.storage.LogBlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+public class ReportLogServiceImpl implements ReportLogService {
+
+    private static final int PREVIEW_CHARS = 500;
+    private static final int GC_BATCH = 500;
+
+    @Autowired
+    private LogBlobStore logBlobStore;
+
+    @Autowired
+    private TestReportMapper testReportMapper;
+
+    @Value("${engine.log_store_enabled:true}")
+    private Boolean storeEnabled;
+
+    @Value("${engine.log_migrate_chunk:200}")
+    private Integer migrateChunk;
+
+    @Value("${engine.log_migrate_pause_ms:200}")
+    private Long migratePauseMs;
+
+    /** Age below which an unreferenced blob is kept, as its report may not be committed yet. */
+    @Value("${engine.log_gc_grace_minutes:60}")
+    private Long gcGraceMinutes;
+
+    private final AtomicBoolean migrating = new AtomicBoolean();
+    private final AtomicBoolean collecting = new AtomicBoolean();
+    private final AtomicLong migratedRows = new AtomicLong();
+    private final AtomicLong failedRows = new AtomicLong();
+    private volatile long lastMigratedId;
+    private volatile LocalDateTime migrationStartedAt;
+    private volatile LocalDateTime migrationFinishedAt;
+
+    @Override
+    public void externalize(TestReport report) {
+        String logs = report.getLogs();
+        if (!Boolean.TRUE.equals(storeEnabled) || logs == null || logs.isEmpty()) {
+            return;
+        }
+        try {
+            byte[] bytes = logs.getBytes(StandardCharsets.UTF_8);
+            report.setLogsRef(logBlobStore.put(bytes));
+            report.setLogsSize(bytes.length);
+            report.setLogsPreview(preview(logs));
+            report.setIndexText(logs);
+            report.setLogs(null);
+        } catch (IOException e) {
+            log.warn("Log blob write failed for case {}, keeping logs inline: {}", report.getCaseId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public InputStream open(TestReport report) throws IOException {
+        if (report.getLogsRef() != null) {
+            return logBlobStore.open(report.getLogsRef());
+        }
+        String logs = report.getLogs() != null ? report.getLogs() : "";
+        return new ByteArrayInputStream(logs.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String read(TestReport report, int maxChars) throws IOException {
+        if (report.getLogsRef() == null) {
+            String logs = report.getLogs();
+            return logs != null && logs.length() > maxChars ? logs.substring(0, maxChars) : logs;
+        }
+        StringBuilder sb = new StringBuilder();
+        char[] buf = new char[8192];
+        try (Reader reader = new InputStreamReader(logBlobStore.open(report.getLogsRef()), StandardCharsets.UTF_8)) {
+            int n;
+            while (sb.length() < maxChars && (n = reader.read(buf, 0, Math.min(buf.length, maxChars - sb.length()))) > 0) {
+                sb.append(buf, 0, n);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean startMigration() {
+        if (!migrating.compareAndSet(false, true)) {
+            return false;
+        }
+        migratedRows.set(0);
+        failedRows.set(0);
+        lastMigratedId = 0;
+        migrationStartedAt = LocalDateTime.now();
+        migrationFinishedAt = null;
+        Thread t = new Thread(this::migrate, "log-migration");
+        t.setDaemon(true);
+        t.start();
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> migrationStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", migrating.get());
+        status.put("migrated", migratedRows.get());
+        status.put("failed", failedRows.get());
+        status.put("lastId", lastMigratedId);
+        status.put("startedAt", migrationStartedAt);
+        status.put("finishedAt", migrationFinishedAt);
+        return status;
+    }
+
+    /**
+     * Mark and sweep keyed on the store's content: blobs past the grace period are listed in
+     * batches, each batch is looked up in test_reports.logs_ref, and the ones no report
+     * points to are deleted. A blob reused by a new report during the sweep has had its age
+     * refreshed by the put, so the store keeps it.
+     */
+    @Override
+    public int collectGarbage() {
+        if (!collecting.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            Instant unusedSince = Instant.now().minus(Math.max(0L, gcGraceMinutes), ChronoUnit.MINUTES);
+            AtomicInteger deleted = new AtomicInteger();
+            List<String> batch = new ArrayList<>();
+            logBlobStore.forEachOlderThan(unusedSince, ref -> {
+                batch.add(ref);
+                if (batch.size() >= GC_BATCH) {
+                    deleted.addAndGet(sweep(batch, unusedSince));
+                    batch.clear();
+                }
+            });
+            deleted.addAndGet(sweep(batch, unusedSince));
+            log.info("Log blob collection finished: {} unreferenced blobs deleted", deleted.get());
+            return deleted.get();
+        } catch (Exception e) {
+            log.error("Log blob collection aborted", e);
+            return 0;
+        } finally {
+            collecting.set(false);
+        }
+    }
+
+    private int sweep(List<String> refs, Instant unusedSince) {
+        if (refs.isEmpty()) {
+            return 0;
+        }
+        Set<String> live = new HashSet<>(testReportMapper.selectReferencedLogRefs(refs));
+        int deleted = 0;
+        for (String ref : refs) {
+            if (live.contains(ref)) {
+                continue;
+            }
+            try {
+                if (logBlobStore.delete(ref, unusedSince)) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                log.warn("Could not delete log blob {}: {}", ref, e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Walks the table by id in small chunks. Each row is switched over by its own
+     * conditional UPDATE, so readers and writers are never blocked for long, and a restarted
+     * migration simply continues with the rows that still hold inline logs.
+     */
+    private void migrate() {
+        try {
+            long afterId = 0;
+            while (true) {
+                List<TestReport> chunk = testReportMapper.selectInlineLogs(afterId, Math.max(1, migrateChunk));
+                if (chunk == null || chunk.isEmpty()) {
+                    break;
+                }
+                for (TestReport r : chunk) {
+                    afterId = r.getId();
+                    try {
+                        byte[] bytes = r.getLogs().getBytes(StandardCharsets.UTF_8);
+                        String ref = logBlobStore.put(bytes);
+                        testReportMapper.moveLogsToBlob(r.getId(), ref, bytes.length, preview(r.getLogs()));
+                        migratedRows.incrementAndGet();
+                    } catch (Exception e) {
+                        failedRows.incrementAndGet();
+                        log.warn("Log migration failed for report {}: {}", r.getId(), e.getMessage());
+                    }
+                }
+                lastMigratedId = afterId;
+                if (migratePauseMs > 0) {
+                    Thread.sleep(migratePauseMs);
+                }
+            }
+            log.info("Log migration finished: {} moved, {} failed", migratedRows.get(), failedRows.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Log migration aborted after report {}", lastMigratedId, e);
+        } finally {
+            migrationFinishedAt = LocalDateTime.now();
+            migrating.set(false);
+        }
+    }
+
+    private static String preview(String logs) {
+        return logs.length() > PREVIEW_CHARS ? logs.substring(0, PREVIEW_CHARS) : logs;
+    }
+}
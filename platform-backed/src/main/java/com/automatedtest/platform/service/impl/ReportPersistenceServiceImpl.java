@@ -0,0 +1,234 @@
+package com.automatedtest.platform.service.impl;
+
+import com.automatedtest.platform.common.DataChangedEvent;
+import com.automatedtest.platform.entity.TestCase;
+import com.automatedtest.platform.entity.TestReport;
+import com.automatedtest.platform.mapper.TestCaseMapper;
+import com.automatedtest.platform.service.DurationRegressionService;
+import com.automatedtest.platform.service.FailureClusterService;
+import com.automatedtest.platform.service.ReportPersistenceService;
+import com.automatedtest.platform.service.ReportRollupService;
+import com.automatedtest.platform.service.ReportSearchService;
+import com.automatedtest.platform.service.TestReportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single writer for execution results. Workers hand over a complete report plus the
+ * case's final status; a flusher thread groups whatever has arrived into one
+ * transaction (batched report insert + daily rollup deltas + search documents + one
+ * multi-row case status update). It never waits for more rows: a lone producer gets its
+ * row written at once, and under load the rows that arrive during one flush form the next
+ * batch. Committed reports are then handed to the duration baselines.
+ */
+@Slf4j
+@Service
+public class ReportPersistenceServiceImpl implements ReportPersistenceService {
+
+    @Autowired
+    private TestReportService testReportService;
+
+    @Autowired
+    private TestCaseMapper testCaseMapper;
+
+    @Autowired
+    private ReportRollupService reportRollupService;
+
+    @Autowired
+    private ReportSearchService reportSearchService;
+
+    @Autowired
+    private DurationRegressionService durationRegressionService;
+
+    @Autowired
+    private FailureClusterService failureClusterService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${engine.report_batch_size:200}")
+    private Integer batchSize;
+
+    @Value("${engine.report_queue_capacity:10000}")
+    private Integer queueCapacity;
+
+    @Value("${engine.report_wait_ms:10000}")
+    private Long waitMs;
+
+    private BlockingQueue<PendingWrite> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private static class PendingWrite {
+        final TestReport report;
+        final String caseResult;
+        final CompletableFuture<Integer> done = new CompletableFuture<>();
+
+        PendingWrite(TestReport report, String caseResult) {
+            this.report = report;
+            this.caseResult = caseResult;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        flusher = new Thread(this::flushLoop, "report-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public Integer persist(TestReport report, String caseResult) {
+        PendingWrite pending = new PendingWrite(report, caseResult);
+        try {
+            queue.put(pending);
+            return pending.done.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            log.warn("Report for case {} not confirmed: {}", report.getCaseId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void flushLoop() {
+        while (running || !queue.isEmpty()) {
+            List<PendingWrite> batch = new ArrayList<>();
+            try {
+                batch.add(queue.take());
+                // whatever else is already queued; sequential runs have nothing more to send
+                // until this row is confirmed, so lingering would only add latency
+                queue.drainTo(batch, Math.max(1, batchSize) - 1);
+            } catch (InterruptedException e) {
+                // shutting down: drain what is left without waiting
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        List<TestReport> reports = new ArrayList<>(batch.size());
+        // last write per case wins, matching the order the results arrived in
+        Map<Integer, TestCase> statuses = new LinkedHashMap<>();
+        for (PendingWrite p : batch) {
+            reports.add(p.report);
+            TestCase status = toStatusRow(p);
+            if (status != null) {
+                statuses.remove(status.getId());
+                statuses.put(status.getId(), status);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                testReportService.saveBatch(reports, reports.size());
+                reportRollupService.apply(reports);
+                reportSearchService.index(reports);
+                if (!statuses.isEmpty()) {
+                    testCaseMapper.updateLastResults(new ArrayList<>(statuses.values()));
+                }
+            });
+            // queued before the callers are released, so a finished run's reports are all in the baselines' and clusters' queues
+            durationRegressionService.record(reports);
+            failureClusterService.record(reports);
+            publishChanged(reports);
+            for (PendingWrite p : batch) {
+                p.done.complete(p.report.getId());
+            }
+        } catch (Exception e) {
+            log.error("Batched report write of {} rows failed, retrying row by row", batch.size(), e);
+            for (PendingWrite p : batch) {
+                flushSingle(p);
+            }
+        }
+    }
+
+    private void flushSingle(PendingWrite p) {
+        try {
+            p.report.setId(null);
+            TestCase status = toStatusRow(p);
+            transactionTemplate.executeWithoutResult(tx -> {
+                testReportService.save(p.report);
+                reportRollupService.apply(Collections.singletonList(p.report));
+                reportSearchService.index(Collections.singletonList(p.report));
+                if (status != null) {
+                    List<TestCase> one = new ArrayList<>();
+                    one.add(status);
+                    testCaseMapper.updateLastResults(one);
+                }
+            });
+            durationRegressionService.record(Collections.singletonList(p.report));
+            failureClusterService.record(Collections.singletonList(p.report));
+            publishChanged(Collections.singletonList(p.report));
+            p.done.complete(p.report.getId());
+        } catch (Exception e) {
+            log.error("Report write for case {} failed", p.report.getCaseId(), e);
+            p.done.complete(null);
+        }
+    }
+
+    /** One event per project written to; the reports also moved their cases' last results. */
+    private void publishChanged(List<TestReport> reports) {
+        Set<Integer> projects = new LinkedHashSet<>();
+        for (TestReport report : reports) {
+            projects.add(report.getProjectId());
+        }
+        for (Integer projectId : projects) {
+            eventPublisher.publishEvent(new DataChangedEvent(DataChangedEvent.REPORTS, projectId));
+        }
+    }
+
+    private TestCase toStatusRow(PendingWrite p) {
+        if (p.report.getCaseId() == null || p.caseResult == null) {
+            return null;
+        }
+        TestCase status = new TestCase();
+        status.setId(p.report.getCaseId());
+        status.setLastResult(p.caseResult);
+        status.setLastRun(p.report.getExecutedAt() != null ? p.report.getExecutedAt() : LocalDateTime.now());
+        return status;
+    }
+}
@@ -0,0 +1,349 @@
+package com.automatedtest.platform.service.impl;
+
+import com.automatedtest.platform.entity.ReportArchive;
+import com.automatedtest.platform.entity.ReportRetentionPolicy;
+import com.automatedtest.platform.mapper.ReportRetentionMapper;
+import com.automatedtest.platform.mapper.ReportRetentionPolicyMapper;
+import com.automatedtest.platform.service.ReportArchiveService;
+import com.automatedtest.platform.service.ReportLogService;
+import com.automatedtest.platform.service.ReportRetentionService;
+import com.automatedtest.platform.service.ReportRollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+public class ReportRetentionServiceImpl implements ReportRetentionService {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String MAX_PARTITION = "p_max";
+
+    /** Partitions kept ahead of the current month. */
+    private static final int MONTHS_AHEAD = 3;
+
+    @Autowired
+    private ReportRetentionMapper reportRetentionMapper;
+
+    @Autowired
+    private ReportRetentionPolicyMapper reportRetentionPolicyMapper;
+
+    @Autowired
+    private ReportArchiveService reportArchiveService;
+
+    @Autowired
+    private ReportRollupService reportRollupService;
+
+    @Autowired
+    private ReportLogService reportLogService;
+
+    @Value("${engine.report_retention_days:0}")
+    private Integer defaultRetainDays;
+
+    @Value("${engine.report_retention_min_days:30}")
+    private Integer minRetainDays;
+
+    @Value("${engine.report_deleted_grace_days:30}")
+    private Integer deletedGraceDays;
+
+    @Value("${engine.retention_delete_chunk:1000}")
+    private Integer deleteChunk;
+
+    @Value("${engine.retention_pause_ms:100}")
+    private Long pauseMs;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong archivedRows = new AtomicLong();
+    private final AtomicLong deletedRows = new AtomicLong();
+    private final AtomicLong droppedPartitions = new AtomicLong();
+    private volatile String currentPeriod;
+    private volatile LocalDateTime runStartedAt;
+    private volatile LocalDateTime runFinishedAt;
+    private volatile String lastError;
+
+    @Override
+    public ReportRetentionPolicy getPolicy(Integer projectId) {
+        ReportRetentionPolicy policy = projectId != null ? reportRetentionPolicyMapper.selectById(projectId) : null;
+        if (policy == null) {
+            policy = new ReportRetentionPolicy();
+            policy.setProjectId(projectId);
+            policy.setRetainDays(defaultRetainDays);
+        }
+        return policy;
+    }
+
+    @Override
+    public void savePolicy(Integer projectId, int retainDays, String updatedBy) {
+        if (retainDays < 0 || (retainDays > 0 && retainDays < minRetainDays)) {
+            throw new IllegalArgumentException("retainDays must be 0 or at least " + minRetainDays);
+        }
+        ReportRetentionPolicy policy = new ReportRetentionPolicy();
+        policy.setProjectId(projectId);
+        policy.setRetainDays(retainDays);
+        policy.setUpdatedBy(updatedBy);
+        policy.setUpdatedAt(LocalDateTime.now());
+        if (reportRetentionPolicyMapper.selectById(projectId) != null) {
+            reportRetentionPolicyMapper.updateById(policy);
+        } else {
+            reportRetentionPolicyMapper.insert(policy);
+        }
+    }
+
+    @Scheduled(cron = "${engine.retention_cron:0 0 4 * * ?}")
+    public void scheduledRun() {
+        startRun();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        try {
+            ensurePartitions();
+        } catch (Exception e) {
+            log.warn("Could not extend report partitions: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean startRun() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        archivedRows.set(0);
+        deletedRows.set(0);
+        droppedPartitions.set(0);
+        currentPeriod = null;
+        lastError = null;
+        runStartedAt = LocalDateTime.now();
+        runFinishedAt = null;
+        Thread t = new Thread(this::run, "report-retention");
+        t.setDaemon(true);
+        t.start();
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> runStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", running.get());
+        status.put("archived", archivedRows.get());
+        status.put("deleted", deletedRows.get());
+        status.put("droppedPartitions", droppedPartitions.get());
+        status.put("period", currentPeriod);
+        status.put("startedAt", runStartedAt);
+        status.put("finishedAt", runFinishedAt);
+        status.put("error", lastError);
+        return status;
+    }
+
+    @Override
+    public synchronized void ensurePartitions() {
+        List<Partition> partitions = partitions();
+        if (partitions.isEmpty()) {
+            return;
+        }
+        LocalDateTime horizon = LocalDate.now().withDayOfMonth(1).plusMonths(MONTHS_AHEAD).atStartOfDay();
+        LocalDateTime upper = lastBoundedUpper(partitions);
+        while (upper != null && !upper.isAfter(horizon)) {
+            LocalDateTime next = upper.plusMonths(1);
+            reportRetentionMapper.splitMaxPartition("p" + upper.format(PARTITION_SUFFIX), next.toLocalDate().toString());
+            log.info("Added report partition p{} for [{}, {})", upper.format(PARTITION_SUFFIX), upper.toLocalDate(), next.toLocalDate());
+            upper = next;
+        }
+    }
+
+    /**
+     * Goes through closed periods oldest first. Every project whose policy has expired the
+     * period gets its reports exported before anything is removed; a partition is dropped
+     * only when all of its projects have expired, otherwise the expired projects' rows are
+     * deleted in small chunks. Every delete also takes the rows out of the daily rollups. A
+     * failed export stops the run so nothing unarchived is lost. Logs left without a report
+     * are collected at the end.
+     */
+    private void run() {
+        try {
+            ensurePartitions();
+            LocalDateTime now = LocalDateTime.now();
+            boolean partitioned = !partitions().isEmpty();
+            for (Period period : periods(now)) {
+                currentPeriod = period.from.toLocalDate() + "_" + period.to.toLocalDate();
+                List<Integer> projects = reportRetentionMapper.selectProjectsBetween(period.from, period.to);
+                if (projects == null || projects.isEmpty()) {
+                    continue;
+                }
+                List<Integer> expired = new ArrayList<>();
+                for (Integer projectId : projects) {
+                    int retainDays = getPolicy(projectId == 0 ? null : projectId).getRetainDays();
+                    if (retainDays > 0 && !period.to.isAfter(now.minusDays(retainDays))) {
+                        expired.add(projectId);
+                    }
+                }
+                if (expired.isEmpty()) {
+                    continue;
+                }
+
+                long minId = Long.MAX_VALUE;
+                long maxId = 0;
+                for (Integer projectId : expired) {
+                    ReportArchive archive = reportArchiveService.export(projectId, period.from, period.to);
+                    if (archive != null) {
+                        archivedRows.addAndGet(archive.getRowCount());
+                        minId = Math.min(minId, archive.getMinReportId());
+                        maxId = Math.max(maxId, archive.getMaxReportId());
+                    }
+                }
+
+                if (partitioned && period.partition != null && expired.size() == projects.size()) {
+                    reportRetentionMapper.dropPartition(period.partition);
+                    droppedPartitions.incrementAndGet();
+                    log.info("Dropped report partition {}", period.partition);
+                    // the period is empty now, so this only removes its rollups
+                    reportRollupService.rebuild(period.from.toLocalDate(), period.to.toLocalDate().minusDays(1));
+                } else {
+                    for (Integer projectId : expired) {
+                        List<Integer> ids;
+                        while (!(ids = reportRetentionMapper.selectExpiredIds(projectId, period.from, period.to, Math.max(1, deleteChunk))).isEmpty()) {
+                            deletedRows.addAndGet(reportRollupService.deleteReports(ids));
+                            pause();
+                        }
+                    }
+                }
+                if (maxId > 0) {
+                    reportRetentionMapper.deleteOrphanSearchDocs(minId, maxId);
+                }
+            }
+
+            currentPeriod = null;
+            LocalDateTime deletedBefore = now.minusDays(Math.max(0, deletedGraceDays));
+            List<Integer> ids;
+            while (!(ids = reportRetentionMapper.selectSoftDeletedIds(deletedBefore, Math.max(1, deleteChunk))).isEmpty()) {
+                deletedRows.addAndGet(reportRollupService.deleteReports(ids));
+                pause();
+            }
+            log.info("Report retention finished: {} archived, {} deleted, {} partitions dropped",
+                    archivedRows.get(), deletedRows.get(), droppedPartitions.get());
+            reportLogService.collectGarbage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.error("Report retention aborted in period {}", currentPeriod, e);
+        } finally {
+            runFinishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private void pause() throws InterruptedException {
+        if (pauseMs > 0) {
+            Thread.sleep(pauseMs);
+        }
+    }
+
+    /**
+     * Closed periods up to now: the table's partitions when it is partitioned, otherwise
+     * calendar months from the oldest report.
+     */
+    private List<Period> periods(LocalDateTime now) {
+        List<Period> periods = new ArrayList<>();
+        List<Partition> partitions = partitions();
+        if (!partitions.isEmpty()) {
+            LocalDateTime from = LocalDateTime.of(1970, 1, 1, 0, 0);
+            for (Partition p : partitions) {
+                if (p.upper == null || p.upper.isAfter(now)) {
+                    break;
+                }
+                periods.add(new Period(p.name, from, p.upper));
+                from = p.upper;
+            }
+            return periods;
+        }
+        LocalDateTime oldest = reportRetentionMapper.selectOldestExecutedAt();
+        if (oldest == null) {
+            return periods;
+        }
+        LocalDateTime from = oldest.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        while (!from.plusMonths(1).isAfter(now)) {
+            periods.add(new Period(null, from, from.plusMonths(1)));
+            from = from.plusMonths(1);
+        }
+        return periods;
+    }
+
+    private List<Partition> partitions() {
+        List<Partition> result = new ArrayList<>();
+        List<Map<String, Object>> rows = reportRetentionMapper.selectPartitions();
+        if (rows == null) {
+            return result;
+        }
+        for (Map<String, Object> row : rows) {
+            String name = String.valueOf(value(row, "name"));
+            Object description = value(row, "description");
+            result.add(new Partition(name, parseBound(description != null ? description.toString() : null)));
+        }
+        return result;
+    }
+
+    private static Object value(Map<String, Object> row, String key) {
+        Object v = row.get(key);
+        return v != null ? v : row.get(key.toUpperCase());
+    }
+
+    /**
+     * Upper bound of a RANGE COLUMNS partition as INFORMATION_SCHEMA shows it, e.g.
+     * '2026-11-01' or '2026-11-01 00:00:00'; null for MAXVALUE.
+     */
+    static LocalDateTime parseBound(String description) {
+        if (description == null) {
+            return null;
+        }
+        String s = description.replace("'", "").trim();
+        if (s.isEmpty() || "MAXVALUE".equalsIgnoreCase(s)) {
+            return null;
+        }
+        return LocalDate.parse(s.length() > 10 ? s.substring(0, 10) : s).atStartOfDay();
+    }
+
+    private static LocalDateTime lastBoundedUpper(List<Partition> partitions) {
+        Partition last = partitions.get(partitions.size() - 1);
+        if (!MAX_PARTITION.equals(last.name) || partitions.size() < 2) {
+            return null;
+        }
+        return partitions.get(partitions.size() - 2).upper;
+    }
+
+    private static final class Partition {
+        final String name;
+        final LocalDateTime upper;
+
+        Partition(String name, LocalDateTime upper) {
+            this.name = name;
+            this.upper = upper;
+        }
+    }
+
+    private static final class Period {
+        final String partition;
+        final LocalDateTime from;
+        final LocalDateTime to;
+
+        Period(String partition, LocalDateTime from, LocalDateTime to) {
+            this.partition = partition;
+            this.from = from;
+            this.to = to;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.automatedtest.platform.service.impl;
+
+import com.automatedtest.platform.entity.ReportDailyRollup;
+import com.automatedtest.platform.entity.TestReport;
+import com.automatedtest.platform.mapper.ReportRollupMapper;
+import com.automatedtest.platform.mapper.TestReportMapper;
+import com.automatedtest.platform.service.ReportRollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps report_daily_rollup / report_daily_cases in step with test_reports. Inserts are
+ * folded in by the report writer and hard deletes go through {@link #deleteReports}; anything
+ * written around both is corrected by the nightly reconcile of the most recent days.
+ */
+@Slf4j
+@Service
+public class ReportRollupServiceImpl implements ReportRollupService {
+
+    @Autowired
+    private ReportRollupMapper reportRollupMapper;
+
+    @Autowired
+    private TestReportMapper testReportMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${engine.rollup_reconcile_days:8}")
+    private Integer reconcileDays;
+
+    @Override
+    public void apply(List<TestReport> reports) {
+        Map<String, ReportDailyRollup> deltas = new LinkedHashMap<>();
+        Map<String, Map<String, Object>> cases = new LinkedHashMap<>();
+        for (TestReport r : reports) {
+            if (r.getExecutedAt() == null) {
+                continue;
+            }
+            int projectId = r.getProjectId() != null ? r.getProjectId() : 0;
+            LocalDate day = r.getExecutedAt().toLocalDate();
+            String type = r.getCaseType() != null ? r.getCaseType().trim().toUpperCase() : "";
+            ReportDailyRollup d = deltas.computeIfAbsent(projectId + "|" + day + "|" + type, k -> emptyRow(projectId, day, type));
+            d.setTotal(d.getTotal() + 1);
+            if ("success".equals(r.getStatus())) {
+                d.setPassed(d.getPassed() + 1);
+            } else {
+                d.setFailed(d.getFailed() + 1);
+            }
+            Integer ms = r.getExecutionTime();
+            if (ms != null) {
+                d.setDurCount(d.getDurCount() + 1);
+                d.setDurSum(d.getDurSum() + ms);
+                d.setDurSumsq(d.getDurSumsq() + (double) ms * ms);
+                d.setDurMin(d.getDurMin() == null ? ms : Math.min(d.getDurMin(), ms));
+                d.setDurMax(d.getDurMax() == null ? ms : Math.max(d.getDurMax(), ms));
+            }
+            if (r.getCaseId() != null) {
+                Map<String, Object> row = cases.computeIfAbsent(projectId + "|" + day + "|" + r.getCaseId(), k -> {
+                    Map<String, Object> created = new HashMap<>();
+                    created.put("projectId", projectId);
+                    created.put("statDate", day);
+                    created.put("caseId", r.getCaseId());
+                    created.put("failed", 0);
+                    created.put("lastFailedAt", null);
+                    return created;
+                });
+                if (!"success".equals(r.getStatus())) {
+                    row.put("failed", (Integer) row.get("failed") + 1);
+                    LocalDateTime last = (LocalDateTime) row.get("lastFailedAt");
+                    if (last == null || r.getExecutedAt().isAfter(last)) {
+                        row.put("lastFailedAt", r.getExecutedAt());
+                    }
+                }
+            }
+        }
+        if (!deltas.isEmpty()) {
+            reportRollupMapper.upsertDeltas(new ArrayList<>(deltas.values()));
+        }
+        if (!cases.isEmpty()) {
+            reportRollupMapper.insertCases(new ArrayList<>(cases.values()));
+        }
+    }
+
+    @Override
+    public void rebuild(LocalDate from, LocalDate to) {
+        rebuild(null, from, to);
+    }
+
+    @Override
+    public void rebuild(Integer projectId, LocalDate from, LocalDate to) {
+        // also called from the scheduled job below, so not via @Transactional
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            reportRollupMapper.deleteRollups(projectId, from, to);
+            reportRollupMapper.deleteCases(projectId, from, to);
+            reportRollupMapper.rebuildRollups(projectId, from, to);
+            reportRollupMapper.rebuildCases(projectId, from, to);
+        });
+    }
+
+    @Override
+    public int deleteReports(List<Integer> reportIds) {
+        if (reportIds == null || reportIds.isEmpty()) {
+            return 0;
+        }
+        // min / max durations and last failure times cannot be subtracted, so the days are
+        // recomputed; each is one project's reports of one day
+        Integer deleted = new TransactionTemplate(transactionManager).execute(tx -> {
+            List<ReportDailyRollup> days = reportRollupMapper.selectReportDays(reportIds);
+            int n = testReportMapper.deleteBatchIds(reportIds);
+            for (ReportDailyRollup day : days) {
+                rebuild(day.getProjectId(), day.getStatDate(), day.getStatDate());
+            }
+            return n;
+        });
+        return deleted != null ? deleted : 0;
+    }
+
+    @Scheduled(cron = "${engine.rollup_reconcile_cron:0 30 3 * * ?}")
+    public void reconcileRecent() {
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(Math.max(1, reconcileDays) - 1L);
+        try {
+            rebuild(from, to);
+            log.info("Report rollups reconciled for {} .. {}", from, to);
+        } catch (Exception e) {
+            log.error("Report rollup reconcile failed", e);
+        }
+    }
+
+    private static ReportDailyRollup emptyRow(int projectId, LocalDate day, String type) {
+        ReportDailyRollup d = new ReportDailyRollup();
+        d.setProjectId(projectId);
+        d.setStatDate(day);
+        d.setCaseType(type);
+        d.setTotal(0L);
+        d.setPassed(0L);
+        d.setFailed(0L);
+        d.setDurCount(0L);
+        d.setDurSum(0L);
+        d.setDurSumsq(0.0);
+        return d;
+    }
+}
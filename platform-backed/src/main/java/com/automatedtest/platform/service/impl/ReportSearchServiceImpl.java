@@ -0,0 +1,146 @@
+package com.automatedtest.platform.service.impl;
+
+import com.automatedtest.platform.entity.TestReport;
+import com.automatedtest.platform.mapper.ReportSearchMapper;
+import com.automatedtest.platform.service.ReportLogService;
+import com.automatedtest.platform.service.ReportSearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Report logs in an n-gram FULLTEXT index (report_search_docs), so keyword search looks up
+ * matching report ids instead of scanning every log with LIKE '%keyword%'. Only the first
+ * engine.search_index_chars of a log are indexed.
+ */
+@Slf4j
+@Service
+public class ReportSearchServiceImpl implements ReportSearchService {
+
+    @Autowired
+    private ReportSearchMapper reportSearchMapper;
+
+    @Autowired
+    private ReportLogService reportLogService;
+
+    @Value("${engine.search_index_chars:16384}")
+    private Integer indexChars;
+
+    @Value("${engine.search_ngram_size:2}")
+    private Integer ngramSize;
+
+    @Value("${engine.search_rebuild_chunk:200}")
+    private Integer rebuildChunk;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicLong indexedRows = new AtomicLong();
+    private volatile long lastIndexedId;
+    private volatile LocalDateTime rebuildStartedAt;
+    private volatile LocalDateTime rebuildFinishedAt;
+
+    @Override
+    public void index(List<TestReport> reports) {
+        List<Map<String, Object>> docs = new ArrayList<>(reports.size());
+        for (TestReport r : reports) {
+            if (r.getId() == null) {
+                continue;
+            }
+            docs.add(doc(r, r.getIndexText() != null ? r.getIndexText() : r.getLogs()));
+        }
+        if (!docs.isEmpty()) {
+            reportSearchMapper.upsertDocs(docs);
+        }
+    }
+
+    @Override
+    public String toPhrase(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        // boolean-mode operators inside a phrase are harmless except the quote itself
+        String cleaned = keyword.replace('"', ' ').trim();
+        if (cleaned.length() < Math.max(1, ngramSize)) {
+            return null;
+        }
+        return "\"" + cleaned + "\"";
+    }
+
+    @Override
+    public boolean startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        indexedRows.set(0);
+        lastIndexedId = 0;
+        rebuildStartedAt = LocalDateTime.now();
+        rebuildFinishedAt = null;
+        Thread t = new Thread(this::rebuild, "search-index-rebuild");
+        t.setDaemon(true);
+        t.start();
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> rebuildStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", rebuilding.get());
+        status.put("indexed", indexedRows.get());
+        status.put("lastId", lastIndexedId);
+        status.put("startedAt", rebuildStartedAt);
+        status.put("finishedAt", rebuildFinishedAt);
+        return status;
+    }
+
+    private void rebuild() {
+        try {
+            long afterId = 0;
+            while (true) {
+                List<TestReport> chunk = reportSearchMapper.selectUnindexed(afterId, Math.max(1, rebuildChunk));
+                if (chunk == null || chunk.isEmpty()) {
+                    break;
+                }
+                List<Map<String, Object>> docs = new ArrayList<>(chunk.size());
+                for (TestReport r : chunk) {
+                    afterId = r.getId();
+                    String text;
+                    try {
+                        text = reportLogService.read(r, indexChars);
+                    } catch (Exception e) {
+                        log.warn("Logs of report {} unreadable, indexed empty: {}", r.getId(), e.getMessage());
+                        text = "";
+                    }
+                    docs.add(doc(r, text));
+                }
+                reportSearchMapper.upsertDocs(docs);
+                indexedRows.addAndGet(docs.size());
+                lastIndexedId = afterId;
+            }
+            log.info("Search index rebuild finished: {} reports indexed", indexedRows.get());
+        } catch (Exception e) {
+            log.error("Search index rebuild aborted after report {}", lastIndexedId, e);
+        } finally {
+            rebuildFinishedAt = LocalDateTime.now();
+            rebuilding.set(false);
+        }
+    }
+
+    private Map<String, Object> doc(TestReport r, String text) {
+        Map<String, Object> doc = new HashMap<>();
+        doc.put("reportId", r.getId());
+        doc.put("projectId", r.getProjectId());
+        doc.put("planId", r.getPlanId());
+        doc.put("planRunNo", r.getPlanRunNo());
+        String content = text != null ? text : "";
+        doc.put("content", content.length() > indexChars ? content.substring(0, indexChars) : content);
+        return doc;
+    }
+}
@@ -0,0 +1,207 @@
+package com.automatedtest.platform.service.impl;
+
+import com.automatedtest.platform.dto.ReportSummaryDTO;
+import com.automatedtest.platform.dto.RunDiffDTO;
+import com.automatedtest.platform.entity.PlanRun;
+import com.automatedtest.platform.entity.TestCase;
+import com.automatedtest.platform.entity.TestReport;
+import com.automatedtest.platform.mapper.TestCaseMapper;
+import com.automatedtest.platform.mapper.TestReportMapper;
+import com.automatedtest.platform.service.ReportArchiveService;
+import com.automatedtest.platform.service.RunDiffService;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class RunDiffServiceImpl implements RunDiffService {
+
+    @Autowired
+    private TestReportMapper testReportMapper;
+
+    @Autowired
+    private TestCaseMapper testCaseMapper;
+
+    @Autowired
+    private ReportArchiveService reportArchiveService;
+
+    @Override
+    public RunDiffDTO diff(PlanRun base, PlanRun target, int top) throws IOException {
+        RunDiffDTO.RunInfo baseInfo = info(base);
+        RunDiffDTO.RunInfo targetInfo = info(target);
+        Map<Integer, ReportSummaryDTO> baseOutcomes = byCase(outcomes(base, baseInfo));
+        Map<Integer, ReportSummaryDTO> targetOutcomes = byCase(outcomes(target, targetInfo));
+
+        RunDiffDTO diff = compare(baseOutcomes, targetOutcomes, top);
+        diff.setBase(baseInfo);
+        diff.setTarget(targetInfo);
+        nameCases(diff);
+        return diff;
+    }
+
+    private static RunDiffDTO.RunInfo info(PlanRun run) {
+        RunDiffDTO.RunInfo info = new RunDiffDTO.RunInfo();
+        info.setPlanId(run.getPlanId());
+        info.setRunNo(run.getRunNo());
+        info.setStatus(run.getStatus());
+        info.setExecutedAt(run.getExecutedAt());
+        info.setTotal(run.getTotalCases() != null ? run.getTotalCases() : 0);
+        info.setPassed(run.getPassedCases() != null ? run.getPassedCases() : 0);
+        info.setFailed(run.getFailedCases() != null ? run.getFailedCases() : 0);
+        info.setDurationMs(run.getDurationMs() != null ? run.getDurationMs() : 0L);
+        return info;
+    }
+
+    /**
+     * Outcomes from test_reports, or from the report archive once retention has moved the run out.
+     */
+    private List<ReportSummaryDTO> outcomes(PlanRun run, RunDiffDTO.RunInfo info) throws IOException {
+        List<ReportSummaryDTO> rows = testReportMapper.selectRunOutcomes(run.getPlanId(), run.getRunNo());
+        if (!rows.isEmpty() || run.getFirstReportId() == null) {
+            return rows;
+        }
+        List<TestReport> archived = reportArchiveService.findRun(run.getProjectId(), run.getPlanId(), run.getRunNo(), run.getFirstReportId());
+        info.setArchived(!archived.isEmpty());
+        List<ReportSummaryDTO> result = new ArrayList<>(archived.size());
+        for (TestReport report : archived) {
+            if (report.getCaseId() == null) {
+                continue;
+            }
+            ReportSummaryDTO row = new ReportSummaryDTO();
+            row.setId(report.getId());
+            row.setCaseId(report.getCaseId());
+            row.setStatus(report.getStatus());
+            row.setExecutionTime(report.getExecutionTime());
+            result.add(row);
+        }
+        return result;
+    }
+
+    /**
+     * One outcome per case; a case run more than once in a run counts with its last report.
+     */
+    static Map<Integer, ReportSummaryDTO> byCase(List<ReportSummaryDTO> rows) {
+        Map<Integer, ReportSummaryDTO> map = new LinkedHashMap<>(rows.size() * 2);
+        for (ReportSummaryDTO row : rows) {
+            ReportSummaryDTO seen = map.get(row.getCaseId());
+            if (seen == null || (row.getId() != null && (seen.getId() == null || row.getId() > seen.getId()))) {
+                map.put(row.getCaseId(), row);
+            }
+        }
+        return map;
+    }
+
+    static RunDiffDTO compare(Map<Integer, ReportSummaryDTO> base, Map<Integer, ReportSummaryDTO> target, int top) {
+        RunDiffDTO diff = new RunDiffDTO();
+        List<RunDiffDTO.CaseDelta> common = new ArrayList<>();
+        long durationDelta = 0;
+        for (Map.Entry<Integer, ReportSummaryDTO> entry : target.entrySet()) {
+            ReportSummaryDTO before = base.get(entry.getKey());
+            ReportSummaryDTO after = entry.getValue();
+            RunDiffDTO.CaseDelta delta = delta(entry.getKey(), before, after);
+            if (before == null) {
+                diff.getAdded().add(delta);
+                continue;
+            }
+            boolean failedBefore = "failed".equals(before.getStatus());
+            boolean failedAfter = "failed".equals(after.getStatus());
+            if (failedAfter && failedBefore) {
+                diff.getStillFailing().add(delta);
+            } else if (failedAfter) {
+                diff.getNewlyFailing().add(delta);
+            } else if (failedBefore && "success".equals(after.getStatus())) {
+                diff.getNewlyPassing().add(delta);
+            } else {
+                diff.setUnchanged(diff.getUnchanged() + 1);
+            }
+            if (delta.getDeltaMs() != null) {
+                durationDelta += delta.getDeltaMs();
+                common.add(delta);
+            }
+        }
+        for (Map.Entry<Integer, ReportSummaryDTO> entry : base.entrySet()) {
+            if (!target.containsKey(entry.getKey())) {
+                diff.getRemoved().add(delta(entry.getKey(), entry.getValue(), null));
+            }
+        }
+        diff.setDurationDeltaMs(durationDelta);
+
+        int limit = Math.max(0, top);
+        common.sort(Comparator.comparing(RunDiffDTO.CaseDelta::getDeltaMs).reversed());
+        for (RunDiffDTO.CaseDelta delta : common) {
+            if (diff.getSlowest().size() >= limit || delta.getDeltaMs() <= 0) {
+                break;
+            }
+            diff.getSlowest().add(delta);
+        }
+        for (int i = common.size() - 1; i >= 0; i--) {
+            RunDiffDTO.CaseDelta delta = common.get(i);
+            if (diff.getFastest().size() >= limit || delta.getDeltaMs() >= 0) {
+                break;
+            }
+            diff.getFastest().add(delta);
+        }
+        return diff;
+    }
+
+    private static RunDiffDTO.CaseDelta delta(Integer caseId, ReportSummaryDTO before, ReportSummaryDTO after) {
+        RunDiffDTO.CaseDelta delta = new RunDiffDTO.CaseDelta();
+        delta.setCaseId(caseId);
+        if (before != null) {
+            delta.setBaseStatus(before.getStatus());
+            delta.setBaseReportId(before.getId());
+            delta.setBaseMs(before.getExecutionTime());
+        }
+        if (after != null) {
+            delta.setTargetStatus(after.getStatus());
+            delta.setTargetReportId(after.getId());
+            delta.setTargetMs(after.getExecutionTime());
+        }
+        if (delta.getBaseMs() != null && delta.getTargetMs() != null) {
+            delta.setDeltaMs(delta.getTargetMs() - delta.getBaseMs());
+        }
+        return delta;
+    }
+
+    /**
+     * Names only the listed cases, in one query, instead of joining test_cases for every report.
+     */
+    private void nameCases(RunDiffDTO diff) {
+        List<List<RunDiffDTO.CaseDelta>> lists = new ArrayList<>();
+        lists.add(diff.getNewlyFailing());
+        lists.add(diff.getNewlyPassing());
+        lists.add(diff.getStillFailing());
+        lists.add(diff.getAdded());
+        lists.add(diff.getRemoved());
+        lists.add(diff.getSlowest());
+        lists.add(diff.getFastest());
+        Set<Integer> ids = new HashSet<>();
+        for (List<RunDiffDTO.CaseDelta> list : lists) {
+            for (RunDiffDTO.CaseDelta delta : list) {
+                ids.add(delta.getCaseId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Integer, String> names = new HashMap<>();
+        for (TestCase testCase : testCaseMapper.selectList(new QueryWrapper<TestCase>().select("id", "name").in("id", ids))) {
+            names.put(testCase.getId(), testCase.getName());
+        }
+        for (List<RunDiffDTO.CaseDelta> list : lists) {
+            for (RunDiffDTO.CaseDelta delta : list) {
+                delta.setCaseName(names.get(delta.getCaseId()));
+            }
+        }
+    }
+}
@@ -3,9 +3,12 @@ package com.automatedtest.platform.service.impl;
 import com.automatedtest.platform.dto.ApiTestRequestDTO;
 import com.automatedtest.platform.dto.ApiTestResponseDTO;
 import com.automatedtest.platform.dto.CaseExecuteResultDTO;
+import com.automatedtest.platform.dto.CaseRunContext;
 import com.automatedtest.platform.entity.TestCase;
 import com.automatedtest.platform.entity.TestReport;
+import com.automatedtest.platform.mapper.ProjectVariableMapper;
 import com.automatedtest.platform.mapper.TestCaseMapper;
+import com.automatedtest.platform.mapper.UserVariableMapper;
 import com.automatedtest.platform.service.TestCaseService;
 import com.automatedtest.platform.service.TestReportService;
 import com.automatedtest.platform.entity.User;
@@ -63,6 +66,24 @@ public class TestCaseServiceImpl extends ServiceImpl<TestCaseMapper, TestCase> i
     @Autowired
     private com.automatedtest.platform.service.TestPlanService testPlanService;
 
+    @Autowired
+    private com.automatedtest.platform.service.ReportPersistenceService reportPersistenceService;
+
+    @Autowired
+    private ProjectVariableMapper projectVariableMapper;
+
+    @Autowired
+    private UserVariableMapper userVariableMapper;
+
+    @Autowired
+    private com.automatedtest.platform.engine.RunningTaskRegistry runningTaskRegistry;
+
+    @Autowired
+    private com.automatedtest.platform.service.ReportLogService reportLogService;
+
+    @org.springframework.beans.factory.annotation.Value("${engine.plan_var_wait_ms:30000}")
+    private Long planVarWaitMs;
+
     @Override
     public ApiTestResponseDTO executeApiTest(ApiTestRequestDTO request) {
         return executeApiTest(request, null);
@@ -234,28 +255,25 @@ public class TestCaseServiceImpl extends ServiceImpl<TestCaseMapper, TestCase> i
 
     @Override
     public CaseExecuteResultDTO executeCaseById(Integer id, String executedBy, Integer planId, Integer planRunNo, String triggerType) {
-        CaseExecuteResultDTO result = new CaseExecuteResultDTO();
-        TestCase testCase = getById(id);
-        if (testCase == null) {
-            result.setStatus("failed");
-            result.setError("测试用例不存在");
-            return result;
-        }
-        
-        // Mark as running for dashboard visibility
-        testCase.setLastResult("running");
-        testCase.setLastRun(LocalDateTime.now());
-        updateById(testCase);
-        
-        try {
-            return executeCaseInternal(testCase, executedBy, planId, planRunNo, triggerType, null);
-        } finally {
-            // No need to clear here as executeCaseInternal will update it to success/failed
-        }
+        CaseRunContext context = new CaseRunContext();
+        context.setExecutedBy(executedBy);
+        context.setPlanId(planId);
+        context.setPlanRunNo(planRunNo);
+        context.setTriggerType(triggerType);
+        return executeCase(id, context);
     }
     
     @Override
     public CaseExecuteResultDTO executeCaseByIdWithVariables(Integer id, String executedBy, java.util.Map<String, String> variables) {
+        CaseRunContext context = new CaseRunContext();
+        context.setExecutedBy(executedBy);
+        context.setTriggerType("manual");
+        context.setExtraVars(variables);
+        return executeCase(id, context);
+    }
+
+    @Override
+    public CaseExecuteResultDTO executeCase(Integer id, CaseRunContext context) {
         CaseExecuteResultDTO result = new CaseExecuteResultDTO();
         TestCase testCase = getById(id);
         if (testCase == null) {
@@ -263,16 +281,40 @@ public class TestCaseServiceImpl extends ServiceImpl<TestCaseMapper, TestCase> i
             result.setError("测试用例不存在");
             return result;
         }
-        testCase.setLastResult("running");
-        testCase.setLastRun(LocalDateTime.now());
-        updateById(testCase);
+        if (context == null) {
+            context = new CaseRunContext();
+        }
+        if (context.getUserId() == null && context.getExecutedBy() != null && !context.getExecutedBy().trim().isEmpty()) {
+            // Callers without a resolved user (schedules, older entry points) get it looked up once here
+            User user = userService.getOne(new QueryWrapper<User>().eq("username", context.getExecutedBy()));
+            if (user != null) {
+                context.setUserId(user.getId());
+            }
+        }
+
+        // Mark as running for dashboard visibility
+        baseMapper.markRunning(testCase.getId(), LocalDateTime.now());
+        if (context.getPlanId() != null) {
+            // cases of a plan run show up through the run itself
+            return executeCaseInternal(testCase, context);
+        }
+        String taskKey = runningTaskRegistry.caseStarted(testCase.getId(), testCase.getName(),
+                testCase.getProjectId(), testCase.getCreatedBy());
         try {
-            return executeCaseInternal(testCase, executedBy, null, null, "manual", variables);
+            return executeCaseInternal(testCase, context);
         } finally {
+            runningTaskRegistry.caseFinished(taskKey);
         }
     }
 
-    private CaseExecuteResultDTO executeCaseInternal(TestCase testCase, String executedBy, Integer planId, Integer planRunNo, String triggerType, Map<String, String> extraVars) {
+    private CaseExecuteResultDTO executeCaseInternal(TestCase testCase, CaseRunContext context) {
+        String executedBy = context.getExecutedBy();
+        Long userId = context.getUserId();
+        Integer planId = context.getPlanId();
+        Integer planRunNo = context.getPlanRunNo();
+        String triggerType = context.getTriggerType();
+        Map<String, String> extraVars = context.getExtraVars();
+        com.automatedtest.platform.engine.PlanVariableStore planStore = context.getVariableStore();
         CaseExecuteResultDTO result = new CaseExecuteResultDTO();
         Map<String, Object> contentMap = new HashMap<>();
         String content = testCase.getContent();
@@ -305,15 +347,12 @@ public class TestCaseServiceImpl extends ServiceImpl<TestCaseMapper, TestCase> i
         }
 
         // 3. User Variables (Private Level - Override Project & System)
-        if (executedBy != null && !executedBy.trim().isEmpty()) {
-             User user = userService.getOne(new QueryWrapper<User>().eq("username", executedBy));
-             if (user != null) {
-                 List<UserVariable> variables = userVariableService.list(new QueryWrapper<UserVariable>().eq("user_id", user.getId()));
-                 if (variables != null) {
-                     for (UserVariable var : variables) {
-                         if (var.getKeyName() != null && var.getValue() != null) {
-                             varMap.put(var.getKeyName(), var.getValue());
-                         }
+        if (userId != null) {
+             List<UserVariable> variables = userVariableService.list(new QueryWrapper<UserVariable>().eq("user_id", userId));
+             if (variables != null) {
+                 for (UserVariable var : variables) {
+                     if (var.getKeyName() != null && var.getValue() != null) {
+                         varMap.put(var.getKeyName(), var.getValue());
                      }
                  }
              }
@@ -345,6 +384,19 @@ public class TestCaseServiceImpl extends ServiceImpl<TestCaseMapper, TestCase> i
                 }
             }
         }
+        // Plan-scope variables from earlier cases of the same run; "requires" lists the ones
+        // this case cannot start without, so it waits for whichever case produces them
+        if (planStore != null) {
+            java.util.Set<String> required = com.automatedtest.platform.engine.CaseDependencies.requires(content);
+            if (!required.isEmpty()) {
+                try {
+                    planStore.await(required, planVarWaitMs != null ? planVarWaitMs : 0L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            varMap.putAll(planStore.snapshot());
+        }
         if (extraVars != null && !extraVars.isEmpty()) {
             varMap.putAll(extraVars);
         }
@@ -455,9 +507,6 @@ public class TestCaseServiceImpl extends ServiceImpl<TestCaseMapper, TestCase> i
         }
 
         boolean success = "success".equalsIgnoreCase(result.getStatus());
-        testCase.setLastRun(LocalDateTime.now());
-        testCase.setLastResult(success ? "success" : "failed");
-        updateById(testCase);
 
         // Extract dynamic variables from response
         try {
@@ -466,6 +515,9 @@ public class TestCaseServiceImpl extends ServiceImpl<TestCaseMapper, TestCase> i
                 if (extractObj instanceof java.util.List) {
                     java.util.List<?> exts = (java.util.List<?>) extractObj;
                     java.util.Map<String, String> planVars = new java.util.HashMap<>();
+                    // Collected per scope and written once below; later rules win for the same target
+                    java.util.Map<String, String> userVars = new java.util.LinkedHashMap<>();
+                    java.util.Map<String, String> projectVars = new java.util.LinkedHashMap<>();
                     Object responseObj = result.getResponse(); // may be Map<String,Object>
                     java.util.Map<String, Object> respMap = null;
                     if (responseObj instanceof java.util.Map) {
@@ -543,50 +595,26 @@ public class TestCaseServiceImpl extends ServiceImpl<TestCaseMapper, TestCase> i
                             }
                         }
                         if (extracted == null) continue;
-                        try {
-                            if ("user".equalsIgnoreCase(scope)) {
-                                if (executedBy != null && !executedBy.trim().isEmpty()) {
-                                    User user = userService.getOne(new QueryWrapper<User>().eq("username", executedBy));
-                                    if (user != null) {
-                                        com.automatedtest.platform.entity.UserVariable uv = userVariableService.getOne(new QueryWrapper<com.automatedtest.platform.entity.UserVariable>()
-                                                .eq("user_id", user.getId())
-                                                .eq("key_name", target));
-                                        if (uv == null) {
-                                            uv = new com.automatedtest.platform.entity.UserVariable();
-                                            uv.setUserId(user.getId());
-                                            uv.setKeyName(target);
-                                            uv.setValue(extracted);
-                                            userVariableService.save(uv);
-                                        } else {
-                                            uv.setValue(extracted);
-                                            uv.setUpdatedAt(LocalDateTime.now());
-                                            userVariableService.updateById(uv);
-                                        }
-                                    }
-                                }
-                            } else if ("project".equalsIgnoreCase(scope)) {
-                                if (testCase.getProjectId() != null) {
-                                    com.automatedtest.platform.entity.ProjectVariable pv = projectVariableService.getOne(new QueryWrapper<com.automatedtest.platform.entity.ProjectVariable>()
-                                            .eq("project_id", testCase.getProjectId())
-                                            .eq("key_name", target));
-                                    if (pv == null) {
-                                        pv = new com.automatedtest.platform.entity.ProjectVariable();
-                                        pv.setProjectId(testCase.getProjectId());
-                                        pv.setKeyName(target);
-                                        pv.setValue(extracted);
-                                        projectVariableService.save(pv);
-                                    } else {
-                                        pv.setValue(extracted);
-                                        pv.setUpdatedAt(LocalDateTime.now());
-                                        projectVariableService.updateById(pv);
-                                    }
-                                }
-                            } else if ("plan".equalsIgnoreCase(scope)) {
-                                planVars.put(target, extracted);
-                            }
-                        } catch (Exception ignored) {}
+                        if ("user".equalsIgnoreCase(scope)) {
+                            userVars.put(target, extracted);
+                        } else if ("project".equalsIgnoreCase(scope)) {
+                            projectVars.put(target, extracted);
+                        } else if ("plan".equalsIgnoreCase(scope)) {
+                            planVars.put(target, extracted);
+                        }
                     }
+                    try {
+                        if (!userVars.isEmpty() && userId != null) {
+                            userVariableMapper.upsertBatch(userId, userVars);
+                        }
+                        if (!projectVars.isEmpty() && testCase.getProjectId() != null) {
+                            projectVariableMapper.upsertBatch(testCase.getProjectId(), projectVars);
+                        }
+                    } catch (Exception ignored) {}
                     if (!planVars.isEmpty()) {
+                        if (planStore != null) {
+                            planStore.publish(planVars);
+                        }
                         result.setExtractedVars(planVars);
                     }
                 }
@@ -594,60 +622,6 @@ public class TestCaseServiceImpl extends ServiceImpl<TestCaseMapper, TestCase> i
         } catch (Exception ignored) {
         }
 
-        TestReport report = new TestReport();
-        if (testCase.getProjectId() != null) {
-            report.setProjectId(testCase.getProjectId());
-        }
-        if (planId != null) {
-            report.setPlanId(planId);
-        }
-        if (planRunNo != null && planRunNo > 0) {
-            report.setPlanRunNo(planRunNo);
-        }
-        report.setCaseId(testCase.getId());
-        report.setStatus(success ? "success" : "failed");
-        if (result.getDurationMs() != null) {
-            report.setExecutionTime(result.getDurationMs().intValue());
-        }
-        String logsToSave = result.getLogs();
-        if (logsToSave == null) {
-            logsToSave = "";
-        }
-        if (result.getError() != null && !result.getError().trim().isEmpty()) {
-            if (logsToSave == null || logsToSave.trim().isEmpty()) {
-                logsToSave = result.getError();
-            } else {
-                logsToSave = logsToSave + System.lineSeparator() + result.getError();
-            }
-        }
-        report.setLogs(redactSecrets(logsToSave, varMap));
-        report.setExecutedAt(LocalDateTime.now());
-        if (executedBy != null && !executedBy.trim().isEmpty()) {
-            report.setExecutedBy(executedBy.trim());
-        } else {
-            report.setExecutedBy("System");
-        }
-        
-        // Handle trigger type
-        if (triggerType != null && !triggerType.trim().isEmpty()) {
-            report.setTriggerType(triggerType.trim());
-        } else {
-            // Infer from executedBy if missing
-            String execBy = report.getExecutedBy();
-            if ("System".equals(execBy)) {
-                report.setTriggerType("schedule");
-            } else if ("Project API Key".equals(execBy) || "OpenAPI".equals(execBy)) {
-                report.setTriggerType("openapi");
-            } else {
-                report.setTriggerType("manual");
-            }
-        }
-        
-        testReportService.save(report);
-        if (report.getId() != null) {
-            result.setReportId(report.getId());
-        }
-
         // Lightweight assertion evaluation for API cases (status & simple $.a.b jsonpath)
         try {
             if ("API".equalsIgnoreCase(testCase.getType())) {
@@ -739,16 +713,72 @@ public class TestCaseServiceImpl extends ServiceImpl<TestCaseMapper, TestCase> i
                     result.setAssertsTotal(total);
                     result.setAssertsPassed(passed);
                     result.setAssertsFailed(total - passed);
-                    // Persist to report
-                    report.setAssertsTotal(result.getAssertsTotal());
-                    report.setAssertsPassed(result.getAssertsPassed());
-                    report.setAssertsFailed(result.getAssertsFailed());
-                    testReportService.updateById(report);
                 }
             }
         } catch (Exception ignored) {
         }
 
+        TestReport report = new TestReport();
+        if (testCase.getProjectId() != null) {
+            report.setProjectId(testCase.getProjectId());
+        }
+        if (planId != null) {
+            report.setPlanId(planId);
+        }
+        if (planRunNo != null && planRunNo > 0) {
+            report.setPlanRunNo(planRunNo);
+        }
+        report.setCaseId(testCase.getId());
+        report.setCaseType(testCase.getType());
+        report.setStatus(success ? "success" : "failed");
+        if (result.getDurationMs() != null) {
+            report.setExecutionTime(result.getDurationMs().intValue());
+        }
+        String logsToSave = result.getLogs();
+        if (logsToSave == null) {
+            logsToSave = "";
+        }
+        if (result.getError() != null && !result.getError().trim().isEmpty()) {
+            if (logsToSave == null || logsToSave.trim().isEmpty()) {
+                logsToSave = result.getError();
+            } else {
+                logsToSave = logsToSave + System.lineSeparator() + result.getError();
+            }
+        }
+        report.setLogs(redactSecrets(logsToSave, varMap));
+        reportLogService.externalize(report);
+        report.setExecutedAt(LocalDateTime.now());
+        if (executedBy != null && !executedBy.trim().isEmpty()) {
+            report.setExecutedBy(executedBy.trim());
+        } else {
+            report.setExecutedBy("System");
+        }
+        
+        // Handle trigger type
+        if (triggerType != null && !triggerType.trim().isEmpty()) {
+            report.setTriggerType(triggerType.trim());
+        } else {
+            // Infer from executedBy if missing
+            String execBy = report.getExecutedBy();
+            if ("System".equals(execBy)) {
+                report.setTriggerType("schedule");
+            } else if ("Project API Key".equals(execBy) || "OpenAPI".equals(execBy)) {
+                report.setTriggerType("openapi");
+            } else {
+                report.setTriggerType("manual");
+            }
+        }
+        
+        report.setAssertsTotal(result.getAssertsTotal());
+        report.setAssertsPassed(result.getAssertsPassed());
+        report.setAssertsFailed(result.getAssertsFailed());
+
+        // Report row and the case's final status go out together in the writer's next batch
+        Integer reportId = reportPersistenceService.persist(report, success ? "success" : "failed");
+        if (reportId != null) {
+            result.setReportId(reportId);
+        }
+
         return result;
     }
 
@@ -1,9 +1,12 @@
 package com.automatedtest.platform.service.impl;
 
+import com.automatedtest.platform.dto.ReportSummaryDTO;
 import com.automatedtest.platform.entity.TestCase;
 import com.automatedtest.platform.entity.TestPlan;
+import com.automatedtest.platform.common.CursorPage;
 import com.automatedtest.platform.entity.TestReport;
 import com.automatedtest.platform.mapper.TestReportMapper;
+import com.automatedtest.platform.service.ReportSearchService;
 import com.automatedtest.platform.service.TestCaseService;
 import com.automatedtest.platform.service.TestPlanService;
 import com.automatedtest.platform.service.TestReportService;
@@ -25,12 +28,49 @@ public class TestReportServiceImpl extends ServiceImpl<TestReportMapper, TestRep
     @Autowired
     private TestPlanService testPlanService;
 
+    @Autowired
+    private ReportSearchService reportSearchService;
+
+    @Override
+    public ReportSummaryDTO getSummary(Integer id) {
+        return baseMapper.selectSummaryById(id);
+    }
+
     @Override
     public IPage<TestReport> listUnified(Page<TestReport> page, Integer projectId, String status, String keyword, String date) {
-        IPage<TestReport> pageResult = baseMapper.selectUnifiedReports(page, projectId, status, keyword, date);
-        List<TestReport> records = pageResult.getRecords();
+        String phrase = keyword != null && !keyword.trim().isEmpty() ? reportSearchService.toPhrase(keyword) : null;
+        // the listing query only materialises what the page needs, so count separately
+        boolean withTotal = page.searchCount();
+        page.setSearchCount(false);
+        IPage<TestReport> pageResult = baseMapper.selectUnifiedReports(page, projectId, status, keyword, phrase, date,
+                null, null, page.offset() + page.getSize());
+        if (withTotal) {
+            pageResult.setTotal(baseMapper.countUnifiedReports(projectId, status, keyword, phrase, date));
+        }
+        fillNames(pageResult.getRecords());
+        return pageResult;
+    }
+
+    @Override
+    public CursorPage<TestReport> listUnifiedAfter(String cursor, long size, boolean withTotal, Integer projectId, String status, String keyword, String date) {
+        size = Math.max(1, size);
+        CursorPage.Cursor after = CursorPage.decode(cursor);
+        String phrase = keyword != null && !keyword.trim().isEmpty() ? reportSearchService.toPhrase(keyword) : null;
+        Page<TestReport> window = new Page<>(1, size + 1, false);
+        List<TestReport> rows = baseMapper.selectUnifiedReports(window, projectId, status, keyword, phrase, date,
+                after != null ? after.getTime() : null, after != null ? after.getId() : null, size + 1).getRecords();
+        CursorPage<TestReport> result = CursorPage.of(rows, size, TestReport::getExecutedAt, TestReport::getId);
+        if (withTotal) {
+            result.setSearchCount(true);
+            result.setTotal(baseMapper.countUnifiedReports(projectId, status, keyword, phrase, date));
+        }
+        fillNames(result.getRecords());
+        return result;
+    }
+
+    private void fillNames(List<TestReport> records) {
         if (records == null || records.isEmpty()) {
-            return pageResult;
+            return;
         }
 
         Set<Integer> caseIds = records.stream()
@@ -74,7 +114,5 @@ public class TestReportServiceImpl extends ServiceImpl<TestReportMapper, TestRep
                 }
             }
         }
-
-        return pageResult;
     }
 }
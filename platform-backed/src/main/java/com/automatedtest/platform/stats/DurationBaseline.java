@@ -0,0 +1,135 @@
+package com.automatedtest.platform.stats;
+
+/**
+ * Rolling duration statistics of one case: a slow exponentially weighted mean and variance
+ * (the baseline), a fast weighted mean of the latest runs, and a t-digest of the baseline
+ * distribution for percentiles.
+ *
+ * A slowdown is significant when the recent mean lies zThreshold standard errors above the
+ * baseline mean, is both minRatio and minDeltaMs slower, and the last minSlowRuns samples
+ * were all above the baseline p95. The p95 streak keeps long-tailed latency, where the
+ * variance says little, from flagging on a single slow outlier. Once flagged, a case stays
+ * regressed until the recent mean falls back below half the threshold, so a sustained
+ * slowdown is reported once.
+ */
+public class DurationBaseline {
+
+    private long samples;
+    private double baselineMean;
+    private double baselineVar;
+    private double recentMean;
+    private int slowStreak;
+    private boolean regressed;
+    private final TDigest digest;
+
+    private double lastZ;
+    private double lastBaselineMean;
+    private double lastBaselineP95;
+
+    public DurationBaseline(TDigest digest) {
+        this.digest = digest;
+    }
+
+    public DurationBaseline(long samples, double baselineMean, double baselineVar, double recentMean, int slowStreak,
+                            boolean regressed, TDigest digest) {
+        this.samples = samples;
+        this.baselineMean = baselineMean;
+        this.baselineVar = baselineVar;
+        this.recentMean = recentMean;
+        this.slowStreak = slowStreak;
+        this.regressed = regressed;
+        this.digest = digest;
+    }
+
+    /**
+     * Adds a sample; returns true if it turns the case regressed.
+     */
+    public boolean observe(double ms, DurationThresholds t) {
+        samples++;
+        // 1/n while young so the first means are plain averages, not skewed to the first sample
+        double aRecent = Math.max(t.getRecentAlpha(), 1.0 / samples);
+        double aBaseline = Math.max(t.getBaselineAlpha(), 1.0 / samples);
+
+        lastBaselineMean = baselineMean;
+        lastBaselineP95 = digest.quantile(0.95);
+        recentMean = samples == 1 ? ms : recentMean + aRecent * (ms - recentMean);
+        slowStreak = ms > lastBaselineP95 ? slowStreak + 1 : 0;
+
+        boolean significant = false;
+        lastZ = 0;
+        if (samples > t.getMinSamples()) {
+            // standard error of an EWMA of iid samples: sigma * sqrt(alpha / (2 - alpha))
+            double se = Math.sqrt(Math.max(baselineVar, 1.0) * t.getRecentAlpha() / (2 - t.getRecentAlpha()));
+            lastZ = (recentMean - baselineMean) / se;
+            significant = lastZ >= t.getZThreshold()
+                    && recentMean >= baselineMean * (1 + t.getMinRatio())
+                    && recentMean - baselineMean >= t.getMinDeltaMs()
+                    && slowStreak >= t.getMinSlowRuns();
+        }
+
+        if (samples == 1) {
+            baselineMean = ms;
+            baselineVar = 0;
+        } else {
+            double diff = ms - baselineMean;
+            double increment = aBaseline * diff;
+            baselineMean += increment;
+            baselineVar = (1 - aBaseline) * (baselineVar + diff * increment);
+        }
+        digest.add(ms);
+        if (digest.totalWeight() > t.getWindow()) {
+            digest.decay(0.5);
+        }
+
+        boolean onset = significant && !regressed;
+        if (significant) {
+            regressed = true;
+        } else if (regressed && lastZ < t.getZThreshold() / 2) {
+            regressed = false;
+        }
+        return onset;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public double getBaselineMean() {
+        return baselineMean;
+    }
+
+    public double getBaselineVar() {
+        return baselineVar;
+    }
+
+    public double getRecentMean() {
+        return recentMean;
+    }
+
+    public int getSlowStreak() {
+        return slowStreak;
+    }
+
+    public boolean isRegressed() {
+        return regressed;
+    }
+
+    public TDigest getDigest() {
+        return digest;
+    }
+
+    /** z of the last sample's recent mean against the baseline before it. */
+    public double getLastZ() {
+        return lastZ;
+    }
+
+    /** Baseline mean before the last sample. */
+    public double getLastBaselineMean() {
+        return lastBaselineMean;
+    }
+
+    /** Baseline p95 before the last sample. */
+    public double getLastBaselineP95() {
+        return lastBaselineP95;
+    }
+}
@@ -0,0 +1,68 @@
+package com.automatedtest.platform.stats;
+
+/**
+ * Settings of the duration regression test, shared by every case.
+ */
+public class DurationThresholds {
+
+    /** Weight of a new sample in the baseline mean / variance. */
+    private final double baselineAlpha;
+    /** Weight of a new sample in the recent mean the baseline is compared with. */
+    private final double recentAlpha;
+    /** Samples a case needs before it can be flagged. */
+    private final int minSamples;
+    /** Standard errors the recent mean must lie above the baseline. */
+    private final double zThreshold;
+    /** Relative slowdown required on top, e.g. 0.2 for 20%. */
+    private final double minRatio;
+    /** Absolute slowdown required on top, in ms. */
+    private final double minDeltaMs;
+    /** Consecutive runs above the baseline p95 required. */
+    private final int minSlowRuns;
+    /** Weight at which the percentile digest is halved. */
+    private final double window;
+
+    public DurationThresholds(double baselineAlpha, double recentAlpha, int minSamples, double zThreshold,
+                              double minRatio, double minDeltaMs, int minSlowRuns, double window) {
+        this.baselineAlpha = baselineAlpha;
+        this.recentAlpha = recentAlpha;
+        this.minSamples = minSamples;
+        this.zThreshold = zThreshold;
+        this.minRatio = minRatio;
+        this.minDeltaMs = minDeltaMs;
+        this.minSlowRuns = minSlowRuns;
+        this.window = window;
+    }
+
+    public double getBaselineAlpha() {
+        return baselineAlpha;
+    }
+
+    public double getRecentAlpha() {
+        return recentAlpha;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public double getZThreshold() {
+        return zThreshold;
+    }
+
+    public double getMinRatio() {
+        return minRatio;
+    }
+
+    public double getMinDeltaMs() {
+        return minDeltaMs;
+    }
+
+    public int getMinSlowRuns() {
+        return minSlowRuns;
+    }
+
+    public double getWindow() {
+        return window;
+    }
+}
@@ -0,0 +1,148 @@
+package com.automatedtest.platform.stats;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Pass / fail history of one case folded into a few counters, one report at a time in
+ * report order.
+ *
+ * Only consecutive runs close together in time (within the window) are compared: when days
+ * lie between two runs the code or the environment has usually changed, and a status change
+ * is a real break or fix rather than flakiness. Within the window:
+ * <ul>
+ *     <li>flipRate is the share of consecutive pairs whose status differs;</li>
+ *     <li>bounces counts pass, fail, pass sequences, the clearest sign of a flaky case;</li>
+ *     <li>flakiness is an exponentially weighted flip rate, so it follows recent behaviour
+ *     and decays once a case has been fixed. A case that always fails scores 0.</li>
+ * </ul>
+ */
+public class FlakinessTracker {
+
+    public static final String PASSED = "success";
+    public static final String FAILED = "failed";
+
+    private long runs;
+    private long failures;
+    private long comparablePairs;
+    private long transitions;
+    private long bounces;
+    private int failStreak;
+    private int maxFailStreak;
+    private String lastStatus;
+    private String prevStatus;
+    /** Whether lastStatus and prevStatus were within the window of each other. */
+    private boolean chainInWindow;
+    private LocalDateTime lastExecutedAt;
+    private double flakiness;
+
+    public FlakinessTracker() {
+    }
+
+    public FlakinessTracker(long runs, long failures, long comparablePairs, long transitions, long bounces, int failStreak,
+                            int maxFailStreak, String lastStatus, String prevStatus, boolean chainInWindow,
+                            LocalDateTime lastExecutedAt, double flakiness) {
+        this.runs = runs;
+        this.failures = failures;
+        this.comparablePairs = comparablePairs;
+        this.transitions = transitions;
+        this.bounces = bounces;
+        this.failStreak = failStreak;
+        this.maxFailStreak = maxFailStreak;
+        this.lastStatus = lastStatus;
+        this.prevStatus = prevStatus;
+        this.chainInWindow = chainInWindow;
+        this.lastExecutedAt = lastExecutedAt;
+        this.flakiness = flakiness;
+    }
+
+    /**
+     * Folds in one report; statuses other than success and failed are ignored.
+     */
+    public void observe(String status, LocalDateTime executedAt, Duration window, double alpha) {
+        if (!PASSED.equals(status) && !FAILED.equals(status)) {
+            return;
+        }
+        boolean failed = FAILED.equals(status);
+        runs++;
+        if (failed) {
+            failures++;
+            failStreak++;
+            maxFailStreak = Math.max(maxFailStreak, failStreak);
+        } else {
+            failStreak = 0;
+        }
+
+        boolean inWindow = lastStatus != null && lastExecutedAt != null && executedAt != null
+                && !executedAt.isAfter(lastExecutedAt.plus(window));
+        if (inWindow) {
+            boolean flipped = !status.equals(lastStatus);
+            comparablePairs++;
+            if (flipped) {
+                transitions++;
+            }
+            flakiness += alpha * ((flipped ? 1 : 0) - flakiness);
+            if (!failed && FAILED.equals(lastStatus) && PASSED.equals(prevStatus) && chainInWindow) {
+                bounces++;
+            }
+        }
+        prevStatus = lastStatus;
+        lastStatus = status;
+        chainInWindow = inWindow;
+        if (executedAt != null) {
+            lastExecutedAt = executedAt;
+        }
+    }
+
+    public double flipRate() {
+        return comparablePairs > 0 ? (double) transitions / comparablePairs : 0;
+    }
+
+    public long getRuns() {
+        return runs;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getComparablePairs() {
+        return comparablePairs;
+    }
+
+    public long getTransitions() {
+        return transitions;
+    }
+
+    public long getBounces() {
+        return bounces;
+    }
+
+    public int getFailStreak() {
+        return failStreak;
+    }
+
+    public int getMaxFailStreak() {
+        return maxFailStreak;
+    }
+
+    public String getLastStatus() {
+        return lastStatus;
+    }
+
+    public String getPrevStatus() {
+        return prevStatus;
+    }
+
+    public boolean isChainInWindow() {
+        return chainInWindow;
+    }
+
+    public LocalDateTime getLastExecutedAt() {
+        return lastExecutedAt;
+    }
+
+    public double getFlakiness() {
+        return flakiness;
+    }
+}
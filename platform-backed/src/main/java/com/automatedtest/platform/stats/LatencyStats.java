@@ -0,0 +1,51 @@
+package com.automatedtest.platform.stats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Response times of one operation since start-up: count, mean, maximum, last value and
+ * percentiles from a t-digest. Cache hits are counted separately and add no sample, so the
+ * percentiles describe the work actually done.
+ */
+public class LatencyStats {
+
+    private final TDigest digest = new TDigest(100);
+    private long requests;
+    private long samples;
+    private double totalMs;
+    private double maxMs;
+    private double lastMs;
+
+    /** A request answered without doing the work. */
+    public synchronized void hit() {
+        requests++;
+    }
+
+    public synchronized void record(double ms) {
+        requests++;
+        samples++;
+        totalMs += ms;
+        maxMs = Math.max(maxMs, ms);
+        lastMs = ms;
+        digest.add(ms);
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("requests", requests);
+        snapshot.put("loads", samples);
+        snapshot.put("hitRate", requests > 0 ? round((requests - samples) / (double) requests) : 0.0);
+        snapshot.put("avgMs", samples > 0 ? round(totalMs / samples) : null);
+        snapshot.put("p50Ms", samples > 0 ? round(digest.quantile(0.5)) : null);
+        snapshot.put("p95Ms", samples > 0 ? round(digest.quantile(0.95)) : null);
+        snapshot.put("p99Ms", samples > 0 ? round(digest.quantile(0.99)) : null);
+        snapshot.put("maxMs", samples > 0 ? round(maxMs) : null);
+        snapshot.put("lastMs", samples > 0 ? round(lastMs) : null);
+        return snapshot;
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,210 @@
+package com.automatedtest.platform.stats;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Merging t-digest (Dunning): a few hundred weighted centroids that answer quantile queries
+ * on an unbounded stream, accurate at the tails where latency percentiles are read. Small
+ * enough to be stored per case as a blob and updated one sample at a time.
+ *
+ * {@link #decay} scales every weight down, so old samples fade out the same way they do in
+ * an exponentially weighted mean.
+ */
+public class TDigest {
+
+    private static final int FORMAT = 1;
+
+    private final double compression;
+    private double[] means;
+    private double[] weights;
+    private int count;
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    private final double[] buffer;
+    private int buffered;
+
+    public TDigest(double compression) {
+        this.compression = Math.max(10, compression);
+        int capacity = (int) Math.ceil(this.compression) * 2 + 10;
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.buffer = new double[capacity * 4];
+    }
+
+    public void add(double x) {
+        if (Double.isNaN(x)) {
+            return;
+        }
+        if (buffered == buffer.length) {
+            merge();
+        }
+        buffer[buffered++] = x;
+        min = Math.min(min, x);
+        max = Math.max(max, x);
+    }
+
+    public double totalWeight() {
+        merge();
+        return totalWeight;
+    }
+
+    public int centroids() {
+        merge();
+        return count;
+    }
+
+    /**
+     * Value at quantile q in [0, 1], interpolated between centroid centres; NaN when empty.
+     */
+    public double quantile(double q) {
+        merge();
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count == 1) {
+            return means[0];
+        }
+        double index = Math.min(1, Math.max(0, q)) * totalWeight;
+        double firstHalf = weights[0] / 2;
+        if (index < firstHalf) {
+            return min + (means[0] - min) * index / firstHalf;
+        }
+        double cumulative = firstHalf;
+        for (int i = 0; i < count - 1; i++) {
+            double gap = (weights[i] + weights[i + 1]) / 2;
+            if (cumulative + gap >= index) {
+                double t = gap > 0 ? (index - cumulative) / gap : 0;
+                return means[i] + t * (means[i + 1] - means[i]);
+            }
+            cumulative += gap;
+        }
+        double lastHalf = weights[count - 1] / 2;
+        double t = lastHalf > 0 ? Math.min(1, (index - cumulative) / lastHalf) : 0;
+        return means[count - 1] + t * (max - means[count - 1]);
+    }
+
+    /**
+     * Multiplies all weights by factor (0 &lt; factor &lt; 1). min and max are kept as they are.
+     */
+    public void decay(double factor) {
+        merge();
+        for (int i = 0; i < count; i++) {
+            weights[i] *= factor;
+        }
+        totalWeight *= factor;
+    }
+
+    private void merge() {
+        if (buffered == 0) {
+            return;
+        }
+        int n = count + buffered;
+        double[] allMeans = new double[n];
+        double[] allWeights = new double[n];
+        System.arraycopy(means, 0, allMeans, 0, count);
+        System.arraycopy(weights, 0, allWeights, 0, count);
+        for (int i = 0; i < buffered; i++) {
+            allMeans[count + i] = buffer[i];
+            allWeights[count + i] = 1;
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+
+        double total = totalWeight + buffered;
+        double[] outMeans = new double[n];
+        double[] outWeights = new double[n];
+        int out = 0;
+        double mergedBefore = 0;
+        double kLeft = scale(0);
+        double curMean = allMeans[order[0]];
+        double curWeight = allWeights[order[0]];
+        for (int k = 1; k < n; k++) {
+            int i = order[k];
+            double proposed = curWeight + allWeights[i];
+            // a centroid may span at most one unit of the k1 scale, so those near the tails stay small
+            if (scale((mergedBefore + proposed) / total) - kLeft <= 1) {
+                curMean += (allMeans[i] - curMean) * allWeights[i] / proposed;
+                curWeight = proposed;
+            } else {
+                outMeans[out] = curMean;
+                outWeights[out++] = curWeight;
+                mergedBefore += curWeight;
+                kLeft = scale(mergedBefore / total);
+                curMean = allMeans[i];
+                curWeight = allWeights[i];
+            }
+        }
+        outMeans[out] = curMean;
+        outWeights[out++] = curWeight;
+
+        if (out > means.length) {
+            means = new double[out];
+            weights = new double[out];
+        }
+        System.arraycopy(outMeans, 0, means, 0, out);
+        System.arraycopy(outWeights, 0, weights, 0, out);
+        count = out;
+        totalWeight = total;
+        buffered = 0;
+    }
+
+    /**
+     * k1 scale function: compression / 2pi * asin(2q - 1).
+     */
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(Math.min(1, Math.max(-1, 2 * q - 1)));
+    }
+
+    public byte[] toBytes() {
+        merge();
+        ByteBuffer buf = ByteBuffer.allocate(4 + 8 * 3 + 4 + count * 16);
+        buf.putInt(FORMAT);
+        buf.putDouble(compression);
+        buf.putDouble(min);
+        buf.putDouble(max);
+        buf.putInt(count);
+        for (int i = 0; i < count; i++) {
+            buf.putDouble(means[i]);
+            buf.putDouble(weights[i]);
+        }
+        return buf.array();
+    }
+
+    /**
+     * Reads a digest written by {@link #toBytes}; an empty digest of the given compression
+     * for null or unreadable input.
+     */
+    public static TDigest fromBytes(byte[] bytes, double compression) {
+        if (bytes == null || bytes.length < 32) {
+            return new TDigest(compression);
+        }
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        if (buf.getInt() != FORMAT) {
+            return new TDigest(compression);
+        }
+        TDigest digest = new TDigest(buf.getDouble());
+        digest.min = buf.getDouble();
+        digest.max = buf.getDouble();
+        int n = buf.getInt();
+        if (n < 0 || buf.remaining() < n * 16) {
+            return new TDigest(compression);
+        }
+        if (n > digest.means.length) {
+            digest.means = new double[n];
+            digest.weights = new double[n];
+        }
+        for (int i = 0; i < n; i++) {
+            digest.means[i] = buf.getDouble();
+            digest.weights[i] = buf.getDouble();
+            digest.totalWeight += digest.weights[i];
+        }
+        digest.count = n;
+        return digest;
+    }
+}
@@ -0,0 +1,162 @@
+package com.automatedtest.platform.storage;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores each distinct log once as a gzip file named after its SHA-256, sharded by the
+ * first two byte pairs of the hash (ab/cd/abcd....gz). Files are written to a temp name
+ * and moved into place, so readers never see partial content. Putting content that is
+ * already there refreshes the file's modification time, which is what {@link #delete}
+ * goes by.
+ */
+public class LocalLogBlobStore implements LogBlobStore {
+
+    private static final String PREFIX = "sha256:";
+
+    private final Path root;
+
+    /** Orders reuse of an existing blob against its deletion. */
+    private final Object lock = new Object();
+
+    public LocalLogBlobStore(String rootDir) {
+        this.root = Paths.get(rootDir).toAbsolutePath();
+    }
+
+    @Override
+    public String put(byte[] content) throws IOException {
+        String hash = sha256(content);
+        Path target = pathOf(hash);
+        if (Files.exists(target)) {
+            synchronized (lock) {
+                try {
+                    Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                    return PREFIX + hash;
+                } catch (NoSuchFileException e) {
+                    // collected in the meantime, write it again
+                }
+            }
+        }
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), hash, ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), 8192)) {
+                out.write(content);
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // written by a concurrent put of the same content
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return PREFIX + hash;
+    }
+
+    @Override
+    public InputStream open(String ref) throws IOException {
+        Path path = pathOf(hashOf(ref));
+        if (!Files.exists(path)) {
+            throw new FileNotFoundException("log blob not found: " + ref);
+        }
+        return new GZIPInputStream(Files.newInputStream(path), 8192);
+    }
+
+    @Override
+    public boolean exists(String ref) {
+        try {
+            return Files.exists(pathOf(hashOf(ref)));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void forEachOlderThan(Instant before, Consumer<String> visitor) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root, 3)) {
+            Iterator<Path> it = files.iterator();
+            while (it.hasNext()) {
+                Path path = it.next();
+                String name = path.getFileName().toString();
+                if (!name.endsWith(".gz") || !Files.isRegularFile(path)) {
+                    continue;
+                }
+                String ref = PREFIX + name.substring(0, name.length() - 3);
+                try {
+                    hashOf(ref);
+                    if (Files.getLastModifiedTime(path).toInstant().isBefore(before)) {
+                        visitor.accept(ref);
+                    }
+                } catch (IllegalArgumentException | NoSuchFileException e) {
+                    // not a blob, or removed since the walk listed it
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean delete(String ref, Instant unusedSince) throws IOException {
+        Path path = pathOf(hashOf(ref));
+        synchronized (lock) {
+            try {
+                if (!Files.getLastModifiedTime(path).toInstant().isBefore(unusedSince)) {
+                    return false;
+                }
+                return Files.deleteIfExists(path);
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+        }
+    }
+
+    private Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash + ".gz");
+    }
+
+    private static String hashOf(String ref) {
+        if (ref == null || !ref.startsWith(PREFIX) || ref.length() != PREFIX.length() + 64) {
+            throw new IllegalArgumentException("invalid log reference: " + ref);
+        }
+        String hash = ref.substring(PREFIX.length());
+        for (int i = 0; i < hash.length(); i++) {
+            if (Character.digit(hash.charAt(i), 16) < 0) {
+                throw new IllegalArgumentException("invalid log reference: " + ref);
+            }
+        }
+        return hash.toLowerCase();
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.automatedtest.platform.storage;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps archives as gzip files below a root directory. Content is written to a temp file
+ * next to the target and moved into place on commit, so a crash never leaves a truncated
+ * archive under its real name.
+ */
+public class LocalReportArchiveStore implements ReportArchiveStore {
+
+    private static final Pattern VALID_NAME = Pattern.compile("[A-Za-z0-9_\\-]+(/[A-Za-z0-9_\\-][A-Za-z0-9_.\\-]*)*");
+
+    private final Path root;
+
+    public LocalReportArchiveStore(String rootDir) {
+        this.root = Paths.get(rootDir).toAbsolutePath();
+    }
+
+    @Override
+    public Output create(String name) throws IOException {
+        Path target = pathOf(name);
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        OutputStream out;
+        try {
+            out = new GZIPOutputStream(Files.newOutputStream(tmp), 65536);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return new Output() {
+            private boolean committed;
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void commit() throws IOException {
+                out.close();
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                committed = true;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (committed) {
+                    return;
+                }
+                try {
+                    out.close();
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+            }
+        };
+    }
+
+    @Override
+    public InputStream open(String name) throws IOException {
+        Path path = pathOf(name);
+        if (!Files.exists(path)) {
+            throw new FileNotFoundException("report archive not found: " + name);
+        }
+        return new GZIPInputStream(Files.newInputStream(path), 65536);
+    }
+
+    @Override
+    public boolean exists(String name) {
+        try {
+            return Files.exists(pathOf(name));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean delete(String name) throws IOException {
+        return Files.deleteIfExists(pathOf(name));
+    }
+
+    private Path pathOf(String name) {
+        if (name == null || !VALID_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("invalid archive name: " + name);
+        }
+        return root.resolve(name);
+    }
+}
@@ -0,0 +1,38 @@
+package com.automatedtest.platform.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Content-addressed storage for report logs. Identical content is stored once and
+ * always gets the same reference, so implementations must be safe to call concurrently
+ * with the same content.
+ */
+public interface LogBlobStore {
+
+    /**
+     * Stores the content (if not already present) and returns its reference.
+     */
+    String put(byte[] content) throws IOException;
+
+    /**
+     * Opens the uncompressed content of a reference; the caller closes the stream.
+     */
+    InputStream open(String ref) throws IOException;
+
+    boolean exists(String ref);
+
+    /**
+     * Calls the visitor with every stored reference last written or reused before the given
+     * time. The visitor may delete the blobs it is handed.
+     */
+    void forEachOlderThan(Instant before, Consumer<String> visitor) throws IOException;
+
+    /**
+     * Removes a blob unless it was written or reused at or after unusedSince, so content put
+     * again while a sweep runs survives it. Returns whether the blob was removed.
+     */
+    boolean delete(String ref, Instant unusedSince) throws IOException;
+}
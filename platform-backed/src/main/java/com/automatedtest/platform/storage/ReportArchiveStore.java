@@ -0,0 +1,38 @@
+package com.automatedtest.platform.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Cold storage for exported reports. An archive is written in one go and only becomes
+ * visible under its name once committed; closing an uncommitted archive discards it.
+ */
+public interface ReportArchiveStore {
+
+    abstract class Output extends OutputStream {
+
+        /**
+         * Publishes the written content under the archive name, replacing an older archive
+         * of the same name.
+         */
+        public abstract void commit() throws IOException;
+    }
+
+    /**
+     * Starts writing an archive; name is a relative path such as "project-3/2024-01.jsonl.gz".
+     */
+    Output create(String name) throws IOException;
+
+    /**
+     * Opens the uncompressed content of an archive; the caller closes the stream.
+     */
+    InputStream open(String name) throws IOException;
+
+    boolean exists(String name);
+
+    /**
+     * Removes an archive; returns false if there was none under that name.
+     */
+    boolean delete(String name) throws IOException;
+}
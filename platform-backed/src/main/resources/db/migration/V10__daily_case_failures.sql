@@ -0,0 +1,15 @@
+-- Per-case failure counts on the daily case rollup, so "top failed cases" of a date window is
+-- an aggregate over at most one row per case and day instead of every failed report.
+
+CALL add_column_if_missing('report_daily_cases', 'failed', 'int(11) NOT NULL DEFAULT 0');
+CALL add_column_if_missing('report_daily_cases', 'last_failed_at', 'datetime DEFAULT NULL');
+
+UPDATE report_daily_cases d
+JOIN (SELECT COALESCE(project_id, 0) AS project_id, DATE(executed_at) AS stat_date, case_id,
+             COUNT(*) AS failed, MAX(executed_at) AS last_failed_at
+      FROM test_reports
+      WHERE case_id IS NOT NULL AND executed_at IS NOT NULL AND COALESCE(status, '') <> 'success'
+      GROUP BY COALESCE(project_id, 0), DATE(executed_at), case_id) f
+  ON f.project_id = d.project_id AND f.stat_date = d.stat_date AND f.case_id = d.case_id
+SET d.failed = f.failed,
+    d.last_failed_at = f.last_failed_at;
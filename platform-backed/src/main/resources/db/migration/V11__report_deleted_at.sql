@@ -0,0 +1,10 @@
+-- When a report was soft-deleted, so the grace period before it is purged for good runs
+-- from the deletion and not from when the report was executed. Reports deleted before
+-- this column existed start their grace period now.
+
+CALL add_column_if_missing('test_reports', 'deleted_at', 'datetime DEFAULT NULL');
+
+UPDATE test_reports SET deleted_at = NOW() WHERE is_deleted = 1 AND deleted_at IS NULL;
+
+-- retention: WHERE is_deleted = 1 AND deleted_at < ?
+CALL add_index_if_missing('test_reports', 'idx_deleted_at', 'is_deleted, deleted_at');
@@ -0,0 +1,3 @@
+-- Collecting unreferenced log blobs looks up a batch of references at a time in
+-- test_reports.logs_ref; without this index every batch would scan the whole table.
+CALL add_index_if_missing('test_reports', 'idx_logs_ref', 'logs_ref');
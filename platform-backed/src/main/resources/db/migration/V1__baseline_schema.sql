@@ -0,0 +1,435 @@
+-- Consolidated schema of the platform, replacing init.sql and the loose alter/update scripts.
+--
+-- Safe on a database built from those scripts: tables are created only if missing and
+-- columns added later in the project's history are added only if missing, so an existing
+-- installation is brought to the same shape as a fresh one.
+
+DROP PROCEDURE IF EXISTS add_column_if_missing;
+DROP PROCEDURE IF EXISTS add_index_if_missing;
+
+DELIMITER $$
+
+CREATE PROCEDURE add_column_if_missing(IN tbl VARCHAR(64), IN col VARCHAR(64), IN definition VARCHAR(500))
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM INFORMATION_SCHEMA.COLUMNS
+                 WHERE table_schema = DATABASE() AND table_name = tbl AND column_name = col) THEN
+    SET @ddl = CONCAT('ALTER TABLE `', tbl, '` ADD COLUMN `', col, '` ', definition);
+    PREPARE stmt FROM @ddl;
+    EXECUTE stmt;
+    DEALLOCATE PREPARE stmt;
+  END IF;
+END $$
+
+CREATE PROCEDURE add_index_if_missing(IN tbl VARCHAR(64), IN idx VARCHAR(64), IN cols VARCHAR(500))
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM INFORMATION_SCHEMA.STATISTICS
+                 WHERE table_schema = DATABASE() AND table_name = tbl AND index_name = idx) THEN
+    SET @ddl = CONCAT('ALTER TABLE `', tbl, '` ADD KEY `', idx, '` (', cols, ')');
+    PREPARE stmt FROM @ddl;
+    EXECUTE stmt;
+    DEALLOCATE PREPARE stmt;
+  END IF;
+END $$
+
+DELIMITER ;
+
+-- ---------------------------------------------------------------------------
+-- Users and access
+-- ---------------------------------------------------------------------------
+
+CREATE TABLE IF NOT EXISTS `users` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `username` varchar(50) NOT NULL,
+  `password` varchar(100) NOT NULL,
+  `role` varchar(20) DEFAULT 'user',
+  `nickname` varchar(255) DEFAULT NULL,
+  `email` varchar(255) DEFAULT NULL,
+  `phone` varchar(255) DEFAULT NULL,
+  `avatar` varchar(500) DEFAULT NULL,
+  `notification_webhook` varchar(255) DEFAULT NULL COMMENT 'Webhook通知地址',
+  `enable_notification` tinyint(1) DEFAULT 0 COMMENT '是否开启通知',
+  `notification_rule` varchar(20) DEFAULT NULL,
+  `notification_threshold` int(11) DEFAULT NULL,
+  `max_teams` int(11) NOT NULL DEFAULT 5,
+  `max_projects` int(11) NOT NULL DEFAULT 10,
+  `last_login_at` datetime DEFAULT NULL,
+  `last_login_ip` varchar(50) DEFAULT NULL,
+  `created_at` datetime DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_username` (`username`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CALL add_column_if_missing('users', 'nickname', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('users', 'email', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('users', 'phone', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('users', 'avatar', 'varchar(500) DEFAULT NULL');
+CALL add_column_if_missing('users', 'notification_webhook', 'varchar(255) DEFAULT NULL');
+CALL add_column_if_missing('users', 'enable_notification', 'tinyint(1) DEFAULT 0');
+CALL add_column_if_missing('users', 'notification_rule', 'varchar(20) DEFAULT NULL');
+CALL add_column_if_missing('users', 'notification_threshold', 'int(11) DEFAULT NULL');
+CALL add_column_if_missing('users', 'max_teams', 'int(11) NOT NULL DEFAULT 5');
+CALL add_column_if_missing('users', 'max_projects', 'int(11) NOT NULL DEFAULT 10');
+CALL add_column_if_missing('users', 'last_login_at', 'datetime DEFAULT NULL');
+CALL add_column_if_missing('users', 'last_login_ip', 'varchar(50) DEFAULT NULL');
+CALL add_column_if_missing('users', 'updated_at', 'datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP');
+
+CREATE TABLE IF NOT EXISTS `user_api_keys` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `user_id` bigint(20) NOT NULL,
+  `name` varchar(50) NOT NULL COMMENT 'Key Name',
+  `access_key` varchar(64) NOT NULL COMMENT 'Access Key',
+  `status` tinyint(4) DEFAULT 1 COMMENT '1:Active 0:Revoked',
+  `last_used_at` datetime DEFAULT NULL,
+  `created_at` datetime DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_access_key` (`access_key`),
+  KEY `idx_user_id` (`user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CALL add_column_if_missing('user_api_keys', 'last_used_at', 'datetime DEFAULT NULL');
+
+CREATE TABLE IF NOT EXISTS `user_variables` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `user_id` bigint(20) NOT NULL,
+  `key_name` varchar(255) NOT NULL,
+  `value` text,
+  `description` varchar(500) DEFAULT NULL,
+  `created_at` datetime DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `unique_user_key` (`user_id`, `key_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS `login_logs` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `user_id` bigint(20) NOT NULL,
+  `username` varchar(255) NOT NULL,
+  `ip_address` varchar(50) DEFAULT NULL,
+  `location` varchar(255) DEFAULT NULL,
+  `device` varchar(255) DEFAULT NULL,
+  `status` varchar(50) DEFAULT NULL,
+  `login_time` datetime DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS `operation_logs` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `user_id` bigint(20) DEFAULT NULL COMMENT 'User ID',
+  `username` varchar(255) DEFAULT NULL COMMENT 'Username',
+  `module` varchar(50) DEFAULT NULL COMMENT 'Module',
+  `operation` varchar(50) DEFAULT NULL COMMENT 'Operation Type',
+  `target` varchar(255) DEFAULT NULL COMMENT 'Target Object',
+  `details` text COMMENT 'Details',
+  `ip_address` varchar(50) DEFAULT NULL COMMENT 'IP Address',
+  `created_at` datetime DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS `permission_requests` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `user_id` int(11) NOT NULL,
+  `project_id` int(11) DEFAULT NULL,
+  `request_type` varchar(50) NOT NULL,
+  `description` varchar(255) DEFAULT NULL,
+  `status` varchar(20) NOT NULL DEFAULT 'pending',
+  `created_at` datetime DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ---------------------------------------------------------------------------
+-- Teams and projects
+-- ---------------------------------------------------------------------------
+
+CREATE TABLE IF NOT EXISTS `teams` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `name` varchar(100) NOT NULL COMMENT 'Team Name',
+  `description` varchar(500) DEFAULT NULL COMMENT 'Description',
+  `created_by` int(11) NOT NULL COMMENT 'Creator User ID',
+  `is_deleted` tinyint(1) DEFAULT 0,
+  `created_at` datetime DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Team Table';
+
+CALL add_column_if_missing('teams', 'is_deleted', 'tinyint(1) DEFAULT 0');
+
+CREATE TABLE IF NOT EXISTS `team_members` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `team_id` int(11) NOT NULL COMMENT 'Team ID',
+  `user_id` int(11) NOT NULL COMMENT 'User ID',
+  `role` varchar(50) NOT NULL DEFAULT 'member' COMMENT 'Role: admin, member',
+  `joined_at` datetime DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_team_user` (`team_id`, `user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Team Members Table';
+
+CREATE TABLE IF NOT EXISTS `projects` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `team_id` int(11) DEFAULT NULL COMMENT 'Team ID',
+  `name` varchar(100) NOT NULL,
+  `description` varchar(500) DEFAULT NULL,
+  `status` varchar(20) DEFAULT 'active',
+  `is_deleted` tinyint(1) DEFAULT 0,
+  `health_score` double DEFAULT NULL,
+  `is_public` tinyint(1) DEFAULT 0,
+  `created_by` int(11) NOT NULL,
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CALL add_column_if_missing('projects', 'team_id', 'int(11) DEFAULT NULL COMMENT ''Team ID''');
+CALL add_column_if_missing('projects', 'status', 'varchar(20) DEFAULT ''active''');
+CALL add_column_if_missing('projects', 'is_deleted', 'tinyint(1) DEFAULT 0');
+CALL add_column_if_missing('projects', 'health_score', 'double DEFAULT NULL');
+CALL add_column_if_missing('projects', 'is_public', 'tinyint(1) DEFAULT 0');
+
+CREATE TABLE IF NOT EXISTS `project_members` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `project_id` int(11) NOT NULL,
+  `user_id` int(11) NOT NULL,
+  `role` varchar(50) NOT NULL DEFAULT 'member',
+  `joined_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_project_user` (`project_id`, `user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS `project_api_keys` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `project_id` int(11) NOT NULL,
+  `user_id` int(11) NOT NULL,
+  `api_key` varchar(64) NOT NULL,
+  `description` varchar(200) DEFAULT NULL,
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  `expires_at` datetime DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_api_key` (`api_key`),
+  KEY `idx_project_user` (`project_id`, `user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS `project_variables` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `project_id` int(11) NOT NULL,
+  `key_name` varchar(100) NOT NULL,
+  `value` text,
+  `description` varchar(500) DEFAULT NULL,
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_project_key` (`project_id`, `key_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS `system_variables` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `key_name` varchar(100) NOT NULL COMMENT 'Variable Key',
+  `value` text NOT NULL COMMENT 'Variable Value',
+  `description` varchar(255) DEFAULT NULL,
+  `created_at` datetime DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_key` (`key_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='System Global Variables';
+
+CREATE TABLE IF NOT EXISTS `environments` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `name` varchar(50) NOT NULL,
+  `key_name` varchar(50) NOT NULL,
+  `base_url` varchar(200) DEFAULT NULL,
+  `database_name` varchar(100) DEFAULT NULL,
+  `active` tinyint(1) DEFAULT 0,
+  `project_id` int(11) DEFAULT NULL,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CALL add_column_if_missing('environments', 'project_id', 'int(11) DEFAULT NULL');
+
+-- ---------------------------------------------------------------------------
+-- Cases, plans and reports
+-- ---------------------------------------------------------------------------
+
+CREATE TABLE IF NOT EXISTS `test_cases` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `project_id` int(11) DEFAULT NULL,
+  `name` varchar(100) NOT NULL,
+  `description` text,
+  `type` varchar(20) NOT NULL COMMENT 'API, WEB, APP',
+  `status` varchar(20) DEFAULT 'active' COMMENT 'active, inactive, draft',
+  `priority` varchar(20) DEFAULT 'medium' COMMENT 'high, medium, low',
+  `content` longtext COMMENT 'JSON of an API case or script text',
+  `environment` varchar(50) DEFAULT NULL,
+  `last_run` datetime DEFAULT NULL,
+  `last_result` varchar(20) DEFAULT NULL,
+  `created_by` int(11) DEFAULT NULL,
+  `created_at` datetime DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CALL add_column_if_missing('test_cases', 'project_id', 'int(11) DEFAULT NULL');
+
+CREATE TABLE IF NOT EXISTS `test_plans` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `project_id` int(11) DEFAULT NULL,
+  `name` varchar(100) NOT NULL,
+  `description` text,
+  `status` varchar(20) DEFAULT 'active',
+  `cron_expression` varchar(50) DEFAULT NULL,
+  `environment` varchar(50) DEFAULT NULL,
+  `test_case_ids` text,
+  `flow_json` longtext,
+  `api_id` varchar(64) DEFAULT NULL,
+  `allow_open_api` tinyint(1) DEFAULT 0,
+  `smoke` tinyint(1) NOT NULL DEFAULT 0,
+  `last_run_status` varchar(50) DEFAULT NULL COMMENT 'Last execution status',
+  `last_run_time` datetime DEFAULT NULL COMMENT 'Last execution time',
+  `created_by` int(11) DEFAULT NULL,
+  `created_at` datetime DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CALL add_column_if_missing('test_plans', 'project_id', 'int(11) DEFAULT NULL');
+CALL add_column_if_missing('test_plans', 'created_by', 'int(11) DEFAULT NULL');
+CALL add_column_if_missing('test_plans', 'flow_json', 'longtext');
+CALL add_column_if_missing('test_plans', 'api_id', 'varchar(64) DEFAULT NULL');
+CALL add_column_if_missing('test_plans', 'allow_open_api', 'tinyint(1) DEFAULT 0');
+CALL add_column_if_missing('test_plans', 'smoke', 'tinyint(1) NOT NULL DEFAULT 0');
+CALL add_column_if_missing('test_plans', 'last_run_status', 'varchar(50) DEFAULT NULL');
+CALL add_column_if_missing('test_plans', 'last_run_time', 'datetime DEFAULT NULL');
+
+CREATE TABLE IF NOT EXISTS `test_reports` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `project_id` int(11) DEFAULT NULL,
+  `plan_id` int(11) DEFAULT NULL,
+  `plan_run_no` int(11) DEFAULT NULL COMMENT '第几次执行同一个计划，从 1 开始',
+  `case_id` int(11) DEFAULT NULL,
+  `status` varchar(20) DEFAULT NULL COMMENT 'success, failed',
+  `execution_time` int(11) DEFAULT NULL COMMENT 'in ms',
+  `logs` longtext,
+  `logs_ref` varchar(80) DEFAULT NULL,
+  `logs_size` int(11) DEFAULT NULL,
+  `logs_preview` varchar(512) DEFAULT NULL,
+  `trigger_type` varchar(20) DEFAULT NULL COMMENT 'manual, schedule, openapi',
+  `asserts_total` int(11) DEFAULT NULL,
+  `asserts_passed` int(11) DEFAULT NULL,
+  `asserts_failed` int(11) DEFAULT NULL,
+  `is_deleted` tinyint(1) DEFAULT 0,
+  `executed_at` datetime DEFAULT CURRENT_TIMESTAMP,
+  `executed_by` varchar(50) DEFAULT NULL,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CALL add_column_if_missing('test_reports', 'project_id', 'int(11) DEFAULT NULL');
+CALL add_column_if_missing('test_reports', 'case_id', 'int(11) DEFAULT NULL');
+CALL add_column_if_missing('test_reports', 'logs_ref', 'varchar(80) DEFAULT NULL');
+CALL add_column_if_missing('test_reports', 'logs_size', 'int(11) DEFAULT NULL');
+CALL add_column_if_missing('test_reports', 'logs_preview', 'varchar(512) DEFAULT NULL');
+CALL add_column_if_missing('test_reports', 'trigger_type', 'varchar(20) DEFAULT NULL');
+CALL add_column_if_missing('test_reports', 'asserts_total', 'int(11) DEFAULT NULL');
+CALL add_column_if_missing('test_reports', 'asserts_passed', 'int(11) DEFAULT NULL');
+CALL add_column_if_missing('test_reports', 'asserts_failed', 'int(11) DEFAULT NULL');
+CALL add_column_if_missing('test_reports', 'is_deleted', 'tinyint(1) DEFAULT 0');
+
+CREATE TABLE IF NOT EXISTS `plan_runs` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `plan_id` int(11) NOT NULL,
+  `project_id` int(11) DEFAULT NULL,
+  `run_no` int(11) NOT NULL,
+  `status` varchar(20) NOT NULL DEFAULT 'queued',
+  `trigger_type` varchar(20) DEFAULT NULL,
+  `executed_by` varchar(100) DEFAULT NULL,
+  `total_cases` int(11) NOT NULL DEFAULT 0,
+  `passed_cases` int(11) NOT NULL DEFAULT 0,
+  `failed_cases` int(11) NOT NULL DEFAULT 0,
+  `asserts_total` int(11) NOT NULL DEFAULT 0,
+  `asserts_passed` int(11) NOT NULL DEFAULT 0,
+  `asserts_failed` int(11) NOT NULL DEFAULT 0,
+  `duration_ms` bigint(20) NOT NULL DEFAULT 0,
+  `first_report_id` int(11) DEFAULT NULL,
+  `executed_at` datetime DEFAULT NULL,
+  `is_deleted` tinyint(1) NOT NULL DEFAULT 0,
+  `started_at` datetime DEFAULT NULL,
+  `finished_at` datetime DEFAULT NULL,
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_plan_run` (`plan_id`, `run_no`),
+  KEY `idx_project_status` (`project_id`, `status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CALL add_column_if_missing('plan_runs', 'asserts_total', 'int(11) NOT NULL DEFAULT 0');
+CALL add_column_if_missing('plan_runs', 'asserts_passed', 'int(11) NOT NULL DEFAULT 0');
+CALL add_column_if_missing('plan_runs', 'asserts_failed', 'int(11) NOT NULL DEFAULT 0');
+CALL add_column_if_missing('plan_runs', 'duration_ms', 'bigint(20) NOT NULL DEFAULT 0');
+CALL add_column_if_missing('plan_runs', 'first_report_id', 'int(11) DEFAULT NULL');
+CALL add_column_if_missing('plan_runs', 'executed_at', 'datetime DEFAULT NULL');
+CALL add_column_if_missing('plan_runs', 'is_deleted', 'tinyint(1) NOT NULL DEFAULT 0');
+
+CREATE TABLE IF NOT EXISTS `report_daily_rollup` (
+  `project_id` int(11) NOT NULL DEFAULT 0,
+  `stat_date` date NOT NULL,
+  `case_type` varchar(20) NOT NULL DEFAULT '',
+  `total` bigint(20) NOT NULL DEFAULT 0,
+  `passed` bigint(20) NOT NULL DEFAULT 0,
+  `failed` bigint(20) NOT NULL DEFAULT 0,
+  `dur_count` bigint(20) NOT NULL DEFAULT 0,
+  `dur_sum` bigint(20) NOT NULL DEFAULT 0,
+  `dur_sumsq` double NOT NULL DEFAULT 0,
+  `dur_min` int(11) DEFAULT NULL,
+  `dur_max` int(11) DEFAULT NULL,
+  `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`project_id`, `stat_date`, `case_type`),
+  KEY `idx_stat_date` (`stat_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS `report_daily_cases` (
+  `project_id` int(11) NOT NULL DEFAULT 0,
+  `stat_date` date NOT NULL,
+  `case_id` int(11) NOT NULL,
+  PRIMARY KEY (`project_id`, `stat_date`, `case_id`),
+  KEY `idx_stat_date` (`stat_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Needs MySQL 5.7.6+ for the ngram parser (ngram_token_size defaults to 2, which suits Chinese)
+CREATE TABLE IF NOT EXISTS `report_search_docs` (
+  `report_id` int(11) NOT NULL,
+  `project_id` int(11) DEFAULT NULL,
+  `plan_id` int(11) DEFAULT NULL,
+  `plan_run_no` int(11) DEFAULT NULL,
+  `content` mediumtext,
+  PRIMARY KEY (`report_id`),
+  KEY `idx_project` (`project_id`),
+  FULLTEXT KEY `ft_content` (`content`) WITH PARSER ngram
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ---------------------------------------------------------------------------
+-- Seed data
+-- ---------------------------------------------------------------------------
+
+INSERT IGNORE INTO users (username, password, role) VALUES ('admin', '123456', 'admin');
+
+INSERT INTO projects (id, name, description, created_by)
+SELECT 1, '默认项目', '系统默认项目', 1
+WHERE NOT EXISTS (SELECT 1 FROM projects WHERE id = 1);
+
+INSERT INTO environments (name, key_name, base_url, database_name, active, project_id)
+SELECT '开发环境', 'dev', 'https://dev.example.com', 'dev_db', 0, 1
+WHERE NOT EXISTS (SELECT 1 FROM environments WHERE key_name = 'dev');
+INSERT INTO environments (name, key_name, base_url, database_name, active, project_id)
+SELECT '测试环境', 'staging', 'https://staging.example.com', 'staging_db', 1, 1
+WHERE NOT EXISTS (SELECT 1 FROM environments WHERE key_name = 'staging');
+INSERT INTO environments (name, key_name, base_url, database_name, active, project_id)
+SELECT '生产环境', 'production', 'https://api.example.com', 'prod_db', 0, 1
+WHERE NOT EXISTS (SELECT 1 FROM environments WHERE key_name = 'production');
+
+INSERT IGNORE INTO system_variables (key_name, value, description) VALUES
+('GLOBAL_BASE_URL', 'http://localhost:8080', 'Default Base URL'),
+('GLOBAL_TIMEOUT', '5000', 'Default Timeout (ms)');
+
+-- Rows written before projects existed belong to the default project
+UPDATE test_cases SET project_id = 1 WHERE project_id IS NULL;
+UPDATE test_plans SET project_id = 1 WHERE project_id IS NULL;
+UPDATE environments SET project_id = 1 WHERE project_id IS NULL;
+UPDATE test_reports SET project_id = 1 WHERE project_id IS NULL;
@@ -0,0 +1,82 @@
+-- Derived tables introduced after the platform went live are filled once from test_reports.
+-- On a fresh database every statement here matches no rows.
+
+-- Cases and plans created before ownership was recorded belong to the admin account
+UPDATE test_plans SET created_by = (SELECT id FROM users WHERE username = 'admin') WHERE created_by IS NULL;
+UPDATE test_cases SET created_by = (SELECT id FROM users WHERE username = 'admin') WHERE created_by IS NULL;
+
+-- One plan_runs row per historical run so numbering continues where test_reports left off
+INSERT IGNORE INTO plan_runs (plan_id, project_id, run_no, status, trigger_type, executed_by,
+                              total_cases, passed_cases, failed_cases, started_at, finished_at)
+SELECT plan_id,
+       MAX(project_id),
+       plan_run_no,
+       IF(SUM(status <> 'success') > 0, 'failed', 'success'),
+       MAX(trigger_type),
+       MAX(executed_by),
+       COUNT(*),
+       SUM(status = 'success'),
+       SUM(status <> 'success'),
+       MIN(executed_at),
+       MAX(executed_at)
+FROM test_reports
+WHERE plan_id IS NOT NULL AND plan_run_no IS NOT NULL AND plan_run_no > 0
+GROUP BY plan_id, plan_run_no;
+
+-- Summary columns of runs recorded before the executor maintained them
+UPDATE plan_runs pr
+JOIN (
+  SELECT plan_id, plan_run_no,
+         MIN(id) AS first_report_id,
+         MAX(executed_at) AS executed_at,
+         COALESCE(SUM(asserts_total), 0) AS asserts_total,
+         COALESCE(SUM(asserts_passed), 0) AS asserts_passed,
+         COALESCE(SUM(asserts_failed), 0) AS asserts_failed,
+         COALESCE(SUM(execution_time), 0) AS duration_ms,
+         MIN(is_deleted) AS is_deleted
+  FROM test_reports
+  WHERE plan_id IS NOT NULL AND plan_run_no IS NOT NULL
+  GROUP BY plan_id, plan_run_no
+) r ON r.plan_id = pr.plan_id AND r.plan_run_no = pr.run_no
+SET pr.first_report_id = r.first_report_id,
+    pr.executed_at = r.executed_at,
+    pr.asserts_total = r.asserts_total,
+    pr.asserts_passed = r.asserts_passed,
+    pr.asserts_failed = r.asserts_failed,
+    pr.duration_ms = r.duration_ms,
+    pr.is_deleted = r.is_deleted
+WHERE pr.first_report_id IS NULL;
+
+-- Dashboard rollups; the nightly reconcile keeps recent days exact afterwards
+DELETE FROM report_daily_rollup;
+DELETE FROM report_daily_cases;
+
+INSERT INTO report_daily_rollup (project_id, stat_date, case_type, total, passed, failed,
+                                 dur_count, dur_sum, dur_sumsq, dur_min, dur_max)
+SELECT COALESCE(r.project_id, 0),
+       DATE(r.executed_at),
+       UPPER(COALESCE(c.type, '')),
+       COUNT(*),
+       SUM(COALESCE(r.status, '') = 'success'),
+       SUM(COALESCE(r.status, '') <> 'success'),
+       COUNT(r.execution_time),
+       COALESCE(SUM(r.execution_time), 0),
+       COALESCE(SUM(r.execution_time * r.execution_time), 0),
+       MIN(r.execution_time),
+       MAX(r.execution_time)
+FROM test_reports r
+LEFT JOIN test_cases c ON c.id = r.case_id
+WHERE r.executed_at IS NOT NULL
+GROUP BY COALESCE(r.project_id, 0), DATE(r.executed_at), UPPER(COALESCE(c.type, ''));
+
+INSERT IGNORE INTO report_daily_cases (project_id, stat_date, case_id)
+SELECT DISTINCT COALESCE(project_id, 0), DATE(executed_at), case_id
+FROM test_reports
+WHERE case_id IS NOT NULL AND executed_at IS NOT NULL;
+
+-- Search documents of reports that still keep their logs inline; the rest are indexed by
+-- POST /api/reports/search-index/rebuild
+INSERT IGNORE INTO report_search_docs (report_id, project_id, plan_id, plan_run_no, content)
+SELECT id, project_id, plan_id, plan_run_no, LEFT(logs, 16384)
+FROM test_reports
+WHERE logs IS NOT NULL AND logs <> '';
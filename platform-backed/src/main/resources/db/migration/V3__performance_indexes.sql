@@ -0,0 +1,37 @@
+-- Secondary indexes matched to the filters and sort orders the mappers actually issue.
+-- QueryPlanRegressionTest EXPLAINs the mapper statements against them and checks the chosen index.
+
+-- test_reports
+-- dashboard recent outcomes / recent reports: WHERE project_id = ? ORDER BY executed_at DESC
+CALL add_index_if_missing('test_reports', 'idx_project_executed', 'project_id, executed_at');
+-- unified listing, single-case branch: WHERE project_id = ? AND plan_id IS NULL AND is_deleted = 0 ORDER BY executed_at DESC
+CALL add_index_if_missing('test_reports', 'idx_project_single_listing', 'project_id, is_deleted, plan_id, executed_at');
+-- reports of one plan run, latest report of a plan
+CALL add_index_if_missing('test_reports', 'idx_plan_run', 'plan_id, plan_run_no');
+-- latest report of a case, optionally only those outside plans: ORDER BY id DESC LIMIT 1
+CALL add_index_if_missing('test_reports', 'idx_case_plan', 'case_id, plan_id, id');
+
+-- plan_runs: unified listing, plan branch
+CALL add_index_if_missing('plan_runs', 'idx_project_listing', 'project_id, is_deleted, executed_at');
+
+-- test_cases: dashboard pass/fail counts and recently failed cases, keyset paging of case lists
+CALL add_index_if_missing('test_cases', 'idx_project_last_result', 'project_id, last_result, last_run');
+CALL add_index_if_missing('test_cases', 'idx_project_updated', 'project_id, updated_at, id');
+CALL add_index_if_missing('test_cases', 'idx_project_created', 'project_id, created_at, id');
+
+-- test_plans: dashboard recently failed plans
+CALL add_index_if_missing('test_plans', 'idx_project_last_status', 'project_id, last_run_status, last_run_time');
+
+-- membership lookups by user, done on every authenticated request
+CALL add_index_if_missing('project_members', 'idx_user', 'user_id');
+CALL add_index_if_missing('team_members', 'idx_user', 'user_id');
+
+CALL add_index_if_missing('environments', 'idx_project', 'project_id');
+
+-- keyword search of plan runs: (plan_id, plan_run_no) IN (SELECT ... FROM report_search_docs ...)
+CALL add_index_if_missing('report_search_docs', 'idx_plan_run', 'plan_id, plan_run_no');
+
+-- keyset paging of audit and login logs
+CALL add_index_if_missing('operation_logs', 'idx_created', 'created_at, id');
+CALL add_index_if_missing('operation_logs', 'idx_user_created', 'user_id, created_at, id');
+CALL add_index_if_missing('login_logs', 'idx_user_login_time', 'user_id, login_time, id');
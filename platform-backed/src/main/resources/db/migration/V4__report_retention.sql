@@ -0,0 +1,72 @@
+-- Retention of test reports: per-project policies, an index of exported archives and
+-- monthly range partitioning of test_reports so expired months are dropped, not deleted.
+
+CREATE TABLE IF NOT EXISTS `report_retention_policies` (
+  `project_id` int(11) NOT NULL,
+  `retain_days` int(11) NOT NULL COMMENT '0 keeps reports forever',
+  `updated_by` varchar(50) DEFAULT NULL,
+  `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`project_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS `report_archives` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `project_id` int(11) NOT NULL COMMENT '0 for reports without a project',
+  `period_start` datetime NOT NULL,
+  `period_end` datetime NOT NULL,
+  `archive_ref` varchar(255) NOT NULL,
+  `row_count` int(11) NOT NULL DEFAULT 0,
+  `min_report_id` int(11) DEFAULT NULL,
+  `max_report_id` int(11) DEFAULT NULL,
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_project_period` (`project_id`, `period_start`),
+  KEY `idx_report_range` (`min_report_id`, `max_report_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Every unique key of a partitioned table must contain the partitioning column, so the
+-- primary key becomes (id, executed_at); id stays auto-increment and unique on its own.
+-- Months older than three years share one partition, p_old.
+DROP PROCEDURE IF EXISTS partition_test_reports;
+
+DELIMITER $$
+
+CREATE PROCEDURE partition_test_reports()
+BEGIN
+  DECLARE floor_month DATE;
+  DECLARE first_month DATE;
+  DECLARE last_month DATE;
+  DECLARE m DATE;
+  DECLARE parts TEXT DEFAULT '';
+
+  IF NOT EXISTS (SELECT 1 FROM INFORMATION_SCHEMA.PARTITIONS
+                 WHERE table_schema = DATABASE() AND table_name = 'test_reports' AND partition_name IS NOT NULL) THEN
+    UPDATE test_reports SET executed_at = '1970-01-01 00:00:00' WHERE executed_at IS NULL;
+
+    SET floor_month = DATE_FORMAT(DATE_SUB(CURDATE(), INTERVAL 36 MONTH), '%Y-%m-01');
+    SET first_month = GREATEST(floor_month, DATE_FORMAT(COALESCE((SELECT MIN(executed_at) FROM test_reports), CURDATE()), '%Y-%m-01'));
+    SET last_month = DATE_FORMAT(DATE_ADD(CURDATE(), INTERVAL 2 MONTH), '%Y-%m-01');
+
+    SET parts = CONCAT('PARTITION p_old VALUES LESS THAN (''', DATE_FORMAT(first_month, '%Y-%m-%d'), '''), ');
+    SET m = first_month;
+    WHILE m <= last_month DO
+      SET parts = CONCAT(parts, 'PARTITION p', DATE_FORMAT(m, '%Y%m'),
+                         ' VALUES LESS THAN (''', DATE_FORMAT(DATE_ADD(m, INTERVAL 1 MONTH), '%Y-%m-%d'), '''), ');
+      SET m = DATE_ADD(m, INTERVAL 1 MONTH);
+    END WHILE;
+
+    SET @ddl = CONCAT('ALTER TABLE test_reports ',
+                      'MODIFY executed_at datetime NOT NULL DEFAULT CURRENT_TIMESTAMP, ',
+                      'DROP PRIMARY KEY, ADD PRIMARY KEY (id, executed_at) ',
+                      'PARTITION BY RANGE COLUMNS(executed_at) (', parts, 'PARTITION p_max VALUES LESS THAN (MAXVALUE))');
+    PREPARE stmt FROM @ddl;
+    EXECUTE stmt;
+    DEALLOCATE PREPARE stmt;
+  END IF;
+END $$
+
+DELIMITER ;
+
+CALL partition_test_reports();
+
+DROP PROCEDURE IF EXISTS partition_test_reports;
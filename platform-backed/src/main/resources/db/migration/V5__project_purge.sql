@@ -0,0 +1,19 @@
+-- Project purges run as resumable background jobs: one row per project records how far the
+-- purge got, so it continues from there after a pause or a restart.
+
+CREATE TABLE IF NOT EXISTS `project_purges` (
+  `project_id` int(11) NOT NULL,
+  `status` varchar(20) NOT NULL COMMENT 'queued, running, paused, finished, failed',
+  `step` int(11) NOT NULL DEFAULT 0 COMMENT 'index of the child table being purged',
+  `last_key` bigint(20) NOT NULL DEFAULT 0 COMMENT 'last key deleted in that table',
+  `deleted_rows` bigint(20) NOT NULL DEFAULT 0,
+  `requested_by` varchar(50) DEFAULT NULL,
+  `error` varchar(500) DEFAULT NULL,
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  `finished_at` datetime DEFAULT NULL,
+  PRIMARY KEY (`project_id`),
+  KEY `idx_status` (`status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CALL add_index_if_missing('permission_requests', 'idx_project', 'project_id');
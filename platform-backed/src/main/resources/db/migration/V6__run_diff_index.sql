@@ -0,0 +1,3 @@
+-- Comparing two plan runs reads case, status and duration of every report of both runs;
+-- this index carries all of them, so a diff of two 3,000-case runs never touches the rows.
+CALL add_index_if_missing('test_reports', 'idx_plan_run_outcome', 'plan_id, plan_run_no, case_id, status, execution_time');
@@ -0,0 +1,37 @@
+-- Rolling duration statistics per case, updated as reports are written, and the duration
+-- regressions detected from them.
+
+CREATE TABLE IF NOT EXISTS `case_duration_stats` (
+  `case_id` int(11) NOT NULL,
+  `project_id` int(11) DEFAULT NULL,
+  `samples` bigint(20) NOT NULL DEFAULT 0,
+  `baseline_mean` double NOT NULL DEFAULT 0 COMMENT 'slow EWMA of execution_time, ms',
+  `baseline_var` double NOT NULL DEFAULT 0,
+  `recent_mean` double NOT NULL DEFAULT 0 COMMENT 'fast EWMA of execution_time, ms',
+  `slow_streak` int(11) NOT NULL DEFAULT 0 COMMENT 'consecutive runs above the baseline p95',
+  `regressed` tinyint(1) NOT NULL DEFAULT 0,
+  `digest` blob COMMENT 't-digest of the baseline distribution',
+  `last_ms` int(11) DEFAULT NULL,
+  `updated_at` datetime DEFAULT NULL,
+  PRIMARY KEY (`case_id`),
+  KEY `idx_project` (`project_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS `duration_regressions` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `project_id` int(11) DEFAULT NULL,
+  `case_id` int(11) NOT NULL,
+  `report_id` int(11) DEFAULT NULL,
+  `plan_id` int(11) DEFAULT NULL,
+  `plan_run_no` int(11) DEFAULT NULL,
+  `duration_ms` int(11) NOT NULL,
+  `recent_mean` double NOT NULL,
+  `baseline_mean` double NOT NULL,
+  `baseline_p95` double DEFAULT NULL,
+  `z_score` double NOT NULL,
+  `detected_at` datetime NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_project_detected` (`project_id`, `detected_at`),
+  KEY `idx_plan_run` (`plan_id`, `plan_run_no`),
+  KEY `idx_case_detected` (`case_id`, `detected_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
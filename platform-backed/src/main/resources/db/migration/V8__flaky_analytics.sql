@@ -0,0 +1,31 @@
+-- Per-case flakiness statistics, folded from test_reports by an incremental scan whose
+-- position is kept in analytics_checkpoints.
+
+CREATE TABLE IF NOT EXISTS `case_flaky_stats` (
+  `case_id` int(11) NOT NULL,
+  `project_id` int(11) DEFAULT NULL,
+  `runs` bigint(20) NOT NULL DEFAULT 0,
+  `failures` bigint(20) NOT NULL DEFAULT 0,
+  `comparable_pairs` bigint(20) NOT NULL DEFAULT 0 COMMENT 'consecutive runs within the window',
+  `transitions` bigint(20) NOT NULL DEFAULT 0 COMMENT 'status changes between those runs',
+  `bounces` bigint(20) NOT NULL DEFAULT 0 COMMENT 'pass, fail, pass sequences within the window',
+  `fail_streak` int(11) NOT NULL DEFAULT 0,
+  `max_fail_streak` int(11) NOT NULL DEFAULT 0,
+  `last_status` varchar(20) DEFAULT NULL,
+  `prev_status` varchar(20) DEFAULT NULL,
+  `chain_in_window` tinyint(1) NOT NULL DEFAULT 0,
+  `last_executed_at` datetime DEFAULT NULL,
+  `last_report_id` int(11) DEFAULT NULL,
+  `flip_rate` double NOT NULL DEFAULT 0,
+  `flakiness` double NOT NULL DEFAULT 0 COMMENT 'exponentially weighted flip rate, 0..1',
+  `updated_at` datetime DEFAULT NULL,
+  PRIMARY KEY (`case_id`),
+  KEY `idx_project_flakiness` (`project_id`, `flakiness`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS `analytics_checkpoints` (
+  `name` varchar(50) NOT NULL,
+  `last_id` bigint(20) NOT NULL DEFAULT 0,
+  `updated_at` datetime DEFAULT NULL,
+  PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,29 @@
+-- Failed reports of a plan run grouped by log similarity (MinHash), filled as reports are written.
+
+CREATE TABLE IF NOT EXISTS `failure_clusters` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `project_id` int(11) DEFAULT NULL,
+  `plan_id` int(11) NOT NULL,
+  `plan_run_no` int(11) NOT NULL,
+  `representative_report_id` int(11) NOT NULL COMMENT 'first failure of the cluster',
+  `representative_case_id` int(11) DEFAULT NULL,
+  `size` int(11) NOT NULL DEFAULT 1,
+  `signature` varbinary(256) NOT NULL,
+  `sample` varchar(300) DEFAULT NULL COMMENT 'error line of the representative log',
+  `created_at` datetime NOT NULL,
+  `updated_at` datetime NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_plan_run` (`plan_id`, `plan_run_no`),
+  KEY `idx_project` (`project_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS `failure_cluster_members` (
+  `report_id` int(11) NOT NULL,
+  `cluster_id` bigint(20) NOT NULL,
+  `project_id` int(11) DEFAULT NULL,
+  `case_id` int(11) DEFAULT NULL,
+  `similarity` double NOT NULL,
+  PRIMARY KEY (`report_id`),
+  KEY `idx_cluster` (`cluster_id`),
+  KEY `idx_project` (`project_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -1,19 +0,0 @@
-USE automated_testing_platform;
-
-SET @dbname = DATABASE();
-SET @tablename = "user_api_keys";
-SET @columnname = "last_used_at";
-SET @preparedStatement = (SELECT IF(
-  (
-    SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS
-    WHERE
-      (table_name = @tablename)
-      AND (table_schema = @dbname)
-      AND (column_name = @columnname)
-  ) > 0,
-  "SELECT 1",
-  "ALTER TABLE user_api_keys ADD COLUMN last_used_at DATETIME DEFAULT NULL;"
-));
-PREPARE alterIfNotExists FROM @preparedStatement;
-EXECUTE alterIfNotExists;
-DEALLOCATE PREPARE alterIfNotExists;
@@ -1,104 +0,0 @@
-USE automated_testing_platform;
-
--- Create projects table
-CREATE TABLE IF NOT EXISTS `projects` (
-  `id` int(11) NOT NULL AUTO_INCREMENT,
-  `name` varchar(100) NOT NULL,
-  `description` varchar(500) DEFAULT NULL,
-  `created_by` int(11) NOT NULL,
-  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
-  `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-  PRIMARY KEY (`id`)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
-
--- Create project_members table
-CREATE TABLE IF NOT EXISTS `project_members` (
-  `id` int(11) NOT NULL AUTO_INCREMENT,
-  `project_id` int(11) NOT NULL,
-  `user_id` int(11) NOT NULL,
-  `role` varchar(50) NOT NULL DEFAULT 'member', -- admin, member, viewer
-  `joined_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
-  PRIMARY KEY (`id`),
-  UNIQUE KEY `uk_project_user` (`project_id`, `user_id`)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
-
--- Add project_id to test_cases if not exists
-SET @dbname = DATABASE();
-SET @tablename = "test_cases";
-SET @columnname = "project_id";
-SET @preparedStatement = (SELECT IF(
-  (
-    SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS
-    WHERE
-      (table_name = @tablename)
-      AND (table_schema = @dbname)
-      AND (column_name = @columnname)
-  ) > 0,
-  "SELECT 1",
-  "ALTER TABLE test_cases ADD COLUMN project_id INT(11) DEFAULT NULL;"
-));
-PREPARE alterIfNotExists FROM @preparedStatement;
-EXECUTE alterIfNotExists;
-DEALLOCATE PREPARE alterIfNotExists;
-
--- Add project_id to test_plans if not exists
-SET @tablename = "test_plans";
-SET @preparedStatement = (SELECT IF(
-  (
-    SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS
-    WHERE
-      (table_name = @tablename)
-      AND (table_schema = @dbname)
-      AND (column_name = @columnname)
-  ) > 0,
-  "SELECT 1",
-  "ALTER TABLE test_plans ADD COLUMN project_id INT(11) DEFAULT NULL;"
-));
-PREPARE alterIfNotExists FROM @preparedStatement;
-EXECUTE alterIfNotExists;
-DEALLOCATE PREPARE alterIfNotExists;
-
--- Add project_id to environments if not exists
-SET @tablename = "environments";
-SET @preparedStatement = (SELECT IF(
-  (
-    SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS
-    WHERE
-      (table_name = @tablename)
-      AND (table_schema = @dbname)
-      AND (column_name = @columnname)
-  ) > 0,
-  "SELECT 1",
-  "ALTER TABLE environments ADD COLUMN project_id INT(11) DEFAULT NULL;"
-));
-PREPARE alterIfNotExists FROM @preparedStatement;
-EXECUTE alterIfNotExists;
-DEALLOCATE PREPARE alterIfNotExists;
-
--- Add project_id to test_reports if not exists
-SET @tablename = "test_reports";
-SET @preparedStatement = (SELECT IF(
-  (
-    SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS
-    WHERE
-      (table_name = @tablename)
-      AND (table_schema = @dbname)
-      AND (column_name = @columnname)
-  ) > 0,
-  "SELECT 1",
-  "ALTER TABLE test_reports ADD COLUMN project_id INT(11) DEFAULT NULL;"
-));
-PREPARE alterIfNotExists FROM @preparedStatement;
-EXECUTE alterIfNotExists;
-DEALLOCATE PREPARE alterIfNotExists;
-
--- Insert default project if not exists
-INSERT INTO projects (name, description, created_by)
-SELECT '默认项目', '系统默认项目', 1
-WHERE NOT EXISTS (SELECT 1 FROM projects WHERE id = 1);
-
--- Assign existing data to default project (id=1) where project_id is null
-UPDATE test_cases SET project_id = 1 WHERE project_id IS NULL;
-UPDATE test_plans SET project_id = 1 WHERE project_id IS NULL;
-UPDATE environments SET project_id = 1 WHERE project_id IS NULL;
-UPDATE test_reports SET project_id = 1 WHERE project_id IS NULL;
@@ -0,0 +1,77 @@
+package com.automatedtest.platform.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FailureClusterIndexTest {
+
+    private static String timeout(int run, String endpoint) {
+        return "[2026-03-0" + (run % 9 + 1) + " 10:0" + run % 10 + ":00] POST http://10.0.0." + run + ":8080" + endpoint + "\n" +
+                "java.net.SocketTimeoutException: Read timed out after " + (1000 + run) + " ms\n" +
+                "    at com.example.client.HttpClient.execute(HttpClient.java:142)\n" +
+                "    at com.example.client.HttpClient.post(HttpClient.java:98)\n" +
+                "    at com.example.steps.ApiSteps.call(ApiSteps.java:33)";
+    }
+
+    private static String assertion(int run, String field) {
+        return "GET http://10.0.0." + run + ":8080/api/users/" + run + "\n" +
+                "Assertion failed: $.data." + field + " expected \"active\" but was \"locked\"\n" +
+                "Response body: {\"code\":0,\"data\":{\"id\":" + run + ",\"status\":\"locked\"}}";
+    }
+
+    /** Clusters the logs in order the way the service does and returns the number of clusters. */
+    private static int cluster(FailureClusterIndex<Integer> index, String... logs) {
+        int next = 0;
+        for (String log : logs) {
+            int[] signature = LogFingerprint.signature(log);
+            if (index.match(signature) == null) {
+                index.add(next++, signature);
+            }
+        }
+        return index.size();
+    }
+
+    @Test
+    void sameCauseJoinsOneCluster() {
+        FailureClusterIndex<Integer> index = new FailureClusterIndex<>(0.6);
+        int clusters = cluster(index,
+                timeout(1, "/api/orders"), timeout(2, "/api/orders"), timeout(3, "/api/orders"),
+                assertion(4, "status"), assertion(5, "status"), timeout(6, "/api/orders"));
+        assertEquals(2, clusters);
+    }
+
+    @Test
+    void matchReportsItsCluster() {
+        FailureClusterIndex<Integer> index = new FailureClusterIndex<>(0.6);
+        index.add(7, LogFingerprint.signature(timeout(1, "/api/orders")));
+        index.add(8, LogFingerprint.signature(assertion(1, "status")));
+
+        FailureClusterIndex.Match<Integer> match = index.match(LogFingerprint.signature(assertion(9, "status")));
+        assertNotNull(match);
+        assertEquals(8, match.getKey());
+        assertTrue(match.getSimilarity() >= 0.6);
+    }
+
+    @Test
+    void unrelatedFailureStartsItsOwnCluster() {
+        FailureClusterIndex<Integer> index = new FailureClusterIndex<>(0.6);
+        index.add(1, LogFingerprint.signature(timeout(1, "/api/orders")));
+        assertNull(index.match(LogFingerprint.signature(
+                "Element not found: #submit-button\nPage title: 登录\nScreenshot saved to /tmp/shots/run.png")));
+    }
+
+    @Test
+    void stricterThresholdSplitsLooselyRelatedFailures() {
+        String orders = timeout(1, "/api/orders");
+        String payments = timeout(2, "/api/payments/refunds");
+        double similarity = LogFingerprint.similarity(LogFingerprint.signature(orders), LogFingerprint.signature(payments));
+        assertTrue(similarity > 0.5 && similarity < 0.99, "similarity " + similarity);
+
+        assertEquals(1, cluster(new FailureClusterIndex<>(similarity - 0.01), orders, payments));
+        assertEquals(2, cluster(new FailureClusterIndex<>(Math.min(1.0, similarity + 0.01)), orders, payments));
+    }
+}
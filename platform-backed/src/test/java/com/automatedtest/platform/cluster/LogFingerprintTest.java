@@ -0,0 +1,63 @@
+package com.automatedtest.platform.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogFingerprintTest {
+
+    private static final String TIMEOUT =
+            "[2026-03-01 09:00:12.345] POST http://10.0.3.17:8080/api/orders request id 3f2b8c1e-0a4d-4c6e-9b1f-2d3e4f5a6b7c\n" +
+            "Step 3 failed: java.net.SocketTimeoutException: Read timed out after 5000 ms\n" +
+            "    at com.example.client.HttpClient.execute(HttpClient.java:142)\n" +
+            "    at com.example.steps.OrderSteps.create(OrderSteps.java:57)";
+
+    private static final String ASSERTION =
+            "[2026-03-01 09:00:14.002] GET http://10.0.3.17:8080/api/users/42\n" +
+            "断言失败: $.data.name expected \"alice\" but was \"bob\"\n" +
+            "Response body: {\"code\":0,\"data\":{\"id\":42,\"name\":\"bob\",\"roles\":[\"viewer\"]}}";
+
+    @Test
+    void variablePartsAreNormalised() {
+        String a = TIMEOUT;
+        String b = TIMEOUT.replace("2026-03-01 09:00:12.345", "2026-04-11 17:45:03.001")
+                .replace("10.0.3.17:8080", "10.0.9.201:9090")
+                .replace("3f2b8c1e-0a4d-4c6e-9b1f-2d3e4f5a6b7c", "a1b2c3d4-1111-2222-3333-444455556666")
+                .replace("5000 ms", "3000 ms")
+                .replace("142", "151");
+        assertEquals(LogFingerprint.tokens(a), LogFingerprint.tokens(b));
+        assertArrayEquals(LogFingerprint.signature(a), LogFingerprint.signature(b));
+        assertEquals(1.0, LogFingerprint.similarity(LogFingerprint.signature(a), LogFingerprint.signature(b)), 1e-9);
+    }
+
+    @Test
+    void differentFailuresAreDissimilar() {
+        double similarity = LogFingerprint.similarity(LogFingerprint.signature(TIMEOUT), LogFingerprint.signature(ASSERTION));
+        assertTrue(similarity < 0.3, "similarity " + similarity);
+    }
+
+    @Test
+    void signatureSurvivesStorage() {
+        int[] signature = LogFingerprint.signature(ASSERTION);
+        byte[] bytes = LogFingerprint.toBytes(signature);
+        assertEquals(LogFingerprint.HASHES * 4, bytes.length);
+        assertArrayEquals(signature, LogFingerprint.fromBytes(bytes));
+    }
+
+    @Test
+    void emptyLogsShareOneSignature() {
+        assertArrayEquals(LogFingerprint.signature(null), LogFingerprint.signature(""));
+        assertEquals(1.0, LogFingerprint.similarity(LogFingerprint.signature(null), LogFingerprint.signature("  \n")), 1e-9);
+    }
+
+    @Test
+    void sampleIsTheErrorLine() {
+        assertEquals("Step 3 failed: java.net.SocketTimeoutException: Read timed out after 5000 ms",
+                LogFingerprint.sample(TIMEOUT, 300));
+        assertEquals("断言失败: $.data.name", LogFingerprint.sample(ASSERTION, 17));
+        assertNull(LogFingerprint.sample("\n\n", 300));
+    }
+}
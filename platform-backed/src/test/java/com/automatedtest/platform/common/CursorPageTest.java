@@ -0,0 +1,75 @@
+package com.automatedtest.platform.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CursorPageTest {
+
+    private static final class Row {
+        final long id;
+        final LocalDateTime at;
+
+        Row(long id, LocalDateTime at) {
+            this.id = id;
+            this.at = at;
+        }
+    }
+
+    @Test
+    void cursorRoundTrips() {
+        LocalDateTime at = LocalDateTime.of(2024, 3, 1, 12, 30, 5, 123000000);
+
+        CursorPage.Cursor cursor = CursorPage.decode(CursorPage.encode(at, 42L));
+
+        assertEquals(at, cursor.getTime());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertNull(CursorPage.decode(null));
+        assertNull(CursorPage.decode(""));
+        assertNull(CursorPage.decode("  "));
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> CursorPage.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> CursorPage.decode(CursorPage.encode(LocalDateTime.now(), 1L).substring(3)));
+    }
+
+    @Test
+    void extraRowMeansMoreFollow() {
+        LocalDateTime t = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Row> rows = Arrays.asList(new Row(9, t), new Row(8, t), new Row(7, t.minusMinutes(1)));
+
+        CursorPage<Row> page = CursorPage.of(rows, 2, r -> r.at, r -> r.id);
+
+        assertEquals(2, page.getRecords().size());
+        assertTrue(page.isHasMore());
+        CursorPage.Cursor next = CursorPage.decode(page.getNextCursor());
+        assertEquals(t, next.getTime());
+        assertEquals(8L, next.getId());
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        List<Row> rows = Collections.singletonList(new Row(1, LocalDateTime.now()));
+
+        CursorPage<Row> page = CursorPage.of(rows, 2, r -> r.at, r -> r.id);
+
+        assertEquals(1, page.getRecords().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+}
@@ -0,0 +1,72 @@
+package com.automatedtest.platform.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunBatchesTest {
+
+    /** Runs submitted batches only when asked, so queued states can be inspected. */
+    private final List<Runnable> pending = new ArrayList<>();
+    private final Executor deferred = pending::add;
+    private final RunBatches batches = new RunBatches(deferred);
+
+    private void runPending() {
+        List<Runnable> tasks = new ArrayList<>(pending);
+        pending.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    @Test
+    void runWithNothingQueuedDoesNotWaitBehindOtherRuns() {
+        batches.submit(Collections.singletonList(RunBatches.runKey(1, 1)), () -> { });
+
+        assertTrue(batches.await(2, 1, 0));
+        assertTrue(batches.await(1, 2, 0));
+    }
+
+    @Test
+    void runWaitsForItsOwnLastBatch() {
+        batches.submit(Collections.singletonList(RunBatches.runKey(1, 1)), () -> { });
+        batches.submit(Arrays.asList(RunBatches.runKey(1, 1), RunBatches.runKey(2, 1)), () -> { });
+
+        assertFalse(batches.await(1, 1, 0));
+        assertFalse(batches.await(2, 1, 0));
+
+        runPending();
+
+        assertTrue(batches.await(1, 1, 0));
+        assertTrue(batches.await(2, 1, 0));
+    }
+
+    @Test
+    void failedBatchDoesNotKeepTheRunWaiting() {
+        batches.submit(Collections.singletonList(RunBatches.runKey(1, 1)), () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        runPending();
+
+        assertTrue(batches.await(1, 1, 0));
+    }
+
+    @Test
+    void rejectedBatchIsReportedToTheCaller() {
+        RunBatches closed = new RunBatches(task -> {
+            throw new RejectedExecutionException();
+        });
+
+        assertThrows(RejectedExecutionException.class,
+                () -> closed.submit(Collections.singletonList(RunBatches.runKey(1, 1)), () -> { }));
+        assertTrue(closed.await(1, 1, 0));
+    }
+}
@@ -0,0 +1,110 @@
+package com.automatedtest.platform.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TtlCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final TtlCache<String, Integer> cache = new TtlCache<>(100, now::get);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    /** Runs submitted loads only when asked, so in-flight states can be inspected. */
+    private final List<Runnable> pending = new ArrayList<>();
+    private final Executor deferred = pending::add;
+
+    private Integer load() {
+        return loads.incrementAndGet();
+    }
+
+    private void runPending() {
+        List<Runnable> tasks = new ArrayList<>(pending);
+        pending.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    @Test
+    void servesCachedValueUntilItExpires() {
+        assertEquals(1, cache.get("a", this::load, Runnable::run).join());
+        now.addAndGet(99);
+        assertEquals(1, cache.get("a", this::load, Runnable::run).join());
+        now.addAndGet(1);
+        assertEquals(2, cache.get("a", this::load, Runnable::run).join());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() {
+        CompletableFuture<Integer> first = cache.get("a", this::load, deferred);
+        CompletableFuture<Integer> second = cache.get("a", this::load, deferred);
+        assertSame(first, second);
+        assertEquals(1, pending.size());
+        assertFalse(first.isDone());
+        runPending();
+        assertEquals(1, second.join());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidatedKeysAreLoadedAgain() {
+        cache.get("a", this::load, Runnable::run).join();
+        cache.get("b", this::load, Runnable::run).join();
+        cache.invalidate("a"::equals);
+        assertEquals(3, cache.get("a", this::load, Runnable::run).join());
+        assertEquals(2, cache.get("b", this::load, Runnable::run).join());
+    }
+
+    @Test
+    void loadRunningDuringInvalidationIsNotServedLater() {
+        CompletableFuture<Integer> stale = cache.get("a", this::load, deferred);
+        cache.invalidateAll();
+        CompletableFuture<Integer> fresh = cache.get("a", this::load, deferred);
+        runPending();
+        assertEquals(1, stale.join());
+        assertEquals(2, fresh.join());
+        assertEquals(2, cache.get("a", this::load, Runnable::run).join());
+    }
+
+    @Test
+    void failedLoadIsNotKept() {
+        CompletableFuture<Integer> failed = cache.get("a", () -> {
+            throw new IllegalStateException("database down");
+        }, Runnable::run);
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.get("a", this::load, Runnable::run).join());
+    }
+
+    @Test
+    void rejectedLoadFailsWithoutPoisoningTheKey() {
+        CompletableFuture<Integer> rejected = cache.get("a", this::load, r -> {
+            throw new RejectedExecutionException("shutting down");
+        });
+        assertThrows(Exception.class, rejected::join);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void purgeDropsExpiredEntriesOnly() {
+        cache.get("a", this::load, Runnable::run).join();
+        now.addAndGet(60);
+        cache.get("b", this::load, Runnable::run).join();
+        now.addAndGet(50);
+        cache.purgeExpired();
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.get("b", this::load, Runnable::run).join());
+    }
+}
@@ -0,0 +1,99 @@
+package com.automatedtest.platform.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControllerTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void queuesBeyondProjectLimitAndStartsInOrder() throws Exception {
+        AdmissionController admission = new AdmissionController(1, 0, 0, 10, executor);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch allDone = new CountDownLatch(3);
+        List<String> started = new CopyOnWriteArrayList<>();
+
+        admission.submit(1, null, task("a", started, release, allDone));
+        AdmissionController.Ticket b = admission.submit(1, null, task("b", started, null, allDone));
+        AdmissionController.Ticket c = admission.submit(1, null, task("c", started, null, allDone));
+
+        assertEquals(AdmissionController.State.QUEUED, b.getState());
+        assertEquals(1, b.position());
+        assertEquals(2, c.position());
+
+        release.countDown();
+        assertTrue(allDone.await(2, TimeUnit.SECONDS));
+        assertEquals("[a, b, c]", started.toString());
+        assertEquals(0, admission.queued());
+    }
+
+    @Test
+    void saturatedProjectDoesNotBlockOtherProjects() throws Exception {
+        AdmissionController admission = new AdmissionController(1, 0, 0, 10, executor);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherDone = new CountDownLatch(1);
+        List<String> started = new CopyOnWriteArrayList<>();
+
+        admission.submit(1, null, task("p1-a", started, release, null));
+        AdmissionController.Ticket waiting = admission.submit(1, null, task("p1-b", started, null, null));
+        admission.submit(2, null, task("p2-a", started, null, otherDone));
+
+        assertTrue(otherDone.await(2, TimeUnit.SECONDS));
+        assertEquals(1, waiting.position());
+        release.countDown();
+    }
+
+    @Test
+    void teamLimitAppliesAcrossProjects() throws Exception {
+        AdmissionController admission = new AdmissionController(0, 1, 0, 10, executor);
+        CountDownLatch release = new CountDownLatch(1);
+        admission.submit(1, 7, task("a", new CopyOnWriteArrayList<>(), release, null));
+        AdmissionController.Ticket sameTeam = admission.submit(2, 7, () -> { });
+        assertEquals(AdmissionController.State.QUEUED, sameTeam.getState());
+        release.countDown();
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() {
+        AdmissionController admission = new AdmissionController(1, 0, 0, 1, executor);
+        CountDownLatch release = new CountDownLatch(1);
+        assertNotNull(admission.submit(1, null, task("a", new CopyOnWriteArrayList<>(), release, null)));
+        assertNotNull(admission.submit(1, null, () -> { }));
+        assertNull(admission.submit(1, null, () -> { }));
+        release.countDown();
+    }
+
+    private Runnable task(String name, List<String> started, CountDownLatch hold, CountDownLatch done) {
+        return () -> {
+            started.add(name);
+            try {
+                if (hold != null) {
+                    hold.await(2, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (done != null) {
+                done.countDown();
+            }
+        };
+    }
+}
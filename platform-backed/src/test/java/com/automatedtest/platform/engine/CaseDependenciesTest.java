@@ -0,0 +1,83 @@
+package com.automatedtest.platform.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CaseDependenciesTest {
+
+    @Test
+    void ordersByLevelThenPlanPosition() {
+        CaseDependencies deps = new CaseDependencies(Arrays.asList(2, 1, 3, 1),
+                none(4), none(4));
+
+        assertEquals(Arrays.asList(1, 3, 0, 2), deps.order());
+    }
+
+    @Test
+    void producerGoesBeforeHigherPriorityConsumer() {
+        // position 0: low-priority login extracting token; position 1: high-priority case requiring it
+        CaseDependencies deps = new CaseDependencies(Arrays.asList(CaseScheduler.LOW, CaseScheduler.HIGH, CaseScheduler.MEDIUM),
+                Arrays.asList(keys(), keys("token"), keys()),
+                Arrays.asList(keys("token"), keys(), keys()));
+
+        assertEquals(Arrays.asList(2, 0, 1), deps.order());
+        assertEquals(positions(0), deps.producersOf(1));
+        assertTrue(deps.producersOf(0).isEmpty());
+    }
+
+    @Test
+    void consumerWaitsForEveryProducerOfItsKeys() {
+        CaseDependencies deps = new CaseDependencies(Arrays.asList(1, 3, 3),
+                Arrays.asList(keys("token", "orderId"), keys(), keys()),
+                Arrays.asList(keys(), keys("token"), keys("orderId")));
+
+        assertEquals(Arrays.asList(1, 2, 0), deps.order());
+        assertEquals(positions(1, 2), deps.producersOf(0));
+    }
+
+    @Test
+    void cycleFallsBackToLevelOrder() {
+        CaseDependencies deps = new CaseDependencies(Arrays.asList(2, 1),
+                Arrays.asList(keys("b"), keys("a")),
+                Arrays.asList(keys("a"), keys("b")));
+
+        assertEquals(Arrays.asList(1, 0), deps.order());
+    }
+
+    @Test
+    void readsRequiresAndPlanScopeExtractsFromContent() {
+        String content = "{\"requires\":[\"token\",\" \",\"userId\"],\"extract\":["
+                + "{\"path\":\"$.data.id\",\"target\":\"orderId\",\"scope\":\"plan\"},"
+                + "{\"path\":\"$.data.t\",\"target\":\"t\",\"scope\":\"project\"},"
+                + "{\"path\":\"$.data.x\",\"target\":\"x\",\"scope\":\"plan\",\"active\":false}]}";
+
+        assertEquals(keys("token", "userId"), CaseDependencies.requires(content));
+        assertEquals(keys("orderId"), CaseDependencies.produces(content));
+        assertTrue(CaseDependencies.requires("not json").isEmpty());
+        assertTrue(CaseDependencies.produces(null).isEmpty());
+    }
+
+    private static List<Set<String>> none(int n) {
+        return Collections.nCopies(n, Collections.<String>emptySet());
+    }
+
+    private static Set<String> keys(String... keys) {
+        return new HashSet<>(Arrays.asList(keys));
+    }
+
+    private static Set<Integer> positions(int... positions) {
+        Set<Integer> set = new HashSet<>();
+        for (int p : positions) {
+            set.add(p);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,85 @@
+package com.automatedtest.platform.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CaseSchedulerTest {
+
+    private CaseScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void mapsPriorityAndSmokeToLevels() {
+        assertEquals(CaseScheduler.SMOKE, CaseScheduler.levelOf("low", true));
+        assertEquals(CaseScheduler.HIGH, CaseScheduler.levelOf("HIGH", false));
+        assertEquals(CaseScheduler.MEDIUM, CaseScheduler.levelOf(null, false));
+        assertEquals(CaseScheduler.LOW, CaseScheduler.levelOf("low", false));
+    }
+
+    @Test
+    void dispatchesHigherLevelsFirst() throws Exception {
+        scheduler = new CaseScheduler(1, 60_000);
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch gate = blockWorker();
+
+        CompletableFuture<?> low = scheduler.submit(CaseScheduler.LOW, record(order, "low"));
+        CompletableFuture<?> medium = scheduler.submit(CaseScheduler.MEDIUM, record(order, "medium"));
+        CompletableFuture<?> smoke = scheduler.submit(CaseScheduler.SMOKE, record(order, "smoke"));
+        CompletableFuture<?> high = scheduler.submit(CaseScheduler.HIGH, record(order, "high"));
+        gate.countDown();
+
+        CompletableFuture.allOf(low, medium, smoke, high).get(2, TimeUnit.SECONDS);
+        assertEquals("[smoke, high, medium, low]", order.toString());
+    }
+
+    @Test
+    void agedLowPriorityCaseOvertakesNewHighPriorityCase() throws Exception {
+        scheduler = new CaseScheduler(1, 5);
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch gate = blockWorker();
+
+        CompletableFuture<?> low = scheduler.submit(CaseScheduler.LOW, record(order, "low"));
+        Thread.sleep(50);
+        CompletableFuture<?> high = scheduler.submit(CaseScheduler.HIGH, record(order, "high"));
+        gate.countDown();
+
+        CompletableFuture.allOf(low, high).get(2, TimeUnit.SECONDS);
+        assertEquals("[low, high]", order.toString());
+    }
+
+    private CountDownLatch blockWorker() throws InterruptedException {
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch busy = new CountDownLatch(1);
+        scheduler.submit(CaseScheduler.SMOKE, () -> {
+            busy.countDown();
+            try {
+                gate.await(2, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+            return null;
+        });
+        busy.await(2, TimeUnit.SECONDS);
+        return gate;
+    }
+
+    private java.util.function.Supplier<String> record(List<String> order, String name) {
+        return () -> {
+            order.add(name);
+            return name;
+        };
+    }
+}
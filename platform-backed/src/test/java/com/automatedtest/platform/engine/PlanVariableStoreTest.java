@@ -0,0 +1,63 @@
+package com.automatedtest.platform.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlanVariableStoreTest {
+
+    @Test
+    void publishIsAtomicAndStampsVersions() {
+        PlanVariableStore store = new PlanVariableStore();
+        Map<String, String> first = new HashMap<>();
+        first.put("token", "t1");
+        first.put("userId", "42");
+        long v1 = store.publish(first);
+
+        Map<String, String> before = store.snapshot();
+        long v2 = store.publish(Collections.singletonMap("token", "t2"));
+
+        assertEquals(1L, v1);
+        assertEquals(2L, v2);
+        assertEquals("t1", before.get("token"));
+        assertEquals("t2", store.get("token"));
+        assertEquals(2L, store.version("token"));
+        assertEquals(1L, store.version("userId"));
+        assertEquals(0L, store.version("missing"));
+        assertNull(store.get("missing"));
+    }
+
+    @Test
+    void awaitReturnsOnceRequiredKeysArePublished() throws Exception {
+        PlanVariableStore store = new PlanVariableStore();
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return store.await(Collections.singletonList("token"), 5000);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        });
+        Thread.sleep(50);
+        assertFalse(waiter.isDone());
+
+        store.publish(Collections.singletonMap("token", "abc"));
+
+        assertTrue(waiter.get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void awaitTimesOutWhenKeyNeverArrives() throws Exception {
+        PlanVariableStore store = new PlanVariableStore();
+        assertFalse(store.await(Collections.singletonList("token"), 20));
+        assertTrue(store.await(Collections.<String>emptyList(), 0));
+    }
+}
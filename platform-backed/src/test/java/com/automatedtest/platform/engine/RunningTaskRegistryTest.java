@@ -0,0 +1,57 @@
+package com.automatedtest.platform.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunningTaskRegistryTest {
+
+    @Test
+    void filtersByProjectAndOwner() {
+        RunningTaskRegistry registry = new RunningTaskRegistry();
+        registry.planStarted(1L, 10, "nightly", 1, 7, 3);
+        registry.caseStarted(20, "login", 1, 8);
+        registry.caseStarted(21, "logout", 2, 7);
+
+        assertEquals(2, registry.list(1, null, 0).size());
+        List<RunningTaskRegistry.RunningTask> mine = registry.list(1, 7L, 0);
+        assertEquals(1, mine.size());
+        assertEquals(RunningTaskRegistry.TYPE_PLAN, mine.get(0).getType());
+        assertEquals(3, registry.list(null, null, 0).size());
+        assertEquals(1, registry.list(null, null, 1).size());
+    }
+
+    @Test
+    void tracksPlanProgressUntilFinished() {
+        RunningTaskRegistry registry = new RunningTaskRegistry();
+        registry.planStarted(5L, 10, "nightly", 1, 7, 2);
+        registry.planCaseFinished(5L, 100);
+        registry.planCaseFinished(5L, null);
+
+        RunningTaskRegistry.RunningTask task = registry.list(1, null, 0).get(0);
+        assertEquals(2, task.getDone());
+        assertEquals(Integer.valueOf(100), task.getReportId());
+
+        registry.planFinished(5L);
+        assertTrue(registry.list(null, null, 0).isEmpty());
+    }
+
+    @Test
+    void notifiesListenersOnEveryChange() {
+        RunningTaskRegistry registry = new RunningTaskRegistry();
+        AtomicInteger calls = new AtomicInteger();
+        registry.addListener(calls::incrementAndGet);
+
+        String key = registry.caseStarted(20, "login", 1, 8);
+        registry.caseFinished(key);
+        registry.caseFinished(key);
+
+        assertEquals(2, calls.get());
+        assertEquals(2, registry.version());
+        assertEquals(0, registry.size());
+    }
+}
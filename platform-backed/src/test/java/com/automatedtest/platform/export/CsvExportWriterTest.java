@@ -0,0 +1,46 @@
+package com.automatedtest.platform.export;
+
+import com.automatedtest.platform.entity.TestReport;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvExportWriterTest {
+
+    @Test
+    void escapesOnlyWhenNeeded() {
+        assertEquals("", CsvExportWriter.escape(null));
+        assertEquals("42", CsvExportWriter.escape(42));
+        assertEquals("plain", CsvExportWriter.escape("plain"));
+        assertEquals("\"a,b\"", CsvExportWriter.escape("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", CsvExportWriter.escape("say \"hi\""));
+        assertEquals("\"line1\nline2\"", CsvExportWriter.escape("line1\nline2"));
+    }
+
+    @Test
+    void writesBomHeaderAndRows() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvExportWriter writer = new CsvExportWriter(out);
+        writer.begin(new ExportSummary("s", 1, 0, 0, 0, null));
+        TestReport report = new TestReport();
+        report.setId(7);
+        report.setPlanId(2);
+        report.setPlanName("回归");
+        report.setCaseName("登录, 成功");
+        report.setStatus("success");
+        report.setExecutedAt(LocalDateTime.of(2026, 1, 2, 3, 4, 5));
+        writer.write(report, "ok");
+        writer.end();
+
+        String csv = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(csv.startsWith("\uFEFFreport_id,plan_id,plan_name,"));
+        String[] lines = csv.split("\r\n");
+        assertEquals(2, lines.length);
+        assertEquals("7,2,回归,,,\"登录, 成功\",,success,,2026-01-02T03:04:05,,,,,,ok", lines[1]);
+    }
+}
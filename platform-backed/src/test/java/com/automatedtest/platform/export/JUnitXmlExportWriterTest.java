@@ -0,0 +1,94 @@
+package com.automatedtest.platform.export;
+
+import com.automatedtest.platform.entity.TestReport;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class JUnitXmlExportWriterTest {
+
+    @Test
+    void writesSuiteWithFailureAndSkipped() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JUnitXmlExportWriter writer = new JUnitXmlExportWriter(out);
+        writer.begin(new ExportSummary("回归 #3", 3, 1, 1, 4500, LocalDateTime.of(2026, 1, 2, 3, 4, 5)));
+        writer.write(report(1, "登录", "success", null), "ok");
+        writer.write(report(2, "下单", "failed", 2), "expected 200 but was 500");
+        writer.write(report(3, null, "running", null), null);
+        writer.end();
+
+        Document doc = parse(out.toByteArray());
+        Element suite = (Element) doc.getElementsByTagName("testsuite").item(0);
+        assertEquals("回归 #3", suite.getAttribute("name"));
+        assertEquals("3", suite.getAttribute("tests"));
+        assertEquals("1", suite.getAttribute("failures"));
+        assertEquals("4.500", suite.getAttribute("time"));
+        assertEquals("2026-01-02T03:04:05", suite.getAttribute("timestamp"));
+
+        NodeList cases = doc.getElementsByTagName("testcase");
+        assertEquals(3, cases.getLength());
+        Element first = (Element) cases.item(0);
+        assertEquals("登录", first.getAttribute("name"));
+        assertEquals("回归.api", first.getAttribute("classname"));
+        assertEquals("ok", first.getElementsByTagName("system-out").item(0).getTextContent());
+
+        Element failure = (Element) ((Element) cases.item(1)).getElementsByTagName("failure").item(0);
+        assertEquals("2 of 3 assertions failed", failure.getAttribute("message"));
+        assertEquals("expected 200 but was 500", failure.getTextContent());
+
+        Element third = (Element) cases.item(2);
+        assertEquals("case-3", third.getAttribute("name"));
+        assertEquals(1, third.getElementsByTagName("skipped").getLength());
+    }
+
+    @Test
+    void dropsCharactersXmlCannotCarry() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JUnitXmlExportWriter writer = new JUnitXmlExportWriter(out);
+        writer.begin(new ExportSummary("s", 1, 1, 0, 0, null));
+        writer.write(report(1, "bad\u0001name", "failed", null), "body\u0000\u001b[31m<&>");
+        writer.end();
+
+        Document doc = parse(out.toByteArray());
+        Element testcase = (Element) doc.getElementsByTagName("testcase").item(0);
+        assertEquals("badname", testcase.getAttribute("name"));
+        assertEquals("body[31m<&>", testcase.getElementsByTagName("failure").item(0).getTextContent());
+        assertEquals("case failed", ((Element) testcase.getElementsByTagName("failure").item(0)).getAttribute("message"));
+        assertFalse(JUnitXmlExportWriter.clean("a\u0002b").contains("\u0002"));
+    }
+
+    @Test
+    void classNameFallsBackForSingleRuns() {
+        TestReport report = new TestReport();
+        assertEquals("single", JUnitXmlExportWriter.className(report));
+        report.setCaseType("web");
+        assertEquals("single.web", JUnitXmlExportWriter.className(report));
+    }
+
+    private static TestReport report(int id, String caseName, String status, Integer assertsFailed) {
+        TestReport report = new TestReport();
+        report.setId(id);
+        report.setCaseId(id);
+        report.setCaseName(caseName);
+        report.setCaseType("api");
+        report.setPlanName("回归");
+        report.setStatus(status);
+        report.setExecutionTime(1500);
+        report.setAssertsTotal(3);
+        report.setAssertsFailed(assertsFailed);
+        return report;
+    }
+
+    private static Document parse(byte[] xml) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+    }
+}
@@ -0,0 +1,179 @@
+package com.automatedtest.platform.mapper;
+
+import com.automatedtest.platform.common.CursorPage;
+import com.automatedtest.platform.dto.ReportExportQuery;
+import com.automatedtest.platform.entity.LoginLog;
+import com.automatedtest.platform.entity.OperationLog;
+import com.automatedtest.platform.entity.TeamMember;
+import com.automatedtest.platform.entity.TestCase;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * EXPLAINs the statements the mappers actually issue against a migrated database and checks
+ * that MySQL picks the index added for each, so a changed query or a dropped index shows up
+ * here instead of as a slow page in production. The SQL comes from the mapped statements
+ * themselves, bound with the same parameters the services pass; queries built from a
+ * wrapper go through the mapper's generated selectList.
+ *
+ * Needs a MySQL schema migrated by the application and holding some rows, since the
+ * optimizer may skip indexes on empty tables, e.g.
+ * mvn test -Dtest=QueryPlanRegressionTest -Dexplain.jdbc.url=jdbc:mysql://localhost:3306/automated_testing_platform
+ * (user and password default to the ones in application.yml).
+ */
+@EnabledIfSystemProperty(named = "explain.jdbc.url", matches = ".+")
+class QueryPlanRegressionTest {
+
+    private static final MybatisConfiguration CONFIGURATION = new MybatisConfiguration();
+
+    static {
+        CONFIGURATION.setMapUnderscoreToCamelCase(true);
+        for (Class<?> mapper : Arrays.asList(TestReportMapper.class, TestCaseMapper.class, TestPlanMapper.class,
+                OperationLogMapper.class, LoginLogMapper.class, DurationRegressionMapper.class, CaseFlakyStatMapper.class,
+                ReportRollupMapper.class, FailureClusterMapper.class, FailureClusterMemberMapper.class, TeamMemberMapper.class)) {
+            CONFIGURATION.addMapper(mapper);
+        }
+    }
+
+    /** A mapper statement with the arguments of one call to it. */
+    static final class Call {
+        final MappedStatement statement;
+        final Object parameter;
+
+        Call(MappedStatement statement, Object parameter) {
+            this.statement = statement;
+            this.parameter = parameter;
+        }
+
+        @Override
+        public String toString() {
+            return statement.getId();
+        }
+    }
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void connect() throws Exception {
+        connection = DriverManager.getConnection(System.getProperty("explain.jdbc.url"),
+                System.getProperty("explain.jdbc.user", "root"),
+                System.getProperty("explain.jdbc.password", "123456"));
+    }
+
+    @AfterAll
+    static void close() throws Exception {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    static Stream<Arguments> queries() {
+        ReportExportQuery runExport = new ReportExportQuery();
+        runExport.setProjectId(1);
+        runExport.setPlanId(1);
+        runExport.setRunNo(3);
+        return Stream.of(
+                Arguments.of("recent outcomes of a project", "test_reports", "idx_project_executed",
+                        call(TestReportMapper.class, "countRecentOutcomes", 1, 100)),
+                Arguments.of("unified listing, single-case branch", "r", "idx_project_single_listing",
+                        call(TestReportMapper.class, "selectUnifiedReports", new Page<>(1, 20), 1, null, null, null, null, null, null, 20L)),
+                Arguments.of("unified listing, plan branch", "pr", "idx_project_listing",
+                        call(TestReportMapper.class, "selectUnifiedReports", new Page<>(1, 20), 1, null, null, null, null, null, null, 20L)),
+                Arguments.of("reports of a plan run", "r", "idx_plan_run,idx_plan_run_outcome",
+                        call(TestReportMapper.class, "selectExportChunk", runExport, null, 0L, 500)),
+                Arguments.of("outcomes of a plan run for a run diff", "test_reports", "idx_plan_run_outcome",
+                        call(TestReportMapper.class, "selectRunOutcomes", 1, 3)),
+                Arguments.of("latest single report of a case", "test_reports", "idx_case_plan",
+                        call(TestReportMapper.class, "selectLatestId", null, 1, true)),
+                Arguments.of("dashboard failed cases", "test_cases", "idx_project_last_result",
+                        call(TestCaseMapper.class, "selectRecentFailed", 1, null, 5)),
+                Arguments.of("case list by update time", "test_cases", "idx_project_updated",
+                        call(TestCaseMapper.class, "selectList",
+                                CursorPage.seek(new QueryWrapper<TestCase>().eq("project_id", 1), "updated_at", null, 10))),
+                Arguments.of("dashboard failed plans", "test_plans", "idx_project_last_status",
+                        call(TestPlanMapper.class, "selectRecentFailed", 1, null, 5)),
+                Arguments.of("audit log of a user", "operation_logs", "idx_user_created",
+                        call(OperationLogMapper.class, "selectList",
+                                CursorPage.seek(new QueryWrapper<OperationLog>().eq("user_id", 1L), "created_at", null, 10))),
+                Arguments.of("login log of a user", "login_logs", "idx_user_login_time",
+                        call(LoginLogMapper.class, "selectList",
+                                CursorPage.seek(new QueryWrapper<LoginLog>().eq("user_id", 1L), "login_time", null, 10))),
+                Arguments.of("duration regressions of a plan run", "duration_regressions", "idx_plan_run",
+                        call(DurationRegressionMapper.class, "selectByRun", 1, 3)),
+                Arguments.of("flakiest cases of a project", "case_flaky_stats", "idx_project_flakiness",
+                        call(CaseFlakyStatMapper.class, "selectFlakiest", 1, 5, 50)),
+                Arguments.of("top failed cases of a project over 30 days", "report_daily_cases", "PRIMARY",
+                        call(ReportRollupMapper.class, "selectTopFailedCases", 1, LocalDate.now().minusDays(30), 5)),
+                Arguments.of("failure clusters of a plan run", "failure_clusters", "idx_plan_run",
+                        call(FailureClusterMapper.class, "selectByRun", 1, 3)),
+                Arguments.of("reports of a failure cluster", "failure_cluster_members", "idx_cluster",
+                        call(FailureClusterMemberMapper.class, "selectReports", 1L)),
+                Arguments.of("teams of a member", "team_members", "idx_user",
+                        call(TeamMemberMapper.class, "selectList", new QueryWrapper<TeamMember>().eq("user_id", 1))));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void queryUsesItsIndex(String description, String table, String indexes, Call call) throws Exception {
+        BoundSql boundSql = call.statement.getBoundSql(call.parameter);
+        List<String> allowed = Arrays.asList(indexes.split(","));
+        List<String> seen = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+            new DefaultParameterHandler(call.statement, call.parameter, boundSql).setParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (!table.equals(rs.getString("table"))) {
+                        continue;
+                    }
+                    String key = rs.getString("key");
+                    seen.add("possible_keys=" + rs.getString("possible_keys") + ", key=" + key + ", type=" + rs.getString("type"));
+                    if (allowed.contains(key)) {
+                        return;
+                    }
+                }
+            }
+        }
+        if (seen.isEmpty()) {
+            fail("No plan row for " + table + " in " + call + ": " + boundSql.getSql());
+        }
+        fail(description + " (" + call + ") does not use " + indexes + ": " + seen);
+    }
+
+    /**
+     * The statement behind mapper.method, with args named the way MyBatis names them for
+     * a call through the mapper proxy.
+     */
+    private static Call call(Class<?> mapper, String method, Object... args) {
+        for (Method m : mapper.getMethods()) {
+            if (m.getName().equals(method) && m.getParameterCount() == args.length) {
+                MappedStatement statement = CONFIGURATION.getMappedStatement(mapper.getName() + "." + method);
+                return new Call(statement, new ParamNameResolver(CONFIGURATION, m).getNamedParams(args));
+            }
+        }
+        throw new IllegalArgumentException("No " + mapper.getSimpleName() + "." + method + " taking " + args.length + " arguments");
+    }
+}
@@ -0,0 +1,123 @@
+package com.automatedtest.platform.service;
+
+import com.automatedtest.platform.entity.ReportArchive;
+import com.automatedtest.platform.entity.TestReport;
+import com.automatedtest.platform.mapper.ReportArchiveMapper;
+import com.automatedtest.platform.mapper.ReportRetentionMapper;
+import com.automatedtest.platform.mapper.TestReportMapper;
+import com.automatedtest.platform.service.impl.ReportArchiveServiceImpl;
+import com.automatedtest.platform.service.impl.ReportLogServiceImpl;
+import com.automatedtest.platform.storage.LocalLogBlobStore;
+import com.automatedtest.platform.storage.LocalReportArchiveStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReportArchiveLogsTest {
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private ReportArchiveMapper reportArchiveMapper;
+
+    @Mock
+    private ReportRetentionMapper reportRetentionMapper;
+
+    @Mock
+    private TestReportMapper testReportMapper;
+
+    private LocalLogBlobStore logBlobStore;
+    private ReportLogServiceImpl reportLogService;
+    private ReportArchiveServiceImpl reportArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        logBlobStore = new LocalLogBlobStore(dir.resolve("logs").toString());
+
+        reportLogService = new ReportLogServiceImpl();
+        ReflectionTestUtils.setField(reportLogService, "logBlobStore", logBlobStore);
+        ReflectionTestUtils.setField(reportLogService, "testReportMapper", testReportMapper);
+        ReflectionTestUtils.setField(reportLogService, "storeEnabled", true);
+        ReflectionTestUtils.setField(reportLogService, "gcGraceMinutes", 60L);
+
+        reportArchiveService = new ReportArchiveServiceImpl();
+        ReflectionTestUtils.setField(reportArchiveService, "reportArchiveStore", new LocalReportArchiveStore(dir.resolve("archives").toString()));
+        ReflectionTestUtils.setField(reportArchiveService, "reportArchiveMapper", reportArchiveMapper);
+        ReflectionTestUtils.setField(reportArchiveService, "reportRetentionMapper", reportRetentionMapper);
+        ReflectionTestUtils.setField(reportArchiveService, "reportLogService", reportLogService);
+        ReflectionTestUtils.setField(reportArchiveService, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(reportArchiveService, "chunkSize", 100);
+    }
+
+    @Test
+    void archivedReportKeepsItsLogsAfterTheBlobIsCollected() throws Exception {
+        String logs = "POST /api/orders -> 500\n断言失败: status == 201";
+        TestReport report = new TestReport();
+        report.setId(42);
+        report.setProjectId(3);
+        report.setStatus("failed");
+        report.setExecutedAt(LocalDateTime.of(2026, 1, 15, 10, 0));
+        report.setLogs(logs);
+        reportLogService.externalize(report);
+        String ref = report.getLogsRef();
+        assertNotNull(ref);
+
+        LocalDateTime from = LocalDateTime.of(2026, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 2, 1, 0, 0);
+        when(reportRetentionMapper.selectChunk(eq(3), eq(from), eq(to), anyLong(), anyInt()))
+                .thenReturn(Collections.singletonList(report), Collections.emptyList());
+        reportArchiveService.export(3, from, to);
+        ArgumentCaptor<ReportArchive> archive = ArgumentCaptor.forClass(ReportArchive.class);
+        verify(reportArchiveMapper).insert(archive.capture());
+
+        // the retention run deletes the row, then collects the blobs nothing points to
+        ageBlobs(Instant.now().minus(1, ChronoUnit.DAYS));
+        when(testReportMapper.selectReferencedLogRefs(any())).thenReturn(Collections.emptyList());
+        assertEquals(1, reportLogService.collectGarbage());
+        assertFalse(logBlobStore.exists(ref));
+
+        when(reportArchiveMapper.selectList(any())).thenReturn(Collections.singletonList(archive.getValue()));
+        TestReport archived = reportArchiveService.findReport(42);
+        assertNotNull(archived);
+        try (InputStream in = reportLogService.open(archived)) {
+            assertEquals(logs, StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    private void ageBlobs(Instant time) throws Exception {
+        try (Stream<Path> files = Files.walk(dir.resolve("logs"))) {
+            for (Path p : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                Files.setLastModifiedTime(p, FileTime.from(time));
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.automatedtest.platform.service.impl;
+
+import com.automatedtest.platform.dto.ReportSummaryDTO;
+import com.automatedtest.platform.dto.RunDiffDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RunDiffServiceImplTest {
+
+    @Test
+    void classifiesCasesByOutcomeChange() {
+        Map<Integer, ReportSummaryDTO> base = RunDiffServiceImpl.byCase(Arrays.asList(
+                row(1, 1, "success", 100),
+                row(2, 2, "failed", 100),
+                row(3, 3, "failed", 100),
+                row(4, 4, "success", 100),
+                row(5, 5, "success", 100)));
+        Map<Integer, ReportSummaryDTO> target = RunDiffServiceImpl.byCase(Arrays.asList(
+                row(11, 1, "failed", 300),
+                row(12, 2, "success", 50),
+                row(13, 3, "failed", 100),
+                row(14, 4, "success", 120),
+                row(16, 6, "success", 10)));
+
+        RunDiffDTO diff = RunDiffServiceImpl.compare(base, target, 10);
+
+        assertEquals(1, diff.getNewlyFailing().size());
+        assertEquals(Integer.valueOf(1), diff.getNewlyFailing().get(0).getCaseId());
+        assertEquals(Integer.valueOf(200), diff.getNewlyFailing().get(0).getDeltaMs());
+        assertEquals(Integer.valueOf(2), diff.getNewlyPassing().get(0).getCaseId());
+        assertEquals(Integer.valueOf(3), diff.getStillFailing().get(0).getCaseId());
+        assertEquals(1, diff.getUnchanged());
+        assertEquals(Integer.valueOf(6), diff.getAdded().get(0).getCaseId());
+        assertNull(diff.getAdded().get(0).getDeltaMs());
+        assertEquals(Integer.valueOf(5), diff.getRemoved().get(0).getCaseId());
+        assertEquals(200 - 50 + 0 + 20, diff.getDurationDeltaMs());
+    }
+
+    @Test
+    void ranksDurationChangesWithinTop() {
+        Map<Integer, ReportSummaryDTO> base = RunDiffServiceImpl.byCase(Arrays.asList(
+                row(1, 1, "success", 100), row(2, 2, "success", 100), row(3, 3, "success", 100), row(4, 4, "success", 100)));
+        Map<Integer, ReportSummaryDTO> target = RunDiffServiceImpl.byCase(Arrays.asList(
+                row(11, 1, "success", 150), row(12, 2, "success", 400), row(13, 3, "success", 40), row(14, 4, "success", 100)));
+
+        RunDiffDTO diff = RunDiffServiceImpl.compare(base, target, 1);
+
+        assertEquals(1, diff.getSlowest().size());
+        assertEquals(Integer.valueOf(2), diff.getSlowest().get(0).getCaseId());
+        assertEquals(1, diff.getFastest().size());
+        assertEquals(Integer.valueOf(3), diff.getFastest().get(0).getCaseId());
+    }
+
+    @Test
+    void repeatedCaseCountsWithItsLastReport() {
+        Map<Integer, ReportSummaryDTO> outcomes = RunDiffServiceImpl.byCase(Arrays.asList(
+                row(5, 1, "success", 10), row(3, 1, "failed", 10)));
+        assertEquals("success", outcomes.get(1).getStatus());
+    }
+
+    private static ReportSummaryDTO row(int id, int caseId, String status, int ms) {
+        ReportSummaryDTO row = new ReportSummaryDTO();
+        row.setId(id);
+        row.setCaseId(caseId);
+        row.setStatus(status);
+        row.setExecutionTime(ms);
+        return row;
+    }
+}
@@ -0,0 +1,69 @@
+package com.automatedtest.platform.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DurationBaselineTest {
+
+    private static final DurationThresholds THRESHOLDS = new DurationThresholds(0.05, 0.3, 20, 3, 0.2, 50, 3, 500);
+
+    @Test
+    void noiseAloneIsNotARegression() {
+        Random random = new Random(7);
+        DurationBaseline baseline = new DurationBaseline(new TDigest(100));
+        for (int i = 0; i < 2000; i++) {
+            assertFalse(baseline.observe(200 + 20 * random.nextGaussian(), THRESHOLDS), "flagged at sample " + i);
+        }
+        assertEquals(200, baseline.getBaselineMean(), 10);
+        assertEquals(20, Math.sqrt(baseline.getBaselineVar()), 5);
+    }
+
+    @Test
+    void sustainedSlowdownIsFlaggedOnce() {
+        Random random = new Random(11);
+        DurationBaseline baseline = new DurationBaseline(new TDigest(100));
+        for (int i = 0; i < 100; i++) {
+            baseline.observe(200 + 20 * random.nextGaussian(), THRESHOLDS);
+        }
+        int onsets = 0;
+        int firstOnset = -1;
+        for (int i = 0; i < 30; i++) {
+            if (baseline.observe(400 + 20 * random.nextGaussian(), THRESHOLDS)) {
+                onsets++;
+                if (firstOnset < 0) {
+                    firstOnset = i;
+                }
+            }
+        }
+        assertEquals(1, onsets);
+        assertTrue(firstOnset < 5, "detected after " + firstOnset + " slow runs");
+        assertTrue(baseline.getLastBaselineMean() > 200);
+    }
+
+    @Test
+    void singleOutlierIsIgnored() {
+        DurationBaseline baseline = new DurationBaseline(new TDigest(100));
+        for (int i = 0; i < 100; i++) {
+            baseline.observe(100 + (i % 5), THRESHOLDS);
+        }
+        assertFalse(baseline.observe(400, THRESHOLDS));
+        assertFalse(baseline.observe(100, THRESHOLDS));
+        assertFalse(baseline.isRegressed());
+    }
+
+    @Test
+    void youngCasesAreNotJudged() {
+        DurationBaseline baseline = new DurationBaseline(new TDigest(100));
+        for (int i = 0; i < 10; i++) {
+            baseline.observe(100, THRESHOLDS);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertFalse(baseline.observe(1000, THRESHOLDS));
+        }
+    }
+}
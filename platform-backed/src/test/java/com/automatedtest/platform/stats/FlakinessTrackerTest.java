@@ -0,0 +1,75 @@
+package com.automatedtest.platform.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlakinessTrackerTest {
+
+    private static final Duration WINDOW = Duration.ofHours(24);
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 1, 9, 0);
+
+    @Test
+    void alternatingCaseIsFlaky() {
+        FlakinessTracker tracker = new FlakinessTracker();
+        for (int i = 0; i < 40; i++) {
+            tracker.observe(i % 2 == 0 ? "success" : "failed", T0.plusMinutes(10L * i), WINDOW, 0.1);
+        }
+        assertEquals(40, tracker.getRuns());
+        assertEquals(20, tracker.getFailures());
+        assertEquals(1.0, tracker.flipRate(), 1e-9);
+        assertEquals(19, tracker.getBounces());
+        assertEquals(1, tracker.getMaxFailStreak());
+        assertTrue(tracker.getFlakiness() > 0.9);
+    }
+
+    @Test
+    void brokenCaseIsNotFlaky() {
+        FlakinessTracker tracker = new FlakinessTracker();
+        for (int i = 0; i < 10; i++) {
+            tracker.observe("success", T0.plusMinutes(i), WINDOW, 0.1);
+        }
+        for (int i = 10; i < 30; i++) {
+            tracker.observe("failed", T0.plusMinutes(i), WINDOW, 0.1);
+        }
+        assertEquals(1, tracker.getTransitions());
+        assertEquals(0, tracker.getBounces());
+        assertEquals(20, tracker.getFailStreak());
+        assertEquals(20, tracker.getMaxFailStreak());
+        assertTrue(tracker.getFlakiness() < 0.02);
+    }
+
+    @Test
+    void changesAcrossTheWindowAreNotCounted() {
+        FlakinessTracker tracker = new FlakinessTracker();
+        tracker.observe("success", T0, WINDOW, 0.1);
+        tracker.observe("failed", T0.plusDays(3), WINDOW, 0.1);
+        tracker.observe("success", T0.plusDays(3).plusHours(1), WINDOW, 0.1);
+        assertEquals(1, tracker.getComparablePairs());
+        assertEquals(1, tracker.getTransitions());
+        // the fail came days after the pass before it, so pass-fail-pass is not a bounce
+        assertEquals(0, tracker.getBounces());
+    }
+
+    @Test
+    void otherStatusesAreIgnoredAndStateRoundTrips() {
+        FlakinessTracker tracker = new FlakinessTracker();
+        tracker.observe("success", T0, WINDOW, 0.1);
+        tracker.observe("running", T0.plusMinutes(1), WINDOW, 0.1);
+        tracker.observe("failed", T0.plusMinutes(2), WINDOW, 0.1);
+        assertEquals(2, tracker.getRuns());
+
+        FlakinessTracker copy = new FlakinessTracker(tracker.getRuns(), tracker.getFailures(), tracker.getComparablePairs(),
+                tracker.getTransitions(), tracker.getBounces(), tracker.getFailStreak(), tracker.getMaxFailStreak(),
+                tracker.getLastStatus(), tracker.getPrevStatus(), tracker.isChainInWindow(), tracker.getLastExecutedAt(),
+                tracker.getFlakiness());
+        tracker.observe("success", T0.plusMinutes(3), WINDOW, 0.1);
+        copy.observe("success", T0.plusMinutes(3), WINDOW, 0.1);
+        assertEquals(1, copy.getBounces());
+        assertEquals(tracker.getFlakiness(), copy.getFlakiness(), 1e-12);
+    }
+}
@@ -0,0 +1,66 @@
+package com.automatedtest.platform.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TDigestTest {
+
+    @Test
+    void quantilesOfUniformStream() {
+        TDigest digest = new TDigest(100);
+        for (int i = 1; i <= 10000; i++) {
+            digest.add(i);
+        }
+        assertEquals(5000, digest.quantile(0.5), 100);
+        assertEquals(9500, digest.quantile(0.95), 50);
+        assertEquals(9900, digest.quantile(0.99), 20);
+        assertTrue(digest.centroids() < 300);
+        assertEquals(10000, digest.totalWeight(), 1e-9);
+    }
+
+    @Test
+    void tailOfSkewedLatencies() {
+        Random random = new Random(42);
+        TDigest digest = new TDigest(100);
+        double[] values = new double[20000];
+        for (int i = 0; i < values.length; i++) {
+            // log-normal, the usual shape of request latency
+            values[i] = Math.exp(5 + 0.5 * random.nextGaussian());
+            digest.add(values[i]);
+        }
+        java.util.Arrays.sort(values);
+        double exactP99 = values[(int) (values.length * 0.99)];
+        assertEquals(exactP99, digest.quantile(0.99), exactP99 * 0.03);
+    }
+
+    @Test
+    void roundTripsThroughBytes() {
+        TDigest digest = new TDigest(100);
+        for (int i = 0; i < 1000; i++) {
+            digest.add(i % 97);
+        }
+        TDigest copy = TDigest.fromBytes(digest.toBytes(), 50);
+        assertEquals(digest.quantile(0.5), copy.quantile(0.5), 1e-9);
+        assertEquals(digest.quantile(0.99), copy.quantile(0.99), 1e-9);
+        assertEquals(digest.totalWeight(), copy.totalWeight(), 1e-9);
+    }
+
+    @Test
+    void decayKeepsShapeAndEmptyIsNaN() {
+        assertTrue(Double.isNaN(new TDigest(100).quantile(0.5)));
+        assertEquals(0, TDigest.fromBytes(null, 100).totalWeight(), 0);
+
+        TDigest digest = new TDigest(100);
+        for (int i = 1; i <= 1000; i++) {
+            digest.add(i);
+        }
+        double before = digest.quantile(0.9);
+        digest.decay(0.5);
+        assertEquals(500, digest.totalWeight(), 1e-9);
+        assertEquals(before, digest.quantile(0.9), 1e-9);
+    }
+}
@@ -0,0 +1,113 @@
+package com.automatedtest.platform.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalLogBlobStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsContent() throws Exception {
+        LocalLogBlobStore store = new LocalLogBlobStore(dir.toString());
+        byte[] content = "GET /api/users -> 200\n断言通过".getBytes(StandardCharsets.UTF_8);
+
+        String ref = store.put(content);
+
+        assertTrue(ref.startsWith("sha256:"));
+        assertTrue(store.exists(ref));
+        try (InputStream in = store.open(ref)) {
+            assertArrayEquals(content, readAll(in));
+        }
+    }
+
+    @Test
+    void storesIdenticalContentOnce() throws Exception {
+        LocalLogBlobStore store = new LocalLogBlobStore(dir.toString());
+        byte[] content = "same log".getBytes(StandardCharsets.UTF_8);
+
+        String first = store.put(content);
+        String second = store.put(content);
+
+        assertEquals(first, second);
+        try (Stream<Path> files = Files.walk(dir)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void rejectsMalformedReferences() {
+        LocalLogBlobStore store = new LocalLogBlobStore(dir.toString());
+
+        assertFalse(store.exists("sha256:../../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> store.open("md5:abc"));
+    }
+
+    @Test
+    void deletesOnlyBlobsUnusedSinceTheCutoff() throws Exception {
+        LocalLogBlobStore store = new LocalLogBlobStore(dir.toString());
+        String ref = store.put("old log".getBytes(StandardCharsets.UTF_8));
+        Instant now = Instant.now().plus(1, ChronoUnit.SECONDS);
+
+        assertEquals(Collections.singletonList(ref), listOlderThan(store, now));
+        assertFalse(store.delete(ref, Instant.now().minus(1, ChronoUnit.HOURS)));
+        assertTrue(store.exists(ref));
+
+        assertTrue(store.delete(ref, now));
+        assertFalse(store.exists(ref));
+        assertFalse(store.delete(ref, now));
+    }
+
+    @Test
+    void reusingContentRefreshesItsAge() throws Exception {
+        LocalLogBlobStore store = new LocalLogBlobStore(dir.toString());
+        byte[] content = "reused log".getBytes(StandardCharsets.UTF_8);
+        String ref = store.put(content);
+        Instant cutoff = Instant.now().minus(1, ChronoUnit.HOURS);
+        try (Stream<Path> files = Files.walk(dir)) {
+            Path blob = files.filter(Files::isRegularFile).findFirst().get();
+            Files.setLastModifiedTime(blob, FileTime.from(cutoff.minus(1, ChronoUnit.DAYS)));
+        }
+        assertEquals(Collections.singletonList(ref), listOlderThan(store, cutoff));
+
+        store.put(content);
+
+        assertTrue(listOlderThan(store, cutoff).isEmpty());
+        assertFalse(store.delete(ref, cutoff));
+    }
+
+    private static List<String> listOlderThan(LocalLogBlobStore store, Instant before) throws Exception {
+        List<String> refs = new ArrayList<>();
+        store.forEachOlderThan(before, refs::add);
+        return refs;
+    }
+
+    private static byte[] readAll(InputStream in) throws Exception {
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int n;
+        while ((n = in.read(buf)) > 0) {
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,89 @@
+package com.automatedtest.platform.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalReportArchiveStoreTest {
+
+    private static final String NAME = "project-1/2026-01-01_2026-02-01.jsonl.gz";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsCommittedArchive() throws Exception {
+        LocalReportArchiveStore store = new LocalReportArchiveStore(dir.toString());
+        byte[] content = "{\"id\":1}\n{\"id\":2,\"logs\":\"断言通过\"}\n".getBytes(StandardCharsets.UTF_8);
+
+        try (ReportArchiveStore.Output out = store.create(NAME)) {
+            out.write(content);
+            out.commit();
+        }
+
+        assertTrue(store.exists(NAME));
+        try (InputStream in = store.open(NAME)) {
+            assertArrayEquals(content, readAll(in));
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void discardsArchiveClosedWithoutCommit() throws Exception {
+        LocalReportArchiveStore store = new LocalReportArchiveStore(dir.toString());
+
+        try (ReportArchiveStore.Output out = store.create(NAME)) {
+            out.write("partial".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertFalse(store.exists(NAME));
+        try (Stream<Path> files = Files.walk(dir)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void deletesCommittedArchive() throws Exception {
+        LocalReportArchiveStore store = new LocalReportArchiveStore(dir.toString());
+        try (ReportArchiveStore.Output out = store.create(NAME)) {
+            out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            out.commit();
+        }
+
+        assertTrue(store.delete(NAME));
+        assertFalse(store.exists(NAME));
+        assertFalse(store.delete(NAME));
+    }
+
+    @Test
+    void rejectsNamesOutsideTheRoot() {
+        LocalReportArchiveStore store = new LocalReportArchiveStore(dir.toString());
+
+        assertFalse(store.exists("../outside.jsonl.gz"));
+        assertThrows(IllegalArgumentException.class, () -> store.create("project-1/../../x.gz"));
+        assertThrows(IllegalArgumentException.class, () -> store.open("/etc/passwd"));
+    }
+
+    private static byte[] readAll(InputStream in) throws Exception {
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int n;
+        while ((n = in.read(buf)) > 0) {
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
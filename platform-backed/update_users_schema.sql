@@ -1,2 +0,0 @@
-USE automated_testing_platform;
-ALTER TABLE users ADD COLUMN updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP;